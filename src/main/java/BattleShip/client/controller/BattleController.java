@@ -1,6 +1,7 @@
 package BattleShip.client.controller;
 
 import BattleShip.client.model.*;
+import BattleShip.client.utils.LoggerClient;
 import BattleShip.client.view.BattleScreen;
 import javax.swing.*;
 
@@ -27,8 +28,19 @@ public class BattleController {
      * @param playerName имя текущего игрока
      */
     public BattleController(NetworkController networkController, String playerName) {
+        this(networkController, playerName, RuleSet.CLASSIC);
+    }
+
+    /**
+     * Создаёт контроллер боя по заданным правилам партии.
+     *
+     * @param networkController сетевой контроллер
+     * @param playerName имя текущего игрока
+     * @param rules правила партии
+     */
+    public BattleController(NetworkController networkController, String playerName, RuleSet rules) {
         this.networkController = networkController;
-        this.model = new BattleState(playerName);
+        this.model = new BattleState(playerName, rules);
         this.view = null;
 
     }
@@ -45,6 +57,15 @@ public class BattleController {
         model.setOpponentName(name);
     }
 
+    /**
+     * Включает режим залпа.
+     *
+     * @param salvoSize сколько выстрелов игрок делает за ход
+     */
+    public void setSalvoSize(int salvoSize) {
+        model.setSalvoSize(salvoSize);
+    }
+
     /**
      * Устанавливает обработчик кнопки "Играть ещё".
      *
@@ -65,8 +86,8 @@ public class BattleController {
 
     /**
      * Преобразует координаты клетки с числовыми значениями в формат, используемый на игровом поле.
-     * @param x индекс колонки на игровом поле (0–9)
-     * @param y индекс строки на игровом поле (0–9)
+     * @param x индекс колонки на игровом поле (с 0)
+     * @param y индекс строки на игровом поле (с 0)
      * @return строковое представление координат в формате "БукваЧисло" (например, "А1")
      */
     private String convertToCoordinates(int x, int y) {
@@ -109,35 +130,118 @@ public class BattleController {
             return;
         }
 
-        model.getPlayerBoard().getShips().clear();
+        Board board = model.getPlayerBoard();
+        board.getShips().clear();
+        board.placeShips(FleetCodec.fromText(shipsData, board.getRules(), true));
+    }
+
+    /**
+     * Восстанавливает состояние боя из снимка, присланного сервером при переподключении.
+     * <p>
+     * Формат снимка: {@code соперник:YOUR_TURN|OPPONENT_TURN:флот:свои выстрелы:выстрелы соперника},
+     * где журналы выстрелов — по символу на клетку построчно:
+     * {@code .} — не стреляли, {@code o} — промах, {@code x} — попадание, {@code #} — потоплен.
+     *
+     * @param snapshot строка снимка
+     */
+    public void restoreFromSnapshot(String snapshot) {
+        String[] parts = snapshot.split(":", -1);
+        if (parts.length < 5) {
+            return;
+        }
+
+        model.setOpponentName(parts[0]);
+        model.setGameStarted(true);
+        model.setPlayerTurn(parts[1].equals("YOUR_TURN"));
+
+        setPlayerBoardFromPlacement(parts[2]);
+        applyShotLedger(model.getOpponentBoard(), parts[3]);
+        applyShotLedger(model.getPlayerBoard(), parts[4]);
+        model.restoreStats();
 
-        String[] ships = shipsData.split(";");
+        if (parts.length >= 7 && parts[5].equals("SALVO")) {
+            model.setSalvoSize(Integer.parseInt(parts[6]));
+        }
 
-        for (String shipStr : ships) {
-            shipStr = shipStr.trim();
+        model.addLog("Соединение восстановлено, игра продолжается");
+    }
 
-            if (shipStr.isEmpty()) {
+    /**
+     * Переносит журнал выстрелов из снимка на доску.
+     *
+     * @param board  доска, по которой стреляли
+     * @param ledger журнал выстрелов
+     */
+    private void applyShotLedger(Board board, String ledger) {
+        if (ledger.startsWith("~")) {
+            applySparseShotLedger(board, ledger.substring(1));
+            return;
+        }
+
+        int width = board.getWidth();
+        for (int i = 0; i < ledger.length() && i < width * board.getHeight(); i++) {
+            applyShotSymbol(board, i % width, i / width, ledger.charAt(i));
+        }
+    }
+
+    /**
+     * Применяет журнал большого поля — список выстрелов {@code x,y,символ;...}.
+     */
+    private void applySparseShotLedger(Board board, String ledger) {
+        for (String shot : ledger.split(";")) {
+            String[] parts = shot.split(",");
+            if (parts.length != 3 || parts[2].isEmpty()) {
                 continue;
             }
-
             try {
-                String[] parts = shipStr.split(",");
-                if (parts.length == 4) {
-                    int typeIndex = Integer.parseInt(parts[0]);
-                    int x = Integer.parseInt(parts[1]);
-                    int y = Integer.parseInt(parts[2]);
-                    int orientationInt = Integer.parseInt(parts[3]);
-
-                    ShipType type = ShipType.values()[typeIndex];
-                    Ship ship = new Ship(type);
-                    ship.setOrientation(orientationInt == 0 ? Ship.Orientation.HORIZONTAL : Ship.Orientation.VERTICAL);
-
-                    model.getPlayerBoard().placeShip(ship, x, y);
+                int x = Integer.parseInt(parts[0]);
+                int y = Integer.parseInt(parts[1]);
+                if (x >= 0 && x < board.getWidth() && y >= 0 && y < board.getHeight()) {
+                    applyShotSymbol(board, x, y, parts[2].charAt(0));
                 }
             }
-            catch (Exception e) {
-                System.err.println("Ошибка парсинга корабля: " + shipStr + ", ошибка: " + e.getMessage());
+            catch (NumberFormatException e) {
+                LoggerClient.info("Неверная запись журнала выстрелов: " + shot);
+            }
+        }
+    }
+
+    private static void applyShotSymbol(Board board, int x, int y, char symbol) {
+        switch (symbol) {
+            case 'o':
+                board.setState(x, y, Cell.State.MISS);
+                break;
+            case 'x':
+                board.setState(x, y, Cell.State.HIT);
+                break;
+            case '#':
+                board.setState(x, y, Cell.State.SHIP_SUNK);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Обрабатывает отключение или возвращение противника.
+     * Пока противник отключён, партия на сервере приостановлена.
+     *
+     * @param connected {@code true}, если противник переподключился
+     * @param data      для отключения — сколько секунд сервер ждёт противника
+     */
+    public void processOpponentConnection(boolean connected, String data) {
+        if (!connected) {
+            model.setPlayerTurn(false);
+        }
+
+        if (view != null) {
+            if (connected) {
+                view.addGameLog("Противник переподключился");
+            }
+            else {
+                view.addGameLog("Противник потерял соединение. Ожидание: " + data + " с");
             }
+            view.updateUI();
         }
     }
 
@@ -169,6 +273,8 @@ public class BattleController {
             return;
         }
 
+        model.recordShot(isPlayerShot, x, y, result);
+
         if (result.equals("HIT") || result.equals("SUNK")) {
             cell.setState(Cell.State.HIT);
 
@@ -214,6 +320,110 @@ public class BattleController {
 
     }
 
+    /**
+     * Обрабатывает результат залпа — все выстрелы применяются за одно обновление интерфейса.
+     *
+     * @param shooter   имя игрока, сделавшего залп
+     * @param nextTurn  имя игрока, который ходит следующим
+     * @param salvoSize сколько выстрелов будет у следующего игрока
+     * @param shots     выстрелы вида {@code x,y,РЕЗУЛЬТАТ;...}
+     */
+    public void processSalvoResult(String shooter, String nextTurn, int salvoSize, String shots) {
+        boolean isPlayerShot = shooter.equals(model.getPlayerName());
+        Board board = isPlayerShot ? model.getOpponentBoard() : model.getPlayerBoard();
+
+        int hits = 0;
+        int sunk = 0;
+        int total = 0;
+
+        for (String shot : shots.split(";")) {
+            String[] parts = shot.split(",");
+            if (parts.length != 3) {
+                continue;
+            }
+
+            int x = Integer.parseInt(parts[0]);
+            int y = Integer.parseInt(parts[1]);
+            Cell cell = board.getCell(x, y);
+            if (cell == null) {
+                continue;
+            }
+
+            total++;
+            model.recordShot(isPlayerShot, x, y, parts[2]);
+            switch (parts[2]) {
+                case "SUNK":
+                    cell.setState(Cell.State.SHIP_SUNK);
+                    hits++;
+                    sunk++;
+                    break;
+                case "HIT":
+                    cell.setState(Cell.State.HIT);
+                    hits++;
+                    break;
+                default:
+                    cell.setState(Cell.State.MISS);
+            }
+        }
+
+        String summary = String.format("выстрелов %d, попаданий %d, потоплено кораблей %d", total, hits, sunk);
+        model.addLog(isPlayerShot ? "Ваш залп: " + summary : "Залп противника: " + summary);
+
+        boolean myTurn = nextTurn.equals(model.getPlayerName());
+        model.getSalvoTargets().clear();
+        model.setPlayerTurn(myTurn);
+        if (myTurn) {
+            model.setSalvoSize(salvoSize);
+        }
+
+        if (view != null) {
+            view.updateUI();
+        }
+    }
+
+    /**
+     * Выбирает клетку для залпа. Когда выбрано столько клеток, сколько положено
+     * (или сколько осталось необстрелянных), залп отправляется на сервер.
+     *
+     * @param x координата X
+     * @param y координата Y
+     */
+    private void selectSalvoTarget(int x, int y) {
+        model.toggleSalvoTarget(x, y);
+
+        int unshot = model.getOpponentBoard().countStates(Cell.State.EMPTY, Cell.State.SHIP);
+
+        if (model.getSalvoTargets().size() >= Math.min(model.getSalvoSize(), unshot)) {
+            StringBuilder salvo = new StringBuilder("SALVO:");
+            for (int[] target : model.getSalvoTargets()) {
+                salvo.append(target[0]).append(',').append(target[1]).append(';');
+            }
+            networkController.sendMessage(salvo.toString());
+
+            model.setPlayerTurn(false);
+        }
+
+        if (view != null) {
+            view.updateUI();
+        }
+    }
+
+    /**
+     * Обрабатывает истечение времени хода.
+     *
+     * @param player имя игрока, у которого истекло время
+     */
+    public void processTurnTimeout(String player) {
+        if (view != null) {
+            if (player.equals(model.getPlayerName())) {
+                view.addGameLog("Время хода истекло!");
+            }
+            else {
+                view.addGameLog("У противника истекло время хода.");
+            }
+        }
+    }
+
     /**
      * Создаёт и возвращает экран боя.
      * <p>
@@ -231,6 +441,10 @@ public class BattleController {
 
                 @Override
                 public void onCellClicked(int x, int y) {
+                    if (model.isSalvo()) {
+                        selectSalvoTarget(x, y);
+                        return;
+                    }
                     networkController.sendMessage("SHOT:" + x + ":" + y);
                     if (view != null) {
                         view.addGameLog("Выстрел по координатам: " + convertToCoordinates(x, y));
@@ -1,11 +1,13 @@
 package BattleShip.client.controller;
 
+import BattleShip.client.model.RuleSet;
 import BattleShip.client.utils.LoggerClient;
 import BattleShip.client.view.MainScreen;
 import BattleShip.client.view.ShipPlacementScreen;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
 
 /**
  * Главный контроллер клиента.
@@ -35,6 +37,12 @@ public class GameController {
     /** Имя текущего пользователя */
     private String username;
 
+    /** Токен переподключения к идущей партии */
+    private volatile String resumeToken;
+
+    /** Идёт переподключение к партии после разрыва соединения */
+    private volatile boolean resuming = false;
+
     /**
      * Создаёт контроллер игры.
      *
@@ -56,6 +64,8 @@ public class GameController {
         this.connectionScreen = connectionScreen;
         this.shipPlacementScreen = shipPlacementScreen;
         this.mainScreen = mainScreen;
+
+        networkController.setConnectionLostHandler(this::handleConnectionLost);
     }
 
     public void setUsername(String username) {
@@ -102,6 +112,10 @@ public class GameController {
                 break;
 
             case "REGISTERED":
+                if (resuming && resumeToken != null) {
+                    networkController.sendMessage("RESUME:" + resumeToken);
+                    break;
+                }
                 SwingUtilities.invokeLater(() -> {
                     frame.setTitle("Морской бой - " + username);
                     cardLayout.show(mainPanel, "MENU");
@@ -115,6 +129,19 @@ public class GameController {
                 mainScreen.updateGameList(data);
                 break;
 
+            case "RULES":
+                RuleSet rules;
+                try {
+                    rules = RuleSet.parse(data);
+                }
+                catch (IllegalArgumentException e) {
+                    LoggerClient.info("Неверные правила от сервера: " + data);
+                    rules = RuleSet.CLASSIC;
+                }
+                RuleSet gameRules = rules;
+                SwingUtilities.invokeLater(() -> mainScreen.setRules(gameRules));
+                break;
+
             case "GAME_CREATED":
                 SwingUtilities.invokeLater(() -> {
                     JOptionPane.showMessageDialog(frame,
@@ -193,7 +220,9 @@ public class GameController {
                     if (startParts.length >= 2) {
                         String turnInfo = startParts[0];
                         String opponentName = startParts[1];
-                        mainScreen.showBattleScreen(opponentName, turnInfo.equals("YOUR_TURN"));
+                        int salvoSize = (startParts.length >= 4 && startParts[2].equals("SALVO"))
+                                ? Integer.parseInt(startParts[3]) : 0;
+                        mainScreen.showBattleScreen(opponentName, turnInfo.equals("YOUR_TURN"), salvoSize);
                     }
                 });
                 break;
@@ -212,6 +241,32 @@ public class GameController {
                 });
                 break;
 
+            case "RESUME_TOKEN":
+                resumeToken = data;
+                break;
+
+            case "RESUME_STATE":
+                resuming = false;
+                SwingUtilities.invokeLater(() -> mainScreen.showResumedBattleScreen(data));
+                break;
+
+            case "OPPONENT_DISCONNECTED":
+            case "OPPONENT_RECONNECTED":
+                SwingUtilities.invokeLater(() -> {
+                    if (battleController != null) {
+                        battleController.processOpponentConnection(command.equals("OPPONENT_RECONNECTED"), data);
+                    }
+                });
+                break;
+
+            case "TURN_TIMEOUT":
+                SwingUtilities.invokeLater(() -> {
+                    if (battleController != null) {
+                        battleController.processTurnTimeout(data);
+                    }
+                });
+                break;
+
             case "SHOT_RESULT":
                 SwingUtilities.invokeLater(() -> {
                     String[] shotParts = data.split(":");
@@ -229,7 +284,18 @@ public class GameController {
                 });
                 break;
 
+            case "SALVO_RESULT":
+                SwingUtilities.invokeLater(() -> {
+                    String[] salvoParts = data.split(":", -1);
+                    if (salvoParts.length >= 4 && battleController != null) {
+                        battleController.processSalvoResult(salvoParts[0], salvoParts[1],
+                                Integer.parseInt(salvoParts[2]), salvoParts[3]);
+                    }
+                });
+                break;
+
             case "GAME_OVER":
+                resumeToken = null;
                 SwingUtilities.invokeLater(() -> {
                     String[] msgParts = data.split(",");
                     String winner = msgParts[0];
@@ -265,6 +331,11 @@ public class GameController {
                 });
 
             case "ERROR":
+                if (resuming) {
+                    resuming = false;
+                    resumeToken = null;
+                    SwingUtilities.invokeLater(() -> cardLayout.show(mainPanel, "MENU"));
+                }
                 SwingUtilities.invokeLater(() -> {
                     JOptionPane.showMessageDialog(frame, data, "Ошибка", JOptionPane.ERROR_MESSAGE);
                 });
@@ -272,6 +343,46 @@ public class GameController {
         }
     }
 
+    /**
+     * Обрабатывает неожиданный разрыв соединения.
+     * Если идёт партия, несколько раз пытается переподключиться к серверу
+     * и продолжить её по токену переподключения.
+     */
+    private void handleConnectionLost() {
+        if (resumeToken == null) {
+            return;
+        }
+
+        resuming = true;
+        SwingUtilities.invokeLater(() -> {
+            if (battleController != null && battleController.getView() != null) {
+                battleController.getView().addGameLog("Соединение потеряно, переподключение...");
+            }
+        });
+
+        new Thread(() -> {
+            for (int attempt = 0; attempt < 10 && resuming; attempt++) {
+                try {
+                    Thread.sleep(2000);
+                    networkController.reconnect();
+                    return;
+                }
+                catch (IOException e) {
+                    LoggerClient.info("Не удалось переподключиться: " + e.getMessage());
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            resuming = false;
+            resumeToken = null;
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(frame,
+                    "Не удалось восстановить соединение с сервером",
+                    "Соединение потеряно", JOptionPane.ERROR_MESSAGE));
+        }).start();
+    }
+
     /**
      * Закрывает все открытые диалоговые окна JOptionPane.
      */
@@ -25,7 +25,17 @@ public class NetworkController {
     private Consumer<String> messageHandler;
 
     /** Флаг состояния подключения */
-    private boolean connected = false;
+    private volatile boolean connected = false;
+
+    private String serverAddress;
+    private int port;
+
+    /** Обработчик неожиданного разрыва соединения */
+    private Runnable connectionLostHandler;
+
+    public void setConnectionLostHandler(Runnable connectionLostHandler) {
+        this.connectionLostHandler = connectionLostHandler;
+    }
 
     /**
      * Устанавливает соединение с сервером и запускает поток приёма сообщений.
@@ -37,6 +47,8 @@ public class NetworkController {
      */
     public void connect(String serverAddress, int port, Consumer<String> messageHandler) throws IOException {
         this.messageHandler = messageHandler;
+        this.serverAddress = serverAddress;
+        this.port = port;
         socket = new Socket(serverAddress, port);
         out = new PrintWriter(socket.getOutputStream(), true);
         in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
@@ -45,9 +57,19 @@ public class NetworkController {
         new Thread(this::receiveMessages).start();
     }
 
+    /**
+     * Повторно подключается к тому же серверу с тем же обработчиком сообщений.
+     *
+     * @throws IOException если не удалось подключиться к серверу
+     */
+    public void reconnect() throws IOException {
+        connect(serverAddress, port, messageHandler);
+    }
+
     /**
      * Основной цикл приёма сообщений от сервера.
      * Работает в отдельном потоке до разрыва соединения.
+     * О неожиданном разрыве сообщается обработчику {@link #setConnectionLostHandler}.
      */
     private void receiveMessages() {
         try {
@@ -59,9 +81,14 @@ public class NetworkController {
             }
         }
         catch (IOException e) {
-            if (connected) {
-                connected = false;
-            }
+            // Разрыв соединения обрабатывается ниже
+        }
+
+        boolean lost = connected;
+        connected = false;
+
+        if (lost && connectionLostHandler != null) {
+            connectionLostHandler.run();
         }
     }
 
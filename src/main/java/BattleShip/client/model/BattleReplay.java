@@ -0,0 +1,117 @@
+package BattleShip.client.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запись боя для просмотра после партии.
+ * <p>
+ * Каждый выстрел добавляет кадр — неизменяемые версии обеих досок ({@link PersistentCells}),
+ * которые делят с предыдущим кадром всё, кроме пути к изменённой клетке. Поэтому кадр
+ * стоит O(log клеток), а переход к любому ходу — обращение к списку кадров за O(1),
+ * без повторного проигрывания выстрелов с начала.
+ */
+public final class BattleReplay {
+
+    /**
+     * Кадр записи: состояние обеих досок после очередного выстрела.
+     */
+    public static final class Frame {
+        private final PersistentCells player;
+        private final PersistentCells opponent;
+        private final boolean playerShot;
+        private final int x;
+        private final int y;
+        private final String result;
+
+        private Frame(PersistentCells player, PersistentCells opponent, boolean playerShot, int x, int y, String result) {
+            this.player = player;
+            this.opponent = opponent;
+            this.playerShot = playerShot;
+            this.x = x;
+            this.y = y;
+            this.result = result;
+        }
+
+        /**
+         * Состояние клетки доски в этом кадре.
+         *
+         * @param playerBoard {@code true} для доски игрока
+         * @param cell        индекс клетки {@code y * ширина + x}
+         * @return состояние клетки
+         */
+        public Cell.State getState(boolean playerBoard, int cell) {
+            return (playerBoard ? player : opponent).get(cell);
+        }
+
+        /** Стрелял ли игрок; для начального кадра — {@code false} */
+        public boolean isPlayerShot() {
+            return playerShot;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        /** Результат выстрела или {@code null} для начального кадра */
+        public String getResult() {
+            return result;
+        }
+    }
+
+    private final int width;
+    private final List<Frame> frames = new ArrayList<>();
+
+    /**
+     * Начинает запись с текущего состояния досок.
+     *
+     * @param playerBoard   доска игрока
+     * @param opponentBoard доска противника
+     */
+    public BattleReplay(Board playerBoard, Board opponentBoard) {
+        this.width = playerBoard.getWidth();
+        frames.add(new Frame(PersistentCells.of(playerBoard), PersistentCells.of(opponentBoard), false, -1, -1, null));
+    }
+
+    /**
+     * Добавляет кадр выстрела.
+     *
+     * @param playerShot {@code true}, если стрелял игрок (меняется доска противника)
+     * @param x          координата X
+     * @param y          координата Y
+     * @param result     "HIT", "SUNK" или "MISS"
+     */
+    public void record(boolean playerShot, int x, int y, String result) {
+        Frame last = frames.get(frames.size() - 1);
+        Cell.State state = result.equals("SUNK") ? Cell.State.SHIP_SUNK
+                : result.equals("HIT") ? Cell.State.HIT : Cell.State.MISS;
+        int cell = y * width + x;
+
+        frames.add(new Frame(playerShot ? last.player : last.player.with(cell, state),
+                playerShot ? last.opponent.with(cell, state) : last.opponent,
+                playerShot, x, y, result));
+    }
+
+    /**
+     * Число записанных выстрелов.
+     *
+     * @return номер последнего кадра
+     */
+    public int getLength() {
+        return frames.size() - 1;
+    }
+
+    /**
+     * Кадр после заданного числа выстрелов.
+     *
+     * @param turn число выстрелов от начала записи, от 0 до {@link #getLength()}
+     * @return кадр
+     */
+    public Frame frameAt(int turn) {
+        return frames.get(turn);
+    }
+}
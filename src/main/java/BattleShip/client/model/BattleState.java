@@ -8,8 +8,91 @@ import java.util.List;
  * <p>
  * Содержит доски игроков, информацию о текущем ходе, статус игры,
  * победителе и журнал событий (gameLog).
+ * <p>
+ * Статистика стрельбы обеих сторон ({@link ShotStats}) обновляется при каждом
+ * результате выстрела, поэтому число оставшихся кораблей, точность и серии
+ * читаются за O(1), без обхода досок. Выстрелы также записываются в {@link BattleReplay}
+ * для просмотра боя после партии.
  */
 public class BattleState {
+
+    /**
+     * Статистика стрельбы одной стороны: выстрелы, попадания, промахи,
+     * потопленные корабли и серии попаданий подряд.
+     */
+    public static final class ShotStats {
+        private int hits;
+        private int misses;
+        private int sunk;
+        private int streak;
+        private int bestStreak;
+
+        /**
+         * Учитывает результат выстрела.
+         *
+         * @param result "HIT", "SUNK" или "MISS"
+         */
+        void record(String result) {
+            if (result.equals("HIT") || result.equals("SUNK")) {
+                hits++;
+                if (result.equals("SUNK")) {
+                    sunk++;
+                }
+                bestStreak = Math.max(bestStreak, ++streak);
+            }
+            else {
+                misses++;
+                streak = 0;
+            }
+        }
+
+        /**
+         * Задаёт счётчики по восстановленной доске; серии после восстановления неизвестны.
+         */
+        void restore(int hits, int misses, int sunk) {
+            this.hits = hits;
+            this.misses = misses;
+            this.sunk = sunk;
+            this.streak = 0;
+            this.bestStreak = 0;
+        }
+
+        public int getShots() {
+            return hits + misses;
+        }
+
+        public int getHits() {
+            return hits;
+        }
+
+        public int getMisses() {
+            return misses;
+        }
+
+        public int getSunk() {
+            return sunk;
+        }
+
+        /** Текущая серия попаданий подряд */
+        public int getStreak() {
+            return streak;
+        }
+
+        public int getBestStreak() {
+            return bestStreak;
+        }
+
+        /**
+         * Точность стрельбы.
+         *
+         * @return доля попаданий в процентах, 0 — если выстрелов не было
+         */
+        public int getAccuracy() {
+            int shots = getShots();
+            return shots == 0 ? 0 : hits * 100 / shots;
+        }
+    }
+
     private Board playerBoard;
     private Board opponentBoard;
 
@@ -23,22 +106,47 @@ public class BattleState {
 
     private String winner;
 
-    private List<String> gameLog;
+    private final GameLog gameLog;
+
+    /** Выстрелов за ход в режиме залпа, 0 — обычная игра */
+    private int salvoSize;
+
+    /** Клетки поля противника, выбранные для текущего залпа */
+    private final List<int[]> salvoTargets = new ArrayList<>();
+
+    /** Стрельба игрока по полю противника */
+    private final ShotStats playerStats = new ShotStats();
+
+    /** Стрельба противника по полю игрока */
+    private final ShotStats opponentStats = new ShotStats();
+
+    /** Запись боя; начинается с состояния досок перед первым учтённым выстрелом */
+    private BattleReplay replay;
 
     /**
-     * Конструктор состояния боя.
+     * Конструктор состояния боя по классическим правилам.
      *
      * @param playerName имя игрока (если null, устанавливается "Игрок")
      */
     public BattleState(String playerName) {
+        this(playerName, RuleSet.CLASSIC);
+    }
+
+    /**
+     * Конструктор состояния боя.
+     *
+     * @param playerName имя игрока (если null, устанавливается "Игрок")
+     * @param rules      правила партии, по которым строятся обе доски
+     */
+    public BattleState(String playerName, RuleSet rules) {
         if (playerName == null) {
             playerName = "Игрок";
         }
 
         this.playerName = playerName;
-        this.playerBoard = new Board();
-        this.opponentBoard = new Board();
-        this.gameLog = new ArrayList<>();
+        this.playerBoard = new Board(rules);
+        this.opponentBoard = new Board(rules);
+        this.gameLog = new GameLog();
         this.gameStarted = false;
         this.gameOver = false;
         this.playerTurn = false;
@@ -96,73 +204,128 @@ public class BattleState {
         this.winner = winner;
     }
 
+    public boolean isSalvo() {
+        return salvoSize > 0;
+    }
+
+    public int getSalvoSize() {
+        return salvoSize;
+    }
+
+    public void setSalvoSize(int salvoSize) {
+        this.salvoSize = salvoSize;
+    }
+
+    public List<int[]> getSalvoTargets() {
+        return salvoTargets;
+    }
+
+    public boolean isSalvoTarget(int x, int y) {
+        for (int[] target : salvoTargets) {
+            if (target[0] == x && target[1] == y) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Добавляет клетку в текущий залп или убирает её, если она уже выбрана.
+     *
+     * @param x координата X
+     * @param y координата Y
+     */
+    public void toggleSalvoTarget(int x, int y) {
+        for (int i = 0; i < salvoTargets.size(); i++) {
+            int[] target = salvoTargets.get(i);
+            if (target[0] == x && target[1] == y) {
+                salvoTargets.remove(i);
+                return;
+            }
+        }
+        salvoTargets.add(new int[]{x, y});
+    }
+
     /**
      * Добавляет запись в журнал событий игры.
-     * Если количество записей превышает 50, удаляется самая старая.
+     * Если журнал заполнен, вытесняется самая старая запись.
      *
      * @param message сообщение для добавления
      */
     public void addLog(String message) {
         gameLog.add(message);
-        if (gameLog.size() > 50) {
-            gameLog.remove(0);
-        }
     }
 
-    public List<String> getGameLog() {
+    public GameLog getGameLog() {
         return gameLog;
     }
 
+    public ShotStats getPlayerStats() {
+        return playerStats;
+    }
+
+    public ShotStats getOpponentStats() {
+        return opponentStats;
+    }
+
     /**
-     * Считает количество оставшихся кораблей игрока.
+     * Учитывает результат выстрела в статистике стрелявшей стороны и в записи боя.
+     * Вызывается до изменения доски: первый выстрел снимает исходное состояние досок.
      *
-     * @return количество непотопленных кораблей игрока
+     * @param playerShot {@code true}, если стрелял игрок
+     * @param x          координата X
+     * @param y          координата Y
+     * @param result     "HIT", "SUNK" или "MISS"
      */
-    public int getPlayerShipsLeft() {
-        if (playerBoard == null) {
-            return 0;
-        }
+    public void recordShot(boolean playerShot, int x, int y, String result) {
+        (playerShot ? playerStats : opponentStats).record(result);
 
-        int shipsLeft = 0;
-        for (Ship ship : playerBoard.getShips()) {
-            boolean isDestroyed = true;
-            for (Cell cell : ship.getCells()) {
-                if (cell.getState() != Cell.State.HIT && cell.getState() != Cell.State.SHIP_SUNK) {
-                    isDestroyed = false;
-                    break;
-                }
-            }
-            if (!isDestroyed) {
-                shipsLeft++;
-            }
+        if (replay == null) {
+            replay = new BattleReplay(playerBoard, opponentBoard);
         }
-        return shipsLeft;
+        replay.record(playerShot, x, y, result);
     }
 
     /**
-     * Считает количество оставшихся кораблей противника.
-     * <p>
-     * Оценка делается по количеству попаданий по клеткам противника.
+     * Запись боя.
      *
-     * @return приблизительное количество оставшихся кораблей противника
+     * @return запись или {@code null}, если выстрелов ещё не было
      */
-    public int getOpponentShipsLeft() {
-        if (opponentBoard == null) {
-            return 10;
-        }
+    public BattleReplay getReplay() {
+        return replay;
+    }
 
-        int hitCells = 0;
-        for (int y = 0; y < Board.SIZE; y++) {
-            for (int x = 0; x < Board.SIZE; x++) {
-                Cell cell = opponentBoard.getCell(x, y);
-                if (cell.getState() == Cell.State.HIT || cell.getState() == Cell.State.SHIP_SUNK) {
-                    hitCells++;
-                }
-            }
-        }
+    /**
+     * Пересчитывает статистику по доскам после восстановления партии из снимка.
+     * Потопление отмечается одной клеткой — последним попаданием по кораблю,
+     * поэтому число потопленных кораблей равно числу таких клеток.
+     */
+    public void restoreStats() {
+        playerStats.restore(opponentBoard.countStates(Cell.State.HIT, Cell.State.SHIP_SUNK),
+                opponentBoard.countStates(Cell.State.MISS, Cell.State.MISS),
+                opponentBoard.countStates(Cell.State.SHIP_SUNK, Cell.State.SHIP_SUNK));
+        opponentStats.restore(playerBoard.countStates(Cell.State.HIT, Cell.State.SHIP_SUNK),
+                playerBoard.countStates(Cell.State.MISS, Cell.State.MISS),
+                playerBoard.countStates(Cell.State.SHIP_SUNK, Cell.State.SHIP_SUNK));
+    }
 
-        int totalShipCells = 20;
-        int remainingCells = totalShipCells - hitCells;
-        return Math.max(0, (int) Math.ceil(remainingCells / 2.0)); // Округляем вверх
+    /**
+     * Количество оставшихся кораблей игрока: флот по правилам партии
+     * без кораблей, потопленных противником.
+     *
+     * @return количество непотопленных кораблей игрока
+     */
+    public int getPlayerShipsLeft() {
+        return Math.max(0, playerBoard.getRules().getShipCount() - opponentStats.getSunk());
+    }
+
+    /**
+     * Количество оставшихся кораблей противника: флот по правилам партии
+     * без кораблей, потопленных игроком.
+     *
+     * @return количество непотопленных кораблей противника
+     */
+    public int getOpponentShipsLeft() {
+        return Math.max(0, opponentBoard.getRules().getShipCount() - playerStats.getSunk());
     }
 }
\ No newline at end of file
@@ -1,48 +1,211 @@
 package BattleShip.client.model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Класс, представляющий игровое поле (доску) для размещения кораблей.
  * <p>
- * Хранит клетки (Cell) и список всех кораблей (Ship) на доске.
+ * Хранит состояния клеток и список всех кораблей (Ship) на доске.
  * Обеспечивает логику проверки возможности размещения корабля, его установки,
  * удаления и работы с автоматическим размещением кораблей для компьютера.
+ * <p>
+ * Размеры поля и состав флота задаются правилами {@link RuleSet}. Состояние плотного поля — массив
+ * байтов (код {@link Cell.State} на клетку) и маска клеток с кораблями; объекты {@link Cell}
+ * создаются только по запросу как представления. Корабль знает свою начальную клетку,
+ * поэтому корабль в клетке находится по маске, без ссылок из клеток.
+ * Для классических правил проверка размещения идёт по таблицам {@link PlacementMasks}.
+ * <p>
+ * Разреженное поле ({@link RuleSet#isSparse()}) хранит только непустые клетки в {@link CellMap},
+ * а клетки кораблей — в отдельной карте с номером корабля, так что память пропорциональна
+ * кораблям и выстрелам. Число клеток в каждом состоянии поддерживается при каждой записи,
+ * поэтому {@link #countStates} не просматривает поле.
  */
 public class Board {
-    /** Размер доски (10x10) */
+    /** Размер классической доски (10x10) */
     public static final int SIZE = 10;
 
-    /** Сетка клеток */
-    private Cell[][] grid;
+    /** Правила партии */
+    private final RuleSet rules;
+
+    private final int width;
+    private final int height;
+
+    /** Состояния клеток плотного поля: код {@link Cell.State} по индексу {@code y * width + x} */
+    private final byte[] states;
+
+    /** Непустые клетки разреженного поля: код {@link Cell.State} по индексу клетки */
+    private final CellMap sparseStates;
+
+    /** Число клеток в каждом состоянии */
+    private final int[] stateCounts = new int[Cell.State.BY_CODE.length];
 
     /** Список кораблей на доске */
     private List<Ship> ships;
 
+    /** Маска клеток, занятых кораблями плотного поля (см. {@link RuleSet#newCellMask()}) */
+    private final long[] shipMask;
+
+    /** Клетки кораблей разреженного поля: номер корабля в {@link #ships}, начиная с 1 */
+    private final CellMap shipIndex;
+
     /**
-     * Создаёт пустое игровое поле и инициализирует клетки.
+     * Создаёт пустое игровое поле по классическим правилам.
      */
     public Board() {
-        grid = new Cell[SIZE][SIZE];
+        this(RuleSet.CLASSIC);
+    }
+
+    /**
+     * Создаёт пустое игровое поле по заданным правилам.
+     *
+     * @param rules правила партии
+     */
+    public Board(RuleSet rules) {
+        this.rules = rules;
+        this.width = rules.getWidth();
+        this.height = rules.getHeight();
+        if (rules.isSparse()) {
+            this.states = null;
+            this.shipMask = null;
+            this.sparseStates = new CellMap();
+            this.shipIndex = new CellMap(rules.getShipCells());
+        }
+        else {
+            this.states = new byte[width * height];
+            this.shipMask = rules.newCellMask();
+            this.sparseStates = null;
+            this.shipIndex = null;
+        }
+        stateCounts[Cell.State.EMPTY.ordinal()] = width * height;
         ships = new ArrayList<>();
-        initializeGrid();
+    }
+
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Представление клетки поля.
+     *
+     * @param x координата X
+     * @param y координата Y
+     * @return новая клетка-представление или {@code null}, если координаты вне поля
+     */
+    public Cell getCell(int x, int y) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            return new Cell(this, x, y);
+        }
+        return null;
     }
 
     /**
-     * Инициализирует все клетки поля пустыми клетками.
+     * Состояние клетки без создания представления.
+     *
+     * @param x координата X
+     * @param y координата Y
+     * @return состояние клетки
      */
-    private void initializeGrid() {
-        for (int y = 0; y < SIZE; y++) {
-            for (int x = 0; x < SIZE; x++) {
-                grid[x][y] = new Cell(x, y, Cell.State.EMPTY);
+    public Cell.State getState(int x, int y) {
+        return Cell.State.BY_CODE[readState(y * width + x)];
+    }
+
+    public void setState(int x, int y, Cell.State state) {
+        writeState(y * width + x, state.ordinal());
+    }
+
+    private int readState(int cell) {
+        return states != null ? states[cell] : sparseStates.get(cell);
+    }
+
+    private void writeState(int cell, int code) {
+        int previous;
+        if (states != null) {
+            previous = states[cell];
+            states[cell] = (byte) code;
+        }
+        else {
+            previous = sparseStates.put(cell, code);
+        }
+        stateCounts[previous]--;
+        stateCounts[code]++;
+    }
+
+    /** Занята ли клетка кораблём */
+    private boolean isOccupied(int cell) {
+        return shipMask != null ? RuleSet.isSet(shipMask, cell) : shipIndex.containsKey(cell);
+    }
+
+    /**
+     * Количество клеток в заданных состояниях.
+     *
+     * @param first  состояние
+     * @param second ещё одно состояние (может совпадать с первым)
+     * @return число клеток, находящихся в одном из состояний
+     */
+    public int countStates(Cell.State first, Cell.State second) {
+        int count = stateCounts[first.ordinal()];
+        return first == second ? count : count + stateCounts[second.ordinal()];
+    }
+
+    /**
+     * Обходит непустые клетки: плотное поле — по возрастанию индексов,
+     * разреженное — только записанные клетки.
+     *
+     * @param visitor обработчик индекса клетки {@code y * width + x} и кода {@link Cell.State}
+     */
+    public void forEachNonEmpty(CellMap.Visitor visitor) {
+        if (states == null) {
+            sparseStates.forEach(visitor);
+            return;
+        }
+        for (int cell = 0; cell < states.length; cell++) {
+            if (states[cell] != Cell.State.EMPTY.ordinal()) {
+                visitor.visit(cell, states[cell]);
             }
         }
     }
 
-    public Cell getCell(int x, int y) {
-        if (x >= 0 && x < SIZE && y >= 0 && y < SIZE) {
-            return grid[x][y];
+    /**
+     * Корабль, занимающий клетку.
+     *
+     * @param x координата X
+     * @param y координата Y
+     * @return корабль или {@code null}
+     */
+    public Ship getShipAt(int x, int y) {
+        int cell = y * width + x;
+        if (shipIndex != null) {
+            int index = shipIndex.get(cell);
+            return index > 0 && index <= ships.size() ? ships.get(index - 1) : null;
+        }
+        if (!isOccupied(cell)) {
+            return null;
+        }
+        for (Ship ship : ships) {
+            if (ship.origin < 0) {
+                continue;
+            }
+            int shipX = ship.origin % width;
+            int shipY = ship.origin / width;
+            boolean vertical = ship.getOrientation() == Ship.Orientation.VERTICAL;
+            int offset = vertical ? y - shipY : x - shipX;
+            if ((vertical ? x == shipX : y == shipY) && offset >= 0 && offset < ship.getSize()) {
+                return ship;
+            }
         }
         return null;
     }
@@ -51,12 +214,30 @@ public class Board {
         return ships;
     }
 
+    /**
+     * Сетка представлений клеток, индексируемая {@code [x][y]}.
+     * Создаётся заново при каждом вызове.
+     *
+     * @return сетка клеток
+     * @throws UnsupportedOperationException для разреженного поля: сетка заняла бы память по площади
+     */
     public Cell[][] getGrid() {
+        if (rules.isSparse()) {
+            throw new UnsupportedOperationException("Сетка клеток недоступна для разреженного поля");
+        }
+        Cell[][] grid = new Cell[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                grid[x][y] = new Cell(this, x, y);
+            }
+        }
         return grid;
     }
 
     /**
      * Проверяет, можно ли разместить корабль в указанной позиции.
+     * Корабль должен помещаться на поле и касаться других кораблей только так, как разрешают правила;
+     * для классических правил проверка выполняется по маскам {@link PlacementMasks}.
      *
      * @param ship корабль
      * @param startX начальная координата X
@@ -64,37 +245,15 @@ public class Board {
      * @return {@code true}, если корабль можно разместить
      */
     public boolean canPlaceShip(Ship ship, int startX, int startY) {
-        int size = ship.getSize();
-        Ship.Orientation orientation = ship.getOrientation();
-
-        if (orientation == Ship.Orientation.HORIZONTAL) {
-            if (startX + size > SIZE) return false;
-        } else {
-            if (startY + size > SIZE) return false;
+        boolean vertical = ship.getOrientation() == Ship.Orientation.VERTICAL;
+        if (rules.isClassic()) {
+            int p = PlacementMasks.indexOf(ship.getSize(), !vertical, startX, startY);
+            return p >= 0 && PlacementMasks.fits(p, shipMask[0], shipMask[1]);
         }
-
-        for (int i = 0; i < size; i++) {
-            int x = startX + (orientation == Ship.Orientation.HORIZONTAL ? i : 0);
-            int y = startY + (orientation == Ship.Orientation.VERTICAL ? i : 0);
-
-            if (!grid[x][y].isEmpty()) {
-                return false;
-            }
-
-            for (int dx = -1; dx <= 1; dx++) {
-                for (int dy = -1; dy <= 1; dy++) {
-                    int nx = x + dx;
-                    int ny = y + dy;
-                    if (nx >= 0 && nx < SIZE && ny >= 0 && ny < SIZE) {
-                        if (grid[nx][ny].hasShip()) {
-                            return false;
-                        }
-                    }
-                }
-            }
+        if (shipIndex != null) {
+            return rules.canPlace(shipIndex, ship.getSize(), vertical, startX, startY);
         }
-
-        return true;
+        return rules.canPlace(shipMask, ship.getSize(), vertical, startX, startY);
     }
 
     /**
@@ -110,25 +269,22 @@ public class Board {
             return false;
         }
 
-        int size = ship.getSize();
-        Ship.Orientation orientation = ship.getOrientation();
-        List<Cell> shipCells = new ArrayList<>();
-
-
-        for (int i = 0; i < size; i++) {
-            int x = startX + (orientation == Ship.Orientation.HORIZONTAL ? i : 0);
-            int y = startY + (orientation == Ship.Orientation.VERTICAL ? i : 0);
-
-            Cell cell = grid[x][y];
-            cell.setState(Cell.State.SHIP);
-            cell.setShip(ship);
-            shipCells.add(cell);
-
+        int origin = startY * width + startX;
+        int step = ship.getOrientation() == Ship.Orientation.VERTICAL ? width : 1;
+        ships.add(ship);
+        for (int i = 0, cell = origin; i < ship.getSize(); i++, cell += step) {
+            writeState(cell, Cell.State.SHIP.ordinal());
+            if (shipIndex != null) {
+                shipIndex.put(cell, ships.size());
+            }
+            else {
+                RuleSet.set(shipMask, cell);
+            }
         }
 
-        ship.setCells(shipCells);
+        ship.origin = origin;
+        ship.setCells(new ShipCells(this, ship));
         ship.setPlaced(true);
-        ships.add(ship);
 
         return true;
     }
@@ -139,107 +295,117 @@ public class Board {
      * @return строка с информацией о расположении кораблей
      */
     public String placeComputerShips() {
+        return placeComputerShips(ThreadLocalRandom.current());
+    }
 
+    /**
+     * Размещает корабли компьютера случайным образом с заданным генератором
+     * (для воспроизводимых расстановок). Расстановка строится {@link FleetGenerator}
+     * и всегда содержит полный флот по правилам доски.
+     *
+     * @param rnd генератор случайных чисел
+     * @return строка с информацией о расположении кораблей
+     */
+    public String placeComputerShips(Random rnd) {
         clearBoard();
-
-        List<Ship> shipsToPlace = new ArrayList<>();
-
-        for (int i = 0; i < 1; i++) {
-            shipsToPlace.add(new Ship(ShipType.CARRIER));
+        if (rules.isClassic()) {
+            placeFleet(FleetGenerator.generate(rnd));
         }
-
-        for (int i = 0; i < 2; i++) {
-            shipsToPlace.add(new Ship(ShipType.BATTLESHIP));
-        }
-
-        for (int i = 0; i < 3; i++) {
-            shipsToPlace.add(new Ship(ShipType.CRUISER));
-        }
-
-        for (int i = 0; i < 4; i++) {
-            shipsToPlace.add(new Ship(ShipType.DESTROYER));
+        else {
+            placeShips(FleetGenerator.generateShips(rules, rnd));
         }
+        return getShipsPlacementString();
+    }
 
-        List<String> placedShipsInfo = new ArrayList<>();
-
-        for (Ship ship : shipsToPlace) {
-            boolean placed = false;
-            int attempts = 0;
-
-            while (!placed && attempts < 1000) {
-                int x = (int) (Math.random() * Board.SIZE);
-                int y = (int) (Math.random() * Board.SIZE);
-
-                if (Math.random() > 0.5) {
-                    ship.setOrientation(Ship.Orientation.HORIZONTAL);
-                }
-                else {
-                    ship.setOrientation(Ship.Orientation.VERTICAL);
-                }
-
-                if (canPlaceShip(ship, x, y)) {
-                    placeShip(ship, x, y);
-                    placed = true;
-
-                    int orientationCode = ship.getOrientation() == Ship.Orientation.HORIZONTAL ? 0 : 1;
-                    placedShipsInfo.add(ship.getType().ordinal() + "," + x + "," + y + "," + orientationCode);
-                }
-                attempts++;
-            }
-
+    /**
+     * Размещает на классической доске флот по номерам положений {@link PlacementMasks}.
+     *
+     * @param placements номера положений кораблей
+     */
+    public void placeFleet(int[] placements) {
+        for (int p : placements) {
+            Ship ship = new Ship(FleetGenerator.typeOf(PlacementMasks.SIZE[p]));
+            ship.setOrientation(PlacementMasks.ORIENTATION[p] == 0 ? Ship.Orientation.HORIZONTAL : Ship.Orientation.VERTICAL);
+            int start = PlacementMasks.START[p];
+            placeShip(ship, start % SIZE, start / SIZE);
         }
-
-        return getShipsPlacementString();
     }
 
     /**
-     * Проверяет, расставлены ли все корабли на доске.
+     * Проверяет, расставлены ли все корабли флота по правилам доски.
      *
      * @return {@code true}, если все корабли размещены
      */
     public boolean allShipsPlaced() {
-        long carrierCount = ships.stream().filter(s -> s.getType() == ShipType.CARRIER).count();
-        long battleshipCount = ships.stream().filter(s -> s.getType() == ShipType.BATTLESHIP).count();
-        long cruiserCount = ships.stream().filter(s -> s.getType() == ShipType.CRUISER).count();
-        long destroyerCount = ships.stream().filter(s -> s.getType() == ShipType.DESTROYER).count();
+        for (ShipType type : ShipType.values()) {
+            long count = ships.stream().filter(s -> s.getType() == type).count();
+            if (count < rules.getShipCount(type.getSize())) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        return carrierCount >= 1 && battleshipCount >= 2 && cruiserCount >= 3 && destroyerCount >= 4;
+    /**
+     * Размещает корабли, заданные кодами {@link FleetCodec}.
+     * Корабли, которые нельзя поставить по правилам доски, пропускаются.
+     *
+     * @param codes коды кораблей
+     */
+    public void placeShips(int[] codes) {
+        for (int code : codes) {
+            Ship ship = new Ship(FleetGenerator.typeOf(FleetCodec.size(code)));
+            ship.setOrientation(FleetCodec.isVertical(code) ? Ship.Orientation.VERTICAL : Ship.Orientation.HORIZONTAL);
+            int cell = FleetCodec.cell(code);
+            placeShip(ship, cell % width, cell / width);
+        }
     }
 
     /**
-     * Возвращает строку с информацией о расположении всех кораблей.
+     * Коды размещённых кораблей {@link FleetCodec} в каноническом порядке.
      *
-     * @return строка с координатами и ориентацией кораблей
+     * @return коды кораблей
      */
-    public String getShipsPlacementString() {
-        StringBuilder sb = new StringBuilder();
+    public int[] getFleet() {
+        int[] codes = new int[ships.size()];
+        int count = 0;
         for (Ship ship : ships) {
-            if (!ship.getCells().isEmpty()) {
-                Cell firstCell = ship.getCells().get(0);
-                sb.append(ship.getType().ordinal())
-                        .append(",")
-                        .append(firstCell.getX())
-                        .append(",")
-                        .append(firstCell.getY())
-                        .append(",")
-                        .append(ship.getOrientation() == Ship.Orientation.HORIZONTAL ? 0 : 1)
-                        .append(";");
+            if (ship.origin >= 0) {
+                codes[count++] = FleetCodec.ship(ship.getSize(), ship.origin,
+                        ship.getOrientation() == Ship.Orientation.VERTICAL);
             }
         }
-        return sb.toString();
+        return FleetCodec.canonical(count == codes.length ? codes : Arrays.copyOf(codes, count));
+    }
+
+    /**
+     * Возвращает строку с информацией о расположении всех кораблей.
+     *
+     * @return строка с координатами и ориентацией кораблей в формате протокола
+     */
+    public String getShipsPlacementString() {
+        return FleetCodec.toText(getFleet(), width);
     }
 
     /**
      * Очищает доску и удаляет все корабли.
      */
     public void clearBoard() {
-        for (int y = 0; y < SIZE; y++) {
-            for (int x = 0; x < SIZE; x++) {
-                grid[y][x].setState(Cell.State.EMPTY);
-                grid[y][x].setShip(null);
-            }
+        for (Ship ship : ships) {
+            ship.origin = -1;
         }
         ships.clear();
+
+        if (states != null) {
+            Arrays.fill(states, (byte) Cell.State.EMPTY.ordinal());
+            Arrays.fill(shipMask, 0L);
+        }
+        else {
+            sparseStates.clear();
+            shipIndex.clear();
+        }
+        Arrays.fill(stateCounts, 0);
+        stateCounts[Cell.State.EMPTY.ordinal()] = width * height;
     }
 
     /**
@@ -248,12 +414,63 @@ public class Board {
      * @param ship корабль для удаления
      */
     public void removeShip(Ship ship) {
-        for (Cell cell : ship.getCells()) {
-            cell.setState(Cell.State.EMPTY);
-            cell.setShip(null);
+        int index = ships.indexOf(ship);
+        if (ship.origin >= 0 && index >= 0) {
+            int step = ship.getOrientation() == Ship.Orientation.VERTICAL ? width : 1;
+            for (int i = 0, cell = ship.origin; i < ship.getSize(); i++, cell += step) {
+                writeState(cell, Cell.State.EMPTY.ordinal());
+                if (shipIndex != null) {
+                    shipIndex.remove(cell);
+                }
+                else {
+                    RuleSet.clear(shipMask, cell);
+                }
+            }
         }
-        ship.setCells(new ArrayList<>());
+        ship.origin = -1;
+        ship.setCells(Collections.<Cell>emptyList());
         ship.setPlaced(false);
-        ships.remove(ship);
+        if (index >= 0) {
+            ships.remove(index);
+            if (shipIndex != null) {
+                // Номера следующих кораблей сдвинулись на один
+                for (int i = index; i < ships.size(); i++) {
+                    Ship next = ships.get(i);
+                    int nextStep = next.getOrientation() == Ship.Orientation.VERTICAL ? width : 1;
+                    for (int c = 0, cell = next.origin; c < next.getSize(); c++, cell += nextStep) {
+                        shipIndex.put(cell, i + 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Клетки корабля на доске: представления создаются при обращении */
+    private static final class ShipCells extends AbstractList<Cell> {
+        private final Board board;
+        private final int origin;
+        private final int step;
+        private final int size;
+
+        ShipCells(Board board, Ship ship) {
+            this.board = board;
+            this.origin = ship.origin;
+            this.step = ship.getOrientation() == Ship.Orientation.VERTICAL ? board.width : 1;
+            this.size = ship.getSize();
+        }
+
+        @Override
+        public Cell get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Клетка " + index + " корабля из " + size);
+            }
+            int cell = origin + index * step;
+            return new Cell(board, cell % board.width, cell / board.width);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
-}
\ No newline at end of file
+}
@@ -3,8 +3,10 @@ package BattleShip.client.model;
 /**
  * Клетка игрового поля.
  * <p>
- * Представляет одну ячейку на игровом поле с координатами,
- * текущим состоянием и ссылкой на корабль (если он находится в клетке).
+ * Клетка поля — лёгкое представление, которое {@link Board#getCell} создаёт по запросу:
+ * состояние хранится в массиве байтов доски, а корабль определяется по маскам расстановок.
+ * Изменение состояния через представление сразу меняет доску. Клетка, созданная
+ * конструктором вне поля, хранит состояние и корабль сама.
  */
 public class Cell {
 
@@ -12,31 +14,50 @@ public class Cell {
      * Возможные состояния клетки игрового поля.
      */
     public enum State {
-        EMPTY, SHIP, HIT, MISS, FORBIDDEN, SHIP_SUNK
+        EMPTY, SHIP, HIT, MISS, FORBIDDEN, SHIP_SUNK;
+
+        /** Состояния по коду (порядковому номеру), без копирования массива {@code values()} */
+        static final State[] BY_CODE = values();
     }
 
-    private int x;
-    private int y;
+    /** Доска, которую представляет клетка, или {@code null} для отдельной клетки */
+    private final Board board;
 
-    private State state;
+    private final int x;
+    private final int y;
 
-    /** Корабль, находящийся в клетке (если есть) */
+    /** Состояние и корабль отдельной клетки */
+    private State state;
     private Ship ship;
 
     /**
-     * Создаёт новую клетку игрового поля.
+     * Создаёт отдельную клетку вне игрового поля.
      *
      * @param x координата X
      * @param y координата Y
-     * @param state начальное состояние клетки
+     * @param state начальное состояние клетки (не используется, клетка создаётся пустой)
      */
     public Cell(int x, int y, State state) {
+        this.board = null;
         this.x = x;
         this.y = y;
         this.state = State.EMPTY;
         this.ship = null;
     }
 
+    /**
+     * Создаёт представление клетки доски.
+     *
+     * @param board доска
+     * @param x     координата X
+     * @param y     координата Y
+     */
+    Cell(Board board, int x, int y) {
+        this.board = board;
+        this.x = x;
+        this.y = y;
+    }
+
     public int getX() {
         return x;
     }
@@ -46,34 +67,66 @@ public class Cell {
     }
 
     public State getState() {
-        return state;
+        return board != null ? board.getState(x, y) : state;
     }
 
     public Ship getShip() {
-        return ship;
+        return board != null ? board.getShipAt(x, y) : ship;
     }
 
     public void setState(State state) {
-        this.state = state;
+        if (board != null) {
+            board.setState(x, y, state);
+        }
+        else {
+            this.state = state;
+        }
     }
 
+    /**
+     * Задаёт корабль отдельной клетки.
+     *
+     * @param ship корабль
+     * @throws UnsupportedOperationException для клетки поля: её корабль задаётся расстановкой на доске
+     */
     public void setShip(Ship ship) {
+        if (board != null) {
+            throw new UnsupportedOperationException("Корабль клетки поля задаётся расстановкой на доске");
+        }
         this.ship = ship;
     }
 
     public boolean isEmpty() {
-        return state == State.EMPTY;
+        return getState() == State.EMPTY;
     }
 
     public boolean hasShip() {
-        return state == State.SHIP;
+        return getState() == State.SHIP;
     }
 
     public boolean isHit() {
-        return state == State.HIT;
+        return getState() == State.HIT;
     }
 
     public boolean isMiss() {
-        return state == State.MISS;
+        return getState() == State.MISS;
+    }
+
+    /** Клетки поля равны, если это одна и та же клетка одной доски */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cell) || board == null) {
+            return false;
+        }
+        Cell other = (Cell) o;
+        return board == other.board && x == other.x && y == other.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return board == null ? System.identityHashCode(this) : y * board.getWidth() + x;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package BattleShip.client.model;
+
+import java.util.Arrays;
+
+/**
+ * Разреженное отображение клеток поля в целые числа — пространственный хеш.
+ * <p>
+ * Ключ — индекс клетки {@code y * ширина + x}, значение — произвольное ненулевое число
+ * (состояние клетки, номер корабля). Отсутствующая клетка читается как 0. Открытая адресация
+ * с линейным пробированием в двух массивах {@code int}, без упаковки в объекты; память
+ * пропорциональна числу записанных клеток, а не площади поля. Используется большими полями
+ * (см. {@link RuleSet#isSparse()}), где плотные массивы на всё поле не помещаются в память.
+ */
+public final class CellMap {
+
+    /** Обход записанных клеток */
+    public interface Visitor {
+        void visit(int cell, int value);
+    }
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public CellMap() {
+        this(16);
+    }
+
+    /**
+     * @param expected ожидаемое число клеток
+     */
+    public CellMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    private int slot(int cell) {
+        return (cell * 0x9E3779B9) >>> 7 & mask;
+    }
+
+    /**
+     * Значение клетки.
+     *
+     * @param cell индекс клетки
+     * @return значение или 0, если клетка не записана
+     */
+    public int get(int cell) {
+        for (int i = slot(cell); ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == cell) {
+                return values[i];
+            }
+            if (key == FREE) {
+                return 0;
+            }
+        }
+    }
+
+    public boolean containsKey(int cell) {
+        return get(cell) != 0;
+    }
+
+    /**
+     * Записывает значение клетки; значение 0 удаляет клетку.
+     *
+     * @param cell  индекс клетки (неотрицательный)
+     * @param value значение
+     * @return прежнее значение или 0
+     */
+    public int put(int cell, int value) {
+        if (value == 0) {
+            return remove(cell);
+        }
+
+        for (int i = slot(cell); ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == cell) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            if (key == FREE) {
+                keys[i] = cell;
+                values[i] = value;
+                if (++size * 4 > keys.length * 3) {
+                    grow();
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Удаляет клетку. Следующие за ней записи цепочки сдвигаются назад,
+     * поэтому таблица не накапливает «надгробий».
+     *
+     * @param cell индекс клетки
+     * @return удалённое значение или 0
+     */
+    public int remove(int cell) {
+        int i = slot(cell);
+        while (keys[i] != cell) {
+            if (keys[i] == FREE) {
+                return 0;
+            }
+            i = (i + 1) & mask;
+        }
+
+        int previous = values[i];
+        size--;
+
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            // Запись можно перенести в дыру, если её место не лежит строго между дырой и ею
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = 0;
+
+        return previous;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    /**
+     * Обходит записанные клетки в порядке таблицы (не по возрастанию индексов).
+     *
+     * @param visitor обработчик клетки и её значения
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+}
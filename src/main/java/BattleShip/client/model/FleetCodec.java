@@ -0,0 +1,263 @@
+package BattleShip.client.model;
+
+import java.util.Arrays;
+
+/**
+ * Общий кодек расстановки флота для клиента, сервера и ИИ.
+ * <p>
+ * Корабль представлен одним числом {@code положение << 3 | размер}, где положение —
+ * {@code клетка * 2 + ориентация} (как в {@link FleetGenerator}), клетка —
+ * {@code y * ширина + x}, ориентация 1 — вертикально. Флот — массив таких чисел
+ * в каноническом порядке: по убыванию размера, при равном размере — по положению.
+ * <p>
+ * У флота две формы:
+ * <ul>
+ *     <li>текстовая для протокола — {@code "тип,x,y,ориентация;..."}, где тип —
+ *     порядковый номер {@link ShipType};</li>
+ *     <li>двоичная — только положения кораблей по {@link #bitsPerShip(RuleSet)} бит подряд;
+ *     размеры берутся из правил, поэтому классический флот занимает 10 байт.</li>
+ * </ul>
+ * Обе формы переводятся друг в друга без потерь.
+ */
+public final class FleetCodec {
+
+    private FleetCodec() {
+    }
+
+    /**
+     * Кодирует корабль.
+     *
+     * @param size     размер корабля
+     * @param cell     начальная клетка {@code y * ширина + x}
+     * @param vertical {@code true} для вертикального корабля
+     * @return код корабля
+     */
+    public static int ship(int size, int cell, boolean vertical) {
+        return ((cell << 1 | (vertical ? 1 : 0)) << 3) | size;
+    }
+
+    public static int size(int ship) {
+        return ship & 7;
+    }
+
+    public static int cell(int ship) {
+        return ship >>> 4;
+    }
+
+    public static boolean isVertical(int ship) {
+        return (ship & 8) != 0;
+    }
+
+    /** Положение корабля {@code клетка * 2 + ориентация} */
+    public static int position(int ship) {
+        return ship >>> 3;
+    }
+
+    /**
+     * Приводит флот к каноническому порядку.
+     *
+     * @param ships коды кораблей; массив сортируется на месте
+     * @return тот же массив
+     */
+    public static int[] canonical(int[] ships) {
+        long[] keys = new long[ships.length];
+        for (int i = 0; i < ships.length; i++) {
+            keys[i] = (long) (7 - size(ships[i])) << 32 | position(ships[i]);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < ships.length; i++) {
+            ships[i] = ((int) keys[i] << 3) | (7 - (int) (keys[i] >>> 32));
+        }
+        return ships;
+    }
+
+    /**
+     * Переводит флот в текстовую форму протокола.
+     *
+     * @param ships коды кораблей
+     * @param width ширина поля
+     * @return строка вида {@code тип,x,y,ориентация;...}
+     */
+    public static String toText(int[] ships, int width) {
+        StringBuilder sb = new StringBuilder(ships.length * 8);
+        for (int ship : ships) {
+            appendShip(sb, ship, width).append(';');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Запись одного корабля в текстовой форме, без завершающей точки с запятой.
+     *
+     * @param ship  код корабля
+     * @param width ширина поля
+     * @return строка вида {@code тип,x,y,ориентация}
+     */
+    public static String shipToText(int ship, int width) {
+        return appendShip(new StringBuilder(8), ship, width).toString();
+    }
+
+    private static StringBuilder appendShip(StringBuilder sb, int ship, int width) {
+        int cell = cell(ship);
+        return sb.append(FleetGenerator.typeOf(size(ship)).ordinal())
+                .append(',').append(cell % width)
+                .append(',').append(cell / width)
+                .append(',').append(isVertical(ship) ? 1 : 0);
+    }
+
+    /**
+     * Разбирает текстовую форму. Пробелы вокруг чисел и пустые записи допускаются.
+     *
+     * @param text  строка вида {@code тип,x,y,ориентация;...}; {@code null} — пустой флот
+     * @param rules правила партии (размер поля)
+     * @return коды кораблей в каноническом порядке
+     * @throws IllegalArgumentException для неверной записи или корабля, начинающегося вне поля
+     */
+    public static int[] fromText(String text, RuleSet rules) {
+        return fromText(text, rules, false);
+    }
+
+    /**
+     * Разбирает текстовую форму.
+     *
+     * @param text         строка вида {@code тип,x,y,ориентация;...}; {@code null} — пустой флот
+     * @param rules        правила партии (размер поля)
+     * @param skipInvalid  {@code true} — пропускать неверные записи вместо исключения
+     * @return коды кораблей в каноническом порядке
+     * @throws IllegalArgumentException для неверной записи, если {@code skipInvalid} не задан
+     */
+    public static int[] fromText(String text, RuleSet rules, boolean skipInvalid) {
+        if (text == null || text.isEmpty()) {
+            return new int[0];
+        }
+
+        String[] entries = text.split(";");
+        int[] ships = new int[entries.length];
+        int count = 0;
+
+        for (String entry : entries) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            String error = null;
+            String[] parts = entry.split(",");
+            if (parts.length != 4) {
+                error = "Неверная запись корабля: " + entry;
+            }
+            else {
+                try {
+                    int size = RuleSet.shipSize(Integer.parseInt(parts[0].trim()));
+                    int x = Integer.parseInt(parts[1].trim());
+                    int y = Integer.parseInt(parts[2].trim());
+                    int orientation = Integer.parseInt(parts[3].trim());
+
+                    if (size == 0 || (orientation != 0 && orientation != 1)) {
+                        error = "Неверная запись корабля: " + entry;
+                    }
+                    else if (!rules.contains(x, y)) {
+                        error = "Корабль вне поля: " + entry;
+                    }
+                    else {
+                        ships[count++] = ship(size, y * rules.getWidth() + x, orientation == 1);
+                    }
+                }
+                catch (NumberFormatException e) {
+                    error = "Неверная запись корабля: " + entry;
+                }
+            }
+
+            if (error != null && !skipInvalid) {
+                throw new IllegalArgumentException(error);
+            }
+        }
+
+        return canonical(count == ships.length ? ships : Arrays.copyOf(ships, count));
+    }
+
+    /**
+     * Число бит на корабль в двоичной форме: столько, чтобы вместить любое положение на поле.
+     *
+     * @param rules правила партии
+     * @return бит на корабль
+     */
+    public static int bitsPerShip(RuleSet rules) {
+        long positions = (long) rules.getCells() * 2;
+        return 64 - Long.numberOfLeadingZeros(positions - 1);
+    }
+
+    /**
+     * Упаковывает флот в двоичную форму.
+     *
+     * @param ships коды кораблей в каноническом порядке
+     * @param rules правила партии; размеры кораблей должны совпадать с флотом правил
+     * @return положения кораблей, записанные подряд от старших бит к младшим
+     * @throws IllegalArgumentException если флот не соответствует правилам
+     */
+    public static byte[] pack(int[] ships, RuleSet rules) {
+        int[] sizes = rules.getFleetSizes();
+        if (ships.length != sizes.length) {
+            throw new IllegalArgumentException("Флот не соответствует правилам " + rules.toSpec());
+        }
+
+        int bits = bitsPerShip(rules);
+        byte[] packed = new byte[(int) (((long) ships.length * bits + 7) >>> 3)];
+        long buffer = 0;
+        int buffered = 0;
+        int out = 0;
+
+        for (int i = 0; i < ships.length; i++) {
+            if (size(ships[i]) != sizes[i]) {
+                throw new IllegalArgumentException("Флот не соответствует правилам " + rules.toSpec());
+            }
+            buffer = buffer << bits | position(ships[i]);
+            buffered += bits;
+            while (buffered >= 8) {
+                buffered -= 8;
+                packed[out++] = (byte) (buffer >>> buffered);
+            }
+        }
+        if (buffered > 0) {
+            packed[out] = (byte) (buffer << (8 - buffered));
+        }
+        return packed;
+    }
+
+    /**
+     * Распаковывает двоичную форму.
+     *
+     * @param packed положения кораблей, записанные {@link #pack}
+     * @param rules  правила партии, по которым флот был упакован
+     * @return коды кораблей в каноническом порядке
+     * @throws IllegalArgumentException если данные не соответствуют правилам
+     */
+    public static int[] unpack(byte[] packed, RuleSet rules) {
+        int[] sizes = rules.getFleetSizes();
+        int bits = bitsPerShip(rules);
+        if (packed.length != (int) (((long) sizes.length * bits + 7) >>> 3)) {
+            throw new IllegalArgumentException("Неверная длина упакованного флота: " + packed.length);
+        }
+
+        long positions = (long) rules.getCells() * 2;
+        long mask = (1L << bits) - 1;
+        int[] ships = new int[sizes.length];
+        long buffer = 0;
+        int buffered = 0;
+        int in = 0;
+
+        for (int i = 0; i < ships.length; i++) {
+            while (buffered < bits) {
+                buffer = buffer << 8 | (packed[in++] & 0xFF);
+                buffered += 8;
+            }
+            buffered -= bits;
+            int position = (int) ((buffer >>> buffered) & mask);
+            if (position >= positions) {
+                throw new IllegalArgumentException("Положение корабля вне поля: " + position);
+            }
+            ships[i] = (position << 3) | sizes[i];
+        }
+        return ships;
+    }
+}
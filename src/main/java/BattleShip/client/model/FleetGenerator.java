@@ -0,0 +1,280 @@
+package BattleShip.client.model;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Генератор случайной расстановки полного флота.
+ * <p>
+ * Корабли ставятся от больших к меньшим по таблицам {@link PlacementMasks}.
+ * Для каждого корабля сначала делается несколько случайных попыток, затем
+ * перебираются все положения его размера, начиная со случайного; если корабль
+ * поставить некуда, генератор возвращается к предыдущему. Перебор полный,
+ * поэтому расстановка всегда находится, а на практике возвраты почти не случаются.
+ * <p>
+ * Для нестандартных правил ({@link RuleSet}) тот же перебор идёт по маске поля
+ * произвольного размера; число шагов ограничено, и флот, который не удалось
+ * расставить за отведённые шаги, считается не помещающимся на поле. На разреженных полях
+ * ({@link RuleSet#isSparse()}) занятые клетки хранятся в {@link CellMap}, а корабли ставятся
+ * случайными попытками без перебора: такие поля заполнены слабо, и попытки почти всегда удаются.
+ */
+public final class FleetGenerator {
+
+    /** Размеры кораблей флота в порядке расстановки */
+    private static final int[] FLEET_SIZES = {4, 3, 3, 2, 2, 2, 1, 1, 1, 1};
+
+    /** Случайных попыток на корабль перед перебором */
+    private static final int RANDOM_ATTEMPTS = 16;
+
+    /** Шагов перебора на одну расстановку по нестандартным правилам */
+    private static final int SEARCH_BUDGET = 200_000;
+
+    /** Случайных попыток на корабль и полных перезапусков расстановки на разреженном поле */
+    private static final int SPARSE_ATTEMPTS = 1_000;
+    private static final int SPARSE_RESTARTS = 3;
+
+    private FleetGenerator() {
+    }
+
+    public static int getFleetSize() {
+        return FLEET_SIZES.length;
+    }
+
+    /**
+     * Генерирует расстановку флота генератором текущего потока.
+     *
+     * @return номера положений {@link PlacementMasks} для каждого корабля
+     */
+    public static int[] generate() {
+        return generate(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Генерирует расстановку флота.
+     *
+     * @param rnd генератор случайных чисел
+     * @return номера положений {@link PlacementMasks} для каждого корабля
+     */
+    public static int[] generate(Random rnd) {
+        int[] placements = new int[FLEET_SIZES.length];
+        if (!place(0, 0L, 0L, placements, rnd)) {
+            throw new IllegalStateException("Флот не помещается на поле");
+        }
+        return placements;
+    }
+
+    /**
+     * Генерирует расстановку флота по правилам.
+     * Положение корабля кодируется числом {@code клетка * 2 + ориентация}, где клетка — {@code y * ширина + x},
+     * ориентация 0 — горизонтально; корабли идут в порядке {@link RuleSet#getFleetSizes()}.
+     *
+     * @param rules правила партии
+     * @param rnd   генератор случайных чисел
+     * @return положения кораблей
+     * @throws IllegalStateException если флот не удалось расставить
+     */
+    public static int[] generate(RuleSet rules, Random rnd) {
+        if (rules.isClassic()) {
+            int[] placements = generate(rnd);
+            int[] positions = new int[placements.length];
+            for (int i = 0; i < placements.length; i++) {
+                positions[i] = PlacementMasks.START[placements[i]] * 2 + PlacementMasks.ORIENTATION[placements[i]];
+            }
+            return positions;
+        }
+
+        if (rules.isSparse()) {
+            return generateSparse(rules, rnd);
+        }
+
+        int[] sizes = rules.getFleetSizes();
+        int[] positions = new int[sizes.length];
+        int[] budget = {SEARCH_BUDGET};
+        if (!place(rules, sizes, 0, rules.newCellMask(), positions, rnd, budget)) {
+            throw new IllegalStateException("Флот не помещается на поле");
+        }
+        return positions;
+    }
+
+    /**
+     * Генерирует расстановку флота по правилам в кодах {@link FleetCodec}.
+     *
+     * @param rules правила партии
+     * @param rnd   генератор случайных чисел
+     * @return коды кораблей в каноническом порядке
+     */
+    public static int[] generateShips(RuleSet rules, Random rnd) {
+        int[] sizes = rules.getFleetSizes();
+        int[] positions = generate(rules, rnd);
+        int[] ships = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            ships[i] = FleetCodec.ship(sizes[i], positions[i] >> 1, (positions[i] & 1) == 1);
+        }
+        return FleetCodec.canonical(ships);
+    }
+
+    /**
+     * Генерирует расстановку флота по правилам в строковом формате протокола.
+     *
+     * @param rules правила партии
+     * @param rnd   генератор случайных чисел
+     * @return строка вида {@code тип,x,y,ориентация;...}
+     */
+    public static String generateString(RuleSet rules, Random rnd) {
+        return FleetCodec.toText(generateShips(rules, rnd), rules.getWidth());
+    }
+
+    /**
+     * Генерирует расстановку флота сразу в строковом формате протокола.
+     *
+     * @param rnd генератор случайных чисел
+     * @return строка вида {@code тип,x,y,ориентация;...}
+     */
+    public static String generateString(Random rnd) {
+        return toShipsString(generate(rnd));
+    }
+
+    /**
+     * Переводит расстановку в строковый формат протокола.
+     *
+     * @param placements номера положений кораблей
+     * @return строка вида {@code тип,x,y,ориентация;...}
+     */
+    public static String toShipsString(int[] placements) {
+        int[] ships = new int[placements.length];
+        for (int i = 0; i < placements.length; i++) {
+            int p = placements[i];
+            ships[i] = FleetCodec.ship(PlacementMasks.SIZE[p], PlacementMasks.START[p], PlacementMasks.ORIENTATION[p] == 1);
+        }
+        return FleetCodec.toText(FleetCodec.canonical(ships), Board.SIZE);
+    }
+
+    /**
+     * Тип корабля по размеру.
+     *
+     * @param size размер корабля
+     * @return тип корабля
+     */
+    public static ShipType typeOf(int size) {
+        for (ShipType type : ShipType.values()) {
+            if (type.getSize() == size) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Нет корабля размера " + size);
+    }
+
+    private static boolean place(int ship, long lo, long hi, int[] placements, Random rnd) {
+        if (ship == FLEET_SIZES.length) {
+            return true;
+        }
+
+        int size = FLEET_SIZES[ship];
+        int first = PlacementMasks.firstOfSize(size);
+        int count = PlacementMasks.countOfSize(size);
+
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            int p = first + rnd.nextInt(count);
+            if (PlacementMasks.fits(p, lo, hi) && placeNext(ship, p, lo, hi, placements, rnd)) {
+                return true;
+            }
+        }
+
+        int offset = rnd.nextInt(count);
+        for (int i = 0; i < count; i++) {
+            int p = first + (offset + i) % count;
+            if (PlacementMasks.fits(p, lo, hi) && placeNext(ship, p, lo, hi, placements, rnd)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean placeNext(int ship, int p, long lo, long hi, int[] placements, Random rnd) {
+        placements[ship] = p;
+        return place(ship + 1, lo | PlacementMasks.LO[p], hi | PlacementMasks.HI[p], placements, rnd);
+    }
+
+    private static int[] generateSparse(RuleSet rules, Random rnd) {
+        int[] sizes = rules.getFleetSizes();
+        int[] positions = new int[sizes.length];
+        int width = rules.getWidth();
+        int height = rules.getHeight();
+
+        for (int restart = 0; restart < SPARSE_RESTARTS; restart++) {
+            CellMap occupied = new CellMap(rules.getShipCells());
+            int ship = 0;
+            for (; ship < sizes.length; ship++) {
+                int size = sizes[ship];
+                int attempt = 0;
+                for (; attempt < SPARSE_ATTEMPTS; attempt++) {
+                    boolean vertical = rnd.nextBoolean();
+                    int x = rnd.nextInt(vertical ? width : width - size + 1);
+                    int y = rnd.nextInt(vertical ? height - size + 1 : height);
+                    if (rules.canPlace(occupied, size, vertical, x, y)) {
+                        int step = vertical ? width : 1;
+                        for (int i = 0, cell = y * width + x; i < size; i++, cell += step) {
+                            occupied.put(cell, 1);
+                        }
+                        positions[ship] = (y * width + x) * 2 + (vertical ? 1 : 0);
+                        break;
+                    }
+                }
+                if (attempt == SPARSE_ATTEMPTS) {
+                    break;
+                }
+            }
+            if (ship == sizes.length) {
+                return positions;
+            }
+        }
+        throw new IllegalStateException("Флот не помещается на поле");
+    }
+
+    private static boolean place(RuleSet rules, int[] sizes, int ship, long[] occupied, int[] positions,
+                                 Random rnd, int[] budget) {
+        if (ship == sizes.length) {
+            return true;
+        }
+
+        int count = rules.getCells() * 2;
+
+        for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+            int position = rnd.nextInt(count);
+            if (tryPosition(rules, sizes, ship, position, occupied, positions, rnd, budget)) {
+                return true;
+            }
+        }
+
+        int offset = rnd.nextInt(count);
+        for (int i = 0; i < count && budget[0] > 0; i++) {
+            if (tryPosition(rules, sizes, ship, (offset + i) % count, occupied, positions, rnd, budget)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean tryPosition(RuleSet rules, int[] sizes, int ship, int position, long[] occupied,
+                                       int[] positions, Random rnd, int[] budget) {
+        if (--budget[0] < 0) {
+            return false;
+        }
+
+        int width = rules.getWidth();
+        int cell = position >> 1;
+        boolean vertical = (position & 1) == 1;
+        int x = cell % width;
+        int y = cell / width;
+        if (!rules.canPlace(occupied, sizes[ship], vertical, x, y)) {
+            return false;
+        }
+
+        long[] next = occupied.clone();
+        rules.mark(next, sizes[ship], vertical, x, y);
+        positions[ship] = position;
+        return place(rules, sizes, ship + 1, next, positions, rnd, budget);
+    }
+}
@@ -0,0 +1,99 @@
+package BattleShip.client.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * Журнал событий боя ограниченной ёмкости — кольцевой буфер строк.
+ * <p>
+ * Добавление стоит O(1): при заполнении новая запись занимает место самой старой,
+ * без сдвига остальных. Журнал читается как список от старых записей к новым.
+ * Счётчик {@link #getTotalAdded()} растёт с каждой записью и не уменьшается
+ * при вытеснении, поэтому отображение может дописывать только новые записи.
+ */
+public class GameLog extends AbstractList<String> {
+
+    /** Ёмкость журнала по умолчанию (свойство {@code battleship.client.logCapacity}) */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("battleship.client.logCapacity", 1000);
+
+    private final String[] entries;
+
+    /** Индекс самой старой записи в {@link #entries} */
+    private int head;
+    private int size;
+    private long totalAdded;
+
+    public GameLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity наибольшее число хранимых записей
+     */
+    public GameLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ёмкость журнала должна быть положительной: " + capacity);
+        }
+        this.entries = new String[capacity];
+    }
+
+    /**
+     * Добавляет запись; при заполненном журнале вытесняется самая старая.
+     *
+     * @param message запись
+     * @return всегда {@code true}
+     */
+    @Override
+    public boolean add(String message) {
+        int tail = head + size;
+        if (tail >= entries.length) {
+            tail -= entries.length;
+        }
+        entries[tail] = message;
+
+        if (size < entries.length) {
+            size++;
+        }
+        else if (++head == entries.length) {
+            head = 0;
+        }
+        totalAdded++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Индекс " + index + ", записей " + size);
+        }
+        int i = head + index;
+        return entries[i >= entries.length ? i - entries.length : i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Число записей, добавленных за всё время, включая вытесненные.
+     *
+     * @return общее число записей
+     */
+    public long getTotalAdded() {
+        return totalAdded;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(entries, null);
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+}
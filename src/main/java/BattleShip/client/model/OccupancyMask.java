@@ -0,0 +1,129 @@
+package BattleShip.client.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Клетки поля, недоступные для нового корабля: клетки кораблей и их ореол.
+ * <p>
+ * Ореол зависит от правила соседства: при {@link RuleSet.Adjacency#NONE} это все
+ * восемь соседей, при {@link RuleSet.Adjacency#CORNERS} — соседи по стороне,
+ * при {@link RuleSet.Adjacency#ANY} ореола нет. Поэтому корабль можно поставить,
+ * если он помещается на поле и ни одна его клетка не отмечена, — проверка
+ * стоит O(размер корабля) и не смотрит на соседей.
+ * <p>
+ * Постановка корабля дополняет маску, снятие пересобирает её по оставшимся кораблям
+ * (ореолы соседних кораблей перекрываются). Плотное поле хранит маску битами,
+ * разреженное — в {@link CellMap}.
+ */
+public final class OccupancyMask {
+
+    private final RuleSet rules;
+    private final long[] dense;
+    private final CellMap sparse;
+
+    public OccupancyMask(RuleSet rules) {
+        this.rules = rules;
+        this.dense = rules.isSparse() ? null : rules.newCellMask();
+        this.sparse = rules.isSparse() ? new CellMap(rules.getShipCells() * 3) : null;
+    }
+
+    /**
+     * Отмечает корабль и его ореол.
+     *
+     * @param size     размер корабля
+     * @param vertical {@code true} для вертикального корабля
+     * @param x        начальная координата X
+     * @param y        начальная координата Y
+     */
+    public void add(int size, boolean vertical, int x, int y) {
+        int margin = rules.getAdjacency() == RuleSet.Adjacency.ANY ? 0 : 1;
+        boolean corners = rules.getAdjacency() == RuleSet.Adjacency.NONE;
+        int endX = vertical ? x : x + size - 1;
+        int endY = vertical ? y + size - 1 : y;
+
+        for (int cy = Math.max(0, y - margin); cy <= Math.min(rules.getHeight() - 1, endY + margin); cy++) {
+            boolean rowOutside = cy < y || cy > endY;
+            for (int cx = Math.max(0, x - margin); cx <= Math.min(rules.getWidth() - 1, endX + margin); cx++) {
+                if (!corners && rowOutside && (cx < x || cx > endX)) {
+                    continue;
+                }
+                mark(cy * rules.getWidth() + cx);
+            }
+        }
+    }
+
+    /**
+     * Отмечает размещённый корабль.
+     *
+     * @param ship корабль, стоящий на поле
+     */
+    public void add(Ship ship) {
+        List<Cell> cells = ship.getCells();
+        if (cells.isEmpty()) {
+            return;
+        }
+        Cell origin = cells.get(0);
+        add(ship.getSize(), ship.getOrientation() == Ship.Orientation.VERTICAL, origin.getX(), origin.getY());
+    }
+
+    /**
+     * Пересобирает маску по кораблям поля.
+     *
+     * @param ships корабли, стоящие на поле
+     */
+    public void rebuild(List<Ship> ships) {
+        clear();
+        for (Ship ship : ships) {
+            add(ship);
+        }
+    }
+
+    public void clear() {
+        if (dense != null) {
+            Arrays.fill(dense, 0L);
+        }
+        else {
+            sparse.clear();
+        }
+    }
+
+    /**
+     * Можно ли поставить корабль.
+     *
+     * @param size     размер корабля
+     * @param vertical {@code true} для вертикального корабля
+     * @param x        начальная координата X
+     * @param y        начальная координата Y
+     * @return {@code true}, если корабль помещается на поле и не задевает отмеченные клетки
+     */
+    public boolean canPlace(int size, boolean vertical, int x, int y) {
+        int endX = vertical ? x : x + size - 1;
+        int endY = vertical ? y + size - 1 : y;
+        if (x < 0 || y < 0 || endX >= rules.getWidth() || endY >= rules.getHeight()) {
+            return false;
+        }
+
+        int cell = y * rules.getWidth() + x;
+        int step = vertical ? rules.getWidth() : 1;
+        for (int i = 0; i < size; i++, cell += step) {
+            if (isMarked(cell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void mark(int cell) {
+        if (dense != null) {
+            RuleSet.set(dense, cell);
+        }
+        else {
+            sparse.put(cell, 1);
+        }
+    }
+
+    private boolean isMarked(int cell) {
+        return dense != null ? RuleSet.isSet(dense, cell) : sparse.containsKey(cell);
+    }
+}
@@ -0,0 +1,108 @@
+package BattleShip.client.model;
+
+/**
+ * Неизменяемые состояния клеток поля с общей структурой между версиями.
+ * <p>
+ * Клетки хранятся в дереве: листья — блоки по {@value #LEAF} кодов {@link Cell.State},
+ * внутренние узлы — по {@value #FANOUT} потомков. {@link #with} копирует только путь
+ * от корня до изменённого листа, остальные узлы новая версия делит с прежней,
+ * поэтому версия стоит O(log клеток) памяти и времени, а любая старая версия
+ * остаётся доступной целиком. Отсутствующий узел означает блок пустых клеток,
+ * так что версия большого разреженного поля хранит только затронутые участки.
+ */
+public final class PersistentCells {
+
+    static final int LEAF = 64;
+    static final int FANOUT = 16;
+
+    private static final int LEAF_BITS = 6;
+    private static final int FANOUT_BITS = 4;
+
+    private final int cells;
+
+    /** Число уровней внутренних узлов над листьями */
+    private final int depth;
+
+    /** Корень: {@code byte[]} при нулевой глубине, иначе {@code Object[]}; {@code null} — всё пусто */
+    private final Object root;
+
+    private PersistentCells(int cells, int depth, Object root) {
+        this.cells = cells;
+        this.depth = depth;
+        this.root = root;
+    }
+
+    /**
+     * Пустое поле.
+     *
+     * @param cells число клеток
+     * @return версия, в которой все клетки пусты
+     */
+    public static PersistentCells empty(int cells) {
+        int depth = 0;
+        for (long capacity = LEAF; capacity < cells; capacity *= FANOUT) {
+            depth++;
+        }
+        return new PersistentCells(cells, depth, null);
+    }
+
+    /**
+     * Снимок доски.
+     *
+     * @param board доска
+     * @return версия с состояниями клеток доски
+     */
+    public static PersistentCells of(Board board) {
+        PersistentCells[] result = {empty(board.getWidth() * board.getHeight())};
+        board.forEachNonEmpty((cell, code) -> result[0] = result[0].with(cell, Cell.State.BY_CODE[code]));
+        return result[0];
+    }
+
+    public int size() {
+        return cells;
+    }
+
+    /**
+     * Состояние клетки.
+     *
+     * @param cell индекс клетки {@code y * ширина + x}
+     * @return состояние
+     */
+    public Cell.State get(int cell) {
+        Object node = root;
+        for (int level = depth; level > 0 && node != null; level--) {
+            node = ((Object[]) node)[(cell >>> (LEAF_BITS + (level - 1) * FANOUT_BITS)) & (FANOUT - 1)];
+        }
+        return node == null ? Cell.State.EMPTY : Cell.State.BY_CODE[((byte[]) node)[cell & (LEAF - 1)]];
+    }
+
+    /**
+     * Новая версия с изменённой клеткой; текущая версия не меняется.
+     *
+     * @param cell  индекс клетки
+     * @param state новое состояние
+     * @return новая версия или эта же, если состояние не меняется
+     */
+    public PersistentCells with(int cell, Cell.State state) {
+        if (cell < 0 || cell >= cells) {
+            throw new IndexOutOfBoundsException("Клетка " + cell + " вне поля из " + cells);
+        }
+        if (get(cell) == state) {
+            return this;
+        }
+        return new PersistentCells(cells, depth, with(root, depth, cell, (byte) state.ordinal()));
+    }
+
+    private static Object with(Object node, int level, int cell, byte code) {
+        if (level == 0) {
+            byte[] leaf = node == null ? new byte[LEAF] : ((byte[]) node).clone();
+            leaf[cell & (LEAF - 1)] = code;
+            return leaf;
+        }
+
+        Object[] children = node == null ? new Object[FANOUT] : ((Object[]) node).clone();
+        int slot = (cell >>> (LEAF_BITS + (level - 1) * FANOUT_BITS)) & (FANOUT - 1);
+        children[slot] = with(children[slot], level - 1, cell, code);
+        return children;
+    }
+}
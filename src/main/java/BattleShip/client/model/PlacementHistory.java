@@ -0,0 +1,156 @@
+package BattleShip.client.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * История расстановки кораблей с неограниченной отменой и повтором.
+ * <p>
+ * Версия расстановки — неизменяемый список кораблей, где каждый узел хранит
+ * последний поставленный корабль и ссылку на предыдущую версию. Постановка корабля
+ * создаёт один узел и делит с предыдущей версией весь остальной список, поэтому
+ * версия стоит O(1) памяти, а отмена и повтор — переход по списку версий.
+ * Доска приводится к версии заново расстановкой её кораблей за O(число кораблей).
+ */
+public final class PlacementHistory {
+
+    /**
+     * Неизменяемая версия расстановки.
+     */
+    public static final class Version {
+        private final ShipType type;
+        private final int x;
+        private final int y;
+        private final boolean vertical;
+        private final Version previous;
+        private final int shipCount;
+
+        private Version(ShipType type, int x, int y, boolean vertical, Version previous) {
+            this.type = type;
+            this.x = x;
+            this.y = y;
+            this.vertical = vertical;
+            this.previous = previous;
+            this.shipCount = previous == null ? 1 : previous.shipCount + 1;
+        }
+
+        public int getShipCount() {
+            return shipCount;
+        }
+    }
+
+    /** Версии по порядку; {@code null} — пустая расстановка */
+    private final List<Version> versions = new ArrayList<>();
+
+    /** Номер текущей версии в {@link #versions} */
+    private int current;
+
+    public PlacementHistory() {
+        versions.add(null);
+    }
+
+    /**
+     * Текущая версия.
+     *
+     * @return версия или {@code null} для пустой расстановки
+     */
+    public Version current() {
+        return versions.get(current);
+    }
+
+    /**
+     * Записывает постановку корабля поверх текущей версии.
+     * Отменённые версии после текущей больше нельзя повторить.
+     *
+     * @param ship поставленный на доску корабль
+     */
+    public void recordPlacement(Ship ship) {
+        push(with(current(), ship));
+    }
+
+    /**
+     * Записывает новую расстановку целиком (например, случайную).
+     *
+     * @param ships корабли доски
+     */
+    public void recordFleet(List<Ship> ships) {
+        Version version = null;
+        for (Ship ship : ships) {
+            version = with(version, ship);
+        }
+        push(version);
+    }
+
+    /** Записывает очистку поля */
+    public void recordClear() {
+        if (current() != null) {
+            push(null);
+        }
+    }
+
+    /** Версия с ещё одним кораблём; прежняя версия не меняется и остаётся хвостом новой */
+    private static Version with(Version version, Ship ship) {
+        Cell origin = ship.getCells().get(0);
+        return new Version(ship.getType(), origin.getX(), origin.getY(),
+                ship.getOrientation() == Ship.Orientation.VERTICAL, version);
+    }
+
+    private void push(Version version) {
+        versions.subList(current + 1, versions.size()).clear();
+        versions.add(version);
+        current++;
+    }
+
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    public boolean canRedo() {
+        return current < versions.size() - 1;
+    }
+
+    /**
+     * Возвращается к предыдущей версии.
+     *
+     * @return новая текущая версия
+     * @throws IllegalStateException если отменять нечего
+     */
+    public Version undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("Нечего отменять");
+        }
+        return versions.get(--current);
+    }
+
+    /**
+     * Повторяет отменённую версию.
+     *
+     * @return новая текущая версия
+     * @throws IllegalStateException если повторять нечего
+     */
+    public Version redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("Нечего повторять");
+        }
+        return versions.get(++current);
+    }
+
+    /**
+     * Приводит доску к версии: очищает её и ставит корабли версии в исходном порядке.
+     *
+     * @param version версия или {@code null} для пустой доски
+     * @param board   доска
+     */
+    public static void apply(Version version, Board board) {
+        board.clearBoard();
+        Version[] chain = new Version[version == null ? 0 : version.shipCount];
+        for (Version v = version; v != null; v = v.previous) {
+            chain[v.shipCount - 1] = v;
+        }
+        for (Version v : chain) {
+            Ship ship = new Ship(v.type);
+            ship.setOrientation(v.vertical ? Ship.Orientation.VERTICAL : Ship.Orientation.HORIZONTAL);
+            board.placeShip(ship, v.x, v.y);
+        }
+    }
+}
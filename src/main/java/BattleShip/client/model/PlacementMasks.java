@@ -0,0 +1,198 @@
+package BattleShip.client.model;
+
+import java.util.Arrays;
+
+/**
+ * Таблицы всех допустимых положений кораблей на поле 10x10.
+ * <p>
+ * Положение — корабль заданного размера и ориентации с заданной начальной клеткой,
+ * целиком помещающийся на поле. Для каждого положения хранятся маска занятых клеток
+ * и маска окрестности (восемь соседей каждой клетки без самого корабля).
+ * Клетка {@code y * Board.SIZE + x} кодируется битом в паре {@code long}:
+ * клетки 0–63 в младшем слове, 64–99 в старшем.
+ * <p>
+ * Таблицы вычисляются один раз при загрузке класса и общие для поля, панели
+ * расстановки и ИИ. Проверка положения сводится к паре операций AND.
+ */
+public final class PlacementMasks {
+
+    public static final int CELLS = Board.SIZE * Board.SIZE;
+    public static final int MAX_SHIP = 4;
+
+    /** Количество положений */
+    public static final int COUNT;
+
+    /** Размер корабля, начальная клетка и ориентация каждого положения (0 — горизонтально) */
+    public static final int[] SIZE;
+    public static final int[] START;
+    public static final int[] ORIENTATION;
+
+    /** Клетки каждого положения */
+    public static final int[][] CELLS_OF;
+
+    /** Маски клеток положения */
+    public static final long[] LO;
+    public static final long[] HI;
+
+    /** Маски окрестности положения (без самого положения) */
+    public static final long[] HALO_LO;
+    public static final long[] HALO_HI;
+
+    /** Положения одного размера идут подряд: с {@code FIRST_OF_SIZE[size]} до {@code FIRST_OF_SIZE[size + 1]} */
+    private static final int[] FIRST_OF_SIZE = new int[MAX_SHIP + 2];
+
+    /** Номер положения по размеру, ориентации и начальной клетке; -1, если корабль не помещается */
+    private static final int[][][] INDEX = new int[MAX_SHIP + 1][2][CELLS];
+
+    static {
+        int count = 0;
+        for (int size = 1; size <= MAX_SHIP; size++) {
+            int oneWay = (Board.SIZE - size + 1) * Board.SIZE;
+            count += size == 1 ? oneWay : 2 * oneWay;
+        }
+
+        COUNT = count;
+        SIZE = new int[count];
+        START = new int[count];
+        ORIENTATION = new int[count];
+        CELLS_OF = new int[count][];
+        LO = new long[count];
+        HI = new long[count];
+        HALO_LO = new long[count];
+        HALO_HI = new long[count];
+
+        int p = 0;
+        for (int size = 1; size <= MAX_SHIP; size++) {
+            FIRST_OF_SIZE[size] = p;
+            Arrays.fill(INDEX[size][0], -1);
+            Arrays.fill(INDEX[size][1], -1);
+
+            // Однопалубный корабль в обеих ориентациях занимает одно и то же положение
+            for (int orientation = 0; orientation < (size == 1 ? 1 : 2); orientation++) {
+                int maxX = (orientation == 0) ? Board.SIZE - size : Board.SIZE - 1;
+                int maxY = (orientation == 1) ? Board.SIZE - size : Board.SIZE - 1;
+
+                for (int y = 0; y <= maxY; y++) {
+                    for (int x = 0; x <= maxX; x++) {
+                        int[] cells = new int[size];
+                        for (int i = 0; i < size; i++) {
+                            int cx = x + (orientation == 0 ? i : 0);
+                            int cy = y + (orientation == 1 ? i : 0);
+                            cells[i] = cy * Board.SIZE + cx;
+                        }
+
+                        SIZE[p] = size;
+                        START[p] = y * Board.SIZE + x;
+                        ORIENTATION[p] = orientation;
+                        CELLS_OF[p] = cells;
+
+                        for (int cell : cells) {
+                            if (cell < 64) {
+                                LO[p] |= 1L << cell;
+                            }
+                            else {
+                                HI[p] |= 1L << (cell - 64);
+                            }
+
+                            int cx = cell % Board.SIZE;
+                            int cy = cell / Board.SIZE;
+                            for (int dy = -1; dy <= 1; dy++) {
+                                for (int dx = -1; dx <= 1; dx++) {
+                                    int nx = cx + dx;
+                                    int ny = cy + dy;
+                                    if (nx < 0 || nx >= Board.SIZE || ny < 0 || ny >= Board.SIZE) {
+                                        continue;
+                                    }
+                                    int neighbour = ny * Board.SIZE + nx;
+                                    if (neighbour < 64) {
+                                        HALO_LO[p] |= 1L << neighbour;
+                                    }
+                                    else {
+                                        HALO_HI[p] |= 1L << (neighbour - 64);
+                                    }
+                                }
+                            }
+                        }
+                        HALO_LO[p] &= ~LO[p];
+                        HALO_HI[p] &= ~HI[p];
+
+                        INDEX[size][orientation][START[p]] = p;
+                        if (size == 1) {
+                            INDEX[size][1][START[p]] = p;
+                        }
+                        p++;
+                    }
+                }
+            }
+        }
+        FIRST_OF_SIZE[MAX_SHIP + 1] = p;
+    }
+
+    private PlacementMasks() {
+    }
+
+    /**
+     * Номер положения корабля.
+     *
+     * @param size       размер корабля
+     * @param horizontal {@code true} для горизонтальной ориентации
+     * @param x          начальная координата X
+     * @param y          начальная координата Y
+     * @return номер положения или -1, если корабль не помещается на поле
+     */
+    public static int indexOf(int size, boolean horizontal, int x, int y) {
+        if (size < 1 || size > MAX_SHIP || x < 0 || x >= Board.SIZE || y < 0 || y >= Board.SIZE) {
+            return -1;
+        }
+        return INDEX[size][horizontal ? 0 : 1][y * Board.SIZE + x];
+    }
+
+    /**
+     * Номер первого положения кораблей заданного размера.
+     *
+     * @param size размер корабля
+     * @return номер положения
+     */
+    public static int firstOfSize(int size) {
+        return FIRST_OF_SIZE[size];
+    }
+
+    /**
+     * Количество положений кораблей заданного размера.
+     *
+     * @param size размер корабля
+     * @return количество положений
+     */
+    public static int countOfSize(int size) {
+        return FIRST_OF_SIZE[size + 1] - FIRST_OF_SIZE[size];
+    }
+
+    /**
+     * Можно ли поставить корабль в положение, если занятые кораблями клетки заданы маской.
+     * Корабль не должен пересекаться с другими кораблями и касаться их.
+     *
+     * @param p  номер положения
+     * @param lo младшее слово маски занятых клеток
+     * @param hi старшее слово маски занятых клеток
+     * @return {@code true}, если положение свободно
+     */
+    public static boolean fits(int p, long lo, long hi) {
+        return ((LO[p] | HALO_LO[p]) & lo) == 0 && ((HI[p] | HALO_HI[p]) & hi) == 0;
+    }
+
+    /**
+     * Пересекается ли положение с маской.
+     *
+     * @param p  номер положения
+     * @param lo младшее слово маски
+     * @param hi старшее слово маски
+     * @return {@code true}, если есть общие клетки
+     */
+    public static boolean intersects(int p, long lo, long hi) {
+        return (LO[p] & lo) != 0 || (HI[p] & hi) != 0;
+    }
+
+    public static boolean isSet(long lo, long hi, int cell) {
+        return cell < 64 ? (lo & (1L << cell)) != 0 : (hi & (1L << (cell - 64))) != 0;
+    }
+}
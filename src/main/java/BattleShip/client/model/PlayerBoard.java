@@ -17,7 +17,16 @@ public class PlayerBoard extends Board {
      * По умолчанию поле пустое, а игрок не готов к началу игры.
      */
     public PlayerBoard() {
-        super();
+        this(RuleSet.CLASSIC);
+    }
+
+    /**
+     * Создаёт новое игровое поле игрока по заданным правилам.
+     *
+     * @param rules правила партии
+     */
+    public PlayerBoard(RuleSet rules) {
+        super(rules);
         this.ready = false;
     }
 
@@ -40,14 +49,7 @@ public class PlayerBoard extends Board {
      * </ul>
      */
     public void reset() {
-        for (int y = 0; y < SIZE; y++) {
-            for (int x = 0; x < SIZE; x++) {
-                getCell(x, y).setState(Cell.State.EMPTY);
-                getCell(x, y).setShip(null);
-            }
-        }
-
-        getShips().clear();
+        clearBoard();
 
         ready = false;
     }
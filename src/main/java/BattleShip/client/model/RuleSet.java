@@ -0,0 +1,471 @@
+package BattleShip.client.model;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Правила партии: размеры поля, состав флота и правило соседства кораблей.
+ * <p>
+ * Правила выбираются при создании игры и задаются строкой:
+ * <ul>
+ *     <li>{@code classic} — поле 10x10, флот 4,3,3,2,2,2,1,1,1,1, корабли не касаются даже углами;</li>
+ *     <li>{@code <ширина>x<высота>/<размеры кораблей через запятую>/<none|corners|any>},
+ *     например {@code 12x12/4,4,3,3,2,2,1,1/corners}; повтор размера можно записать
+ *     как {@code размер*количество}: {@code 1000x1000/4*50,3*100,2*200,1*400/none}.</li>
+ * </ul>
+ * Размеры кораблей ограничены типами {@link ShipType} (от 1 до 4 клеток). Флот должен
+ * расставляться на поле случайным образом.
+ * <p>
+ * Клетка поля нумеруется {@code y * ширина + x}. Поля со сторонами до {@value #MAX_SIDE}
+ * плотные: множества клеток хранятся битовыми масками {@code long[]} (см. {@link #newCellMask()}).
+ * Поля больше — разреженные ({@link #isSparse()}, стороны до {@value #MAX_SPARSE_SIDE}):
+ * клетки хранятся в {@link CellMap}, и память пропорциональна кораблям и выстрелам, а не площади.
+ * Классические правила — единственный экземпляр {@link #CLASSIC}: для них поле, сервер и ИИ
+ * используют готовые таблицы {@link PlacementMasks}.
+ */
+public final class RuleSet {
+
+    /** Какие касания кораблей разрешены */
+    public enum Adjacency {
+        /** Корабли не касаются ни сторонами, ни углами */
+        NONE,
+        /** Корабли могут касаться углами */
+        CORNERS,
+        /** Корабли могут стоять вплотную */
+        ANY
+    }
+
+    public static final int MIN_SIDE = 5;
+
+    /** Наибольшая сторона плотного поля */
+    public static final int MAX_SIDE = 20;
+
+    /** Наибольшая сторона разреженного поля */
+    public static final int MAX_SPARSE_SIDE = 10_000;
+
+    /** Наибольшее число кораблей во флоте плотного поля */
+    public static final int MAX_SHIPS = 30;
+
+    /**
+     * Наибольшее число кораблей во флоте разреженного поля; ограничено длиной строки
+     * расстановки, которую журнал сессий хранит с двухбайтовой длиной
+     */
+    public static final int MAX_SPARSE_SHIPS = 2_000;
+
+    /** Классические правила */
+    public static final RuleSet CLASSIC = new RuleSet(10, 10, new int[]{4, 3, 3, 2, 2, 2, 1, 1, 1, 1}, Adjacency.NONE);
+
+    private final int width;
+    private final int height;
+
+    /** Размеры кораблей флота по убыванию */
+    private final int[] sizes;
+
+    /** Количество кораблей по размеру */
+    private final int[] counts = new int[PlacementMasks.MAX_SHIP + 1];
+
+    private final Adjacency adjacency;
+
+    private RuleSet(int width, int height, int[] sizes, Adjacency adjacency) {
+        this.width = width;
+        this.height = height;
+        this.sizes = sizes.clone();
+        this.adjacency = adjacency;
+
+        Arrays.sort(this.sizes);
+        for (int i = 0; i < this.sizes.length / 2; i++) {
+            int tmp = this.sizes[i];
+            this.sizes[i] = this.sizes[this.sizes.length - 1 - i];
+            this.sizes[this.sizes.length - 1 - i] = tmp;
+        }
+        for (int size : this.sizes) {
+            counts[size]++;
+        }
+    }
+
+    /**
+     * Разбирает правила из строки.
+     *
+     * @param spec строка правил
+     * @return правила; для классических — {@link #CLASSIC}
+     * @throws IllegalArgumentException если строка неверна или флот не помещается на поле
+     */
+    public static RuleSet parse(String spec) {
+        String trimmed = spec.trim();
+        if (trimmed.equalsIgnoreCase("classic")) {
+            return CLASSIC;
+        }
+
+        String[] parts = trimmed.split("/");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Ожидается <ширина>x<высота>/<корабли>/<соседство>: " + spec);
+        }
+
+        int width;
+        int height;
+        int[] sizes;
+        try {
+            String[] dims = parts[0].toLowerCase().split("x");
+            if (dims.length != 2) {
+                throw new IllegalArgumentException("Неверный размер поля: " + parts[0]);
+            }
+            width = Integer.parseInt(dims[0].trim());
+            height = Integer.parseInt(dims[1].trim());
+            sizes = parseSizes(parts[1], spec);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверное число в правилах: " + spec);
+        }
+
+        Adjacency adjacency;
+        try {
+            adjacency = Adjacency.valueOf(parts[2].trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестное правило соседства: " + parts[2]);
+        }
+
+        if (width < MIN_SIDE || width > MAX_SPARSE_SIDE || height < MIN_SIDE || height > MAX_SPARSE_SIDE) {
+            throw new IllegalArgumentException("Стороны поля должны быть от " + MIN_SIDE + " до " + MAX_SPARSE_SIDE + ": " + spec);
+        }
+        int maxShips = (width > MAX_SIDE || height > MAX_SIDE) ? MAX_SPARSE_SHIPS : MAX_SHIPS;
+        if (sizes.length == 0 || sizes.length > maxShips) {
+            throw new IllegalArgumentException("Во флоте должно быть от 1 до " + maxShips + " кораблей: " + spec);
+        }
+        for (int size : sizes) {
+            if (size < 1 || size > PlacementMasks.MAX_SHIP) {
+                throw new IllegalArgumentException("Размер корабля должен быть от 1 до " + PlacementMasks.MAX_SHIP + ": " + spec);
+            }
+        }
+
+        RuleSet rules = new RuleSet(width, height, sizes, adjacency);
+        if (rules.equals(CLASSIC)) {
+            return CLASSIC;
+        }
+
+        try {
+            FleetGenerator.generate(rules, new Random(rules.hashCode()));
+        }
+        catch (IllegalStateException e) {
+            throw new IllegalArgumentException("Флот не помещается на поле: " + spec);
+        }
+        return rules;
+    }
+
+    /**
+     * Разбирает список размеров кораблей, раскрывая повторы {@code размер*количество}.
+     */
+    private static int[] parseSizes(String list, String spec) {
+        String[] items = list.split(",");
+        int total = 0;
+        int[][] runs = new int[items.length][2];
+        for (int i = 0; i < items.length; i++) {
+            String[] run = items[i].split("\\*");
+            runs[i][0] = Integer.parseInt(run[0].trim());
+            runs[i][1] = run.length > 1 ? Integer.parseInt(run[1].trim()) : 1;
+            if (run.length > 2 || runs[i][1] < 1 || runs[i][1] > MAX_SPARSE_SHIPS) {
+                throw new IllegalArgumentException("Неверный повтор корабля: " + items[i]);
+            }
+            total += runs[i][1];
+        }
+        if (total > MAX_SPARSE_SHIPS) {
+            throw new IllegalArgumentException("Во флоте должно быть не больше " + MAX_SPARSE_SHIPS + " кораблей: " + spec);
+        }
+
+        int[] sizes = new int[total];
+        int n = 0;
+        for (int[] run : runs) {
+            for (int i = 0; i < run[1]; i++) {
+                sizes[n++] = run[0];
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Строка правил в формате {@link #parse}.
+     *
+     * @return {@code classic} или полная запись правил
+     */
+    public String toSpec() {
+        if (isClassic()) {
+            return "classic";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(width).append('x').append(height).append('/');
+        for (int i = 0; i < sizes.length; ) {
+            int run = 1;
+            while (i + run < sizes.length && sizes[i + run] == sizes[i]) {
+                run++;
+            }
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(sizes[i]);
+            if (run > 1) {
+                sb.append('*').append(run);
+            }
+            i += run;
+        }
+        return sb.append('/').append(adjacency.name().toLowerCase()).toString();
+    }
+
+    public boolean isClassic() {
+        return this == CLASSIC;
+    }
+
+    /**
+     * Разреженное ли поле: сторона больше {@value #MAX_SIDE}. Такие поля хранят клетки
+     * в {@link CellMap} и отрисовываются клиентом через окно просмотра.
+     *
+     * @return {@code true} для больших полей
+     */
+    public boolean isSparse() {
+        return width > MAX_SIDE || height > MAX_SIDE;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /** Количество клеток поля */
+    public int getCells() {
+        return width * height;
+    }
+
+    public Adjacency getAdjacency() {
+        return adjacency;
+    }
+
+    /**
+     * Размеры кораблей флота по убыванию.
+     *
+     * @return копия массива размеров
+     */
+    public int[] getFleetSizes() {
+        return sizes.clone();
+    }
+
+    /** Количество кораблей во флоте */
+    public int getShipCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Количество кораблей заданного размера.
+     *
+     * @param size размер корабля
+     * @return число кораблей этого размера во флоте
+     */
+    public int getShipCount(int size) {
+        return size >= 1 && size < counts.length ? counts[size] : 0;
+    }
+
+    /** Суммарное число клеток, занятых флотом */
+    public int getShipCells() {
+        int cells = 0;
+        for (int size : sizes) {
+            cells += size;
+        }
+        return cells;
+    }
+
+    /**
+     * Размер корабля по номеру типа в протоколе (порядковому номеру {@link ShipType}).
+     *
+     * @param type номер типа
+     * @return размер корабля или 0 для неизвестного типа
+     */
+    public static int shipSize(int type) {
+        ShipType[] types = ShipType.values();
+        return type >= 0 && type < types.length ? types[type].getSize() : 0;
+    }
+
+    /**
+     * Находятся ли координаты на поле.
+     *
+     * @param x координата X
+     * @param y координата Y
+     * @return {@code true}, если клетка на поле
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /** Пустая маска клеток поля; только для плотных полей */
+    public long[] newCellMask() {
+        return new long[(getCells() + 63) >>> 6];
+    }
+
+    public static boolean isSet(long[] mask, int cell) {
+        return (mask[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public static void set(long[] mask, int cell) {
+        mask[cell >>> 6] |= 1L << cell;
+    }
+
+    public static void clear(long[] mask, int cell) {
+        mask[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /**
+     * Можно ли поставить корабль: он должен целиком помещаться на поле, не пересекаться
+     * с занятыми клетками и касаться их только так, как разрешает правило соседства.
+     *
+     * @param occupied маска клеток, занятых кораблями
+     * @param size     размер корабля
+     * @param vertical {@code true} для вертикального корабля
+     * @param x        начальная координата X
+     * @param y        начальная координата Y
+     * @return {@code true}, если корабль можно поставить
+     */
+    public boolean canPlace(long[] occupied, int size, boolean vertical, int x, int y) {
+        return canPlace(cell -> isSet(occupied, cell), size, vertical, x, y);
+    }
+
+    /**
+     * Можно ли поставить корабль на разреженное поле.
+     *
+     * @param occupied клетки, занятые кораблями (ненулевые значения)
+     * @param size     размер корабля
+     * @param vertical {@code true} для вертикального корабля
+     * @param x        начальная координата X
+     * @param y        начальная координата Y
+     * @return {@code true}, если корабль можно поставить
+     */
+    public boolean canPlace(CellMap occupied, int size, boolean vertical, int x, int y) {
+        return canPlace(occupied::containsKey, size, vertical, x, y);
+    }
+
+    private boolean canPlace(IntPredicate occupied, int size, boolean vertical, int x, int y) {
+        int endX = vertical ? x : x + size - 1;
+        int endY = vertical ? y + size - 1 : y;
+        if (x < 0 || y < 0 || endX >= width || endY >= height) {
+            return false;
+        }
+
+        int margin = (adjacency == Adjacency.ANY) ? 0 : 1;
+        for (int cy = Math.max(0, y - margin); cy <= Math.min(height - 1, endY + margin); cy++) {
+            boolean rowOutside = cy < y || cy > endY;
+            for (int cx = Math.max(0, x - margin); cx <= Math.min(width - 1, endX + margin); cx++) {
+                boolean corner = rowOutside && (cx < x || cx > endX);
+                if (corner && adjacency == Adjacency.CORNERS) {
+                    continue;
+                }
+                if (occupied.test(cy * width + cx)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Отмечает клетки корабля в маске.
+     *
+     * @param occupied маска клеток
+     * @param size     размер корабля
+     * @param vertical {@code true} для вертикального корабля
+     * @param x        начальная координата X
+     * @param y        начальная координата Y
+     */
+    public void mark(long[] occupied, int size, boolean vertical, int x, int y) {
+        int cell = y * width + x;
+        int step = vertical ? width : 1;
+        for (int i = 0; i < size; i++, cell += step) {
+            set(occupied, cell);
+        }
+    }
+
+    /**
+     * Проверяет расстановку в формате протокола {@code "тип,x,y,ориентация;..."}:
+     * все корабли на поле, не касаются друг друга сверх разрешённого и флот совпадает с правилами.
+     *
+     * @param shipsData строка с кораблями
+     * @return описание ошибки или {@code null}, если расстановка верна
+     */
+    public String checkFleet(String shipsData) {
+        if (shipsData == null) {
+            return "Корабли не расставлены";
+        }
+
+        int[] ships;
+        try {
+            ships = FleetCodec.fromText(shipsData, this);
+        }
+        catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+
+        int[] placed = new int[counts.length];
+        boolean sparse = isSparse();
+        long[] occupied = sparse ? null : newCellMask();
+        CellMap sparseOccupied = sparse ? new CellMap(getShipCells()) : null;
+
+        for (int ship : ships) {
+            int size = FleetCodec.size(ship);
+            boolean vertical = FleetCodec.isVertical(ship);
+            int x = FleetCodec.cell(ship) % width;
+            int y = FleetCodec.cell(ship) / width;
+            if (isClassic()) {
+                int p = PlacementMasks.indexOf(size, !vertical, x, y);
+                if (p < 0 || !PlacementMasks.fits(p, occupied[0], occupied[1])) {
+                    return "Корабль вне поля или касается другого: " + FleetCodec.shipToText(ship, width);
+                }
+                occupied[0] |= PlacementMasks.LO[p];
+                occupied[1] |= PlacementMasks.HI[p];
+            }
+            else if (sparse) {
+                if (!canPlace(sparseOccupied, size, vertical, x, y)) {
+                    return "Корабль вне поля или касается другого: " + FleetCodec.shipToText(ship, width);
+                }
+                int step = vertical ? width : 1;
+                for (int i = 0, cell = y * width + x; i < size; i++, cell += step) {
+                    sparseOccupied.put(cell, 1);
+                }
+            }
+            else {
+                if (!canPlace(occupied, size, vertical, x, y)) {
+                    return "Корабль вне поля или касается другого: " + FleetCodec.shipToText(ship, width);
+                }
+                mark(occupied, size, vertical, x, y);
+            }
+            placed[size]++;
+        }
+
+        if (!Arrays.equals(placed, counts)) {
+            return "Флот не соответствует правилам " + toSpec();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RuleSet)) {
+            return false;
+        }
+        RuleSet other = (RuleSet) o;
+        return width == other.width && height == other.height
+                && adjacency == other.adjacency && Arrays.equals(sizes, other.sizes);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((width * 31 + height) * 31 + adjacency.ordinal()) * 31 + Arrays.hashCode(sizes);
+    }
+
+    @Override
+    public String toString() {
+        return toSpec();
+    }
+}
@@ -1,6 +1,6 @@
 package BattleShip.client.model;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -25,9 +25,12 @@ public class Ship {
 
     private Orientation orientation;
 
-    /** Список клеток, занимаемых кораблём */
+    /** Список клеток, занимаемых кораблём; у корабля на доске — представления клеток доски */
     private List<Cell> cells;
 
+    /** Начальная клетка корабля на доске ({@code y * ширина + x}) или -1, если корабль не на доске */
+    int origin = -1;
+
     /** Флаг, указывающий, размещён ли корабль на поле */
     private boolean placed;
 
@@ -50,7 +53,7 @@ public class Ship {
         this.type = type;
         this.size = type.getSize();
         this.orientation = Orientation.HORIZONTAL;
-        this.cells = new ArrayList<>();
+        this.cells = Collections.emptyList();
         this.placed = false;
         this.destroyed = false;
     }
@@ -1,20 +1,28 @@
 package BattleShip.client.view;
 
+import BattleShip.client.model.BattleReplay;
 import BattleShip.client.model.BattleState;
 import BattleShip.client.model.Board;
 import BattleShip.client.model.Cell;
+import BattleShip.client.model.GameLog;
 import BattleShip.client.model.Ship;
+import BattleShip.client.utils.LoggerClient;
 
 import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.List;
 
 /**
  * Панель игрового экрана для игры "Морской бой".
  * <p>
  * Отображает игровое поле игрока и противника, лог игры, статус текущего хода и кнопки управления.
  * Позволяет обрабатывать клики по клеткам противника и сдачу игрока.
+ * После окончания партии ползунок просмотра показывает доски на любом ходу боя
+ * по кадрам {@link BattleReplay}.
  */
 public class BattleScreen extends JPanel {
 
@@ -23,6 +31,10 @@ public class BattleScreen extends JPanel {
     private int offsetX;
     private int offsetY;
 
+    /** Видимые окна полей игрока и противника */
+    private final Viewport playerViewport = new Viewport();
+    private final Viewport opponentViewport = new Viewport();
+
     private BattleState battleState;
 
     private JPanel playerBoardPanel;
@@ -32,8 +44,17 @@ public class BattleScreen extends JPanel {
     private JLabel opponentInfoLabel;
 
     private JTextArea gameLogArea;
+
+    /** Сколько записей журнала (по {@link GameLog#getTotalAdded()}) уже выведено в {@link #gameLogArea} */
+    private long shownLogEntries;
     private JButton surrenderButton;
 
+    /** Ползунок просмотра боя, виден после окончания партии */
+    private JSlider replaySlider;
+
+    /** Показываемый кадр записи боя; {@code null} — текущее состояние досок */
+    private BattleReplay.Frame replayFrame;
+
     private BoardMouseListener opponentBoardListener;
 
     /**
@@ -77,14 +98,13 @@ public class BattleScreen extends JPanel {
                 return;
             }
 
-            int x = (e.getX() - offsetX) / CELL_SIZE;
-            int y = (e.getY() - offsetY) / CELL_SIZE;
-
-            if (x >= 0 && x < Board.SIZE && y >= 0 && y < Board.SIZE) {
-                Cell cell = battleState.getOpponentBoard().getCell(x, y);
+            Board board = battleState.getOpponentBoard();
+            int[] cell = opponentViewport.cellAt(board, e.getX() - offsetX, e.getY() - offsetY, CELL_SIZE);
+            if (cell != null) {
+                Cell.State state = board.getState(cell[0], cell[1]);
 
-                if (cell.getState() == Cell.State.EMPTY || cell.getState() == Cell.State.SHIP) {
-                    listener.onCellClicked(x, y);
+                if (state == Cell.State.EMPTY || state == Cell.State.SHIP) {
+                    listener.onCellClicked(cell[0], cell[1]);
                 }
             }
         }
@@ -93,10 +113,8 @@ public class BattleScreen extends JPanel {
         public void mouseMoved(MouseEvent e) {
             if (!enabled) return;
 
-            int x = (e.getX() - offsetX) / CELL_SIZE;
-            int y = (e.getY() - offsetY) / CELL_SIZE;
-
-            if (x >= 0 && x < Board.SIZE && y >= 0 && y < Board.SIZE) {
+            Board board = battleState.getOpponentBoard();
+            if (opponentViewport.cellAt(board, e.getX() - offsetX, e.getY() - offsetY, CELL_SIZE) != null) {
                 opponentBoardPanel.repaint();
             }
         }
@@ -174,10 +192,17 @@ public class BattleScreen extends JPanel {
         controlPanel.setBackground(new Color(240, 248, 255));
         controlPanel.add(surrenderButton);
 
+        replaySlider = new JSlider(0, 0, 0);
+        replaySlider.setBackground(new Color(240, 248, 255));
+        replaySlider.setBorder(BorderFactory.createTitledBorder("Просмотр боя"));
+        replaySlider.setVisible(false);
+        replaySlider.addChangeListener(e -> showReplayTurn(replaySlider.getValue()));
+
         JPanel bottomPanel = new JPanel(new BorderLayout(10, 10));
         bottomPanel.setBackground(new Color(240, 248, 255));
         bottomPanel.add(gameLogScroll, BorderLayout.CENTER);
         bottomPanel.add(controlPanel, BorderLayout.EAST);
+        bottomPanel.add(replaySlider, BorderLayout.SOUTH);
 
         add(topPanel, BorderLayout.NORTH);
         add(centerPanel, BorderLayout.CENTER);
@@ -207,6 +232,7 @@ public class BattleScreen extends JPanel {
 
         statusLabel.setText("Ожидание начала игры");
         gameLogArea.setText("");
+        shownLogEntries = 0;
     }
 
     /**
@@ -217,6 +243,8 @@ public class BattleScreen extends JPanel {
      * @return JPanel с доской
      */
     private JPanel createBoardPanel(String title, boolean isPlayerBoard) {
+        Viewport viewport = isPlayerBoard ? playerViewport : opponentViewport;
+
         JPanel panel = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
@@ -224,21 +252,36 @@ public class BattleScreen extends JPanel {
                 Graphics2D g2d = (Graphics2D) g.create();
                 g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-                int boardPixelSize = CELL_SIZE * Board.SIZE;
+                Board board = battleState.getPlayerBoard();
+                int columns = viewport.getColumns(board);
+                int rows = viewport.getRows(board);
 
-                offsetX = (getWidth() - boardPixelSize) / 2;
-                offsetY = (getHeight() - boardPixelSize) / 2;
+                offsetX = (getWidth() - CELL_SIZE * columns) / 2;
+                offsetY = (getHeight() - CELL_SIZE * rows) / 2;
 
-                g2d.translate(offsetX, offsetY);
+                // Начало координат — клетка (0, 0) поля, окно смещено на свой угол
+                g2d.translate(offsetX - viewport.getOriginX() * CELL_SIZE, offsetY - viewport.getOriginY() * CELL_SIZE);
 
-                drawBoard(g2d, isPlayerBoard);
-                drawCoordinates(g2d);
+                drawCoordinates(g2d, board, viewport);
+                g2d.clipRect(viewport.getOriginX() * CELL_SIZE, viewport.getOriginY() * CELL_SIZE,
+                        columns * CELL_SIZE + 1, rows * CELL_SIZE + 1);
+                drawBoard(g2d, isPlayerBoard, viewport);
 
                 g2d.dispose();
             }
         };
 
-        panel.setPreferredSize(new Dimension(CELL_SIZE * Board.SIZE, CELL_SIZE * Board.SIZE));
+        Board board = battleState.getPlayerBoard();
+        panel.setPreferredSize(new Dimension(CELL_SIZE * viewport.getColumns(board), CELL_SIZE * viewport.getRows(board)));
+        panel.addMouseWheelListener(e -> {
+            int step = e.getWheelRotation() * 3;
+            boolean moved = e.isShiftDown()
+                    ? viewport.scroll(battleState.getPlayerBoard(), step, 0)
+                    : viewport.scroll(battleState.getPlayerBoard(), 0, step);
+            if (moved) {
+                panel.repaint();
+            }
+        });
         panel.setBackground(isPlayerBoard ? new Color(240, 255, 240) : new Color(255, 240, 240));
         panel.setBorder(BorderFactory.createTitledBorder(
                 BorderFactory.createLineBorder(Color.DARK_GRAY, 2),
@@ -252,28 +295,57 @@ public class BattleScreen extends JPanel {
      * Отрисовывает игровое поле (доску) игрока или противника.
      * <p>
      * Метод выбирает нужную доску в зависимости от параметра {@code isPlayerBoard},
-     * проходит по всем ячейкам поля и отрисовывает каждую из них,
+     * проходит по ячейкам видимого окна поля и отрисовывает каждую из них,
      * а также координатную сетку.
      *
      * @param g2d              графический контекст для рисования
      * @param isPlayerBoard  {@code true} — если требуется отрисовать поле игрока,
      *                       {@code false} — если поле противника
+     * @param viewport       видимое окно поля
      */
-    private void drawBoard(Graphics2D g2d, boolean isPlayerBoard) {
+    private void drawBoard(Graphics2D g2d, boolean isPlayerBoard, Viewport viewport) {
         //g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
         Board board = isPlayerBoard ? battleState.getPlayerBoard() : battleState.getOpponentBoard();
+        int endX = viewport.getOriginX() + viewport.getColumns(board);
+        int endY = viewport.getOriginY() + viewport.getRows(board);
 
-        for (int y = 0; y < Board.SIZE; y++) {
-            for (int x = 0; x < Board.SIZE; x++) {
-                Cell cell = board.getCell(x, y);
-                drawCell(g2d, cell, x, y, isPlayerBoard);
+        for (int y = viewport.getOriginY(); y < endY; y++) {
+            for (int x = viewport.getOriginX(); x < endX; x++) {
+                drawCell(g2d, board, x, y, isPlayerBoard);
             }
         }
 
+        // Выстрел показываемого хода записи
+        if (replayFrame != null && replayFrame.getResult() != null && replayFrame.isPlayerShot() != isPlayerBoard) {
+            g2d.setColor(new Color(255, 140, 0));
+            g2d.setStroke(new BasicStroke(3));
+            g2d.drawRect(replayFrame.getX() * CELL_SIZE + 1, replayFrame.getY() * CELL_SIZE + 1, CELL_SIZE - 2, CELL_SIZE - 2);
+        }
+
+        if (!isPlayerBoard) {
+            drawSalvoTargets(g2d);
+        }
+
         //drawCoordinates(g2d);
     }
 
+    /**
+     * Отмечает на поле противника клетки, выбранные для текущего залпа.
+     *
+     * @param g2d графический контекст {@link Graphics2D}
+     */
+    private void drawSalvoTargets(Graphics2D g2d) {
+        g2d.setColor(new Color(255, 140, 0));
+        g2d.setStroke(new BasicStroke(2));
+
+        for (int[] target : battleState.getSalvoTargets()) {
+            int cellX = target[0] * CELL_SIZE;
+            int cellY = target[1] * CELL_SIZE;
+            g2d.drawOval(cellX + 4, cellY + 4, CELL_SIZE - 8, CELL_SIZE - 8);
+        }
+    }
+
     /**
      * Отрисовывает одну ячейку игрового поля.
      * <p>
@@ -282,26 +354,29 @@ public class BattleScreen extends JPanel {
      * не отображаются до момента попадания.
      *
      * @param g2d            графический контекст {@link Graphics2D}
-     * @param cell           ячейка игрового поля
+     * @param board          игровое поле
      * @param x              координата X ячейки
      * @param y              координата Y ячейки
      * @param isPlayerBoard  {@code true}, если ячейка принадлежит полю игрока
      */
-    private void drawCell(Graphics2D g2d, Cell cell, int x, int y, boolean isPlayerBoard) {
+    private void drawCell(Graphics2D g2d, Board board, int x, int y, boolean isPlayerBoard) {
         int cellX = x * CELL_SIZE;
         int cellY = y * CELL_SIZE;
+        Cell.State state = replayFrame != null
+                ? replayFrame.getState(isPlayerBoard, y * board.getWidth() + x)
+                : board.getState(x, y);
 
         Color cellColor = Color.WHITE;
         Color borderColor = Color.LIGHT_GRAY;
 
-        switch (cell.getState()) {
+        switch (state) {
             case EMPTY:
                 cellColor = new Color(240, 248, 255);
                 break;
 
             case SHIP:
                 if (isPlayerBoard) {
-                    Ship ship = cell.getShip();
+                    Ship ship = board.getShipAt(x, y);
                     if (ship != null) {
                         cellColor = new Color(153, 17, 153);
                     }
@@ -334,14 +409,14 @@ public class BattleScreen extends JPanel {
         g2d.setColor(borderColor);
         g2d.drawRect(cellX, cellY, CELL_SIZE, CELL_SIZE);
 
-        if (cell.getState() == Cell.State.HIT || cell.getState() == Cell.State.SHIP_SUNK) {
+        if (state == Cell.State.HIT || state == Cell.State.SHIP_SUNK) {
             g2d.setColor(Color.WHITE);
             g2d.setStroke(new BasicStroke(2));
             g2d.drawLine(cellX + 5, cellY + 5, cellX + CELL_SIZE - 5, cellY + CELL_SIZE - 5);
             g2d.drawLine(cellX + CELL_SIZE - 5, cellY + 5, cellX + 5, cellY + CELL_SIZE - 5);
         }
 
-        if (cell.getState() == Cell.State.MISS) {
+        if (state == Cell.State.MISS) {
             g2d.setColor(Color.WHITE);
             g2d.fillOval(cellX + CELL_SIZE/2 - 3, cellY + CELL_SIZE/2 - 3, 6, 6);
         }
@@ -350,30 +425,66 @@ public class BattleScreen extends JPanel {
     /**
      * Отрисовывает координаты игрового поля.
      * <p>
-     * По горизонтали используются буквенные обозначения (А–К),
-     * по вертикали — числовые (1–10).
+     * По горизонтали используются буквенные обозначения (А, Б, В...),
+     * для больших полей — номера; по вертикали — числовые (начиная с 1).
+     * Подписываются только строки и столбцы видимого окна.
      *
-     * @param g2d графический контекст {@link Graphics2D}
+     * @param g2d      графический контекст {@link Graphics2D}
+     * @param board    доска, размеры которой подписываются
+     * @param viewport видимое окно поля
      */
-    private void drawCoordinates(Graphics2D g2d) {
+    private void drawCoordinates(Graphics2D g2d, Board board, Viewport viewport) {
         g2d.setColor(Color.BLACK);
         g2d.setFont(new Font("Arial", Font.PLAIN, 12));
 
-        for (int x = 0; x < Board.SIZE; x++) {
-            String letter = String.valueOf((char) ('А' + x));
-            int letterX = x * CELL_SIZE + CELL_SIZE / 2 - 4;
-            int letterY = -5;
+        for (int x = viewport.getOriginX(); x < viewport.getOriginX() + viewport.getColumns(board); x++) {
+            String letter = Viewport.columnLabel(board, x);
+            int letterX = x * CELL_SIZE + CELL_SIZE / 2 - g2d.getFontMetrics().stringWidth(letter) / 2;
+            int letterY = viewport.getOriginY() * CELL_SIZE - 5;
             g2d.drawString(letter, letterX, letterY);
         }
 
-        for (int y = 0; y < Board.SIZE; y++) {
+        for (int y = viewport.getOriginY(); y < viewport.getOriginY() + viewport.getRows(board); y++) {
             String number = String.valueOf(y + 1);
-            int numberX = -15;
+            int numberX = viewport.getOriginX() * CELL_SIZE - (number.length() > 2 ? 30 : 15);
             int numberY = y * CELL_SIZE + CELL_SIZE / 2 + 4;
             g2d.drawString(number, numberX, numberY);
         }
     }
 
+    /**
+     * Показывает ползунок просмотра боя, если партия записана, и ставит его на последний ход.
+     */
+    private void showReplaySlider() {
+        BattleReplay replay = battleState.getReplay();
+        if (replay == null || replaySlider.isVisible()) {
+            return;
+        }
+        replaySlider.setMaximum(replay.getLength());
+        replaySlider.setValue(replay.getLength());
+        replaySlider.setVisible(true);
+        revalidate();
+    }
+
+    /**
+     * Показывает доски после заданного хода записи боя.
+     *
+     * @param turn число выстрелов от начала записи
+     */
+    private void showReplayTurn(int turn) {
+        BattleReplay replay = battleState.getReplay();
+        if (replay == null) {
+            return;
+        }
+        // Последний кадр совпадает с текущими досками
+        replayFrame = turn < replay.getLength() ? replay.frameAt(turn) : null;
+        ((TitledBorder) replaySlider.getBorder())
+                .setTitle("Просмотр боя: ход " + turn + " из " + replay.getLength());
+        replaySlider.repaint();
+        playerBoardPanel.repaint();
+        opponentBoardPanel.repaint();
+    }
+
     /**
      * Обрабатывает действие «Сдаться» во время боя.
      * <p>
@@ -423,16 +534,23 @@ public class BattleScreen extends JPanel {
             opponentName = "Противник";
         }
 
+        BattleState.ShotStats playerStats = battleState.getPlayerStats();
+        BattleState.ShotStats opponentStats = battleState.getOpponentStats();
+
         playerInfoLabel.setText(String.format(
-                "<html><center>%s<br>Кораблей: %d</center></html>",
+                "<html><center>%s<br>Кораблей: %d<br>Точность: %d%%, серия: %d</center></html>",
                 playerName,
-                battleState.getPlayerShipsLeft()
+                battleState.getPlayerShipsLeft(),
+                playerStats.getAccuracy(),
+                playerStats.getStreak()
         ));
 
         opponentInfoLabel.setText(String.format(
-                "<html><center>%s<br>Кораблей: %d</center></html>",
+                "<html><center>%s<br>Кораблей: %d<br>Точность: %d%%, серия: %d</center></html>",
                 opponentName,
-                battleState.getOpponentShipsLeft()
+                battleState.getOpponentShipsLeft(),
+                opponentStats.getAccuracy(),
+                opponentStats.getStreak()
         ));
 
         if (battleState.isGameOver()) {
@@ -447,9 +565,16 @@ public class BattleScreen extends JPanel {
             }
             surrenderButton.setEnabled(false);
             opponentBoardListener.setEnabled(false);
+            showReplaySlider();
         }
         else if (battleState.isPlayerTurn()) {
-            statusLabel.setText("ВАШ ХОД");
+            if (battleState.isSalvo()) {
+                statusLabel.setText(String.format("ВАШ ЗАЛП: %d/%d",
+                        battleState.getSalvoTargets().size(), battleState.getSalvoSize()));
+            }
+            else {
+                statusLabel.setText("ВАШ ХОД");
+            }
             statusLabel.setForeground(new Color(0, 100, 0));
             opponentBoardListener.setEnabled(true);
         }
@@ -470,17 +595,37 @@ public class BattleScreen extends JPanel {
         }
     }
 
+    /**
+     * Дописывает в область журнала новые записи и убирает из её начала строки
+     * сверх ёмкости журнала. Документ не пересобирается, поэтому стоимость
+     * обновления зависит только от числа новых записей.
+     */
     private void updateGameLog() {
-        StringBuilder logText = new StringBuilder();
-        List<String> log = battleState.getGameLog();
-
-        for (String entry : log) {
-            logText.append(entry).append("\n");
+        GameLog log = battleState.getGameLog();
+        long fresh = log.getTotalAdded() - shownLogEntries;
+        if (fresh <= 0) {
+            return;
         }
 
-        gameLogArea.setText(logText.toString());
+        Document document = gameLogArea.getDocument();
+        try {
+            for (int i = (int) Math.max(0, log.size() - fresh); i < log.size(); i++) {
+                document.insertString(document.getLength(), log.get(i) + "\n", null);
+            }
+
+            // Последний элемент корня — пустая строка после завершающего перевода строки
+            Element root = document.getDefaultRootElement();
+            int excess = root.getElementCount() - 1 - log.getCapacity();
+            if (excess > 0) {
+                document.remove(0, root.getElement(excess - 1).getEndOffset());
+            }
+        }
+        catch (BadLocationException e) {
+            LoggerClient.info("Не удалось обновить журнал боя: " + e.getMessage());
+        }
+        shownLogEntries = log.getTotalAdded();
 
-        gameLogArea.setCaretPosition(gameLogArea.getDocument().getLength());
+        gameLogArea.setCaretPosition(document.getLength());
     }
 
     public void addGameLog(String message) {
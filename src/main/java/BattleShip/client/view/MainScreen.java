@@ -4,6 +4,7 @@ import BattleShip.client.utils.LoggerClient;
 import BattleShip.client.controller.BattleController;
 import BattleShip.client.controller.GameController;
 import BattleShip.client.controller.NetworkController;
+import BattleShip.client.model.RuleSet;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -40,6 +41,9 @@ public class MainScreen {
     private String playerShipsData;
     private String currentGameName;
 
+    /** Правила текущей партии, присланные сервером перед её созданием или присоединением */
+    private RuleSet rules = RuleSet.CLASSIC;
+
     private DefaultTableModel gamesTableModel;
 
     private ShipPlacementScreen shipPlacementScreen;
@@ -57,6 +61,10 @@ public class MainScreen {
         this.playerShipsData = playerShipsData;
     }
 
+    public void setRules(RuleSet rules) {
+        this.rules = rules;
+    }
+
     /**
      * Рендерер кнопки для таблицы списка игр.
      */
@@ -555,7 +563,7 @@ public class MainScreen {
     public void showShipPlacementScreen(String gameName, boolean isCreator) {
         this.currentGameName = gameName;
         this.isGameCreator = isCreator;
-        shipPlacementScreen.setGameInfo(gameName, username, isCreator);
+        shipPlacementScreen.setGameInfo(gameName, username, isCreator, rules);
         gameController.setShipPlacementScreen(shipPlacementScreen);
         cardLayout.show(mainPanel, "PLACEMENT");
     }
@@ -571,7 +579,53 @@ public class MainScreen {
      * @param playerTurn   {@code true}, если первый ход принадлежит текущему игроку
      */
     public void showBattleScreen(String opponentName, boolean playerTurn) {
-        battleController = new BattleController(networkController, username);
+        showBattleScreen(opponentName, playerTurn, 0);
+    }
+
+    /**
+     * Отображает экран боя с выбором режима.
+     *
+     * @param opponentName имя соперника
+     * @param playerTurn   ходит ли игрок первым
+     * @param salvoSize    выстрелов за ход в режиме залпа, 0 — обычная игра
+     */
+    public void showBattleScreen(String opponentName, boolean playerTurn, int salvoSize) {
+        createBattleController();
+
+        battleController.setOpponentName(opponentName);
+        battleController.setSalvoSize(salvoSize);
+
+        if (playerShipsData != null && !playerShipsData.isEmpty()) {
+            battleController.setPlayerBoardFromPlacement(playerShipsData);
+        }
+
+        addBattleView();
+
+        battleController.processGameStart(playerTurn ? "YOUR_TURN" : "OPPONENT_TURN");
+
+        cardLayout.show(mainPanel, "BATTLE");
+    }
+
+    /**
+     * Отображает экран боя, восстановленного после переподключения к серверу.
+     *
+     * @param snapshot снимок состояния партии от сервера
+     */
+    public void showResumedBattleScreen(String snapshot) {
+        createBattleController();
+        battleController.restoreFromSnapshot(snapshot);
+
+        addBattleView();
+        battleController.getView().updateUI();
+
+        cardLayout.show(mainPanel, "BATTLE");
+    }
+
+    /**
+     * Создаёт контроллер боя и настраивает обработчики повторной игры и выхода в меню.
+     */
+    private void createBattleController() {
+        battleController = new BattleController(networkController, username, rules);
 
         battleController.setOnPlayAgainCallback(() -> {
             showShipPlacementScreen(currentGameName, isGameCreator);
@@ -582,15 +636,13 @@ public class MainScreen {
             networkController.sendMessage("LEAVE_GAME");
         });
 
-        battleController.setOpponentName(opponentName);
-
-        if (playerShipsData != null && !playerShipsData.isEmpty()) {
-            battleController.setPlayerBoardFromPlacement(playerShipsData);
-        }
-
-
         gameController.setBattleController(battleController);
+    }
 
+    /**
+     * Создаёт экран боя и добавляет его в основной контейнер.
+     */
+    private void addBattleView() {
         battleScreen = battleController.createView();
 
         boolean alreadyAdded = false;
@@ -605,10 +657,6 @@ public class MainScreen {
             mainPanel.add(battleScreen, "BATTLE");
             gameController.setMainPanel(mainPanel);
         }
-
-        battleController.processGameStart(playerTurn ? "YOUR_TURN" : "OPPONENT_TURN");
-
-        cardLayout.show(mainPanel, "BATTLE");
     }
 
     /**
@@ -668,12 +716,19 @@ public class MainScreen {
                                 statusText = "Игра идет";
                                 break;
 
+                            case "RECONNECTING":
+                                statusText = "Ожидание переподключения";
+                                break;
+
                             default:
                                 statusText = status;
                         }
 
                         String action;
-                        if (playerCount < 2 && !status.equals("IN_PROGRESS")) {
+                        if (status.equals("RECONNECTING")) {
+                            action = "Недоступно";
+                        }
+                        else if (playerCount < 2 && !status.equals("IN_PROGRESS")) {
                             action = "Присоединиться";
                         }
                         else if (status.equals("IN_PROGRESS")) {
@@ -700,11 +755,11 @@ public class MainScreen {
      * Отображает диалог создания новой игры.
      * <p>
      * Пользователю предлагается выбрать режим игры:
-     * по сети или против компьютера. В зависимости от выбора
-     * формируется соответствующий запрос серверу.
+     * по сети или против компьютера, а для игры с компьютером — сложность.
+     * В зависимости от выбора формируется соответствующий запрос серверу.
      */
     private void showCreateGameDialog() {
-        String[] options = {"По сети", "Против компьютера"};
+        String[] options = {"По сети", "По сети: залп", "Против компьютера"};
         int choice = JOptionPane.showOptionDialog(frame,
                 "Выберите режим игры",
                 "Создать игру",
@@ -713,18 +768,49 @@ public class MainScreen {
                 null,
                 options,
                 options[0]);
-        if (choice == 0) {
+        if (choice == 0 || choice == 1) {
             String gameName = JOptionPane.showInputDialog(frame,
                     "Введите название игры (3-20 символов):",
                     "Создание игры",
                     JOptionPane.QUESTION_MESSAGE);
 
             if (gameName != null && !gameName.trim().isEmpty()) {
-                networkController.sendMessage("CREATE_GAME:" + gameName.trim());
+                String spec = JOptionPane.showInputDialog(frame,
+                        "Правила: classic или <ширина>x<высота>/<размеры кораблей>/<none|corners|any>,\n" +
+                                "например 12x12/4,4,3,3,2,2,2,1,1,1/corners;\n" +
+                                "большое поле с повтором размеров: 1000x1000/4*50,3*100,2*200,1*300/corners",
+                        "classic");
+                if (spec == null) {
+                    return;
+                }
+
+                RuleSet gameRules;
+                try {
+                    gameRules = RuleSet.parse(spec);
+                }
+                catch (IllegalArgumentException e) {
+                    JOptionPane.showMessageDialog(frame, e.getMessage(), "Неверные правила", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                networkController.sendMessage("CREATE_GAME:" + gameName.trim() + (choice == 1 ? ":SALVO" : "") +
+                        (gameRules.isClassic() ? "" : ":RULES=" + gameRules.toSpec()));
             }
         }
-        else if (choice == 1) {
-            networkController.sendMessage("CREATE_GAME:" + "AI");
+        else if (choice == 2) {
+            String[] levels = {"Лёгкий", "Средний", "Сложный"};
+            String[] levelCodes = {"easy", "normal", "hard"};
+            int level = JOptionPane.showOptionDialog(frame,
+                    "Выберите сложность компьютера",
+                    "Игра против компьютера",
+                    JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.QUESTION_MESSAGE,
+                    null,
+                    levels,
+                    levels[1]);
+            if (level >= 0) {
+                networkController.sendMessage("CREATE_GAME:" + "AI:" + levelCodes[level]);
+            }
         }
     }
 
@@ -737,7 +823,7 @@ public class MainScreen {
     private void showSettings() {
         JOptionPane.showMessageDialog(frame,
                 "Настройки игры:\n\n" +
-                        "• Размер поля: 10x10\n" +
+                        "• Размер поля: 10x10 (в сетевой игре можно задать свои правила)\n" +
                         "• Корабли:\n" +
                         "   - 1 авианосец (4 клетки)\n" +
                         "   - 2 линкора (3 клетки)\n" +
@@ -745,7 +831,8 @@ public class MainScreen {
                         "   - 4 эсминца (1 клетка)\n" +
                         "• Режимы игры:\n" +
                         "   - По сети\n"+
-                        "   - Против компьютера",
+                        "   - По сети, залпом (по выстрелу за каждый уцелевший корабль)\n"+
+                        "   - Против компьютера (лёгкий, средний или сложный)",
                 "Настройки", JOptionPane.INFORMATION_MESSAGE);
     }
 
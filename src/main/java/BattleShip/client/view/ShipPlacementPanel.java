@@ -2,6 +2,8 @@ package BattleShip.client.view;
 
 import BattleShip.client.model.Board;
 import BattleShip.client.model.Cell;
+import BattleShip.client.model.OccupancyMask;
+import BattleShip.client.model.PlacementHistory;
 import BattleShip.client.model.Ship;
 import BattleShip.client.model.ShipType;
 
@@ -16,6 +18,12 @@ import java.util.Map;
  * <p>
  * Отображает игровое поле, список доступных кораблей, панель управления,
  * позволяет размещать, вращать, случайно расставлять и очищать корабли.
+ * <p>
+ * Допустимость превью проверяется по маске занятых клеток с ореолом ({@link OccupancyMask}),
+ * которая обновляется при постановке и снятии кораблей, а поле перерисовывается,
+ * только когда курсор переходит в другую клетку. Каждое изменение расстановки
+ * записывается в {@link PlacementHistory}, что даёт неограниченную отмену и повтор
+ * (кнопки и Ctrl+Z / Ctrl+Y).
  */
 public class ShipPlacementPanel extends JPanel {
 
@@ -31,7 +39,21 @@ public class ShipPlacementPanel extends JPanel {
     private int offsetX;
     private int offsetY;
 
+    /** Видимое окно большого поля */
+    private final Viewport viewport = new Viewport();
+
     private Board board;
+
+    /** Клетки кораблей и их ореол: куда нельзя ставить новый корабль */
+    private final OccupancyMask occupancy;
+
+    /** Клетка под курсором, {@code -1} — курсор вне поля */
+    private int hoverX = -1;
+    private int hoverY = -1;
+
+    /** Версии расстановки для отмены и повтора */
+    private final PlacementHistory history = new PlacementHistory();
+
     private Ship currentShip;
     private Map<ShipType, Integer> shipsToPlace;
     private ShipPlacementListener listener;
@@ -44,6 +66,8 @@ public class ShipPlacementPanel extends JPanel {
     private JButton readyButton;
     private JButton randomButton;
     private JButton clearButton;
+    private JButton undoButton;
+    private JButton redoButton;
 
     /**
      * Интерфейс слушателя для уведомления о событиях расстановки кораблей.
@@ -67,6 +91,8 @@ public class ShipPlacementPanel extends JPanel {
      */
     public ShipPlacementPanel(Board board) {
         this.board = board;
+        this.occupancy = new OccupancyMask(board.getRules());
+        this.occupancy.rebuild(board.getShips());
         this.shipsToPlace = new HashMap<>();
         initializeShipsToPlace();
 
@@ -81,13 +107,12 @@ public class ShipPlacementPanel extends JPanel {
     }
 
     /**
-     * Инициализирует количество кораблей каждого типа для размещения.
+     * Инициализирует количество кораблей каждого типа для размещения по правилам доски.
      */
     private void initializeShipsToPlace() {
-        shipsToPlace.put(ShipType.CARRIER, 1);
-        shipsToPlace.put(ShipType.BATTLESHIP, 2);
-        shipsToPlace.put(ShipType.CRUISER, 3);
-        shipsToPlace.put(ShipType.DESTROYER, 4);
+        for (ShipType type : ShipType.values()) {
+            shipsToPlace.put(type, board.getRules().getShipCount(type.getSize()));
+        }
     }
 
     /**
@@ -103,51 +128,91 @@ public class ShipPlacementPanel extends JPanel {
                 g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                         RenderingHints.VALUE_ANTIALIAS_ON);
 
-                int boardPixelSize = CELL_SIZE * Board.SIZE;
+                int columns = viewport.getColumns(board);
+                int rows = viewport.getRows(board);
 
-                offsetX = (getWidth() - boardPixelSize) / 2;
-                offsetY = (getHeight() - boardPixelSize) / 2;
+                offsetX = (getWidth() - CELL_SIZE * columns) / 2;
+                offsetY = (getHeight() - CELL_SIZE * rows) / 2;
 
-                g2d.translate(offsetX, offsetY);
+                // Начало координат — клетка (0, 0) поля, окно смещено на свой угол
+                g2d.translate(offsetX - viewport.getOriginX() * CELL_SIZE, offsetY - viewport.getOriginY() * CELL_SIZE);
 
+                drawCoordinates(g2d);
+                g2d.clipRect(viewport.getOriginX() * CELL_SIZE, viewport.getOriginY() * CELL_SIZE,
+                        columns * CELL_SIZE + 1, rows * CELL_SIZE + 1);
                 drawBoard(g2d);
                 drawGrid(g2d);
                 drawShips(g2d);
                 drawCurrentShipPreview(g2d);
-                drawCoordinates(g2d);
 
                 g2d.dispose();
             }
         };
 
-        boardPanel.setPreferredSize(new Dimension(CELL_SIZE * Board.SIZE, CELL_SIZE * Board.SIZE));
+        boardPanel.setPreferredSize(new Dimension(CELL_SIZE * viewport.getColumns(board), CELL_SIZE * viewport.getRows(board)));
         boardPanel.setBackground(new Color(240, 248, 255)); // AliceBlue
         boardPanel.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 2));
 
         boardPanel.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                int x = (e.getX() - offsetX) / CELL_SIZE;
-                int y = (e.getY() - offsetY) / CELL_SIZE;
+                int[] cell = viewport.cellAt(board, e.getX() - offsetX, e.getY() - offsetY, CELL_SIZE);
 
-                if (x >= 0 && x < Board.SIZE && y >= 0 && y < Board.SIZE) {
+                if (cell != null) {
                     if (currentShip != null) {
-                        placeShip(x, y);
+                        placeShip(cell[0], cell[1]);
                     }
                 }
             }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                if (updateHover(null)) {
+                    boardPanel.repaint();
+                }
+            }
+        });
+
+        boardPanel.addMouseWheelListener(e -> {
+            int step = e.getWheelRotation() * 3;
+            boolean moved = e.isShiftDown() ? viewport.scroll(board, step, 0) : viewport.scroll(board, 0, step);
+            if (moved) {
+                updateHover(viewport.cellAt(board, e.getX() - offsetX, e.getY() - offsetY, CELL_SIZE));
+                boardPanel.repaint();
+            }
         });
 
         boardPanel.addMouseMotionListener(new MouseMotionAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
-                boardPanel.repaint();
+                int[] cell = viewport.cellAt(board, e.getX() - offsetX, e.getY() - offsetY, CELL_SIZE);
+                // Внутри одной клетки превью не меняется
+                if (updateHover(cell) && currentShip != null) {
+                    boardPanel.repaint();
+                }
             }
         });
 
         add(boardPanel, BorderLayout.CENTER);
     }
 
+    /**
+     * Запоминает клетку под курсором.
+     *
+     * @param cell {x, y} клетки или {@code null}, если курсор вне поля
+     * @return {@code true}, если клетка сменилась
+     */
+    private boolean updateHover(int[] cell) {
+        int x = cell != null ? cell[0] : -1;
+        int y = cell != null ? cell[1] : -1;
+        if (x == hoverX && y == hoverY) {
+            return false;
+        }
+        hoverX = x;
+        hoverY = y;
+        return true;
+    }
+
     /**
      * Создает панель управления кораблями и кнопками.
      */
@@ -164,7 +229,21 @@ public class ShipPlacementPanel extends JPanel {
         randomButton.addActionListener(e -> placeShipsRandomly());
 
         clearButton = new JButton("Очистить поле");
-        clearButton.addActionListener(e -> clearBoard());
+        clearButton.addActionListener(e -> {
+            clearBoard();
+            history.recordClear();
+            updateHistoryButtons();
+        });
+
+        undoButton = new JButton("Отменить");
+        undoButton.addActionListener(e -> undo());
+
+        redoButton = new JButton("Повторить");
+        redoButton.addActionListener(e -> redo());
+
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "undo", this::undo);
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "redo", this::redo);
+        updateHistoryButtons();
 
         readyButton = new JButton("Готово");
         readyButton.setEnabled(false);
@@ -185,6 +264,8 @@ public class ShipPlacementPanel extends JPanel {
         controlPanel.add(rotateButton);
         controlPanel.add(randomButton);
         controlPanel.add(clearButton);
+        controlPanel.add(undoButton);
+        controlPanel.add(redoButton);
         controlPanel.add(readyButton);
 
         add(controlPanel, BorderLayout.SOUTH);
@@ -293,15 +374,16 @@ public class ShipPlacementPanel extends JPanel {
     }
 
     /**
-     * Отрисовывает игровое поле целиком, включая все его клетки.
+     * Отрисовывает клетки видимого окна игрового поля.
      *
      * @param g2d графический контекст
      */
     private void drawBoard(Graphics2D g2d) {
-        for (int y = 0; y < Board.SIZE; y++) {
-            for (int x = 0; x < Board.SIZE; x++) {
-                Cell cell = board.getCell(x, y);
-                drawCell(g2d, cell, x, y);
+        int endX = viewport.getOriginX() + viewport.getColumns(board);
+        int endY = viewport.getOriginY() + viewport.getRows(board);
+        for (int y = viewport.getOriginY(); y < endY; y++) {
+            for (int x = viewport.getOriginX(); x < endX; x++) {
+                drawCell(g2d, x, y);
             }
         }
     }
@@ -310,18 +392,17 @@ public class ShipPlacementPanel extends JPanel {
      * Отрисовывает одну клетку игрового поля с учётом её состояния.
      *
      * @param g2d графический контекст
-     * @param cell клетка игрового поля
      * @param x координата X клетки
      * @param y координата Y клетки
      */
-    private void drawCell(Graphics2D g2d, Cell cell, int x, int y) {
+    private void drawCell(Graphics2D g2d, int x, int y) {
         int cellX = x * CELL_SIZE;
         int cellY = y * CELL_SIZE;
 
         Color cellColor = Color.WHITE;
-        switch (cell.getState()) {
+        switch (board.getState(x, y)) {
             case SHIP:
-                Ship ship = cell.getShip();
+                Ship ship = board.getShipAt(x, y);
                 if (ship != null) {
                     cellColor = SHIP_COLORS[ship.getType().ordinal()];
                 }
@@ -344,16 +425,16 @@ public class ShipPlacementPanel extends JPanel {
         g2d.setColor(Color.BLACK);
         g2d.setFont(new Font("Arial", Font.PLAIN, 12));
 
-        for (int x = 0; x < Board.SIZE; x++) {
-            String letter = String.valueOf((char) ('А' + x));
-            int letterX = x * CELL_SIZE + CELL_SIZE / 2 - 4;
-            int letterY = -5;
+        for (int x = viewport.getOriginX(); x < viewport.getOriginX() + viewport.getColumns(board); x++) {
+            String letter = Viewport.columnLabel(board, x);
+            int letterX = x * CELL_SIZE + CELL_SIZE / 2 - g2d.getFontMetrics().stringWidth(letter) / 2;
+            int letterY = viewport.getOriginY() * CELL_SIZE - 5;
             g2d.drawString(letter, letterX, letterY);
         }
 
-        for (int y = 0; y < Board.SIZE; y++) {
+        for (int y = viewport.getOriginY(); y < viewport.getOriginY() + viewport.getRows(board); y++) {
             String number = String.valueOf(y + 1);
-            int numberX = -15;
+            int numberX = viewport.getOriginX() * CELL_SIZE - (number.length() > 2 ? 30 : 15);
             int numberY = y * CELL_SIZE + CELL_SIZE / 2 + 4;
             g2d.drawString(number, numberX, numberY);
         }
@@ -367,12 +448,17 @@ public class ShipPlacementPanel extends JPanel {
     private void drawGrid(Graphics2D g2d) {
         g2d.setColor(Color.DARK_GRAY);
 
-        for (int x = 0; x <= Board.SIZE; x++) {
-            g2d.drawLine(x * CELL_SIZE, 0, x * CELL_SIZE, Board.SIZE * CELL_SIZE);
+        int left = viewport.getOriginX();
+        int top = viewport.getOriginY();
+        int right = left + viewport.getColumns(board);
+        int bottom = top + viewport.getRows(board);
+
+        for (int x = left; x <= right; x++) {
+            g2d.drawLine(x * CELL_SIZE, top * CELL_SIZE, x * CELL_SIZE, bottom * CELL_SIZE);
         }
 
-        for (int y = 0; y <= Board.SIZE; y++) {
-            g2d.drawLine(0, y * CELL_SIZE, Board.SIZE * CELL_SIZE, y * CELL_SIZE);
+        for (int y = top; y <= bottom; y++) {
+            g2d.drawLine(left * CELL_SIZE, y * CELL_SIZE, right * CELL_SIZE, y * CELL_SIZE);
         }
     }
 
@@ -398,6 +484,9 @@ public class ShipPlacementPanel extends JPanel {
         g2d.setColor(shipColor);
 
         for (Cell cell : ship.getCells()) {
+            if (!viewport.contains(board, cell.getX(), cell.getY())) {
+                continue;
+            }
             int x = cell.getX() * CELL_SIZE;
             int y = cell.getY() * CELL_SIZE;
             g2d.fillRect(x + 1, y + 1, CELL_SIZE - 2, CELL_SIZE - 2);
@@ -411,28 +500,20 @@ public class ShipPlacementPanel extends JPanel {
 
     /**
      * Отрисовывает полупрозрачное превью текущего корабля
-     * в позиции курсора мыши.
+     * в клетке под курсором мыши.
      *
      * @param g2d графический контекст
      */
     private void drawCurrentShipPreview(Graphics2D g2d) {
-        if (currentShip == null) {
-            return;
-        }
-
-        Point mousePos = boardPanel.getMousePosition();
-        if (mousePos == null) {
+        if (currentShip == null || hoverX < 0) {
             return;
         }
 
-        int x = (mousePos.x - offsetX) / CELL_SIZE;
-        int y = (mousePos.y - offsetY) / CELL_SIZE;
+        int x = hoverX;
+        int y = hoverY;
 
-        if (x < 0 || y < 0 || x >= Board.SIZE || y >= Board.SIZE) {
-            return;
-        }
-
-        boolean canPlace = board.canPlaceShip(currentShip, x, y);
+        boolean canPlace = occupancy.canPlace(currentShip.getSize(),
+                currentShip.getOrientation() == Ship.Orientation.VERTICAL, x, y);
 
         Color previewColor = SHIP_COLORS[currentShip.getType().ordinal()];
         previewColor = new Color(previewColor.getRed(), previewColor.getGreen(),
@@ -451,7 +532,7 @@ public class ShipPlacementPanel extends JPanel {
             int shipX = x + (orientation == Ship.Orientation.HORIZONTAL ? i : 0);
             int shipY = y + (orientation == Ship.Orientation.VERTICAL ? i : 0);
 
-            if (shipX < Board.SIZE && shipY < Board.SIZE) {
+            if (shipX < board.getWidth() && shipY < board.getHeight()) {
                 int drawX = shipX * CELL_SIZE;
                 int drawY = shipY * CELL_SIZE;
                 g2d.fillRect(drawX + 1, drawY + 1, CELL_SIZE - 2, CELL_SIZE - 2);
@@ -499,6 +580,9 @@ public class ShipPlacementPanel extends JPanel {
         ShipType type = currentShip.getType();
 
         if (board.placeShip(currentShip, x, y)) {
+            occupancy.add(currentShip);
+            history.recordPlacement(currentShip);
+            updateHistoryButtons();
             shipsToPlace.put(type, shipsToPlace.get(type) - 1);
 
             updateShipsPanel();
@@ -519,50 +603,16 @@ public class ShipPlacementPanel extends JPanel {
 
     /**
      * Автоматически размещает все корабли на поле случайным образом.
+     * Расстановку по правилам доски строит {@link BattleShip.client.model.FleetGenerator},
+     * поэтому она всегда удаётся.
      */
     private void placeShipsRandomly() {
         clearBoard();
 
-        java.util.List<Ship> ships = new java.util.ArrayList<>();
-        for (ShipType type : ShipType.values()) {
-            int count = shipsToPlace.get(type);
-            for (int i = 0; i < count; i++) {
-                ships.add(new Ship(type));
-            }
-        }
-
-        int attempts = 0;
-        int maxAttempts = 1000;
-
-        for (Ship ship : ships) {
-            boolean placed = false;
-
-            while (!placed && attempts < maxAttempts) {
-                int x = (int) (Math.random() * Board.SIZE);
-                int y = (int) (Math.random() * Board.SIZE);
-
-                if (Math.random() > 0.5) {
-                    ship.setOrientation(Ship.Orientation.HORIZONTAL);
-                } else {
-                    ship.setOrientation(Ship.Orientation.VERTICAL);
-                }
-
-                if (board.canPlaceShip(ship, x, y)) {
-                    board.placeShip(ship, x, y);
-                    placed = true;
-                }
-
-                attempts++;
-            }
-
-            if (attempts >= maxAttempts) {
-                JOptionPane.showMessageDialog(this,
-                        "Не удалось разместить все корабли случайным образом. Попробуйте вручную.",
-                        "Ошибка", JOptionPane.WARNING_MESSAGE);
-                clearBoard();
-                return;
-            }
-        }
+        board.placeComputerShips();
+        occupancy.rebuild(board.getShips());
+        history.recordFleet(board.getShips());
+        updateHistoryButtons();
 
         shipsToPlace.clear();
         updateShipsPanel();
@@ -576,10 +626,8 @@ public class ShipPlacementPanel extends JPanel {
      * Очищает игровое поле и сбрасывает состояние расстановки кораблей.
      */
     private void clearBoard() {
-        java.util.List<Ship> ships = new java.util.ArrayList<>(board.getShips());
-        for (Ship ship : ships) {
-            board.removeShip(ship);
-        }
+        board.clearBoard();
+        occupancy.clear();
 
         initializeShipsToPlace();
 
@@ -590,6 +638,55 @@ public class ShipPlacementPanel extends JPanel {
         boardPanel.repaint();
     }
 
+    private void bindKey(KeyStroke key, String name, Runnable action) {
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(key, name);
+        getActionMap().put(name, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    private void undo() {
+        if (history.canUndo()) {
+            restore(history.undo());
+        }
+    }
+
+    private void redo() {
+        if (history.canRedo()) {
+            restore(history.redo());
+        }
+    }
+
+    /**
+     * Приводит поле и счётчики кораблей к версии расстановки.
+     *
+     * @param version версия из истории
+     */
+    private void restore(PlacementHistory.Version version) {
+        PlacementHistory.apply(version, board);
+        occupancy.rebuild(board.getShips());
+
+        initializeShipsToPlace();
+        for (Ship ship : board.getShips()) {
+            shipsToPlace.put(ship.getType(), shipsToPlace.get(ship.getType()) - 1);
+        }
+
+        currentShip = null;
+        readyButton.setEnabled(board.allShipsPlaced());
+        updateShipsPanel();
+        updateStatus();
+        updateHistoryButtons();
+        boardPanel.repaint();
+    }
+
+    private void updateHistoryButtons() {
+        undoButton.setEnabled(history.canUndo());
+        redoButton.setEnabled(history.canRedo());
+    }
+
     /**
      * Обновляет текстовое сообщение о количестве оставшихся кораблей.
      */
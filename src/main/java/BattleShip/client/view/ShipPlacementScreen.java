@@ -2,6 +2,7 @@ package BattleShip.client.view;
 
 import BattleShip.client.controller.NetworkController;
 import BattleShip.client.model.PlayerBoard;
+import BattleShip.client.model.RuleSet;
 
 import javax.swing.*;
 import java.awt.*;
@@ -128,10 +129,27 @@ public class ShipPlacementScreen extends JPanel {
      * @param isCreator  true, если текущий игрок является создателем
      */
     public void setGameInfo(String gameName, String creator, boolean isCreator) {
+        setGameInfo(gameName, creator, isCreator, RuleSet.CLASSIC);
+    }
+
+    /**
+     * Устанавливает информацию о текущей игре и сбрасывает поле игрока.
+     * Если правила партии изменились, поле создаётся заново под новые размеры и флот.
+     *
+     * @param gameName   название игры
+     * @param creator    имя создателя игры
+     * @param isCreator  true, если текущий игрок является создателем
+     * @param rules      правила партии
+     */
+    public void setGameInfo(String gameName, String creator, boolean isCreator, RuleSet rules) {
         this.currentGameName = gameName;
         String role = isCreator ? "Создатель" : "Участник";
-        gameInfoLabel.setText("Игра: " + gameName + " | " + role + " | Расстановка кораблей");
+        String rulesInfo = rules.isClassic() ? "" : " | Правила " + rules.toSpec();
+        gameInfoLabel.setText("Игра: " + gameName + " | " + role + rulesInfo + " | Расстановка кораблей");
 
+        if (!playerBoard.getRules().equals(rules)) {
+            playerBoard = new PlayerBoard(rules);
+        }
         playerBoard.reset();
         shipPlacementPanel = new ShipPlacementPanel(playerBoard);
         removeAll();
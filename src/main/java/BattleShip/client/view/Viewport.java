@@ -0,0 +1,103 @@
+package BattleShip.client.view;
+
+import BattleShip.client.model.Board;
+
+/**
+ * Видимое окно игрового поля.
+ * <p>
+ * Поле шире или выше {@link #MAX_VISIBLE} клеток рисуется не целиком, а окном
+ * {@code MAX_VISIBLE × MAX_VISIBLE}, которое прокручивается колесом мыши
+ * (с Shift — по горизонтали). Отрисовка и обработка кликов затрагивают только
+ * клетки окна, поэтому стоимость кадра не зависит от площади поля.
+ * Поле, которое помещается целиком, показывается как раньше, без прокрутки.
+ */
+final class Viewport {
+
+    /** Наибольшее число клеток окна по каждой стороне */
+    static final int MAX_VISIBLE = 20;
+
+    private int originX;
+    private int originY;
+
+    int getOriginX() {
+        return originX;
+    }
+
+    int getOriginY() {
+        return originY;
+    }
+
+    int getColumns(Board board) {
+        return Math.min(board.getWidth(), MAX_VISIBLE);
+    }
+
+    int getRows(Board board) {
+        return Math.min(board.getHeight(), MAX_VISIBLE);
+    }
+
+    /**
+     * Сдвигает окно, не выпуская его за края поля.
+     *
+     * @param board поле
+     * @param dx    сдвиг по X в клетках
+     * @param dy    сдвиг по Y в клетках
+     * @return {@code true}, если окно сдвинулось
+     */
+    boolean scroll(Board board, int dx, int dy) {
+        int x = clamp(originX + dx, board.getWidth() - getColumns(board));
+        int y = clamp(originY + dy, board.getHeight() - getRows(board));
+        boolean moved = x != originX || y != originY;
+        originX = x;
+        originY = y;
+        return moved;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * Попадает ли клетка поля в окно.
+     *
+     * @param board поле
+     * @param x     координата X клетки
+     * @param y     координата Y клетки
+     * @return {@code true}, если клетка видна
+     */
+    boolean contains(Board board, int x, int y) {
+        return x >= originX && x < originX + getColumns(board)
+                && y >= originY && y < originY + getRows(board);
+    }
+
+    /**
+     * Клетка поля под точкой панели.
+     *
+     * @param board поле
+     * @param px    смещение точки от левого края окна в пикселях
+     * @param py    смещение точки от верхнего края окна в пикселях
+     * @param cellSize размер клетки в пикселях
+     * @return {x, y} клетки поля или {@code null}, если точка вне окна
+     */
+    int[] cellAt(Board board, int px, int py, int cellSize) {
+        if (px < 0 || py < 0) {
+            return null;
+        }
+        int column = px / cellSize;
+        int row = py / cellSize;
+        if (column >= getColumns(board) || row >= getRows(board)) {
+            return null;
+        }
+        return new int[]{originX + column, originY + row};
+    }
+
+    /**
+     * Подпись столбца: буквы для полей, которые помещаются в окно, номера — для больших.
+     *
+     * @param board поле
+     * @param x     столбец
+     * @return подпись столбца
+     */
+    static String columnLabel(Board board, int x) {
+        return board.getWidth() > MAX_VISIBLE ? String.valueOf(x + 1) : String.valueOf((char) ('А' + x));
+    }
+}
@@ -1,14 +1,14 @@
 package BattleShip.server.AI;
 
 import BattleShip.client.model.Board;
-import BattleShip.client.model.Cell;
+import BattleShip.client.model.RuleSet;
 import BattleShip.server.ClientHandler;
+import BattleShip.server.Fleet;
 import BattleShip.server.Server;
+import BattleShip.server.ShotLedger;
+import BattleShip.server.utils.HashedWheelTimer;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -16,16 +16,39 @@ import java.util.concurrent.TimeUnit;
  * Сессия управляет ходом игры между игроком и компьютером, обработкой выстрелов,
  * проверкой попаданий и окончания игры.
  */
-public class AIGameSession {
+public class AIGameSession implements AIMoveScheduler.BatchedMove {
 
-    /** Планировщик для действий ИИ с задержкой */
-    private final ScheduledExecutorService aiExecutor = Executors.newSingleThreadScheduledExecutor();
+    /** Общий планировщик ходов ИИ сервера */
+    private final AIMoveScheduler aiScheduler;
 
-    /** Логика ИИ для генерации выстрелов */
-    private final AILogic aiLogic = new AILogic();
+    /** Темп ходов компьютера в этой партии */
+    private final AIPacing pacing;
 
-    private int playerHits = 0;
-    private int computerHits = 0;
+    /** Запланированный ход компьютера */
+    private HashedWheelTimer.Timeout pendingMove;
+
+    /** Стратегия ИИ; дешёвая вызывается прямо в пакете планировщика под блокировкой сессии */
+    private final AIStrategy strategy;
+
+    /** Асинхронное обдумывание ходов дорогой стратегией или {@code null} для дешёвой */
+    private final AIThinker thinker;
+
+    /** Номер партии; ход, обдуманный для прошлой партии, не применяется */
+    private int generation;
+
+    /** Номер партии, в которой выбран выстрел последнего прохода выбора пакета */
+    private int thinkGeneration;
+
+    /** Генератор для замены выстрела в уже обстрелянную клетку */
+    private final Random rnd = new Random();
+
+    /** Флот игрока и флот компьютера, разобранные при старте партии */
+    private Fleet playerFleet;
+    private Fleet computerFleet;
+
+    /** Выстрелы игрока по полю компьютера и компьютера по полю игрока */
+    private final ShotLedger playerShots = new ShotLedger();
+    private final ShotLedger computerShots = new ShotLedger();
 
     private String winner;
 
@@ -40,16 +63,13 @@ public class AIGameSession {
     private String playerUsername;
 
     private String playerShips = "";
-    private String computerShips = "";
+    private int[] computerShips = new int[0];
 
     private boolean gameStarted = false;
 
     /** Текущий ходящий игрок */
     private ClientHandler currentTurn;
 
-    /** Поле компьютера */
-    private Board aiBoard = new Board();
-
     /**
      * Конструктор сессии игры с ИИ.
      *
@@ -57,98 +77,37 @@ public class AIGameSession {
      * @param creator       имя создателя игры
      * @param creatorHandler обработчик клиента создателя
      * @param server        ссылка на сервер
+     * @param aiStrategy    стратегия ИИ выбранного уровня сложности
+     */
+    public AIGameSession(String gameName, String creator, ClientHandler creatorHandler, Server server, AIStrategy aiStrategy) {
+        this(gameName, creator, creatorHandler, server, aiStrategy, server.getAIPacing());
+    }
+
+    /**
+     * Конструктор сессии игры с ИИ с собственным темпом ходов.
+     *
+     * @param gameName      название игры
+     * @param creator       имя создателя игры
+     * @param creatorHandler обработчик клиента создателя
+     * @param server        ссылка на сервер
+     * @param aiStrategy    стратегия ИИ выбранного уровня сложности
+     * @param pacing        темп ходов компьютера
      */
-    public AIGameSession(String gameName, String creator, ClientHandler creatorHandler, Server server) {
+    public AIGameSession(String gameName, String creator, ClientHandler creatorHandler, Server server,
+                         AIStrategy aiStrategy, AIPacing pacing) {
         this.gameName = gameName;
+        this.pacing = pacing;
         this.creator = creator;
         this.server = server;
+        this.aiScheduler = server.getAIScheduler();
+        this.strategy = aiStrategy;
+        this.thinker = aiStrategy.isExpensive() ? new AIThinker(aiScheduler, aiStrategy, new DensityAILogic()) : null;
 
         this.player = creatorHandler;
         this.playerUsername = creator;
 
     }
 
-    /**
-     * Внутренний класс для хранения информации о корабле.
-     */
-    private static class ShipInfo {
-        int type;
-        int x;
-        int y;
-        int orientation;
-        private List<Cell> cells; // Добавляем поле для хранения клеток
-
-        /**
-         * Конструктор информации о корабле.
-         *
-         * @param type        тип корабля (0 - авианосец, 1 - линкор, 2 - крейсер, 3 - эсминец)
-         * @param x           координата X
-         * @param y           координата Y
-         * @param orientation ориентация (0 - горизонтально, 1 - вертикально)
-         */
-        ShipInfo(int type, int x, int y, int orientation) {
-            this.type = type;
-            this.x = x;
-            this.y = y;
-            this.orientation = orientation;
-            this.cells = new ArrayList<>();
-            initializeCells();
-        }
-
-        /** Инициализация клеток корабля на доске */
-        private void initializeCells() {
-            int size = getSize();
-            for (int i = 0; i < size; i++) {
-                int cellX = x + (orientation == 0 ? i : 0);
-                int cellY = y + (orientation == 1 ? i : 0);
-                if (cellX >= 0 && cellX < 10 && cellY >= 0 && cellY < 10) {
-                    cells.add(new Cell(cellX, cellY, Cell.State.EMPTY));
-                }
-            }
-        }
-
-        List<Cell> getCells() {
-            return cells;
-        }
-
-        /**
-         * Отметить попадание по клетке корабля.
-         *
-         * @param x координата X
-         * @param y координата Y
-         * @return true, если попадание по этому кораблю, иначе false
-         */
-        public boolean hitCell(int x, int y) {
-            for (Cell cell : cells) {
-                if (cell.getX() == x && cell.getY() == y) {
-                    cell.setState(Cell.State.HIT);
-                    return true;
-                }
-            }
-
-            return false;
-        }
-
-        public boolean isSunk() {
-            for (Cell cell : cells) {
-                if (cell.getState() != Cell.State.HIT) {
-                    return false;
-                }
-            }
-            return true;
-        }
-
-        private int getSize() {
-            switch (type) {
-                case 0: return 4;
-                case 1: return 3;
-                case 2: return 2;
-                case 3: return 1;
-                default: return 0;
-            }
-        }
-    }
-
     public void setSurrend (boolean isSurrend) {
         this.isSurrend = isSurrend;
     }
@@ -164,7 +123,7 @@ public class AIGameSession {
 
         player.sendMessage("SHIPS_ACCEPTED");
 
-        computerShips = aiBoard.placeComputerShips();
+        computerShips = server.getFleetPool().take();
 
         player.sendMessage("ALL_SHIPS_PLACED");
     }
@@ -174,8 +133,10 @@ public class AIGameSession {
         gameStarted = true;
         currentTurn = player;
 
-        playerHits = 0;
-        computerHits = 0;
+        playerFleet = Fleet.parse(playerShips);
+        computerFleet = Fleet.of(computerShips, RuleSet.CLASSIC);
+        playerShots.clear();
+        computerShots.clear();
         winner = null;
 
         player.sendMessage("GAME_START:YOUR_TURN:" + "COMPUTER");
@@ -188,7 +149,7 @@ public class AIGameSession {
      * @param x       координата X
      * @param y       координата Y
      */
-    public void processShotAI(ClientHandler shooter, int x, int y) {
+    public synchronized void processShotAI(ClientHandler shooter, int x, int y) {
 
         boolean isComputer = (shooter == null);
 
@@ -204,23 +165,28 @@ public class AIGameSession {
             return;
         }
 
-        String targetShips = isComputer ? playerShips : computerShips;
+        if (x < 0 || x >= Board.SIZE || y < 0 || y >= Board.SIZE) {
+            return;
+        }
 
-        boolean hit = checkHit(targetShips, x, y);
-        String result = "MISS";
+        Fleet target = isComputer ? playerFleet : computerFleet;
+        ShotLedger ledger = isComputer ? computerShots : playerShots;
 
-        if (hit) {
-            if (isComputer) {
-                playerHits++;
-                updateShipCell(playerShips, x, y);
+        if (ledger.isShot(x, y)) {
+            return;
+        }
+
+        byte code = target.fire(x, y);
+        ledger.record(y * Board.SIZE + x, code);
+        String result = ShotLedger.resultName(code);
+
+        if (isComputer) {
+            if (thinker != null) {
+                thinker.onResult(x, y, result);
             }
             else {
-                computerHits++;
-                updateShipCell(computerShips, x, y);
+                strategy.onResult(x, y, result);
             }
-
-            boolean shipSunk = isShipSunk(targetShips, x, y);
-            result = shipSunk ? "SUNK" : "HIT";
         }
 
         String shooterName = isComputer ? "COMPUTER" : shooter.getUsername();
@@ -246,102 +212,95 @@ public class AIGameSession {
         checkGameOver();
     }
 
-    /** Выполнить выстрел компьютера с задержкой */
+    /** Выполнить выстрел компьютера с задержкой по темпу партии */
     private void makeComputerShot() {
         if (!gameStarted || currentTurn != null) {
             return;
         }
 
-        aiExecutor.schedule(() -> {
-            int[] shot = aiLogic.nextShot();
-            int x = shot[0];
-            int y = shot[1];
-
-            processShotAI(null, x, y);
-
-        }, 1000, TimeUnit.MILLISECONDS); // 600 мс задержка
+        pendingMove = aiScheduler.scheduleBatched(this, pacing.nextDelayMillis(), TimeUnit.MILLISECONDS);
     }
 
-    /** Обновление состояния клетки корабля после выстрела */
-    private void updateShipCell(String shipsData, int x, int y) {
-        List<ShipInfo> ships = parseShips(shipsData);
-        for (ShipInfo ship : ships) {
-            if (ship.hitCell(x, y)) {
-                break;
-            }
+    /**
+     * Выбор выстрела компьютера в пакете планировщика.
+     * Дешёвая стратегия выбирает выстрел сразу. Дорогая думает в потоках {@link AIThinker};
+     * её выстрел применяется по готовности, а пакету возвращается -1.
+     *
+     * @return индекс клетки или -1
+     */
+    @Override
+    public synchronized int think() {
+        pendingMove = null;
+        if (!gameStarted || currentTurn != null) {
+            return -1;
         }
-    }
 
-    /** Проверка, потоплен ли корабль после выстрела */
-    private boolean isShipSunk(String shipsData, int x, int y) {
-        List<ShipInfo> ships = parseShips(shipsData);
-        for (ShipInfo ship : ships) {
-            for (Cell cell : ship.getCells()) {
-                if (cell.getX() == x && cell.getY() == y) {
-                    return ship.isSunk();
-                }
-            }
+        int game = generation;
+        if (thinker != null) {
+            thinker.start(cell -> deliver(game, cell));
+            return -1;
         }
-        return false;
-    }
 
-    /** Проверка попадания по кораблям */
-    private boolean checkHit(String shipsData, int x, int y) {
-        List<ShipInfo> ships = parseShips(shipsData);
+        thinkGeneration = game;
+        int[] shot = strategy.nextShot();
+        return shot[1] * Board.SIZE + shot[0];
+    }
 
-        for (ShipInfo ship : ships) {
-            for (Cell cell : ship.getCells()) {
-                if (cell.getX() == x && cell.getY() == y) {
-                    cell.setState(Cell.State.HIT);
-                    return true;
-                }
-            }
+    /**
+     * Применение выстрела, выбранного в пакете, если партия за это время не сменилась.
+     *
+     * @param cell индекс клетки или -1
+     */
+    @Override
+    public synchronized void play(int cell) {
+        if (cell >= 0 && thinkGeneration == generation) {
+            fire(cell);
         }
-
-        return false;
     }
 
     /**
-     * Парсинг строки данных кораблей в список объектов ShipInfo.
+     * Применение обдуманного выстрела, если партия за это время не сменилась.
      *
-     * @param shipsData строка с данными кораблей
-     * @return список объектов ShipInfo
+     * @param game номер партии, для которой обдумывался ход
+     * @param cell индекс клетки
      */
-    private List<ShipInfo> parseShips(String shipsData) {
-        List<ShipInfo> ships = new ArrayList<>();
-        if (shipsData == null || shipsData.isEmpty()) {
-            return ships;
+    private synchronized void deliver(int game, int cell) {
+        if (game == generation) {
+            fire(cell);
         }
+    }
 
-        String[] shipStrings = shipsData.split(";");
-
-        for (String shipStr : shipStrings) {
-            shipStr = shipStr.trim();
-            if (shipStr.isEmpty()) continue;
-
-            String[] parts = shipStr.split(",");
-            if (parts.length == 4) {
-                try {
-                    int type = Integer.parseInt(parts[0]);
-                    int x = Integer.parseInt(parts[1]);
-                    int y = Integer.parseInt(parts[2]);
-                    int orientation = Integer.parseInt(parts[3]);
-
-                    if (x < 0 || x >= 10 || y < 0 || y >= 10) {
-                        continue;
-                    }
-
-                    ShipInfo ship = new ShipInfo(type, x, y, orientation);
-                    ships.add(ship);
+    /**
+     * Применение выбранного выстрела компьютера.
+     * Если клетка уже обстреляна (стратегия не знала о выстреле запасной стратегии),
+     * выстрел делается в случайную свободную клетку, иначе ход компьютера бы застрял.
+     *
+     * @param cell индекс клетки
+     */
+    private void fire(int cell) {
+        if (!gameStarted || currentTurn != null) {
+            return;
+        }
 
-                }
-                catch (NumberFormatException e) {
-                    System.err.println("Ошибка парсинга корабля: " + shipStr);
-                }
+        int x = cell % Board.SIZE;
+        int y = cell / Board.SIZE;
+        if (computerShots.isShot(x, y)) {
+            int[] free = computerShots.randomUnshot(rnd);
+            if (free == null) {
+                return;
             }
+            x = free[0];
+            y = free[1];
         }
+        processShotAI(null, x, y);
+    }
 
-        return ships;
+    /** Отмена запланированного хода компьютера */
+    private void cancelPendingMove() {
+        if (pendingMove != null) {
+            pendingMove.cancel();
+            pendingMove = null;
+        }
     }
 
     public void setWinner(String winner) {
@@ -350,18 +309,18 @@ public class AIGameSession {
 
     /** Проверка завершения игры */
     private void checkGameOver() {
-        if (playerHits == 20) {
+        if (playerFleet != null && playerFleet.isDestroyed()) {
             setWinner("COMPUTER");
             endGame();
         }
-        else if (computerHits == 20) {
+        else if (computerFleet != null && computerFleet.isDestroyed()) {
             setWinner(playerUsername);
             endGame();
         }
     }
 
     /** Завершение игры и уведомление игрока */
-    public void endGame() {
+    public synchronized void endGame() {
         if (gameStarted) {
             gameStarted = false;
 
@@ -376,14 +335,23 @@ public class AIGameSession {
     }
 
     /** Сброс состояния игры для новой сессии */
-    public void resetGameState() {
+    public synchronized void resetGameState() {
+        cancelPendingMove();
         playerShips = "";
-        computerShips = "";
+        computerShips = new int[0];
         gameStarted = false;
         currentTurn = null;
-        playerHits = 0;
-        computerHits = 0;
+        playerFleet = null;
+        computerFleet = null;
+        playerShots.clear();
+        computerShots.clear();
         winner = null;
-        aiLogic.reset();
+        generation++;
+        if (thinker != null) {
+            thinker.reset();
+        }
+        else {
+            strategy.reset();
+        }
     }
 }
\ No newline at end of file
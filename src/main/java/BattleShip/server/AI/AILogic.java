@@ -7,24 +7,39 @@ import java.util.Random;
 /**
  * Класс, реализующий логику ИИ для игры "Морской бой".
  * ИИ выбирает клетки для выстрелов случайным образом и хранит список приоритетных целей.
+ * Используется как лёгкий уровень сложности.
  */
-public class AILogic {
+public class AILogic implements AIStrategy {
 
     /** Массив, отмечающий, какие клетки уже были использованы для выстрелов */
     private final boolean[][] used = new boolean[10][10];
 
     /** Генератор случайных чисел для выбора клеток */
-    private final Random rnd = new Random();
+    private final Random rnd;
 
     /** Список приоритетных целей для ИИ (например, соседние клетки после попадания) */
     private final List<int[]> targets = new ArrayList<>();
 
+    public AILogic() {
+        this(new Random());
+    }
+
+    /**
+     * Создаёт ИИ с заданным генератором случайных чисел (для воспроизводимых партий).
+     *
+     * @param rnd генератор случайных чисел
+     */
+    public AILogic(Random rnd) {
+        this.rnd = rnd;
+    }
+
     /**
      * Получение следующего выстрела ИИ.
      * Если есть приоритетные цели, выбирается одна из них, иначе — случайная клетка.
      *
      * @return массив из двух элементов {x, y} с координатами выстрела
      */
+    @Override
     public int[] nextShot() {
         if (!targets.isEmpty()) {
             return popTarget();
@@ -32,10 +47,25 @@ public class AILogic {
         return randomShot();
     }
 
+    /**
+     * Сообщает ИИ результат его выстрела.
+     * Базовая логика результаты не учитывает, но отмечает клетку использованной:
+     * выстрел мог сделать не этот ИИ, а запасная стратегия при промахе срока.
+     *
+     * @param x      координата X
+     * @param y      координата Y
+     * @param result результат выстрела ("MISS", "HIT" или "SUNK")
+     */
+    @Override
+    public void onResult(int x, int y, String result) {
+        used[x][y] = true;
+    }
+
     /**
      * Сброс состояния ИИ.
      * Очищает список приоритетных целей и помечает все клетки как неиспользованные.
      */
+    @Override
     public void reset() {
         targets.clear();
         for (int x = 0; x < 10; x++) {
@@ -45,6 +75,11 @@ public class AILogic {
         }
     }
 
+    @Override
+    public void forget(int x, int y) {
+        used[x][y] = false;
+    }
+
     /**
      * Выбор случайной клетки для выстрела.
      * Проверяется, что клетка ещё не использовалась.
@@ -0,0 +1,442 @@
+package BattleShip.server.AI;
+
+import BattleShip.server.utils.HashedWheelTimer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Общий планировщик ходов компьютера для всех игр с ИИ.
+ * <p>
+ * Задержки ходов обслуживает одно хешированное колесо, а сами ходы выполняются
+ * в небольшом пуле потоков. Количество потоков сервера не зависит от числа игр с ИИ;
+ * каждая сессия получает отменяемый дескриптор своего хода.
+ * <p>
+ * Планировщик считает ходы в очереди и задержку запуска хода относительно заданного срока.
+ * Ход считается ожидающим от планирования до выполнения или отмены, включая ходы без задержки,
+ * которые минуют колесо; сроки обдумывания ({@link #newDeadline}) в это число не входят.
+ * <p>
+ * Ходы сессий с ИИ выполняются пакетами ({@link #scheduleBatched}). Колесо само не запускает
+ * такой ход, а лишь кладёт его в очередь; один раз за тик очередь разбирается в массивы
+ * (ходы, сроки, выбранные клетки) и обрабатывается в два прохода: сначала все сессии
+ * выбирают выстрелы подряд, затем результаты раздаются сессиям. Большой пакет делится
+ * между потоками пула. Планировщик считает пропускную способность пакетной обработки
+ * в ходах в секунду процессорного времени одного ядра; учитываются только ходы,
+ * выбранные в самом пакете.
+ * <p>
+ * Дешёвые стратегии выбирают выстрел прямо в проходе выбора. Дорогие
+ * ({@link AIStrategy#isExpensive()}) обдумывают ходы в отдельном пуле потоков с жёстким сроком
+ * (см. {@link AIThinker}), чтобы не задерживать остальные сессии пакета: в проходе выбора
+ * такая сессия только запускает обдумывание и возвращает -1. Планировщик считает обдумывания,
+ * промахи срока и отмены.
+ */
+public class AIMoveScheduler {
+
+    /**
+     * Ход, выполняемый в пакете. Выбор выстрела отделён от его применения, чтобы
+     * стратегии всех сессий пакета отрабатывали подряд, без рассылки сообщений между ними.
+     */
+    public interface BatchedMove {
+
+        /**
+         * Выбирает выстрел.
+         *
+         * @return индекс клетки {@code y * Board.SIZE + x} или -1, если ход не нужен
+         * либо будет применён позже, по готовности асинхронного обдумывания
+         */
+        int think();
+
+        /**
+         * Применяет выбранный выстрел.
+         *
+         * @param cell индекс клетки или -1
+         */
+        void play(int cell);
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    /** Наименьшая часть пакета, которую имеет смысл отдавать отдельному потоку */
+    private static final int MIN_SLICE = 32;
+
+    private final ExecutorService workers;
+    private final int workerCount;
+
+    /** Потоки, в которых стратегии обдумывают ходы, отдельно от потоков сессий */
+    private final ExecutorService thinkers;
+    private final long deadlineMs;
+    private final HashedWheelTimer timer;
+
+    /** Наступившие пакетные ходы, ожидающие разбора */
+    private final Queue<BatchedMove> due = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedMoves = new LongAdder();
+    private final LongAdder evaluatedMoves = new LongAdder();
+    private final LongAdder batchCpuNanos = new LongAdder();
+
+    private final LongAdder thoughts = new LongAdder();
+    private final LongAdder deadlineMisses = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LongAdder stoppedThoughts = new LongAdder();
+    private final AtomicLong maxStopNanos = new AtomicLong();
+
+    private final LongAdder scheduledMoves = new LongAdder();
+    private final LongAdder pendingMoves = new LongAdder();
+    private final LongAdder executedMoves = new LongAdder();
+    private final LongAdder totalLagNanos = new LongAdder();
+
+    /** Максимальная задержка с момента последнего снятия метрик */
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    /**
+     * Создаёт планировщик.
+     *
+     * @param workerCount количество потоков для ходов ИИ
+     * @param tickMs      длительность тика колеса в миллисекундах
+     */
+    public AIMoveScheduler(int workerCount, long tickMs) {
+        this(workerCount, tickMs, workerCount, 500);
+    }
+
+    /**
+     * Создаёт планировщик.
+     *
+     * @param workerCount  количество потоков для ходов ИИ
+     * @param tickMs       длительность тика колеса в миллисекундах
+     * @param thinkerCount количество потоков для обдумывания ходов
+     * @param deadlineMs   жёсткий срок обдумывания хода в миллисекундах
+     */
+    public AIMoveScheduler(int workerCount, long tickMs, int thinkerCount, long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+        AtomicInteger thinkerNumber = new AtomicInteger(1);
+        this.thinkers = Executors.newFixedThreadPool(Math.max(1, thinkerCount), r -> {
+            Thread thread = new Thread(r, "ai-thinker-" + thinkerNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.workerCount = Math.max(1, workerCount);
+        this.workers = Executors.newFixedThreadPool(this.workerCount, r -> {
+            Thread thread = new Thread(r, "ai-worker-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Колесо лишь передаёт наступившие ходы дальше, поэтому выполняет их в своём потоке
+        this.timer = new HashedWheelTimer("ai-timer", tickMs, TimeUnit.MILLISECONDS, 256, Runnable::run);
+    }
+
+    /**
+     * Создаёт планировщик по системным свойствам
+     * {@code battleship.ai.workers} (по умолчанию 2), {@code battleship.ai.tickMs} (по умолчанию 10),
+     * {@code battleship.ai.thinkers} (по умолчанию как workers) и {@code battleship.ai.deadlineMs} (по умолчанию 500).
+     *
+     * @return планировщик ходов ИИ
+     */
+    public static AIMoveScheduler fromSystemProperties() {
+        int workers = Integer.getInteger("battleship.ai.workers", 2);
+        long tickMs = Long.getLong("battleship.ai.tickMs", 10L);
+        int thinkers = Integer.getInteger("battleship.ai.thinkers", workers);
+        long deadlineMs = Long.getLong("battleship.ai.deadlineMs", 500L);
+        return new AIMoveScheduler(workers, tickMs, thinkers, deadlineMs);
+    }
+
+    /**
+     * Создаёт последовательный исполнитель для обращений к стратегии одной сессии.
+     *
+     * @return исполнитель поверх потоков обдумывания
+     */
+    Executor newStrategyExecutor() {
+        return new SerialExecutor(thinkers);
+    }
+
+    /**
+     * Ставит срок обдумывания хода. Задача выполняется в потоке пула ходов.
+     *
+     * @param task действие при наступлении срока
+     * @return дескриптор для отмены
+     */
+    HashedWheelTimer.Timeout newDeadline(Runnable task) {
+        return timer.newTimeout(() -> workers.execute(task), deadlineMs, TimeUnit.MILLISECONDS);
+    }
+
+    void thoughtStarted() {
+        thoughts.increment();
+    }
+
+    void deadlineMissed() {
+        deadlineMisses.increment();
+    }
+
+    void thoughtCancelled() {
+        cancellations.increment();
+    }
+
+    /**
+     * Отменённое или просроченное обдумывание фактически завершилось.
+     *
+     * @param nanos время от отмены до остановки
+     */
+    void thoughtStopped(long nanos) {
+        stoppedThoughts.increment();
+        maxStopNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getThoughts() {
+        return thoughts.sum();
+    }
+
+    /** Сколько раз стратегия не уложилась в срок и ход был сделан запасной стратегией */
+    public long getDeadlineMisses() {
+        return deadlineMisses.sum();
+    }
+
+    /** Сколько раз запрошена отмена обдумывания из-за сдачи, выхода или сброса партии */
+    public long getCancellations() {
+        return cancellations.sum();
+    }
+
+    /** Сколько отменённых или просроченных обдумываний успели начаться и затем остановились */
+    public long getStoppedThoughts() {
+        return stoppedThoughts.sum();
+    }
+
+    /**
+     * Наибольшее время от отмены или промаха срока до фактической остановки обдумывания
+     * с момента предыдущего вызова. Сбрасывает значение.
+     *
+     * @return время в микросекундах
+     */
+    public long takeMaxStopMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxStopNanos.getAndSet(0));
+    }
+
+    /**
+     * Планирует ход компьютера.
+     *
+     * @param move  ход
+     * @param delay задержка
+     * @param unit  единица измерения задержки
+     * @return дескриптор для отмены хода
+     */
+    public HashedWheelTimer.Timeout schedule(Runnable move, long delay, TimeUnit unit) {
+        long dueAt = System.nanoTime() + unit.toNanos(delay);
+        scheduledMoves.increment();
+        pendingMoves.increment();
+
+        return new MoveTimeout(timer.newTimeout(() -> workers.execute(() -> {
+            recordLag(dueAt);
+            executedMoves.increment();
+            pendingMoves.decrement();
+
+            move.run();
+        }), delay, unit));
+    }
+
+    /**
+     * Планирует ход компьютера для пакетной обработки.
+     *
+     * @param move  ход
+     * @param delay задержка
+     * @param unit  единица измерения задержки
+     * @return дескриптор для отмены хода или {@code null}, если задержки нет
+     * и ход сразу поставлен в очередь пакета
+     */
+    public HashedWheelTimer.Timeout scheduleBatched(BatchedMove move, long delay, TimeUnit unit) {
+        long dueAt = System.nanoTime() + unit.toNanos(delay);
+        scheduledMoves.increment();
+        pendingMoves.increment();
+
+        // Без задержки ход не ждёт тика колеса
+        if (delay <= 0) {
+            enqueue(move, dueAt);
+            return null;
+        }
+        return new MoveTimeout(timer.newTimeout(() -> enqueue(move, dueAt), delay, unit));
+    }
+
+    /** Дескриптор хода: отмена хода снимает его с учёта ожидающих */
+    private final class MoveTimeout implements HashedWheelTimer.Timeout {
+        private final HashedWheelTimer.Timeout timeout;
+
+        MoveTimeout(HashedWheelTimer.Timeout timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!timeout.cancel()) {
+                return false;
+            }
+            pendingMoves.decrement();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return timeout.isCancelled();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return timeout.isExpired();
+        }
+    }
+
+    private void enqueue(BatchedMove move, long dueAt) {
+        recordLag(dueAt);
+        due.add(move);
+        if (drainScheduled.compareAndSet(false, true)) {
+            workers.execute(this::drain);
+        }
+    }
+
+    private void recordLag(long dueAt) {
+        long lag = Math.max(0, System.nanoTime() - dueAt);
+        totalLagNanos.add(lag);
+        maxLagNanos.accumulateAndGet(lag, Math::max);
+    }
+
+    /** Разбирает все наступившие ходы в пакет и раздаёт его части потокам */
+    private void drain() {
+        drainScheduled.set(false);
+
+        int n = due.size();
+        if (n == 0) {
+            return;
+        }
+        BatchedMove[] moves = new BatchedMove[n];
+        int count = 0;
+        BatchedMove move;
+        while (count < n && (move = due.poll()) != null) {
+            moves[count++] = move;
+        }
+        if (count == 0) {
+            return;
+        }
+
+        batches.increment();
+        int[] cells = new int[count];
+
+        int slices = Math.max(1, Math.min(workerCount, count / MIN_SLICE));
+        int sliceSize = (count + slices - 1) / slices;
+        for (int from = sliceSize; from < count; from += sliceSize) {
+            int start = from;
+            int end = Math.min(count, from + sliceSize);
+            workers.execute(() -> process(moves, cells, start, end));
+        }
+        process(moves, cells, 0, Math.min(count, sliceSize));
+    }
+
+    /**
+     * Обрабатывает часть пакета: сначала все выстрелы выбираются подряд, затем применяются.
+     */
+    private void process(BatchedMove[] moves, int[] cells, int from, int to) {
+        long started = cpuTime();
+
+        int evaluated = 0;
+        for (int i = from; i < to; i++) {
+            cells[i] = moves[i].think();
+            if (cells[i] >= 0) {
+                evaluated++;
+            }
+        }
+        for (int i = from; i < to; i++) {
+            executedMoves.increment();
+            pendingMoves.decrement();
+            moves[i].play(cells[i]);
+        }
+
+        batchedMoves.add(to - from);
+        evaluatedMoves.add(evaluated);
+        batchCpuNanos.add(cpuTime() - started);
+    }
+
+    private static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Количество запланированных, но ещё не сыгранных и не отменённых ходов.
+     *
+     * @return число ходов в очереди
+     */
+    public long getPendingMoves() {
+        return pendingMoves.sum();
+    }
+
+    public long getScheduledMoves() {
+        return scheduledMoves.sum();
+    }
+
+    public long getExecutedMoves() {
+        return executedMoves.sum();
+    }
+
+    /**
+     * Средняя задержка запуска хода за всё время работы.
+     *
+     * @return задержка в микросекундах
+     */
+    public long getAverageLagMicros() {
+        long executed = executedMoves.sum();
+        return executed == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalLagNanos.sum() / executed);
+    }
+
+    /**
+     * Максимальная задержка запуска хода с момента предыдущего вызова. Сбрасывает значение.
+     *
+     * @return задержка в микросекундах
+     */
+    public long takeMaxLagMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLagNanos.getAndSet(0));
+    }
+
+    /** Число обработанных пакетов */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Средний размер пакета.
+     *
+     * @return ходов в пакете
+     */
+    public double getAverageBatchSize() {
+        long b = batches.sum();
+        return b == 0 ? 0 : (double) batchedMoves.sum() / b;
+    }
+
+    /**
+     * Пропускная способность пакетной обработки: ходов, выбранных в пакете, на секунду
+     * процессорного времени одного ядра. Ходы, отданные в {@link AIThinker}, не считаются,
+     * но время их запуска входит в знаменатель.
+     * Если JVM не измеряет процессорное время потоков, используется настенное время.
+     *
+     * @return ходов в секунду на ядро
+     */
+    public long getMovesPerCoreSecond() {
+        long nanos = batchCpuNanos.sum();
+        return nanos == 0 ? 0 : (long) (evaluatedMoves.sum() * 1e9 / nanos);
+    }
+
+    /** Останавливает колесо и пул потоков; несработавшие ходы отбрасываются */
+    public void stop() {
+        timer.stop();
+        workers.shutdownNow();
+        thinkers.shutdownNow();
+    }
+}
@@ -0,0 +1,180 @@
+package BattleShip.server.AI;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Темп ходов компьютера: задержка перед выстрелом ИИ.
+ * <p>
+ * Политика задаётся строкой:
+ * <ul>
+ *     <li>{@code fixed,<мс>} — постоянная задержка;</li>
+ *     <li>{@code jitter,<мс>,<разброс мс>} — задержка, равномерно распределённая в пределах разброса;</li>
+ *     <li>{@code zero} — ход сразу, без задержки.</li>
+ * </ul>
+ * Нулевая и почти нулевая задержка нужна только нагрузочным прогонам и разрешена лишь в профилях
+ * {@code test} и {@code bench} (свойство {@code battleship.profile}); в обычном режиме
+ * игрок не должен получать ответ компьютера мгновенно, поэтому наименьшая возможная задержка
+ * ({@code задержка - разброс}) должна быть не меньше {@link #MIN_DELAY_MS}.
+ */
+public final class AIPacing {
+
+    /** Задержка по умолчанию */
+    public static final AIPacing DEFAULT = new AIPacing("fixed,1000", 1000, 0);
+
+    /**
+     * Наименьшая задержка хода вне профилей {@code test} и {@code bench}:
+     * свойство {@code battleship.ai.minDelayMs} (по умолчанию 200 мс)
+     */
+    public static final long MIN_DELAY_MS = Long.getLong("battleship.ai.minDelayMs", 200L);
+
+    private final String spec;
+    private final long delayMs;
+    private final long jitterMs;
+
+    private AIPacing(String spec, long delayMs, long jitterMs) {
+        this.spec = spec;
+        this.delayMs = delayMs;
+        this.jitterMs = jitterMs;
+    }
+
+    /**
+     * Разрешена ли нулевая задержка (и любая задержка меньше {@link #MIN_DELAY_MS})
+     * в текущем профиле сервера.
+     *
+     * @return {@code true} для профилей {@code test} и {@code bench}
+     */
+    public static boolean isZeroAllowed() {
+        String profile = System.getProperty("battleship.profile", "prod");
+        return profile.equals("test") || profile.equals("bench");
+    }
+
+    /**
+     * Разбирает политику, проверяя наименьшую задержку по профилю сервера.
+     *
+     * @param spec строка политики
+     * @return политика
+     * @throws IllegalArgumentException если строка неверна или задержка меньше разрешённой
+     */
+    public static AIPacing parse(String spec) {
+        return parse(spec, isZeroAllowed());
+    }
+
+    /**
+     * Разбирает политику.
+     *
+     * @param spec        строка политики
+     * @param zeroAllowed разрешены ли нулевая задержка и задержки меньше {@link #MIN_DELAY_MS}
+     * @return политика
+     * @throws IllegalArgumentException если строка неверна или задержка меньше разрешённой
+     */
+    public static AIPacing parse(String spec, boolean zeroAllowed) {
+        String[] parts = spec.trim().split(",");
+        long delayMs;
+        long jitterMs = 0;
+
+        try {
+            switch (parts[0]) {
+                case "zero":
+                    if (parts.length != 1) {
+                        throw new IllegalArgumentException("Лишние параметры темпа: " + spec);
+                    }
+                    delayMs = 0;
+                    break;
+
+                case "fixed":
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Ожидается fixed,<мс>: " + spec);
+                    }
+                    delayMs = Long.parseLong(parts[1].trim());
+                    break;
+
+                case "jitter":
+                    if (parts.length != 3) {
+                        throw new IllegalArgumentException("Ожидается jitter,<мс>,<разброс мс>: " + spec);
+                    }
+                    delayMs = Long.parseLong(parts[1].trim());
+                    jitterMs = Long.parseLong(parts[2].trim());
+                    break;
+
+                default:
+                    throw new IllegalArgumentException("Неизвестный темп ИИ: " + spec);
+            }
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверное число в темпе ИИ: " + spec);
+        }
+
+        if (delayMs < 0 || jitterMs < 0 || jitterMs > delayMs) {
+            throw new IllegalArgumentException("Задержка и разброс должны быть неотрицательны, разброс не больше задержки: " + spec);
+        }
+        // Разброс уменьшает задержку: fixed,1 или jitter,d,d дали бы почти мгновенный ответ
+        if (delayMs - jitterMs < MIN_DELAY_MS && !zeroAllowed) {
+            throw new IllegalArgumentException("Задержка ИИ меньше " + MIN_DELAY_MS
+                    + " мс разрешена только в профилях test и bench: " + spec);
+        }
+
+        return new AIPacing(spec.trim(), delayMs, jitterMs);
+    }
+
+    /**
+     * Политика сервера по системному свойству {@code battleship.ai.pacing}.
+     * Неверная или запрещённая политика заменяется политикой по умолчанию.
+     *
+     * @return политика темпа ходов
+     */
+    public static AIPacing fromSystemProperties() {
+        String spec = System.getProperty("battleship.ai.pacing");
+        if (spec == null) {
+            return DEFAULT;
+        }
+
+        try {
+            return parse(spec);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + ", используется " + DEFAULT);
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * Задержка очередного хода.
+     *
+     * @return задержка в миллисекундах
+     */
+    public long nextDelayMillis() {
+        return nextDelayMillis(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Задержка очередного хода.
+     *
+     * @param rnd генератор для разброса
+     * @return задержка в миллисекундах
+     */
+    public long nextDelayMillis(Random rnd) {
+        if (jitterMs == 0) {
+            return delayMs;
+        }
+        return delayMs - jitterMs + (long) (rnd.nextDouble() * (2 * jitterMs + 1));
+    }
+
+    /**
+     * Наименьшая задержка хода с учётом разброса.
+     *
+     * @return задержка в миллисекундах
+     */
+    public long getMinDelayMillis() {
+        return delayMs - jitterMs;
+    }
+
+    public boolean isZero() {
+        return delayMs == 0 && jitterMs == 0;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
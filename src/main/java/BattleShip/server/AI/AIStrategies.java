@@ -0,0 +1,171 @@
+package BattleShip.server.AI;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Реестр стратегий ИИ по уровням сложности.
+ * <p>
+ * Поставщики загружаются через {@link ServiceLoader} один раз при первом обращении.
+ * Стратегии, созданные для сессий, оборачиваются замером времени обдумывания хода;
+ * время копится по уровням и попадает в периодический отчёт сервера.
+ * Уровень по умолчанию задаётся свойством {@code battleship.ai.level} (по умолчанию {@code normal}).
+ */
+public final class AIStrategies {
+
+    private static final Map<String, AIStrategyProvider> PROVIDERS = new LinkedHashMap<>();
+    private static final Map<String, ThinkTime> THINK_TIME = new LinkedHashMap<>();
+
+    static {
+        for (AIStrategyProvider provider : ServiceLoader.load(AIStrategyProvider.class, AIStrategies.class.getClassLoader())) {
+            PROVIDERS.putIfAbsent(provider.getLevel(), provider);
+            THINK_TIME.putIfAbsent(provider.getLevel(), new ThinkTime());
+        }
+    }
+
+    private AIStrategies() {
+    }
+
+    /**
+     * Доступные уровни сложности в порядке загрузки.
+     *
+     * @return имена уровней
+     */
+    public static Set<String> getLevels() {
+        return Collections.unmodifiableSet(PROVIDERS.keySet());
+    }
+
+    public static String getDefaultLevel() {
+        return System.getProperty("battleship.ai.level", "normal");
+    }
+
+    public static boolean isKnown(String level) {
+        return PROVIDERS.containsKey(level);
+    }
+
+    /**
+     * Поставщик уровня, без замера времени обдумывания.
+     *
+     * @param level уровень сложности
+     * @return поставщик или {@code null}, если уровень неизвестен
+     */
+    static AIStrategyProvider getProvider(String level) {
+        return PROVIDERS.get(level);
+    }
+
+    /**
+     * Создаёт стратегию уровня с замером времени обдумывания.
+     *
+     * @param level уровень сложности
+     * @return стратегия или {@code null}, если уровень неизвестен
+     */
+    public static AIStrategy create(String level) {
+        return create(level, new Random());
+    }
+
+    /**
+     * Создаёт стратегию уровня с заданным генератором и замером времени обдумывания.
+     *
+     * @param level уровень сложности
+     * @param rnd   генератор случайных чисел стратегии
+     * @return стратегия или {@code null}, если уровень неизвестен
+     */
+    public static AIStrategy create(String level, Random rnd) {
+        AIStrategyProvider provider = PROVIDERS.get(level);
+        if (provider == null) {
+            return null;
+        }
+        return new Timed(provider.create(rnd), THINK_TIME.get(level));
+    }
+
+    /**
+     * Время обдумывания по уровням одной строкой: ходов, среднее и максимум
+     * с прошлого снятия в микросекундах. Максимум при снятии сбрасывается.
+     *
+     * @return строка для отчёта
+     */
+    public static String takeThinkTimeReport() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, ThinkTime> entry : THINK_TIME.entrySet()) {
+            ThinkTime time = entry.getValue();
+            long moves = time.moves.sum();
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(entry.getKey()).append(' ')
+                    .append(moves).append(" ход. ")
+                    .append(moves == 0 ? 0 : time.totalNanos.sum() / moves / 1000).append('/')
+                    .append(time.maxNanos.getAndSet(0) / 1000).append(" мкс");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Число ходов, сделанных стратегиями уровня.
+     *
+     * @param level уровень сложности
+     * @return число ходов или 0, если уровень неизвестен
+     */
+    public static long getMoves(String level) {
+        ThinkTime time = THINK_TIME.get(level);
+        return time == null ? 0 : time.moves.sum();
+    }
+
+    /** Накопленное время обдумывания одного уровня */
+    private static final class ThinkTime {
+        private final LongAdder moves = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long nanos) {
+            moves.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /** Стратегия с замером времени выбора выстрела */
+    private static final class Timed implements AIStrategy {
+        private final AIStrategy delegate;
+        private final ThinkTime time;
+
+        private Timed(AIStrategy delegate, ThinkTime time) {
+            this.delegate = delegate;
+            this.time = time;
+        }
+
+        @Override
+        public int[] nextShot() {
+            long started = System.nanoTime();
+            int[] shot = delegate.nextShot();
+            time.record(System.nanoTime() - started);
+            return shot;
+        }
+
+        @Override
+        public void onResult(int x, int y, String result) {
+            delegate.onResult(x, y, result);
+        }
+
+        @Override
+        public void reset() {
+            delegate.reset();
+        }
+
+        @Override
+        public void forget(int x, int y) {
+            delegate.forget(x, y);
+        }
+
+        @Override
+        public boolean isExpensive() {
+            return delegate.isExpensive();
+        }
+    }
+}
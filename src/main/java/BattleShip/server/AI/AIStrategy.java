@@ -0,0 +1,49 @@
+package BattleShip.server.AI;
+
+/**
+ * Стратегия выбора выстрелов компьютера.
+ * <p>
+ * Стратегия хранит собственное знание о поле противника и не обязана быть
+ * потокобезопасной: сессия вызывает её методы по очереди.
+ */
+public interface AIStrategy {
+
+    /**
+     * Следующий выстрел.
+     *
+     * @return массив из двух элементов {x, y} с координатами выстрела
+     */
+    int[] nextShot();
+
+    /**
+     * Сообщает стратегии результат её выстрела.
+     *
+     * @param x      координата X
+     * @param y      координата Y
+     * @param result результат выстрела ("MISS", "HIT" или "SUNK")
+     */
+    void onResult(int x, int y, String result);
+
+    /** Сброс состояния перед новой партией */
+    void reset();
+
+    /**
+     * Сообщает, что выбранный стратегией выстрел не был сделан (например, стратегия
+     * не уложилась в срок). Клетку снова можно выбирать.
+     *
+     * @param x координата X
+     * @param y координата Y
+     */
+    default void forget(int x, int y) {
+    }
+
+    /**
+     * Долго ли стратегия выбирает выстрел. Дорогие стратегии обдумывают ходы в отдельных
+     * потоках со сроком ({@link AIThinker}), дешёвые — прямо в пакете планировщика.
+     *
+     * @return {@code true} для дорогой стратегии
+     */
+    default boolean isExpensive() {
+        return false;
+    }
+}
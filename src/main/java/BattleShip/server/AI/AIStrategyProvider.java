@@ -0,0 +1,28 @@
+package BattleShip.server.AI;
+
+import java.util.Random;
+
+/**
+ * Поставщик стратегии ИИ для уровня сложности.
+ * <p>
+ * Поставщики находятся через {@link java.util.ServiceLoader}: реализация должна иметь
+ * открытый конструктор без параметров и быть указана в
+ * {@code META-INF/services/BattleShip.server.AI.AIStrategyProvider}.
+ */
+public interface AIStrategyProvider {
+
+    /**
+     * Уровень сложности, под которым стратегия выбирается в {@code CREATE_GAME:AI:<уровень>}.
+     *
+     * @return имя уровня
+     */
+    String getLevel();
+
+    /**
+     * Создаёт новый экземпляр стратегии для одной сессии.
+     *
+     * @param rnd генератор случайных чисел стратегии
+     * @return стратегия
+     */
+    AIStrategy create(Random rnd);
+}
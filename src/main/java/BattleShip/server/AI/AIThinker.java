@@ -0,0 +1,169 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.Board;
+import BattleShip.server.utils.HashedWheelTimer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Асинхронное обдумывание ходов стратегией ИИ одной сессии.
+ * <p>
+ * Все обращения к стратегии (выбор выстрела, результаты, сброс) выполняются по очереди
+ * в потоках обдумывания планировщика и не блокируют поток сессии. На каждый ход ставится
+ * жёсткий срок: если стратегия не успела, ход делает дешёвая запасная стратегия,
+ * а обдумывание прерывается. Отмена (сдача, выход, сброс партии) прерывает его сразу:
+ * поток обдумывания получает прерывание, а дорогие стратегии ({@link EndgameSolver},
+ * {@link MonteCarloAILogic}) проверяют его и сворачивают работу, освобождая поток
+ * и очередь стратегии. Время от отмены до фактической остановки учитывает планировщик.
+ * <p>
+ * Запоздавший выбор не применяется; стратегии сообщается {@link AIStrategy#forget},
+ * чтобы она не считала эту клетку обстрелянной.
+ */
+final class AIThinker {
+
+    private static final int THINKING = 0;
+    private static final int DONE = 1;
+    private static final int DISCARDED = 2;
+
+    private final AIMoveScheduler scheduler;
+    private final AIStrategy strategy;
+    private final AIStrategy fallback;
+    private final Executor strategyExecutor;
+
+    /** Текущее обдумывание или {@code null} */
+    private volatile Thought current;
+
+    /**
+     * @param scheduler планировщик с потоками обдумывания и колесом сроков
+     * @param strategy  основная стратегия
+     * @param fallback  запасная стратегия; вызывается только под блокировкой на себе
+     */
+    AIThinker(AIMoveScheduler scheduler, AIStrategy strategy, AIStrategy fallback) {
+        this.scheduler = scheduler;
+        this.strategy = strategy;
+        this.fallback = fallback;
+        this.strategyExecutor = scheduler.newStrategyExecutor();
+    }
+
+    /** Одно обдумывание хода */
+    private final class Thought implements Runnable {
+        private final AtomicInteger state = new AtomicInteger(THINKING);
+        private final IntConsumer onMove;
+        private FutureTask<Void> task;
+        private HashedWheelTimer.Timeout deadline;
+        private volatile long discardedAt;
+
+        private Thought(IntConsumer onMove) {
+            this.onMove = onMove;
+        }
+
+        @Override
+        public void run() {
+            int[] shot = strategy.nextShot();
+            if (state.compareAndSet(THINKING, DONE)) {
+                deadline.cancel();
+                finish(this);
+                onMove.accept(shot[1] * Board.SIZE + shot[0]);
+            }
+            else {
+                scheduler.thoughtStopped(System.nanoTime() - discardedAt);
+                strategy.forget(shot[0], shot[1]);
+            }
+        }
+
+        private void expire() {
+            discardedAt = System.nanoTime();
+            if (!state.compareAndSet(THINKING, DISCARDED)) {
+                return;
+            }
+            task.cancel(true);
+            scheduler.deadlineMissed();
+            finish(this);
+
+            int[] shot;
+            synchronized (fallback) {
+                shot = fallback.nextShot();
+            }
+            onMove.accept(shot[1] * Board.SIZE + shot[0]);
+        }
+    }
+
+    /**
+     * Запускает обдумывание хода.
+     *
+     * @param onMove получает индекс выбранной клетки; вызывается в потоке обдумывания
+     *               или, при промахе срока, в потоке планировщика
+     * @return {@code false}, если ход уже обдумывается
+     */
+    synchronized boolean start(IntConsumer onMove) {
+        if (current != null) {
+            return false;
+        }
+
+        Thought thought = new Thought(onMove);
+        thought.task = new FutureTask<>(thought, null);
+        current = thought;
+        scheduler.thoughtStarted();
+
+        thought.deadline = scheduler.newDeadline(thought::expire);
+        strategyExecutor.execute(thought.task);
+        return true;
+    }
+
+    /**
+     * Отменяет текущее обдумывание.
+     *
+     * @return {@code true}, если обдумывание было прервано
+     */
+    synchronized boolean cancel() {
+        Thought thought = current;
+        if (thought == null) {
+            return false;
+        }
+        thought.discardedAt = System.nanoTime();
+        if (!thought.state.compareAndSet(THINKING, DISCARDED)) {
+            return false;
+        }
+        current = null;
+        thought.deadline.cancel();
+        thought.task.cancel(true);
+        scheduler.thoughtCancelled();
+        return true;
+    }
+
+    boolean isThinking() {
+        return current != null;
+    }
+
+    private synchronized void finish(Thought thought) {
+        if (current == thought) {
+            current = null;
+        }
+    }
+
+    /**
+     * Передаёт результат выстрела обеим стратегиям.
+     *
+     * @param x      координата X
+     * @param y      координата Y
+     * @param result результат выстрела
+     */
+    void onResult(int x, int y, String result) {
+        synchronized (fallback) {
+            fallback.onResult(x, y, result);
+        }
+        strategyExecutor.execute(() -> strategy.onResult(x, y, result));
+    }
+
+    /** Отменяет обдумывание и сбрасывает обе стратегии перед новой партией */
+    void reset() {
+        cancel();
+        synchronized (fallback) {
+            fallback.reset();
+        }
+        strategyExecutor.execute(strategy::reset);
+    }
+}
@@ -0,0 +1,53 @@
+package BattleShip.server.AI;
+
+import java.util.Random;
+
+/**
+ * Встроенные уровни сложности ИИ.
+ */
+public final class BuiltInStrategies {
+
+    private BuiltInStrategies() {
+    }
+
+    /** Лёгкий: случайные выстрелы */
+    public static final class Easy implements AIStrategyProvider {
+        @Override
+        public String getLevel() {
+            return "easy";
+        }
+
+        @Override
+        public AIStrategy create(Random rnd) {
+            return new AILogic(rnd);
+        }
+    }
+
+    /** Средний: карта плотности вероятности */
+    public static final class Normal implements AIStrategyProvider {
+        @Override
+        public String getLevel() {
+            return "normal";
+        }
+
+        @Override
+        public AIStrategy create(Random rnd) {
+            return new DensityAILogic(rnd);
+        }
+    }
+
+    /** Сложный: выборка расстановок методом Монте-Карло */
+    public static final class Hard implements AIStrategyProvider {
+        @Override
+        public String getLevel() {
+            return "hard";
+        }
+
+        @Override
+        public AIStrategy create(Random rnd) {
+            return new MonteCarloAILogic(rnd,
+                    Long.getLong("battleship.ai.hard.budgetMs", 20L),
+                    Integer.getInteger("battleship.ai.hard.maxSamples", 20_000));
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.Board;
+import BattleShip.server.ShotLedger;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ИИ, выбирающий выстрел по карте плотности вероятности.
+ * <p>
+ * Для каждой клетки известно, сколько допустимых расстановок оставшихся кораблей
+ * её покрывают; стреляем в клетку с наибольшим покрытием. Все возможные расстановки
+ * и их маски берутся из {@link Placements}. Карта обновляется по результатам выстрелов инкрементально:
+ * закрытая клетка снимает только проходящие через неё расстановки.
+ * <p>
+ * Если есть подбитый, но не потопленный корабль, ИИ переходит в режим добивания
+ * и рассматривает только расстановки, проходящие через подбитые клетки.
+ * Корабли не касаются друг друга, поэтому клетки вокруг потопленного корабля
+ * и по диагонали от попадания сразу исключаются.
+ * <p>
+ * Когда у оставшихся кораблей остаётся мало положений, карта плотности заменяется
+ * точным перебором {@link EndgameSolver}.
+ * <p>
+ * Состояние знаний хешируется ключами Зобриста, и маска лучших клеток хранится
+ * в общем для всех сессий {@link ShotCache}: одинаковые состояния разных партий
+ * оцениваются один раз.
+ */
+public class DensityAILogic extends AILogic {
+
+    private static final int CELLS = Placements.CELLS;
+    private static final int MAX_SHIP = Placements.MAX_SHIP;
+
+    private final Random rnd;
+
+    /** Расстановки, ещё не исключённые результатами выстрелов */
+    private final boolean[] valid = new boolean[Placements.SIZE.length];
+
+    /** Покрытие клеток допустимыми расстановками по размерам кораблей */
+    private final int[][] heat = new int[MAX_SHIP + 1][CELLS];
+
+    /** Оставшиеся на плаву корабли по размерам */
+    final int[] remaining = new int[MAX_SHIP + 1];
+
+    /** Клетки, по которым уже стреляли */
+    long shotLo;
+    long shotHi;
+
+    /** Клетки, в которых не может быть корабля на плаву: промахи, потопленные корабли и их окрестность */
+    long blockedLo;
+    long blockedHi;
+
+    /** Попадания по ещё не потопленным кораблям */
+    long hitLo;
+    long hitHi;
+
+    /** Клетки с известным результатом и хеш Зобриста этих результатов */
+    private long knownLo;
+    private long knownHi;
+    long hash;
+
+    /** Маска лучших клеток текущего хода */
+    private final long[] best = new long[2];
+
+    /** Рабочий массив оценок клеток */
+    private final int[] score = new int[CELLS];
+
+    private static final ShotCache CACHE = ShotCache.fromSystemProperties("density");
+
+    /** Точный перебор, когда у оставшихся кораблей мало положений */
+    private final EndgameSolver endgame = EndgameSolver.fromSystemProperties();
+
+    public DensityAILogic() {
+        this(new Random());
+    }
+
+    /**
+     * Создаёт ИИ с заданным генератором случайных чисел (для воспроизводимых партий).
+     *
+     * @param rnd генератор для выбора среди равноценных клеток
+     */
+    public DensityAILogic(Random rnd) {
+        super(rnd);
+        this.rnd = rnd;
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(valid, true);
+        for (int size = 1; size <= MAX_SHIP; size++) {
+            System.arraycopy(Placements.INITIAL_HEAT[size], 0, heat[size], 0, CELLS);
+        }
+        System.arraycopy(Placements.FLEET, 0, remaining, 0, remaining.length);
+
+        shotLo = shotHi = 0;
+        blockedLo = blockedHi = 0;
+        hitLo = hitHi = 0;
+        knownLo = knownHi = 0;
+        hash = 0;
+    }
+
+    @Override
+    public int[] nextShot() {
+        ShotCache cache = getCache();
+        int known = Long.bitCount(knownLo) + Long.bitCount(knownHi);
+        if (!cache.lookup(hash, known, best) || ((best[0] & ~shotLo) | (best[1] & ~shotHi)) == 0) {
+            evaluate(best);
+            // Прерванная оценка может быть неполной, в общий кэш она не попадает
+            if (!Thread.currentThread().isInterrupted()) {
+                cache.store(hash, best[0], best[1], known);
+            }
+        }
+
+        long lo = best[0] & ~shotLo;
+        long hi = best[1] & ~shotHi;
+        int cell = (lo | hi) != 0 ? pickRandom(lo, hi) : randomUnshot();
+
+        markShot(cell);
+        return new int[]{cell % Board.SIZE, cell / Board.SIZE};
+    }
+
+    /** Кэш оценок для этой стратегии */
+    ShotCache getCache() {
+        return CACHE;
+    }
+
+    /**
+     * Оценивает клетки: в эндшпиле точным перебором, иначе по карте плотности.
+     *
+     * @param out сюда записывается маска необстрелянных клеток с наибольшей оценкой
+     */
+    void evaluate(long[] out) {
+        if (!solveEndgame(out)) {
+            evaluateDensity(out);
+        }
+    }
+
+    /**
+     * Точная оценка перебором всех расстановок, если их немного.
+     *
+     * @param out сюда записывается маска лучших клеток
+     * @return {@code true}, если перебор выполнен
+     */
+    boolean solveEndgame(long[] out) {
+        return endgame.solve(this, out);
+    }
+
+    /**
+     * Оценивает клетки по карте плотности.
+     *
+     * @param out сюда записывается маска необстрелянных клеток с наибольшей оценкой
+     */
+    void evaluateDensity(long[] out) {
+        boolean targeting = (hitLo | hitHi) != 0;
+        if (targeting) {
+            scoreTargets();
+        }
+        else {
+            scoreHunt();
+        }
+
+        int bestScore = 0;
+        long lo = 0;
+        long hi = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int s = score[cell];
+            if (s <= 0 || s < bestScore || Placements.isSet(shotLo, shotHi, cell)) {
+                continue;
+            }
+            if (s > bestScore) {
+                bestScore = s;
+                lo = 0;
+                hi = 0;
+            }
+            if (cell < 64) {
+                lo |= 1L << cell;
+            }
+            else {
+                hi |= 1L << (cell - 64);
+            }
+        }
+
+        out[0] = lo;
+        out[1] = hi;
+    }
+
+    /** Случайная клетка из непустой маски */
+    int pickRandom(long lo, long hi) {
+        int loCount = Long.bitCount(lo);
+        int n = rnd.nextInt(loCount + Long.bitCount(hi));
+
+        long word = lo;
+        int offset = 0;
+        if (n >= loCount) {
+            word = hi;
+            offset = 64;
+            n -= loCount;
+        }
+        for (int i = 0; i < n; i++) {
+            word &= word - 1;
+        }
+        return offset + Long.numberOfTrailingZeros(word);
+    }
+
+    @Override
+    public void onResult(int x, int y, String result) {
+        int cell = y * Board.SIZE + x;
+        markShot(cell);
+
+        if (!Placements.isSet(knownLo, knownHi, cell)) {
+            if (cell < 64) {
+                knownLo |= 1L << cell;
+            }
+            else {
+                knownHi |= 1L << (cell - 64);
+            }
+            hash ^= ShotCache.key(ShotLedger.resultCode(result), cell);
+        }
+
+        switch (result) {
+            case "HIT":
+                setHit(cell);
+                // По диагонали от попадания корабля быть не может
+                for (int neighbour : Placements.DIAGONAL_NEIGHBOURS[cell]) {
+                    block(neighbour);
+                }
+                break;
+
+            case "SUNK":
+                setHit(cell);
+                sink(cell);
+                break;
+
+            default:
+                block(cell);
+        }
+    }
+
+    @Override
+    public void forget(int x, int y) {
+        int cell = y * Board.SIZE + x;
+        if (Placements.isSet(knownLo, knownHi, cell)) {
+            return;
+        }
+        if (cell < 64) {
+            shotLo &= ~(1L << cell);
+        }
+        else {
+            shotHi &= ~(1L << (cell - 64));
+        }
+    }
+
+    /** Оценка клеток в режиме поиска: суммарное покрытие оставшимися кораблями */
+    private void scoreHunt() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int s = 0;
+            for (int size = 1; size <= MAX_SHIP; size++) {
+                s += remaining[size] * heat[size][cell];
+            }
+            score[cell] = s;
+        }
+    }
+
+    /**
+     * Оценка клеток в режиме добивания: учитываются только расстановки,
+     * проходящие через подбитые клетки и не касающиеся других попаданий.
+     * Расстановка, покрывающая больше попаданий, весит больше.
+     */
+    private void scoreTargets() {
+        Arrays.fill(score, 0);
+
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (!Placements.isSet(hitLo, hitHi, cell)) {
+                continue;
+            }
+
+            for (int p : Placements.BY_CELL[cell]) {
+                int size = Placements.SIZE[p];
+                if (!valid[p] || remaining[size] == 0) {
+                    continue;
+                }
+                if ((Placements.HALO_LO[p] & hitLo) != 0 || (Placements.HALO_HI[p] & hitHi) != 0) {
+                    continue;
+                }
+
+                int covered = Long.bitCount(Placements.LO[p] & hitLo) + Long.bitCount(Placements.HI[p] & hitHi);
+                int weight = remaining[size] * covered * covered;
+                for (int c : Placements.CELLS_OF[p]) {
+                    score[c] += weight;
+                }
+            }
+        }
+    }
+
+    /**
+     * Обработка потопления: корабль — связная по сторонам группа попаданий,
+     * содержащая клетку выстрела. Корабль и его окрестность исключаются.
+     */
+    private void sink(int cell) {
+        int[] ship = new int[MAX_SHIP * 2];
+        int size = 0;
+        ship[size++] = cell;
+        clearHit(cell);
+
+        for (int i = 0; i < size; i++) {
+            for (int neighbour : Placements.SIDE_NEIGHBOURS[ship[i]]) {
+                if (Placements.isSet(hitLo, hitHi, neighbour) && size < ship.length) {
+                    clearHit(neighbour);
+                    ship[size++] = neighbour;
+                }
+            }
+        }
+
+        int shipSize = Math.min(size, MAX_SHIP);
+        if (remaining[shipSize] > 0) {
+            remaining[shipSize]--;
+        }
+
+        for (int i = 0; i < size; i++) {
+            block(ship[i]);
+            for (int neighbour : Placements.ALL_NEIGHBOURS[ship[i]]) {
+                block(neighbour);
+            }
+        }
+    }
+
+    /** Исключает клетку и снимает с карты все проходящие через неё расстановки */
+    private void block(int cell) {
+        if (Placements.isSet(blockedLo, blockedHi, cell)) {
+            return;
+        }
+        if (cell < 64) {
+            blockedLo |= 1L << cell;
+        }
+        else {
+            blockedHi |= 1L << (cell - 64);
+        }
+
+        for (int p : Placements.BY_CELL[cell]) {
+            if (valid[p]) {
+                valid[p] = false;
+                int[] h = heat[Placements.SIZE[p]];
+                for (int c : Placements.CELLS_OF[p]) {
+                    h[c]--;
+                }
+            }
+        }
+    }
+
+    int randomUnshot() {
+        int free = CELLS - Long.bitCount(shotLo) - Long.bitCount(shotHi);
+        int target = rnd.nextInt(Math.max(1, free));
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (!Placements.isSet(shotLo, shotHi, cell) && target-- == 0) {
+                return cell;
+            }
+        }
+        return 0;
+    }
+
+    void markShot(int cell) {
+        if (cell < 64) {
+            shotLo |= 1L << cell;
+        }
+        else {
+            shotHi |= 1L << (cell - 64);
+        }
+    }
+
+    private void setHit(int cell) {
+        if (cell < 64) {
+            hitLo |= 1L << cell;
+        }
+        else {
+            hitHi |= 1L << (cell - 64);
+        }
+    }
+
+    private void clearHit(int cell) {
+        if (cell < 64) {
+            hitLo &= ~(1L << cell);
+        }
+        else {
+            hitHi &= ~(1L << (cell - 64));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package BattleShip.server.AI;
+
+import java.util.Arrays;
+
+/**
+ * Точный решатель эндшпиля для ИИ.
+ * <p>
+ * Когда у оставшихся кораблей мало допустимых положений, перебираются все полные
+ * расстановки этих кораблей, согласованные с выстрелами: корабли не заходят на
+ * исключённые клетки, не касаются друг друга и покрывают все подбитые клетки.
+ * Для каждой клетки считается доля расстановок, в которых она занята, — точная
+ * вероятность попадания при равновероятных расстановках.
+ * <p>
+ * Перебор идёт по битовым маскам; одинаковые корабли ставятся в порядке возрастания
+ * номера положения, чтобы не перебирать их перестановки. Число узлов перебора
+ * ограничено, при превышении решатель отказывается, и ход выбирается эвристикой.
+ * Так же решатель отказывается, если поток прерван (обдумывание отменено).
+ * Результаты запоминаются по хешу Зобриста состояния в общем {@link ShotCache}.
+ * <p>
+ * Экземпляр хранит рабочие массивы и не потокобезопасен: у каждой сессии ИИ свой.
+ */
+final class EndgameSolver {
+
+    private static final int CELLS = Placements.CELLS;
+    private static final int MAX_SHIP = Placements.MAX_SHIP;
+
+    /** Прерывание потока проверяется раз в столько узлов перебора */
+    private static final long INTERRUPT_CHECK_MASK = 1023;
+
+    /** Решения по состояниям, общие для всех сессий */
+    private static final ShotCache MEMO = new ShotCache("endgame",
+            Integer.getInteger("battleship.ai.endgame.memo", 4096), CELLS);
+
+    private final int maxCandidates;
+    private final long maxNodes;
+
+    /** Допустимые положения по размерам */
+    private final int[][] candidates = new int[MAX_SHIP + 1][];
+    private final int[] candidateCount = new int[MAX_SHIP + 1];
+
+    /** Размеры оставшихся кораблей по убыванию и выбранные для них положения */
+    private final int[] ships = new int[16];
+    private final int[] placed = new int[16];
+    private int shipCount;
+
+    /** Сколько расстановок покрывают каждую клетку */
+    private final long[] cover = new long[CELLS];
+
+    private long hitLo;
+    private long hitHi;
+    private long configurations;
+    private long nodes;
+    private boolean aborted;
+
+    /**
+     * @param maxCandidates наибольшее суммарное число допустимых положений, при котором включается перебор
+     * @param maxNodes      наибольшее число узлов перебора на ход
+     */
+    EndgameSolver(int maxCandidates, long maxNodes) {
+        this.maxCandidates = maxCandidates;
+        this.maxNodes = maxNodes;
+        for (int size = 1; size <= MAX_SHIP; size++) {
+            candidates[size] = new int[Placements.BY_SIZE[size].length];
+        }
+    }
+
+    /**
+     * Создаёт решатель с порогом {@code battleship.ai.endgame.maxCandidates} (по умолчанию 32)
+     * и ограничением {@code battleship.ai.endgame.maxNodes} (по умолчанию 50000 узлов).
+     *
+     * @return решатель
+     */
+    static EndgameSolver fromSystemProperties() {
+        return new EndgameSolver(
+                Integer.getInteger("battleship.ai.endgame.maxCandidates", 32),
+                Long.getLong("battleship.ai.endgame.maxNodes", 50_000L));
+    }
+
+    /**
+     * Ищет клетки с наибольшей вероятностью попадания.
+     *
+     * @param ai  состояние знаний ИИ
+     * @param out сюда записывается маска лучших необстрелянных клеток
+     * @return {@code true}, если задача решена точно; иначе ход выбирается эвристикой
+     */
+    boolean solve(DensityAILogic ai, long[] out) {
+        if (!collectCandidates(ai)) {
+            return false;
+        }
+
+        int shots = Long.bitCount(ai.shotLo) + Long.bitCount(ai.shotHi);
+        if (MEMO.lookup(ai.hash, shots, out) && ((out[0] & ~ai.shotLo) | (out[1] & ~ai.shotHi)) != 0) {
+            return true;
+        }
+
+        hitLo = ai.hitLo;
+        hitHi = ai.hitHi;
+        configurations = 0;
+        nodes = 0;
+        aborted = false;
+        Arrays.fill(cover, 0);
+
+        search(0, 0L, 0L, 0L, 0L, 0);
+
+        if (aborted || configurations == 0) {
+            return false;
+        }
+
+        long bestCover = 0;
+        long lo = 0;
+        long hi = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            long c = cover[cell];
+            if (c == 0 || c < bestCover || Placements.isSet(ai.shotLo, ai.shotHi, cell)) {
+                continue;
+            }
+            if (c > bestCover) {
+                bestCover = c;
+                lo = 0;
+                hi = 0;
+            }
+            if (cell < 64) {
+                lo |= 1L << cell;
+            }
+            else {
+                hi |= 1L << (cell - 64);
+            }
+        }
+
+        if ((lo | hi) == 0) {
+            return false;
+        }
+
+        out[0] = lo;
+        out[1] = hi;
+        MEMO.store(ai.hash, lo, hi, shots);
+        return true;
+    }
+
+    /**
+     * Собирает допустимые положения оставшихся кораблей.
+     *
+     * @return {@code true}, если их не больше порога
+     */
+    private boolean collectCandidates(DensityAILogic ai) {
+        shipCount = 0;
+        int total = 0;
+
+        for (int size = MAX_SHIP; size >= 1; size--) {
+            candidateCount[size] = 0;
+            int left = ai.remaining[size];
+            if (left == 0) {
+                continue;
+            }
+
+            for (int p : Placements.BY_SIZE[size]) {
+                if (Placements.intersects(p, ai.blockedLo, ai.blockedHi)) {
+                    continue;
+                }
+                // Корабль не может касаться подбитых клеток, которые в него не входят
+                if ((Placements.HALO_LO[p] & ai.hitLo) != 0 || (Placements.HALO_HI[p] & ai.hitHi) != 0) {
+                    continue;
+                }
+                candidates[size][candidateCount[size]++] = p;
+            }
+
+            total += candidateCount[size];
+            if (total > maxCandidates) {
+                return false;
+            }
+
+            for (int i = 0; i < left; i++) {
+                ships[shipCount++] = size;
+            }
+        }
+
+        return shipCount > 0;
+    }
+
+    /**
+     * Перебор расстановок.
+     *
+     * @param k     номер очередного корабля
+     * @param occLo занятые кораблями клетки
+     * @param covLo подбитые клетки, уже покрытые поставленными кораблями
+     * @param from  первый допустимый индекс положения для корабля того же размера, что предыдущий
+     */
+    private void search(int k, long occLo, long occHi, long covLo, long covHi, int from) {
+        if (aborted || ++nodes > maxNodes
+                || ((nodes & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted())) {
+            aborted = true;
+            return;
+        }
+
+        if (k == shipCount) {
+            if ((hitLo & ~covLo) == 0 && (hitHi & ~covHi) == 0) {
+                configurations++;
+                for (int i = 0; i < k; i++) {
+                    for (int cell : Placements.CELLS_OF[placed[i]]) {
+                        cover[cell]++;
+                    }
+                }
+            }
+            return;
+        }
+
+        int size = ships[k];
+        int start = (k > 0 && ships[k - 1] == size) ? from : 0;
+        int[] list = candidates[size];
+
+        for (int i = start; i < candidateCount[size]; i++) {
+            int p = list[i];
+            if (!fits(p, occLo, occHi)) {
+                continue;
+            }
+            placed[k] = p;
+            search(k + 1,
+                    occLo | Placements.LO[p], occHi | Placements.HI[p],
+                    covLo | (Placements.LO[p] & hitLo), covHi | (Placements.HI[p] & hitHi),
+                    i + 1);
+        }
+    }
+
+    private static boolean fits(int p, long occLo, long occHi) {
+        return ((Placements.LO[p] | Placements.HALO_LO[p]) & occLo) == 0
+                && ((Placements.HI[p] | Placements.HALO_HI[p]) & occHi) == 0;
+    }
+
+    /** Число согласованных расстановок в последнем решении */
+    long getConfigurations() {
+        return configurations;
+    }
+
+    /** Число узлов перебора в последнем решении */
+    long getNodes() {
+        return nodes;
+    }
+}
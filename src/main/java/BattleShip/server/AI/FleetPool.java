@@ -0,0 +1,90 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.FleetCodec;
+import BattleShip.client.model.FleetGenerator;
+import BattleShip.client.model.RuleSet;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Запас готовых расстановок флота компьютера.
+ * <p>
+ * Фоновый поток держит очередь заполненной, поэтому создание игры с ИИ
+ * сводится к взятию расстановки из очереди. Если запас исчерпан, расстановка
+ * строится на месте тем же {@link FleetGenerator}.
+ * <p>
+ * Расстановки хранятся в двоичной форме {@link FleetCodec} — по 10 байт на флот.
+ */
+public class FleetPool {
+
+    private final BlockingQueue<byte[]> fleets;
+    private final Thread refiller;
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean running = true;
+
+    /**
+     * Создаёт запас и запускает фоновое пополнение.
+     *
+     * @param capacity сколько расстановок держать наготове
+     */
+    public FleetPool(int capacity) {
+        this.fleets = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.refiller = new Thread(this::refill, "fleet-pool");
+        this.refiller.setDaemon(true);
+        this.refiller.start();
+    }
+
+    /**
+     * Создаёт запас размером {@code battleship.fleetPool.size} (по умолчанию 64).
+     *
+     * @return запас расстановок
+     */
+    public static FleetPool fromSystemProperties() {
+        return new FleetPool(Integer.getInteger("battleship.fleetPool.size", 64));
+    }
+
+    /**
+     * Берёт готовую расстановку по классическим правилам.
+     *
+     * @return коды кораблей {@link FleetCodec}
+     */
+    public int[] take() {
+        byte[] fleet = fleets.poll();
+        if (fleet == null) {
+            misses.increment();
+            return FleetGenerator.generateShips(RuleSet.CLASSIC, ThreadLocalRandom.current());
+        }
+        return FleetCodec.unpack(fleet, RuleSet.CLASSIC);
+    }
+
+    public int getAvailable() {
+        return fleets.size();
+    }
+
+    /** Сколько раз запас оказался пуст и расстановку пришлось строить на месте */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public void stop() {
+        running = false;
+        refiller.interrupt();
+    }
+
+    private void refill() {
+        try {
+            while (running) {
+                int[] ships = FleetGenerator.generateShips(RuleSet.CLASSIC, ThreadLocalRandom.current());
+                fleets.put(FleetCodec.pack(ships, RuleSet.CLASSIC));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
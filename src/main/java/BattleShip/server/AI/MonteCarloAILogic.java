@@ -0,0 +1,342 @@
+package BattleShip.server.AI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Сложный ИИ: выбор выстрела по выборке расстановок флота (метод Монте-Карло).
+ * <p>
+ * На каждом ходу генерируется множество полных расстановок оставшихся кораблей,
+ * согласованных со всеми выстрелами: корабли не заходят на промахи и окрестность
+ * потопленных, покрывают все подбитые клетки и не касаются друг друга.
+ * Стреляем в клетку, которую чаще всего покрывают корабли в выборке.
+ * <p>
+ * Выборка строится параллельно в общем {@link ForkJoinPool}. На ход отводится жёсткий
+ * бюджет времени; выборка прекращается раньше, если лидирующая клетка уже статистически
+ * отделилась от второй. Чтобы не занимать весь пул одной сессией, ход использует
+ * не больше половины его потоков, а задачи проверяют срок после каждой небольшой пачки.
+ * Если за бюджет не набралось ни одной расстановки, ход выбирается по карте плотности.
+ * В эндшпиле выборка не нужна: расстановки перебираются точно {@link EndgameSolver}.
+ * Результат выборки кэшируется в собственном {@link ShotCache}, так что повторяющиеся
+ * состояния, прежде всего начало партии, не требуют новой выборки.
+ */
+public class MonteCarloAILogic extends DensityAILogic {
+
+    private static final int CELLS = Placements.CELLS;
+    private static final int MAX_SHIP = Placements.MAX_SHIP;
+
+    /** Сколько попыток расстановки делает задача между проверками срока */
+    private static final int BATCH = 32;
+
+    /** Минимальная выборка для досрочной остановки */
+    private static final int MIN_SAMPLES = 200;
+
+    /** Попыток случайно поставить очередной корабль до отказа от расстановки */
+    private static final int PLACE_ATTEMPTS = 24;
+
+    private final Random rnd;
+    private final long budgetNanos;
+    private final int maxSamples;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    private static final ShotCache CACHE = ShotCache.fromSystemProperties("montecarlo");
+
+    /** Размер выборки на последнем ходу */
+    private volatile int lastSamples;
+
+    /**
+     * Создаёт ИИ с бюджетом хода {@code battleship.ai.hard.budgetMs} (по умолчанию 20 мс)
+     * и максимальной выборкой {@code battleship.ai.hard.maxSamples} (по умолчанию 20000).
+     */
+    public MonteCarloAILogic() {
+        this(new Random(),
+                Long.getLong("battleship.ai.hard.budgetMs", 20L),
+                Integer.getInteger("battleship.ai.hard.maxSamples", 20_000));
+    }
+
+    /**
+     * Создаёт ИИ с заданными параметрами.
+     *
+     * @param rnd        генератор случайных чисел
+     * @param budgetMs   бюджет времени на ход в миллисекундах
+     * @param maxSamples максимальный размер выборки на ход
+     */
+    public MonteCarloAILogic(Random rnd, long budgetMs, int maxSamples) {
+        super(rnd);
+        this.rnd = rnd;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        this.maxSamples = maxSamples;
+    }
+
+    public int getLastSamples() {
+        return lastSamples;
+    }
+
+    @Override
+    ShotCache getCache() {
+        return CACHE;
+    }
+
+    /** Выборка расстановок занимает до бюджета хода, поэтому ход обдумывается вне пакета */
+    @Override
+    public boolean isExpensive() {
+        return true;
+    }
+
+    @Override
+    void evaluate(long[] out) {
+        if (solveEndgame(out)) {
+            lastSamples = 0;
+            return;
+        }
+        // Обдумывание отменено: выборку не запускаем, ответ всё равно будет отброшен
+        if (Thread.currentThread().isInterrupted()) {
+            lastSamples = 0;
+            evaluateDensity(out);
+            return;
+        }
+
+        long deadline = System.nanoTime() + budgetNanos;
+        Sampler sampler = new Sampler(this, deadline, maxSamples);
+
+        int tasks = Math.max(1, pool.getParallelism() / 2);
+        List<ForkJoinTask<?>> running = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            running.add(pool.submit(sampler.worker(rnd.nextLong())));
+        }
+
+        for (ForkJoinTask<?> task : running) {
+            long left = deadline - System.nanoTime();
+            try {
+                task.get(Math.max(0, left), TimeUnit.NANOSECONDS);
+            }
+            catch (TimeoutException e) {
+                break;
+            }
+            catch (InterruptedException e) {
+                sampler.stop = true;
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch (ExecutionException e) {
+                break;
+            }
+        }
+        sampler.stop = true;
+
+        lastSamples = sampler.samples.get();
+
+        int bestCount = 0;
+        long lo = 0;
+        long hi = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int count = sampler.counts.get(cell);
+            if (count <= 0 || count < bestCount || Placements.isSet(shotLo, shotHi, cell)) {
+                continue;
+            }
+            if (count > bestCount) {
+                bestCount = count;
+                lo = 0;
+                hi = 0;
+            }
+            if (cell < 64) {
+                lo |= 1L << cell;
+            }
+            else {
+                hi |= 1L << (cell - 64);
+            }
+        }
+
+        if ((lo | hi) == 0) {
+            evaluateDensity(out);
+            return;
+        }
+
+        out[0] = lo;
+        out[1] = hi;
+    }
+
+    /**
+     * Общее состояние выборки одного хода.
+     * Знания о поле копируются при создании, поэтому задачи не трогают поля ИИ.
+     */
+    private static final class Sampler {
+        private final long forbidLo;
+        private final long forbidHi;
+        private final long hitLo;
+        private final long hitHi;
+        private final long shotLo;
+        private final long shotHi;
+        private final int[] remaining;
+
+        private final long deadline;
+        private final int maxSamples;
+
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(CELLS);
+        private final AtomicInteger samples = new AtomicInteger();
+
+        private volatile boolean stop;
+
+        Sampler(DensityAILogic ai, long deadline, int maxSamples) {
+            this.forbidLo = ai.blockedLo;
+            this.forbidHi = ai.blockedHi;
+            this.hitLo = ai.hitLo;
+            this.hitHi = ai.hitHi;
+            this.shotLo = ai.shotLo;
+            this.shotHi = ai.shotHi;
+            this.remaining = ai.remaining.clone();
+            this.deadline = deadline;
+            this.maxSamples = maxSamples;
+        }
+
+        Runnable worker(long seed) {
+            return () -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                int[] cover = new int[CELLS];
+                int[] left = new int[MAX_SHIP + 1];
+                int[] placed = new int[16];
+
+                while (!stop && System.nanoTime() < deadline) {
+                    int accepted = 0;
+                    for (int i = 0; i < BATCH; i++) {
+                        if (sample(random, cover, left, placed)) {
+                            accepted++;
+                        }
+                    }
+
+                    if (accepted > 0) {
+                        for (int cell = 0; cell < CELLS; cell++) {
+                            if (cover[cell] != 0) {
+                                counts.addAndGet(cell, cover[cell]);
+                                cover[cell] = 0;
+                            }
+                        }
+                        int total = samples.addAndGet(accepted);
+                        if (total >= maxSamples || confident(total)) {
+                            stop = true;
+                        }
+                    }
+                }
+            };
+        }
+
+        /**
+         * Строит одну расстановку оставшихся кораблей.
+         * Сначала корабли ставятся через подбитые клетки, затем остальные — случайно.
+         *
+         * @return {@code true}, если расстановка удалась и учтена в {@code cover}
+         */
+        private boolean sample(SplittableRandom random, int[] cover, int[] left, int[] placed) {
+            System.arraycopy(remaining, 0, left, 0, left.length);
+            int placedCount = 0;
+
+            long blockLo = forbidLo;
+            long blockHi = forbidHi;
+            long openLo = hitLo;
+            long openHi = hitHi;
+
+            while ((openLo | openHi) != 0) {
+                int hit = (openLo != 0) ? Long.numberOfTrailingZeros(openLo)
+                        : 64 + Long.numberOfTrailingZeros(openHi);
+
+                int chosen = -1;
+                int weightSum = 0;
+                for (int p : Placements.BY_CELL[hit]) {
+                    int weight = left[Placements.SIZE[p]];
+                    if (weight == 0 || Placements.intersects(p, blockLo, blockHi)) {
+                        continue;
+                    }
+                    // Корабль не может касаться подбитых клеток, которые в него не входят
+                    if ((Placements.HALO_LO[p] & openLo) != 0 || (Placements.HALO_HI[p] & openHi) != 0) {
+                        continue;
+                    }
+                    weightSum += weight;
+                    if (random.nextInt(weightSum) < weight) {
+                        chosen = p;
+                    }
+                }
+
+                if (chosen < 0) {
+                    return false;
+                }
+
+                left[Placements.SIZE[chosen]]--;
+                placed[placedCount++] = chosen;
+                blockLo |= Placements.LO[chosen] | Placements.HALO_LO[chosen];
+                blockHi |= Placements.HI[chosen] | Placements.HALO_HI[chosen];
+                openLo &= ~Placements.LO[chosen];
+                openHi &= ~Placements.HI[chosen];
+            }
+
+            for (int size = MAX_SHIP; size >= 1; size--) {
+                int[] candidates = Placements.BY_SIZE[size];
+                for (int ship = 0; ship < left[size]; ship++) {
+                    int chosen = -1;
+                    for (int attempt = 0; attempt < PLACE_ATTEMPTS; attempt++) {
+                        int p = candidates[random.nextInt(candidates.length)];
+                        if (!Placements.intersects(p, blockLo, blockHi)) {
+                            chosen = p;
+                            break;
+                        }
+                    }
+
+                    if (chosen < 0) {
+                        return false;
+                    }
+
+                    placed[placedCount++] = chosen;
+                    blockLo |= Placements.LO[chosen] | Placements.HALO_LO[chosen];
+                    blockHi |= Placements.HI[chosen] | Placements.HALO_HI[chosen];
+                }
+            }
+
+            for (int i = 0; i < placedCount; i++) {
+                for (int cell : Placements.CELLS_OF[placed[i]]) {
+                    cover[cell]++;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Лидирующая необстрелянная клетка отделилась от второй больше чем на три
+         * стандартных отклонения разности частот либо покрыта во всех расстановках.
+         */
+        private boolean confident(int total) {
+            if (total < MIN_SAMPLES) {
+                return false;
+            }
+
+            int first = 0;
+            int second = 0;
+            for (int cell = 0; cell < CELLS; cell++) {
+                if (Placements.isSet(shotLo, shotHi, cell)) {
+                    continue;
+                }
+                int count = counts.get(cell);
+                if (count > first) {
+                    second = first;
+                    first = count;
+                }
+                else if (count > second) {
+                    second = count;
+                }
+            }
+
+            if (first >= total) {
+                return true;
+            }
+            double diff = first - second;
+            return diff > 3 * Math.sqrt(first + second);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.Board;
+import BattleShip.client.model.PlacementMasks;
+
+import java.util.Arrays;
+
+/**
+ * Таблицы расстановок кораблей для стратегий ИИ.
+ * <p>
+ * Сами расстановки и их маски берутся из общих таблиц {@link PlacementMasks};
+ * здесь к ним добавляются индексы по клеткам и размерам, соседи клеток
+ * и начальная карта покрытия. Таблицы вычисляются один раз и общие для всех стратегий ИИ.
+ */
+final class Placements {
+
+    static final int CELLS = PlacementMasks.CELLS;
+    static final int MAX_SHIP = PlacementMasks.MAX_SHIP;
+
+    /** Количество кораблей каждого размера в начале партии */
+    static final int[] FLEET = {0, 4, 3, 2, 1};
+
+    static final int[] SIZE = PlacementMasks.SIZE;
+    static final int[][] CELLS_OF = PlacementMasks.CELLS_OF;
+    static final long[] LO = PlacementMasks.LO;
+    static final long[] HI = PlacementMasks.HI;
+
+    /** Маски клеток вокруг расстановки (без самой расстановки) */
+    static final long[] HALO_LO = PlacementMasks.HALO_LO;
+    static final long[] HALO_HI = PlacementMasks.HALO_HI;
+
+    /** Номера расстановок, проходящих через каждую клетку */
+    static final int[][] BY_CELL;
+
+    /** Номера расстановок каждого размера */
+    static final int[][] BY_SIZE = new int[MAX_SHIP + 1][];
+
+    /** Соседи клетки по сторонам, по диагонали и все восемь */
+    static final int[][] SIDE_NEIGHBOURS = new int[CELLS][];
+    static final int[][] DIAGONAL_NEIGHBOURS = new int[CELLS][];
+    static final int[][] ALL_NEIGHBOURS = new int[CELLS][];
+
+    /** Начальное покрытие клеток расстановками по размерам кораблей */
+    static final int[][] INITIAL_HEAT = new int[MAX_SHIP + 1][CELLS];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            SIDE_NEIGHBOURS[cell] = neighbours(cell, true, false);
+            DIAGONAL_NEIGHBOURS[cell] = neighbours(cell, false, true);
+            ALL_NEIGHBOURS[cell] = neighbours(cell, true, true);
+        }
+
+        int[] perSize = new int[MAX_SHIP + 1];
+        int[] perCell = new int[CELLS];
+        for (int p = 0; p < PlacementMasks.COUNT; p++) {
+            perSize[SIZE[p]]++;
+            for (int cell : CELLS_OF[p]) {
+                perCell[cell]++;
+                INITIAL_HEAT[SIZE[p]][cell]++;
+            }
+        }
+
+        int[] filledSize = new int[MAX_SHIP + 1];
+        for (int size = 1; size <= MAX_SHIP; size++) {
+            BY_SIZE[size] = new int[perSize[size]];
+        }
+        for (int p = 0; p < PlacementMasks.COUNT; p++) {
+            BY_SIZE[SIZE[p]][filledSize[SIZE[p]]++] = p;
+        }
+
+        BY_CELL = new int[CELLS][];
+        for (int cell = 0; cell < CELLS; cell++) {
+            BY_CELL[cell] = new int[perCell[cell]];
+        }
+        int[] filled = new int[CELLS];
+        for (int i = 0; i < PlacementMasks.COUNT; i++) {
+            for (int cell : CELLS_OF[i]) {
+                BY_CELL[cell][filled[cell]++] = i;
+            }
+        }
+    }
+
+    private Placements() {
+    }
+
+    /**
+     * Соседние клетки в пределах поля.
+     *
+     * @param cell      индекс клетки
+     * @param sides     включать ли соседей по сторонам
+     * @param diagonals включать ли соседей по диагонали
+     * @return индексы соседних клеток
+     */
+    private static int[] neighbours(int cell, boolean sides, boolean diagonals) {
+        int x = cell % Board.SIZE;
+        int y = cell / Board.SIZE;
+        int[] result = new int[8];
+        int n = 0;
+
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                boolean diagonal = dx != 0 && dy != 0;
+                if ((dx == 0 && dy == 0) || (diagonal ? !diagonals : !sides)) {
+                    continue;
+                }
+                int nx = x + dx;
+                int ny = y + dy;
+                if (nx >= 0 && nx < Board.SIZE && ny >= 0 && ny < Board.SIZE) {
+                    result[n++] = ny * Board.SIZE + nx;
+                }
+            }
+        }
+
+        return Arrays.copyOf(result, n);
+    }
+
+    static boolean isSet(long lo, long hi, int cell) {
+        return PlacementMasks.isSet(lo, hi, cell);
+    }
+
+    static boolean intersects(int p, long lo, long hi) {
+        return PlacementMasks.intersects(p, lo, hi);
+    }
+}
@@ -0,0 +1,59 @@
+package BattleShip.server.AI;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Исполнитель, выполняющий задачи строго по очереди поверх общего пула.
+ * <p>
+ * Стратегии ИИ не потокобезопасны; все обращения к стратегии одной сессии идут через
+ * свой последовательный исполнитель, поэтому никто не ждёт блокировку, а порядок
+ * обращений сохраняется. Флаг прерывания, оставшийся от отменённой задачи,
+ * сбрасывается перед следующей.
+ */
+final class SerialExecutor implements Executor {
+
+    private final Executor pool;
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private boolean running;
+
+    SerialExecutor(Executor pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (tasks) {
+            tasks.add(task);
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        pool.execute(this::drain);
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable task;
+            synchronized (tasks) {
+                task = tasks.poll();
+                if (task == null) {
+                    running = false;
+                    return;
+                }
+            }
+
+            try {
+                task.run();
+            }
+            catch (RuntimeException e) {
+                System.err.println("Ошибка стратегии ИИ: " + e.getMessage());
+            }
+            finally {
+                Thread.interrupted();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package BattleShip.server.AI;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Общий для всех сессий кэш оценок выстрела ИИ.
+ * <p>
+ * Знание ИИ о поле определяется набором результатов выстрелов, поэтому его можно
+ * хешировать ключами Зобриста: каждый результат в каждой клетке имеет случайный
+ * 64-битный ключ, и хеш состояния — XOR ключей всех известных результатов.
+ * Хеш обновляется за одну операцию на выстрел и не зависит от порядка выстрелов.
+ * <p>
+ * По хешу хранится маска лучших клеток (все равноценные лидеры), а не одна клетка:
+ * сессии в одинаковом состоянии по-прежнему выбирают среди лидеров случайно.
+ * <p>
+ * Кэшируются только состояния не глубже {@code maxShots} известных результатов:
+ * дальше состояния почти не повторяются, и обращение к кэшу лишь тратит время.
+ * <p>
+ * Кэш фиксированного размера, без блокировок и с потерями. Ячейки собраны в корзины
+ * по две; при записи вытесняется запись более поздней стадии партии, так как ранние
+ * состояния чаще совпадают у разных сессий. Запись из трёх слов проверяется при чтении
+ * по XOR ключа с данными, поэтому частично перезаписанная ячейка считается промахом.
+ */
+public final class ShotCache {
+
+    /** Ключи Зобриста по коду результата ({@code ShotLedger.MISS..SUNK}) и клетке */
+    private static final long[][] KEYS = new long[4][Placements.CELLS];
+
+    /** Все созданные кэши — для отчёта сервера */
+    private static final List<ShotCache> CACHES = new CopyOnWriteArrayList<>();
+
+    private static final int WAYS = 2;
+    private static final int SLOT = 3;
+
+    /** Число выстрелов хранится в старшем слове маски над клетками 64–99 */
+    private static final int SHOTS_SHIFT = 40;
+    private static final long CELLS_HI_MASK = (1L << (Placements.CELLS - 64)) - 1;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EA_BA77_1EL);
+        for (int code = 1; code < KEYS.length; code++) {
+            for (int cell = 0; cell < Placements.CELLS; cell++) {
+                KEYS[code][cell] = random.nextLong();
+            }
+        }
+    }
+
+    private final String name;
+    private final AtomicLongArray table;
+    private final int bucketMask;
+    private final int maxShots;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Создаёт кэш и регистрирует его в отчёте.
+     *
+     * @param name    имя для отчёта
+     * @param entries  число записей (округляется вверх до степени двойки); 0 — кэш выключен
+     * @param maxShots наибольшее число известных результатов в кэшируемом состоянии
+     */
+    ShotCache(String name, int entries, int maxShots) {
+        this.name = name;
+        this.maxShots = maxShots;
+        int buckets = entries <= 0 ? 0 : Integer.highestOneBit(Math.max(1, (entries + WAYS - 1) / WAYS) * 2 - 1);
+        this.table = new AtomicLongArray(buckets * WAYS * SLOT);
+        this.bucketMask = buckets - 1;
+        CACHES.add(this);
+    }
+
+    /**
+     * Создаёт кэш размером {@code battleship.ai.cache.entries} (по умолчанию 65536 записей)
+     * для состояний не глубже {@code battleship.ai.cache.maxShots} (по умолчанию 8) результатов.
+     *
+     * @param name имя для отчёта
+     * @return кэш
+     */
+    static ShotCache fromSystemProperties(String name) {
+        return new ShotCache(name,
+                Integer.getInteger("battleship.ai.cache.entries", 1 << 16),
+                Integer.getInteger("battleship.ai.cache.maxShots", 8));
+    }
+
+    /**
+     * Ключ Зобриста результата выстрела.
+     *
+     * @param code код результата {@code ShotLedger.MISS}, {@code HIT} или {@code SUNK}
+     * @param cell индекс клетки
+     * @return ключ для XOR с хешем состояния
+     */
+    static long key(byte code, int cell) {
+        return KEYS[code][cell];
+    }
+
+    /**
+     * Кэшируется ли состояние такой глубины.
+     *
+     * @param shots число известных результатов
+     * @return {@code true}, если к кэшу стоит обращаться
+     */
+    boolean accepts(int shots) {
+        return bucketMask >= 0 && shots <= maxShots;
+    }
+
+    /**
+     * Ищет маску лучших клеток.
+     *
+     * @param hash  хеш состояния
+     * @param shots число известных результатов в состоянии
+     * @param out   сюда записываются младшее и старшее слова маски
+     * @return {@code true}, если запись найдена
+     */
+    boolean lookup(long hash, int shots, long[] out) {
+        if (!accepts(shots)) {
+            return false;
+        }
+
+        int base = bucket(hash);
+        for (int way = 0; way < WAYS; way++) {
+            int slot = base + way * SLOT;
+            long check = table.get(slot);
+            long lo = table.get(slot + 1);
+            long hi = table.get(slot + 2);
+            if ((check ^ lo ^ hi) == hash && (lo | hi) != 0) {
+                out[0] = lo;
+                out[1] = hi & CELLS_HI_MASK;
+                hits.increment();
+                return true;
+            }
+        }
+
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Сохраняет маску лучших клеток.
+     *
+     * @param hash  хеш состояния
+     * @param lo    младшее слово маски
+     * @param hi    старшее слово маски
+     * @param shots число выстрелов в состоянии; записи с большим числом вытесняются первыми
+     */
+    void store(long hash, long lo, long hi, int shots) {
+        if (!accepts(shots) || (lo | hi) == 0) {
+            return;
+        }
+
+        long packedHi = (hi & CELLS_HI_MASK) | ((long) shots << SHOTS_SHIFT);
+        int base = bucket(hash);
+
+        int victim = base;
+        int victimShots = -1;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = base + way * SLOT;
+            long check = table.get(slot);
+            long slotLo = table.get(slot + 1);
+            long slotHi = table.get(slot + 2);
+
+            if ((slotLo | slotHi) == 0 || (check ^ slotLo ^ slotHi) == hash) {
+                victim = slot;
+                break;
+            }
+            int slotShots = (int) (slotHi >>> SHOTS_SHIFT);
+            if (slotShots > victimShots) {
+                victim = slot;
+                victimShots = slotShots;
+            }
+        }
+
+        table.lazySet(victim + 1, lo);
+        table.lazySet(victim + 2, packedHi);
+        table.set(victim, hash ^ lo ^ packedHi);
+    }
+
+    private int bucket(long hash) {
+        return (int) ((hash ^ (hash >>> 32)) & bucketMask) * WAYS * SLOT;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Доля попаданий всех кэшей одной строкой.
+     *
+     * @return строка для отчёта
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (ShotCache cache : CACHES) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(cache.name).append(' ')
+                    .append(String.format(Locale.ROOT, "%.1f%%", 100 * cache.getHitRatio()))
+                    .append(" из ").append(cache.getHits() + cache.getMisses());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,407 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.Board;
+import BattleShip.client.model.FleetGenerator;
+import BattleShip.client.model.RuleSet;
+import BattleShip.server.Fleet;
+import BattleShip.server.ShotLedger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Турнир стратегий ИИ без сети и задержек ходов.
+ * <p>
+ * Партии играются напрямую через {@link Fleet}: каждая стратегия стреляет по флоту,
+ * расставленному {@link FleetGenerator}, пока не потопит его.
+ * Последовательность выстрелов стратегии не зависит от соперника, поэтому партию
+ * достаточно сыграть за каждую сторону отдельно: при правиле «попал — стреляй ещё»
+ * первый игрок побеждает, если до победы ему понадобилось не больше промахов, чем второму.
+ * <p>
+ * Партии распределяются по потокам пачками. Генераторы всех партий задаются от общего
+ * зерна и номера партии, поэтому результат не зависит от числа потоков.
+ * <p>
+ * Запуск:
+ * {@code java BattleShip.server.AI.Tournament [--games N] [--threads N] [--seed N] стратегия...}
+ * Стратегии задаются уровнями сложности из {@link AIStrategies}: {@code easy}, {@code normal}, {@code hard}.
+ */
+public class Tournament {
+
+    private static final int CHUNK = 256;
+
+    private final String[] strategies;
+    private final long games;
+    private final int threads;
+    private final long seed;
+
+    /**
+     * @param strategies имена стратегий; при одной стратегии она играет сама с собой
+     * @param games      число партий на каждую пару стратегий
+     * @param threads    число потоков
+     * @param seed       общее зерно генераторов
+     */
+    public Tournament(String[] strategies, long games, int threads, long seed) {
+        this.strategies = strategies;
+        this.games = games;
+        this.threads = Math.max(1, threads);
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long games = 100_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        List<String> names = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    games = Long.parseLong(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    names.add(args[i]);
+            }
+        }
+
+        if (names.isEmpty()) {
+            names.add("easy");
+            names.add("normal");
+        }
+
+        Tournament tournament = new Tournament(names.toArray(new String[0]), games, threads, seed);
+        System.out.print(tournament.run().format());
+    }
+
+    /**
+     * Создаёт стратегию уровня сложности из {@link AIStrategies}.
+     *
+     * @param level уровень сложности
+     * @param rnd   генератор, который стратегия будет использовать
+     * @return стратегия ИИ
+     */
+    static AIStrategy createStrategy(String level, Random rnd) {
+        AIStrategyProvider provider = AIStrategies.getProvider(level);
+        if (provider == null) {
+            throw new IllegalArgumentException("Неизвестный уровень сложности: " + level + ", доступны " + AIStrategies.getLevels());
+        }
+        return provider.create(rnd);
+    }
+
+    /**
+     * Проводит турнир.
+     *
+     * @return итоги
+     */
+    public Report run() throws Exception {
+        List<int[]> pairs = new ArrayList<>();
+        if (strategies.length == 1) {
+            pairs.add(new int[]{0, 0});
+        }
+        for (int a = 0; a < strategies.length; a++) {
+            for (int b = a + 1; b < strategies.length; b++) {
+                pairs.add(new int[]{a, b});
+            }
+        }
+
+        Report report = new Report(strategies, pairs);
+        AtomicLong next = new AtomicLong();
+        long total = games * pairs.size();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long startedAt = System.nanoTime();
+        try {
+            List<Future<Stats>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> play(pairs, next, total)));
+            }
+            for (Future<Stats> future : futures) {
+                report.stats.merge(future.get());
+            }
+        }
+        finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        report.elapsedNanos = System.nanoTime() - startedAt;
+
+        return report;
+    }
+
+    /** Цикл одного потока: берёт пачки партий, пока они не закончатся */
+    private Stats play(List<int[]> pairs, AtomicLong next, long total) {
+        Stats stats = new Stats(strategies.length, pairs.size());
+
+        Random placementRnd = new Random();
+        Random[] strategyRnd = new Random[strategies.length];
+        AIStrategy[] ais = new AIStrategy[strategies.length];
+        for (int i = 0; i < strategies.length; i++) {
+            strategyRnd[i] = new Random();
+            ais[i] = createStrategy(strategies[i], strategyRnd[i]);
+        }
+        int[] result = new int[2];
+
+        long allocatedBefore = allocatedBytes();
+
+        while (true) {
+            long from = next.getAndAdd(CHUNK);
+            if (from >= total) {
+                break;
+            }
+            long to = Math.min(total, from + CHUNK);
+
+            for (long game = from; game < to; game++) {
+                int pairIndex = (int) (game / games);
+                int[] pair = pairs.get(pairIndex);
+                long gameSeed = mix(seed + game);
+
+                placementRnd.setSeed(gameSeed);
+                int[] fleetA = FleetGenerator.generateShips(RuleSet.CLASSIC, placementRnd);
+                int[] fleetB = FleetGenerator.generateShips(RuleSet.CLASSIC, placementRnd);
+
+                // Стратегия A стреляет по флоту B и наоборот
+                strategyRnd[pair[0]].setSeed(gameSeed ^ 0x5DEECE66DL);
+                playSide(ais[pair[0]], fleetB, stats, pair[0], result);
+                int shotsA = result[0];
+                int missesA = result[1];
+
+                strategyRnd[pair[1]].setSeed(gameSeed ^ 0x2545F4914F6CDD1DL);
+                playSide(ais[pair[1]], fleetA, stats, pair[1], result);
+                int shotsB = result[0];
+                int missesB = result[1];
+
+                // Первым ходит A в чётных партиях и B — в нечётных
+                boolean aFirst = (game & 1) == 0;
+                boolean aWins = aFirst ? missesA <= missesB : missesA < missesB;
+
+                stats.recordSide(pair[0], shotsA);
+                stats.recordSide(pair[1], shotsB);
+                stats.recordGame(pairIndex, aWins);
+            }
+        }
+
+        stats.allocatedBytes = allocatedBytes() - allocatedBefore;
+        return stats;
+    }
+
+    /**
+     * Играет одну сторону партии: стратегия стреляет, пока не потопит флот.
+     *
+     * @param result сюда записываются число выстрелов и число промахов до победы
+     */
+    private static void playSide(AIStrategy ai, int[] ships, Stats stats, int strategy, int[] result) {
+        ai.reset();
+        Fleet fleet = Fleet.of(ships, RuleSet.CLASSIC);
+
+        int shots = 0;
+        int misses = 0;
+        long started = System.nanoTime();
+
+        while (!fleet.isDestroyed() && shots < Board.SIZE * Board.SIZE) {
+            int[] shot = ai.nextShot();
+            byte code = fleet.fire(shot[0], shot[1]);
+            ai.onResult(shot[0], shot[1], ShotLedger.resultName(code));
+
+            shots++;
+            if (code == ShotLedger.MISS) {
+                misses++;
+            }
+        }
+
+        stats.moveNanos[strategy] += System.nanoTime() - started;
+        stats.moves[strategy] += shots;
+
+        result[0] = shots;
+        result[1] = misses;
+    }
+
+    /** Перемешивание номера партии в зерно (SplitMix64) */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Байты, выделенные текущим потоком, или -1, если JVM этого не умеет */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /** Накопленная статистика потока или всего турнира */
+    static final class Stats {
+        /** Гистограммы числа выстрелов до победы по стратегиям */
+        final long[][] shotHistogram;
+        final long[] sides;
+        final long[] moves;
+        final long[] moveNanos;
+
+        /** Победы первой стратегии пары и число партий пары */
+        final long[] pairWins;
+        final long[] pairGames;
+
+        long allocatedBytes;
+
+        Stats(int strategies, int pairs) {
+            shotHistogram = new long[strategies][Board.SIZE * Board.SIZE + 1];
+            sides = new long[strategies];
+            moves = new long[strategies];
+            moveNanos = new long[strategies];
+            pairWins = new long[pairs];
+            pairGames = new long[pairs];
+        }
+
+        void recordSide(int strategy, int shots) {
+            shotHistogram[strategy][shots]++;
+            sides[strategy]++;
+        }
+
+        void recordGame(int pair, boolean firstWins) {
+            pairGames[pair]++;
+            if (firstWins) {
+                pairWins[pair]++;
+            }
+        }
+
+        void merge(Stats other) {
+            for (int s = 0; s < sides.length; s++) {
+                for (int i = 0; i < shotHistogram[s].length; i++) {
+                    shotHistogram[s][i] += other.shotHistogram[s][i];
+                }
+                sides[s] += other.sides[s];
+                moves[s] += other.moves[s];
+                moveNanos[s] += other.moveNanos[s];
+            }
+            for (int p = 0; p < pairWins.length; p++) {
+                pairWins[p] += other.pairWins[p];
+                pairGames[p] += other.pairGames[p];
+            }
+            if (other.allocatedBytes >= 0 && allocatedBytes >= 0) {
+                allocatedBytes += other.allocatedBytes;
+            }
+            else {
+                allocatedBytes = -1;
+            }
+        }
+
+        double mean(int strategy) {
+            long sum = 0;
+            for (int i = 0; i < shotHistogram[strategy].length; i++) {
+                sum += i * shotHistogram[strategy][i];
+            }
+            return sides[strategy] == 0 ? 0 : (double) sum / sides[strategy];
+        }
+
+        int percentile(int strategy, double p) {
+            long rank = (long) Math.ceil(p * sides[strategy]);
+            long seen = 0;
+            for (int i = 0; i < shotHistogram[strategy].length; i++) {
+                seen += shotHistogram[strategy][i];
+                if (seen >= rank && seen > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /** Итоги турнира */
+    public static final class Report {
+        private final String[] strategies;
+        private final List<int[]> pairs;
+        final Stats stats;
+        long elapsedNanos;
+
+        Report(String[] strategies, List<int[]> pairs) {
+            this.strategies = strategies;
+            this.pairs = pairs;
+            this.stats = new Stats(strategies.length, pairs.size());
+        }
+
+        public double meanShots(String strategy) {
+            return stats.mean(indexOf(strategy));
+        }
+
+        public int percentileShots(String strategy, double p) {
+            return stats.percentile(indexOf(strategy), p);
+        }
+
+        public long totalGames() {
+            long total = 0;
+            for (long g : stats.pairGames) {
+                total += g;
+            }
+            return total;
+        }
+
+        public double gamesPerSecond() {
+            return totalGames() / (elapsedNanos / 1e9);
+        }
+
+        private int indexOf(String strategy) {
+            for (int i = 0; i < strategies.length; i++) {
+                if (strategies[i].equals(strategy)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Стратегия не участвовала: " + strategy);
+        }
+
+        /**
+         * Текстовый отчёт.
+         *
+         * @return таблица результатов
+         */
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            long total = totalGames();
+
+            sb.append(String.format(Locale.ROOT, "Партий: %d за %.2f с, %.0f партий/с",
+                    total, elapsedNanos / 1e9, gamesPerSecond()));
+            if (stats.allocatedBytes >= 0 && total > 0) {
+                sb.append(String.format(Locale.ROOT, ", выделено %.1f КБ на партию", stats.allocatedBytes / 1024.0 / total));
+            }
+            sb.append('\n');
+            sb.append("Кэш оценок: ").append(ShotCache.report()).append('\n');
+
+            sb.append(String.format(Locale.ROOT, "%-12s %10s %8s %6s %6s %6s %6s %10s%n",
+                    "Стратегия", "Сторон", "Среднее", "p50", "p90", "p99", "max", "мкс/ход"));
+            for (int s = 0; s < strategies.length; s++) {
+                double micros = stats.moves[s] == 0 ? 0 : stats.moveNanos[s] / 1e3 / stats.moves[s];
+                sb.append(String.format(Locale.ROOT, "%-12s %10d %8.2f %6d %6d %6d %6d %10.2f%n",
+                        strategies[s], stats.sides[s], stats.mean(s),
+                        stats.percentile(s, 0.5), stats.percentile(s, 0.9), stats.percentile(s, 0.99),
+                        stats.percentile(s, 1.0), micros));
+            }
+
+            for (int p = 0; p < pairs.size(); p++) {
+                int[] pair = pairs.get(p);
+                if (pair[0] == pair[1]) {
+                    continue;
+                }
+                long g = stats.pairGames[p];
+                sb.append(String.format(Locale.ROOT, "%s против %s: %.1f%% побед %s%n",
+                        strategies[pair[0]], strategies[pair[1]],
+                        g == 0 ? 0 : 100.0 * stats.pairWins[p] / g, strategies[pair[0]]));
+            }
+
+            return sb.toString();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package BattleShip.server;
 
+import BattleShip.client.model.RuleSet;
 import BattleShip.server.AI.AIGameSession;
+import BattleShip.server.AI.AIStrategies;
 import BattleShip.server.utils.LoggerServer;
 
 import java.io.*;
@@ -24,6 +26,9 @@ public class ClientHandler implements Runnable {
     private GameSession currentGame;
     private AIGameSession currentAIGame;
 
+    /** Клиент вышел сам, удерживать его место в партии не нужно */
+    private boolean leaving = false;
+
     /**
      * Конструктор обработчика клиента.
      *
@@ -36,6 +41,8 @@ public class ClientHandler implements Runnable {
         this.clientId = UUID.randomUUID().toString().substring(0, 8);
 
         try {
+            // Ответ на ход — несколько коротких строк подряд; без этого вторая ждёт подтверждения первой
+            socket.setTcpNoDelay(true);
             in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
             out = new PrintWriter(socket.getOutputStream(), true);
         }
@@ -102,10 +109,23 @@ public class ClientHandler implements Runnable {
                 if (parts.length >= 2 && username != null) {
                     String gameName = parts[1];
                     if (gameName.equals("AI")) {
-                        server.createAIGame(gameName, username, this);
+                        String level = parts.length >= 3 ? parts[2] : AIStrategies.getDefaultLevel();
+                        String pacing = parts.length >= 4 ? parts[3] : null;
+                        server.createAIGame(gameName, username, this, level, pacing);
                     }
                     else {
-                        server.createGame(gameName, username, this);
+                        // Необязательные параметры в любом порядке: SALVO и RULES=<правила>
+                        boolean salvo = false;
+                        String rulesSpec = null;
+                        for (int i = 2; i < parts.length; i++) {
+                            if (parts[i].equals("SALVO")) {
+                                salvo = true;
+                            }
+                            else if (parts[i].startsWith("RULES=")) {
+                                rulesSpec = parts[i].substring("RULES=".length());
+                            }
+                        }
+                        server.createGame(gameName, username, this, salvo, rulesSpec);
                     }
                 }
                 break;
@@ -166,6 +186,12 @@ public class ClientHandler implements Runnable {
                 }
                 break;
 
+            case "SALVO":
+                if (currentGame != null && parts.length == 2) {
+                    currentGame.processSalvo(this, parseSalvo(parts[1], currentGame.getRules()));
+                }
+                break;
+
             case "SURRENDER":
                 String winner = parts[1];
                 if (currentGame != null) {
@@ -180,7 +206,14 @@ public class ClientHandler implements Runnable {
                 }
                 break;
 
+            case "RESUME":
+                if (parts.length >= 2 && username != null) {
+                    server.resumeGame(parts[1], this);
+                }
+                break;
+
             case "DISCONNECT":
+                leaving = true;
                 disconnect();
                 break;
         }
@@ -197,6 +230,33 @@ public class ClientHandler implements Runnable {
         }
     }
 
+    /**
+     * Разбор координат залпа вида {@code x1,y1;x2,y2;...} в индексы клеток.
+     * Координаты за пределами поля превращаются в -1 и пропускаются при расчёте залпа.
+     *
+     * @param data  координаты залпа
+     * @param rules правила партии, задающие размеры поля
+     * @return индексы клеток {@code y * ширина + x} или пустой массив, если формат неверен
+     */
+    private static int[] parseSalvo(String data, RuleSet rules) {
+        String[] shots = data.split(";");
+        int[] cells = new int[shots.length];
+
+        try {
+            for (int i = 0; i < shots.length; i++) {
+                String[] xy = shots[i].split(",");
+                int x = Integer.parseInt(xy[0].trim());
+                int y = Integer.parseInt(xy[1].trim());
+                cells[i] = rules.contains(x, y) ? y * rules.getWidth() + x : -1;
+            }
+        }
+        catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return new int[0];
+        }
+
+        return cells;
+    }
+
     /** Отправка списка доступных игр клиенту */
     public void sendGameList() {
         if (server != null) {
@@ -209,11 +269,20 @@ public class ClientHandler implements Runnable {
     public void disconnect() {
         try {
             if (currentGame != null) {
-                currentGame.removePlayer(username);
+                // При обрыве связи место в идущей партии удерживается для переподключения
+                if (currentGame.isPlayer(this) && (leaving || !currentGame.holdSlot(this))) {
+                    currentGame.removePlayer(username);
+                }
+                currentGame = null;
+            }
+
+            if (currentAIGame != null) {
+                currentAIGame.resetGameState();
+                currentAIGame = null;
             }
 
             if (username != null) {
-                server.removeClient(username);
+                server.removeClient(username, this);
             }
 
             if (in != null) {
@@ -0,0 +1,226 @@
+package BattleShip.server;
+
+import BattleShip.client.model.CellMap;
+import BattleShip.client.model.FleetCodec;
+import BattleShip.client.model.RuleSet;
+
+import java.util.Arrays;
+
+/**
+ * Флот игрока на сервере — расчёт результатов выстрелов.
+ * <p>
+ * Расстановка разбирается один раз при старте партии: для каждой клетки поля
+ * хранится номер стоящего в ней корабля, а для каждого корабля — число
+ * неповреждённых клеток. Поэтому выстрел и проверка потопления стоят O(1)
+ * и не требуют повторного разбора строки с кораблями.
+ * <p>
+ * Размеры поля берутся из правил партии {@link RuleSet}. На разреженном поле номера
+ * кораблей хранятся в {@link CellMap} только для клеток кораблей.
+ * Результаты выстрелов кодируются константами {@link ShotLedger}.
+ */
+public class Fleet {
+
+    /** Номер корабля в клетке (начиная с 1), 0 — вода */
+    private final byte[] shipAt;
+
+    /** Номера кораблей в клетках разреженного поля */
+    private final CellMap sparseShipAt;
+
+    /** Ширина поля: индекс клетки {@code y * width + x} */
+    private final int width;
+
+    /** Число клеток поля */
+    private final int area;
+
+    /** Неповреждённые клетки каждого корабля */
+    private final int[] remaining;
+
+    private int aliveShips;
+    private int aliveCells;
+
+    private Fleet(int shipCount, RuleSet rules) {
+        this.remaining = new int[shipCount];
+        this.shipAt = rules.isSparse() ? null : new byte[rules.getCells()];
+        this.sparseShipAt = rules.isSparse() ? new CellMap(rules.getShipCells()) : null;
+        this.width = rules.getWidth();
+        this.area = rules.getCells();
+    }
+
+    private int shipAt(int index) {
+        return shipAt != null ? shipAt[index] : sparseShipAt.get(index);
+    }
+
+    private void setShipAt(int index, int number) {
+        if (shipAt != null) {
+            shipAt[index] = (byte) number;
+        }
+        else {
+            sparseShipAt.put(index, number);
+        }
+    }
+
+    /**
+     * Разбирает расстановку кораблей по классическим правилам.
+     *
+     * @param shipsData строка с кораблями
+     * @return флот
+     */
+    public static Fleet parse(String shipsData) {
+        return parse(shipsData, RuleSet.CLASSIC);
+    }
+
+    /**
+     * Разбирает расстановку кораблей в формате {@code "тип,x,y,ориентация;..."}.
+     * Некорректные записи и корабли, начинающиеся за пределами поля, пропускаются.
+     *
+     * @param shipsData строка с кораблями
+     * @param rules     правила партии
+     * @return флот
+     */
+    public static Fleet parse(String shipsData, RuleSet rules) {
+        return of(FleetCodec.fromText(shipsData, rules, true), rules);
+    }
+
+    /**
+     * Строит флот по кодам кораблей {@link FleetCodec}.
+     * Клетки корабля за краем поля отбрасываются.
+     *
+     * @param ships коды кораблей
+     * @param rules правила партии
+     * @return флот
+     */
+    public static Fleet of(int[] ships, RuleSet rules) {
+        int width = rules.getWidth();
+        int height = rules.getHeight();
+
+        int[][] cells = new int[ships.length][];
+        int count = 0;
+
+        for (int ship : ships) {
+            int size = FleetCodec.size(ship);
+            int x = FleetCodec.cell(ship) % width;
+            int y = FleetCodec.cell(ship) / width;
+            boolean vertical = FleetCodec.isVertical(ship);
+
+            int[] shipCells = new int[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                int cellX = x + (vertical ? 0 : i);
+                int cellY = y + (vertical ? i : 0);
+                if (cellX < width && cellY < height) {
+                    shipCells[n++] = cellY * width + cellX;
+                }
+            }
+
+            if (n > 0) {
+                cells[count++] = n == size ? shipCells : Arrays.copyOf(shipCells, n);
+            }
+        }
+
+        Fleet fleet = new Fleet(count, rules);
+        for (int ship = 0; ship < count; ship++) {
+            for (int index : cells[ship]) {
+                fleet.setShipAt(index, ship + 1);
+            }
+        }
+
+        // Размеры считаем по фактически занятым клеткам на случай наложения кораблей
+        for (int ship = 0; ship < count; ship++) {
+            for (int index : cells[ship]) {
+                if (fleet.shipAt(index) == ship + 1) {
+                    fleet.remaining[ship]++;
+                    fleet.aliveCells++;
+                }
+            }
+        }
+        for (int ship = 0; ship < count; ship++) {
+            if (fleet.remaining[ship] > 0) {
+                fleet.aliveShips++;
+            }
+        }
+
+        return fleet;
+    }
+
+    /**
+     * Выстрел по клетке. Повторный выстрел по подбитой клетке считается промахом,
+     * поэтому проверять повторы нужно по {@link ShotLedger} до вызова.
+     *
+     * @param x координата X
+     * @param y координата Y
+     * @return {@link ShotLedger#MISS}, {@link ShotLedger#HIT} или {@link ShotLedger#SUNK}
+     */
+    public byte fire(int x, int y) {
+        return fire(y * width + x);
+    }
+
+    private byte fire(int index) {
+        int ship = shipAt(index) - 1;
+        if (ship < 0) {
+            return ShotLedger.MISS;
+        }
+
+        setShipAt(index, 0);
+        aliveCells--;
+
+        if (--remaining[ship] == 0) {
+            aliveShips--;
+            return ShotLedger.SUNK;
+        }
+        return ShotLedger.HIT;
+    }
+
+    /**
+     * Рассчитывает залп за один проход: каждый выстрел проверяется по журналу,
+     * применяется к флоту и записывается в журнал.
+     * Выстрелы за пределы поля и по уже обстрелянным клеткам (в том числе повторы
+     * внутри залпа) пропускаются и получают результат {@link ShotLedger#UNKNOWN}.
+     *
+     * @param cells   индексы клеток {@code y * ширина + x}
+     * @param count   количество выстрелов в залпе
+     * @param ledger  журнал выстрелов стреляющего
+     * @param results массив для результатов, не короче {@code count}
+     * @return количество выстрелов, которые были рассчитаны
+     */
+    public int fireSalvo(int[] cells, int count, ShotLedger ledger, byte[] results) {
+        int resolved = 0;
+
+        for (int i = 0; i < count; i++) {
+            int index = cells[i];
+            if (index < 0 || index >= area || ledger.isShot(index)) {
+                results[i] = ShotLedger.UNKNOWN;
+                continue;
+            }
+
+            byte result = fire(index);
+            ledger.record(index, result);
+            results[i] = result;
+            resolved++;
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Количество кораблей на плаву. В режиме залпа равно числу выстрелов за ход.
+     *
+     * @return число непотопленных кораблей
+     */
+    public int getAliveShips() {
+        return aliveShips;
+    }
+
+    public int getAliveCells() {
+        return aliveCells;
+    }
+
+    /**
+     * Проверяет, потоплен ли весь флот.
+     * Пустая (не расставленная) флотилия уничтоженной не считается.
+     *
+     * @return {@code true}, если все корабли потоплены
+     */
+    public boolean isDestroyed() {
+        return remaining.length > 0 && aliveCells == 0;
+    }
+}
@@ -1,9 +1,13 @@
 package BattleShip.server;
 
-import BattleShip.client.model.Cell;
-
-import java.util.ArrayList;
-import java.util.List;
+import BattleShip.client.model.RuleSet;
+import BattleShip.server.journal.JournalEvent;
+import BattleShip.server.journal.SessionJournal;
+import BattleShip.server.utils.HashedWheelTimer;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -13,8 +17,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class GameSession {
     private static final AtomicInteger sessionCounter = new AtomicInteger(1);
 
-    private int player1Hits = 0;
-    private int player2Hits = 0;
+    /** Источник токенов переподключения */
+    private static final SecureRandom tokenRandom = new SecureRandom();
 
     private String winner;
 
@@ -44,6 +48,55 @@ public class GameSession {
     private boolean player1ShipsPlaced = false;
     private boolean player2ShipsPlaced = false;
 
+    /** Правила партии: размеры поля, флот и соседство кораблей */
+    private RuleSet rules = RuleSet.CLASSIC;
+
+    /** Выстрелы игрока 1 по полю игрока 2 */
+    private ShotLedger player1Shots = new ShotLedger();
+    /** Выстрелы игрока 2 по полю игрока 1 */
+    private ShotLedger player2Shots = new ShotLedger();
+
+    /** Флоты игроков, разобранные при старте партии */
+    private Fleet player1Fleet;
+    private Fleet player2Fleet;
+
+    /** Режим залпа: за ход игрок стреляет по разу за каждый свой уцелевший корабль */
+    private boolean salvo;
+
+    /** Ограничения времени хода */
+    private final TurnRules turnRules;
+
+    /** Журнал событий сессии для восстановления после перезапуска */
+    private final SessionJournal journal;
+
+    /** Запланированное истечение текущего хода */
+    private HashedWheelTimer.Timeout turnTimeout;
+
+    /** Номер хода; защищает от срабатывания устаревших таймеров */
+    private int turnSeq = 0;
+
+    /** Момент начала текущего хода (System.nanoTime) */
+    private long turnStartedAt;
+
+    /** Остаток шахматных часов игроков в миллисекундах */
+    private long player1ClockMs;
+    private long player2ClockMs;
+
+    /** Подключены ли игроки; отключившийся игрок удерживает место в течение grace-периода */
+    private boolean player1Connected = true;
+    private boolean player2Connected = false;
+
+    /** Токены переподключения, выдаются при старте партии */
+    private String player1Token;
+    private String player2Token;
+
+    /** Запланированное освобождение мест отключившихся игроков */
+    private HashedWheelTimer.Timeout player1Grace;
+    private HashedWheelTimer.Timeout player2Grace;
+
+    /** Чей ход (1 или 2), пока партия приостановлена из-за отключения игрока */
+    private int pausedTurnSlot = 0;
+
     public enum GameStatus {
         WAITING, PLACING_SHIPS, IN_PROGRESS, FINISHED,
     }
@@ -59,6 +112,34 @@ public class GameSession {
      * @param server         ссылка на сервер
      */
     public GameSession(String gameName, String creator, ClientHandler creatorHandler, Server server) {
+        this(gameName, creator, creatorHandler, server, false);
+    }
+
+    /**
+     * Конструктор игровой сессии с выбором режима.
+     *
+     * @param gameName       название игры
+     * @param creator        имя создателя
+     * @param creatorHandler обработчик создателя
+     * @param server         ссылка на сервер
+     * @param salvo          {@code true} — режим залпа
+     */
+    public GameSession(String gameName, String creator, ClientHandler creatorHandler, Server server, boolean salvo) {
+        this(gameName, creator, creatorHandler, server, salvo, RuleSet.CLASSIC);
+    }
+
+    /**
+     * Конструктор игровой сессии с выбором режима и правил.
+     *
+     * @param gameName       название игры
+     * @param creator        имя создателя
+     * @param creatorHandler обработчик создателя
+     * @param server         ссылка на сервер
+     * @param salvo          {@code true} — режим залпа
+     * @param rules          правила партии
+     */
+    public GameSession(String gameName, String creator, ClientHandler creatorHandler, Server server,
+                       boolean salvo, RuleSet rules) {
         this.sessionId = sessionCounter.getAndIncrement();
         this.gameName = gameName;
         this.creator = creator;
@@ -67,76 +148,104 @@ public class GameSession {
         this.player1 = creatorHandler;
         this.player1Username = creator;
 
+        this.turnRules = server.getTurnRules();
+        this.journal = server.getJournal();
+
         status = GameStatus.PLACING_SHIPS;
+
+        journal.recordCreate(sessionId, gameName, creator);
+
+        this.salvo = salvo;
+        if (salvo) {
+            journal.recordMode(sessionId, "SALVO");
+        }
+
+        applyRules(rules);
+        if (!rules.isClassic()) {
+            journal.recordRules(sessionId, rules.toSpec());
+        }
     }
 
     /**
-     * Вложенный класс для хранения информации о корабле.
-     * Хранит координаты клеток, тип корабля и состояние попаданий.
+     * Конструктор сессии, восстанавливаемой из журнала.
+     * Обработчиков игроков нет до их переподключения, событие создания в журнал не пишется.
+     *
+     * @param sessionId id сессии из журнала
+     * @param gameName  название игры
+     * @param creator   имя создателя
+     * @param server    ссылка на сервер
      */
-    private static class ShipInfo {
-        int type;
-        int x;
-        int y;
-        int orientation;
-        private List<Cell> cells; // Добавляем поле для хранения клеток
-
-        ShipInfo(int type, int x, int y, int orientation) {
-            this.type = type;
-            this.x = x;
-            this.y = y;
-            this.orientation = orientation;
-            this.cells = new ArrayList<>();
-            initializeCells(); // Инициализируем клетки при создании
-        }
-
-        private void initializeCells() {
-            int size = getSize();
-            for (int i = 0; i < size; i++) {
-                int cellX = x + (orientation == 0 ? i : 0);
-                int cellY = y + (orientation == 1 ? i : 0);
-                if (cellX >= 0 && cellX < 10 && cellY >= 0 && cellY < 10) {
-                    cells.add(new Cell(cellX, cellY, Cell.State.EMPTY));
-                }
-            }
-        }
+    GameSession(int sessionId, String gameName, String creator, Server server) {
+        this.sessionId = sessionId;
+        this.gameName = gameName;
+        this.creator = creator;
+        this.server = server;
 
-        List<Cell> getCells() {
-            return cells;
-        }
+        this.player1Username = creator;
 
-        public boolean hitCell(int x, int y) {
-            for (Cell cell : cells) {
-                if (cell.getX() == x && cell.getY() == y) {
-                    cell.setState(Cell.State.HIT);
-                    return true;
-                }
-            }
-            return false;
-        }
+        this.turnRules = server.getTurnRules();
+        this.journal = server.getJournal();
 
-        public boolean isSunk() {
-            for (Cell cell : cells) {
-                if (cell.getState() != Cell.State.HIT) {
-                    return false;
-                }
-            }
-            return true;
-        }
+        this.player1Connected = false;
+        status = GameStatus.WAITING;
+    }
 
-        private int getSize() {
-            switch (type) {
-                case 0: return 4;
-                case 1: return 3;
-                case 2: return 2;
-                case 3: return 1;
-                default: return 0;
-            }
+    /**
+     * Сдвигает счётчик id сессий, чтобы новые сессии не пересекались с восстановленными.
+     *
+     * @param nextId минимальный id следующей сессии
+     */
+    static void advanceSessionCounter(int nextId) {
+        sessionCounter.accumulateAndGet(nextId, Math::max);
+    }
+
+    /**
+     * Устанавливает правила партии и создаёт журналы выстрелов под размер поля.
+     *
+     * @param rules правила партии
+     */
+    private void applyRules(RuleSet rules) {
+        this.rules = rules;
+        if (player1Shots.getWidth() != rules.getWidth() || player1Shots.getHeight() != rules.getHeight()) {
+            player1Shots = new ShotLedger(rules);
+            player2Shots = new ShotLedger(rules);
         }
     }
 
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    public boolean isSalvo() {
+        return salvo;
+    }
+
     public boolean isFull() {
-        return player2 != null;
+        return player2 != null || player2Username != null;
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Проверяет, ждёт ли сессия переподключения кого-либо из игроков.
+     *
+     * @return {@code true}, если место хотя бы одного игрока удерживается без подключения
+     */
+    public boolean isAwaitingReconnect() {
+        return (player1Username != null && !player1Connected)
+                || (player2Username != null && !player2Connected);
+    }
+
+    /**
+     * Проверяет, является ли обработчик текущим игроком сессии.
+     *
+     * @param handler обработчик клиента
+     * @return {@code true}, если это один из игроков
+     */
+    public boolean isPlayer(ClientHandler handler) {
+        return handler != null && (handler == player1 || handler == player2);
     }
 
     public String getGameName() {
@@ -149,12 +258,13 @@ public class GameSession {
 
     public int getPlayerCount() {
         int count = 0;
-        if (player1 != null) count++;
-        if (player2 != null) count++;
+        if (player1Username != null) count++;
+        if (player2Username != null) count++;
         return count;
     }
 
     public String getStatus() {
+        if (isAwaitingReconnect()) return "RECONNECTING";
         if (gameStarted) return "IN_PROGRESS";
         if (player2 != null) return "PLACING_SHIPS";
         return "WAITING";
@@ -178,8 +288,12 @@ public class GameSession {
 
         player2 = playerHandler;
         player2Username = player;
+        player2Connected = true;
+
+        journal.recordJoin(sessionId, player);
 
         player1.sendMessage("PLAYER_JOINED:" + player);
+        player2.sendMessage("RULES:" + rules.toSpec());
         player2.sendMessage("GAME_JOINED:" + gameName + ":" + creator);
         status = GameStatus.PLACING_SHIPS;
 
@@ -192,32 +306,281 @@ public class GameSession {
      * @param username имя игрока
      */
     public synchronized void removePlayer(String username) {
+        if (username == null) {
+            return;
+        }
+
         resetGameState();
 
         if (username.equals(player1Username)) {
-            player1.sendMessage("LEFT_GAME");
-            if (player2 != null) {
-                player2.sendMessage("CREATOR_LEFT");
-            }
+            journal.recordLeave(sessionId, 1);
+            cancelGrace(1);
+
+            send(player1, "LEFT_GAME");
+            send(player2, "CREATOR_LEFT");
             player1 = null;
             player1Username = null;
+            player1Connected = false;
         }
         else if (username.equals(player2Username)) {
-            player2.sendMessage("LEFT_GAME");
+            journal.recordLeave(sessionId, 2);
+            cancelGrace(2);
+
+            send(player2, "LEFT_GAME");
             player2 = null;
             player2Username = null;
+            player2Connected = false;
         }
 
-        if (player1 == null) {
+        if (player1Username == null) {
             server.removeGame(gameName);
         }
         else {
             status = GameStatus.WAITING;
-            player1.sendMessage("GAME_STATUS:WAITING");
+            send(player1, "GAME_STATUS:WAITING");
             server.broadcastGameList();
         }
     }
 
+    /**
+     * Удерживает место отключившегося игрока на время grace-периода,
+     * если партия уже идёт. Партия приостанавливается до его возвращения.
+     *
+     * @param handler обработчик отключившегося клиента
+     * @return {@code true}, если место удержано и удалять игрока не нужно
+     */
+    public synchronized boolean holdSlot(ClientHandler handler) {
+        long graceMs = server.getResumeGraceMs();
+        if (!gameStarted || graceMs <= 0 || !isPlayer(handler)) {
+            return false;
+        }
+
+        int slot = (handler == player1) ? 1 : 2;
+        if (slot == 1) {
+            player1Connected = false;
+        }
+        else {
+            player2Connected = false;
+        }
+
+        pauseGame();
+        send(slot == 1 ? player2 : player1, "OPPONENT_DISCONNECTED:" + TimeUnit.MILLISECONDS.toSeconds(graceMs));
+        startGrace(slot, graceMs);
+        server.broadcastGameList();
+
+        return true;
+    }
+
+    /**
+     * Запускает ожидание переподключения для всех отключённых игроков.
+     * Используется для сессий, восстановленных из журнала.
+     *
+     * @param graceMs длительность ожидания в миллисекундах
+     */
+    synchronized void startReconnectGrace(long graceMs) {
+        if (player1Token != null) {
+            server.registerResumeToken(player1Token, this);
+        }
+        if (player2Token != null) {
+            server.registerResumeToken(player2Token, this);
+        }
+
+        if (player1Username != null && !player1Connected) {
+            startGrace(1, graceMs);
+        }
+        if (player2Username != null && !player2Connected) {
+            startGrace(2, graceMs);
+        }
+    }
+
+    /**
+     * Переподключение игрока по токену.
+     * Новое соединение занимает место игрока и получает снимок состояния партии.
+     *
+     * @param token   токен переподключения
+     * @param handler обработчик нового соединения
+     * @return {@code true}, если токен подошёл
+     */
+    public synchronized boolean resume(String token, ClientHandler handler) {
+        int slot;
+        if (token.equals(player1Token)) {
+            slot = 1;
+        }
+        else if (token.equals(player2Token)) {
+            slot = 2;
+        }
+        else {
+            return false;
+        }
+
+        cancelGrace(slot);
+        ClientHandler previous = (slot == 1) ? player1 : player2;
+        // Старое соединение могло ещё не отвалиться: тогда holdSlot не вызывался
+        // и очередь хода указывает на него, а не на новое
+        if (currentTurn != null && currentTurn == previous) {
+            currentTurn = handler;
+        }
+
+        ClientHandler opponent;
+        if (slot == 1) {
+            player1 = handler;
+            player1Connected = true;
+            opponent = player2;
+        }
+        else {
+            player2 = handler;
+            player2Connected = true;
+            opponent = player1;
+        }
+        handler.setCurrentGame(this);
+
+        handler.sendMessage("RULES:" + rules.toSpec());
+        handler.sendMessage("RESUME_STATE:" + buildSnapshot(slot));
+        send(opponent, "OPPONENT_RECONNECTED");
+
+        if (!isAwaitingReconnect()) {
+            resumeGame();
+        }
+        server.broadcastGameList();
+
+        return true;
+    }
+
+    /**
+     * Номер игрока, чей сейчас ход; для приостановленной партии — чей ход будет после возобновления.
+     *
+     * @return 1 или 2, 0 — партия не идёт
+     */
+    synchronized int getTurnSlot() {
+        return (currentTurn != null) ? (currentTurn == player1 ? 1 : 2) : pausedTurnSlot;
+    }
+
+    /**
+     * Флот игрока.
+     *
+     * @param slot номер игрока (1 или 2)
+     * @return флот или {@code null}, если партия не началась
+     */
+    synchronized Fleet getFleet(int slot) {
+        return (slot == 1) ? player1Fleet : player2Fleet;
+    }
+
+    /**
+     * Журнал выстрелов игрока по флоту соперника.
+     *
+     * @param slot номер игрока (1 или 2)
+     * @return журнал выстрелов
+     */
+    synchronized ShotLedger getShots(int slot) {
+        return (slot == 1) ? player1Shots : player2Shots;
+    }
+
+    /**
+     * Формирует снимок партии для переподключившегося игрока:
+     * {@code соперник:YOUR_TURN|OPPONENT_TURN:свой флот:свои выстрелы:выстрелы соперника},
+     * в режиме залпа дополненный {@code :SALVO:выстрелов за ход}.
+     *
+     * @param slot номер игрока (1 или 2)
+     * @return строка снимка
+     */
+    private String buildSnapshot(int slot) {
+        int turnSlot = getTurnSlot();
+        String opponentName = (slot == 1) ? player2Username : player1Username;
+
+        return opponentName + ":" +
+                (turnSlot == slot ? "YOUR_TURN" : "OPPONENT_TURN") + ":" +
+                (slot == 1 ? player1Ships : player2Ships) + ":" +
+                (slot == 1 ? player1Shots : player2Shots).encode() + ":" +
+                (slot == 1 ? player2Shots : player1Shots).encode() +
+                (salvo ? ":SALVO:" + salvoSize(slot) : "");
+    }
+
+    /** Приостанавливает партию: ход запоминается, таймер хода снимается */
+    private void pauseGame() {
+        if (currentTurn != null) {
+            chargeClock();
+            pausedTurnSlot = (currentTurn == player1) ? 1 : 2;
+            currentTurn = null;
+        }
+        cancelTurnTimer();
+        turnSeq++;
+    }
+
+    /** Продолжает приостановленную партию, когда все игроки снова на связи */
+    private void resumeGame() {
+        if (!gameStarted || currentTurn != null || pausedTurnSlot == 0) {
+            return;
+        }
+
+        currentTurn = (pausedTurnSlot == 1) ? player1 : player2;
+        String turnName = (pausedTurnSlot == 1) ? player1Username : player2Username;
+        send(player1, "TURN:" + turnName);
+        send(player2, "TURN:" + turnName);
+
+        startTurnTimer();
+    }
+
+    /** Планирует освобождение места отключившегося игрока */
+    private void startGrace(int slot, long graceMs) {
+        cancelGrace(slot);
+        String username = (slot == 1) ? player1Username : player2Username;
+        HashedWheelTimer.Timeout timeout = server.getTimer().newTimeout(
+                () -> onGraceExpired(slot, username), graceMs, TimeUnit.MILLISECONDS);
+
+        if (slot == 1) {
+            player1Grace = timeout;
+        }
+        else {
+            player2Grace = timeout;
+        }
+    }
+
+    private void cancelGrace(int slot) {
+        HashedWheelTimer.Timeout timeout = (slot == 1) ? player1Grace : player2Grace;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        if (slot == 1) {
+            player1Grace = null;
+        }
+        else {
+            player2Grace = null;
+        }
+    }
+
+    /**
+     * Игрок не вернулся за grace-период: если соперник на связи, ему
+     * засчитывается победа, после чего место освобождается.
+     *
+     * @param slot     номер игрока
+     * @param username имя игрока на момент отключения
+     */
+    private synchronized void onGraceExpired(int slot, String username) {
+        boolean connected = (slot == 1) ? player1Connected : player2Connected;
+        String current = (slot == 1) ? player1Username : player2Username;
+        if (connected || current == null || !current.equals(username)) {
+            return;
+        }
+
+        String otherName = (slot == 1) ? player2Username : player1Username;
+        boolean otherConnected = (slot == 1) ? player2Connected : player1Connected;
+
+        if (gameStarted && otherName != null && otherConnected) {
+            setWinner(otherName);
+            setSurrend(true);
+            endGame();
+        }
+
+        removePlayer(username);
+    }
+
+    /** Отправка сообщения игроку, если он подключён */
+    private static void send(ClientHandler player, String message) {
+        if (player != null) {
+            player.sendMessage(message);
+        }
+    }
+
     /**
      * Обработка размещения кораблей игроком.
      *
@@ -225,8 +588,14 @@ public class GameSession {
      * @param shipsData строковое представление кораблей
      */
     public synchronized void processShipsPlaced(ClientHandler player, String shipsData) {
+        String error = rules.checkFleet(shipsData);
+        if (error != null) {
+            player.sendMessage("ERROR:" + error);
+            return;
+        }
 
         if (player == player1) {
+            journal.recordShipsPlaced(sessionId, 1, shipsData);
             player1Ships = shipsData;
             player1ShipsPlaced = true;
             player.sendMessage("SHIPS_ACCEPTED");
@@ -236,6 +605,7 @@ public class GameSession {
             }
         }
         else if (player == player2) {
+            journal.recordShipsPlaced(sessionId, 2, shipsData);
             player2Ships = shipsData;
             player2ShipsPlaced = true;
             player.sendMessage("SHIPS_ACCEPTED");
@@ -262,9 +632,11 @@ public class GameSession {
     /** Пометка игрока как готового к игре */
     public synchronized void playerReady(ClientHandler player) {
         if (player == player1) {
+            journal.recordReady(sessionId, 1);
             player1Ready = true;
         }
         else if (player == player2) {
+            journal.recordReady(sessionId, 2);
             player2Ready = true;
         }
 
@@ -279,12 +651,59 @@ public class GameSession {
         status = GameStatus.IN_PROGRESS;
         currentTurn = player1;
 
-        player1Hits = 0;
-        player2Hits = 0;
         winner = null;
 
-        player1.sendMessage("GAME_START:YOUR_TURN:" + player2Username);
-        player2.sendMessage("GAME_START:OPPONENT_TURN:" + player1Username);
+        player1Shots.clear();
+        player2Shots.clear();
+        player1Fleet = Fleet.parse(player1Ships, rules);
+        player2Fleet = Fleet.parse(player2Ships, rules);
+        player1ClockMs = turnRules.getGameClockMs();
+        player2ClockMs = turnRules.getGameClockMs();
+
+        player1.sendMessage("GAME_START:YOUR_TURN:" + player2Username + (salvo ? ":SALVO:" + salvoSize(1) : ""));
+        player2.sendMessage("GAME_START:OPPONENT_TURN:" + player1Username + (salvo ? ":SALVO:" + salvoSize(2) : ""));
+
+        issueResumeTokens();
+
+        startTurnTimer();
+    }
+
+    /** Выдаёт игрокам токены переподключения к этой партии */
+    private void issueResumeTokens() {
+        player1Token = newToken();
+        player2Token = newToken();
+
+        server.registerResumeToken(player1Token, this);
+        server.registerResumeToken(player2Token, this);
+
+        journal.recordToken(sessionId, 1, player1Token);
+        journal.recordToken(sessionId, 2, player2Token);
+
+        player1.sendMessage("RESUME_TOKEN:" + player1Token);
+        player2.sendMessage("RESUME_TOKEN:" + player2Token);
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        tokenRandom.nextBytes(bytes);
+
+        StringBuilder sb = new StringBuilder(32);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /** Отзыв токенов переподключения после окончания партии */
+    private void revokeResumeTokens() {
+        if (player1Token != null) {
+            server.unregisterResumeToken(player1Token);
+            player1Token = null;
+        }
+        if (player2Token != null) {
+            server.unregisterResumeToken(player2Token);
+            player2Token = null;
+        }
     }
 
     /**
@@ -296,114 +715,380 @@ public class GameSession {
      */
     public synchronized void processShot(ClientHandler shooter, int x, int y) {
 
-        if (!gameStarted || shooter != currentTurn) {
+        if (!gameStarted || shooter != currentTurn || salvo) {
+            return;
+        }
+        if (!rules.contains(x, y)) {
             return;
         }
 
-        String targetShips = (shooter == player1) ? player2Ships : player1Ships;
-
-        boolean hit = checkHit(targetShips, x, y);
-        String result = "MISS";
-
-        if (hit) {
-            if (shooter == player1) {
-                player2Hits++;
-                updateShipCell(player2Ships, x, y);
-            }
-            else {
-                player1Hits++;
-                updateShipCell(player1Ships, x, y);
-            }
-
-            boolean shipSunk = isShipSunk(targetShips, x, y);
-            result = shipSunk ? "SUNK" : "HIT";
+        int slot = (shooter == player1) ? 1 : 2;
+        byte[] results = new byte[1];
+        if (fire(slot, new int[]{y * rules.getWidth() + x}, 1, results) == 0) {
+            return;
         }
 
+        String result = ShotLedger.resultName(results[0]);
+        journal.recordShot(sessionId, slot, x, y, result);
+
         player1.sendMessage("SHOT_RESULT:" + shooter.getUsername() + ":" + result + ":" + x + ":" + y);
         player2.sendMessage("SHOT_RESULT:" + shooter.getUsername() + ":" + result + ":" + x + ":" + y);
 
-        if (!hit) {
+        if (results[0] == ShotLedger.MISS) {
             currentTurn = (currentTurn == player1) ? player2 : player1;
             player1.sendMessage("TURN:" + currentTurn.getUsername());
             player2.sendMessage("TURN:" + currentTurn.getUsername());
         }
 
         checkGameOver();
+
+        if (gameStarted) {
+            startTurnTimer();
+        }
     }
 
-    /** Обновление состояния клетки корабля после попадания */
-    private void updateShipCell(String shipsData, int x, int y) {
-        List<ShipInfo> ships = parseShips(shipsData);
-        for (ShipInfo ship : ships) {
-            if (ship.hitCell(x, y)) {
-                break;
+    /**
+     * Обработка залпа в режиме залпа.
+     * <p>
+     * Все выстрелы рассчитываются одним вызовом {@link Fleet#fireSalvo}, игрокам уходит
+     * один кадр {@code SALVO_RESULT:стрелок:следующий ход:выстрелов у него:x,y,РЕЗУЛЬТАТ;...}
+     * вместо пары SHOT_RESULT/TURN на каждый выстрел. После залпа ход всегда переходит к сопернику.
+     * Залп больше разрешённого игнорируется, повторные клетки пропускаются.
+     *
+     * @param shooter игрок, который стреляет
+     * @param cells   индексы клеток {@code y * ширина + x}
+     */
+    public synchronized void processSalvo(ClientHandler shooter, int[] cells) {
+        if (!gameStarted || shooter != currentTurn || !salvo) {
+            return;
+        }
+
+        int slot = (shooter == player1) ? 1 : 2;
+        if (cells.length == 0 || cells.length > salvoSize(slot)) {
+            return;
+        }
+
+        byte[] results = new byte[cells.length];
+        if (fire(slot, cells, cells.length, results) == 0) {
+            return;
+        }
+
+        StringBuilder shots = new StringBuilder();
+        for (int i = 0; i < cells.length; i++) {
+            if (results[i] == ShotLedger.UNKNOWN) {
+                continue;
             }
+
+            int x = cells[i] % rules.getWidth();
+            int y = cells[i] / rules.getWidth();
+            String result = ShotLedger.resultName(results[i]);
+
+            journal.recordShot(sessionId, slot, x, y, result);
+            shots.append(x).append(',').append(y).append(',').append(result).append(';');
+        }
+
+        currentTurn = (currentTurn == player1) ? player2 : player1;
+        int nextSlot = (currentTurn == player1) ? 1 : 2;
+        journal.recordTurn(sessionId, nextSlot);
+
+        String frame = "SALVO_RESULT:" + shooter.getUsername() + ":" + currentTurn.getUsername() + ":" +
+                salvoSize(nextSlot) + ":" + shots;
+        player1.sendMessage(frame);
+        player2.sendMessage(frame);
+
+        checkGameOver();
+
+        if (gameStarted) {
+            startTurnTimer();
         }
     }
 
-    private boolean isShipSunk(String shipsData, int x, int y) {
-        List<ShipInfo> ships = parseShips(shipsData);
-        for (ShipInfo ship : ships) {
-            for (Cell cell : ship.getCells()) {
-                if (cell.getX() == x && cell.getY() == y) {
-                    return ship.isSunk();
-                }
-            }
+    /**
+     * Рассчитывает выстрелы игрока по флоту соперника и списывает время хода.
+     *
+     * @param slot    номер стреляющего игрока (1 или 2)
+     * @param cells   индексы клеток
+     * @param count   количество выстрелов
+     * @param results массив для результатов
+     * @return количество рассчитанных выстрелов
+     */
+    private int fire(int slot, int[] cells, int count, byte[] results) {
+        Fleet target = (slot == 1) ? player2Fleet : player1Fleet;
+        ShotLedger ledger = (slot == 1) ? player1Shots : player2Shots;
+
+        int resolved = target.fireSalvo(cells, count, ledger, results);
+        if (resolved > 0) {
+            chargeClock();
         }
-        return false;
+        return resolved;
+    }
+
+    /**
+     * Количество выстрелов за ход в режиме залпа — число уцелевших кораблей игрока.
+     *
+     * @param slot номер игрока (1 или 2)
+     * @return размер залпа
+     */
+    private int salvoSize(int slot) {
+        Fleet fleet = (slot == 1) ? player1Fleet : player2Fleet;
+        return (fleet != null) ? fleet.getAliveShips() : 0;
     }
 
-    private boolean checkHit(String shipsData, int x, int y) {
-        List<ShipInfo> ships = parseShips(shipsData);
+    /**
+     * Списывает с шахматных часов текущего игрока время, прошедшее с начала хода.
+     */
+    private void chargeClock() {
+        long now = System.nanoTime();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - turnStartedAt);
+        turnStartedAt = now;
 
-        for (ShipInfo ship : ships) {
-            for (Cell cell : ship.getCells()) {
-                if (cell.getX() == x && cell.getY() == y) {
-                    cell.setState(Cell.State.HIT);
-                    return true;
-                }
-            }
+        if (!turnRules.isGameClockEnabled()) {
+            return;
+        }
+
+        if (currentTurn == player1) {
+            player1ClockMs -= elapsedMs;
+        }
+        else if (currentTurn == player2) {
+            player2ClockMs -= elapsedMs;
+        }
+    }
+
+    /**
+     * Планирует истечение текущего хода на общем таймере сервера.
+     * Срок хода — минимум из дедлайна хода и остатка шахматных часов игрока.
+     */
+    private void startTurnTimer() {
+        cancelTurnTimer();
+
+        turnStartedAt = System.nanoTime();
+        int seq = ++turnSeq;
+
+        long delayMs = Long.MAX_VALUE;
+        if (turnRules.isTurnTimeoutEnabled()) {
+            delayMs = turnRules.getTurnTimeoutMs();
+        }
+        if (turnRules.isGameClockEnabled()) {
+            long clock = (currentTurn == player1) ? player1ClockMs : player2ClockMs;
+            delayMs = Math.min(delayMs, Math.max(0, clock));
         }
 
-        return false;
+        if (delayMs == Long.MAX_VALUE) {
+            return;
+        }
+
+        turnTimeout = server.getTimer().newTimeout(() -> onTurnExpired(seq), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Отмена запланированного истечения хода */
+    private void cancelTurnTimer() {
+        if (turnTimeout != null) {
+            turnTimeout.cancel();
+            turnTimeout = null;
+        }
     }
 
-    /** Парсинг строки с кораблями в список объектов ShipInfo */
-    private List<ShipInfo> parseShips(String shipsData) {
-        List<ShipInfo> ships = new ArrayList<>();
-        if (shipsData == null || shipsData.isEmpty()) {
-            return ships;
+    /**
+     * Обработка истечения хода.
+     * Если у игрока закончились шахматные часы или так требуют настройки,
+     * ему засчитывается поражение, иначе сервер стреляет за него в случайную клетку.
+     *
+     * @param seq номер хода, для которого был запланирован таймер
+     */
+    private synchronized void onTurnExpired(int seq) {
+        if (!gameStarted || seq != turnSeq || currentTurn == null) {
+            return;
         }
 
-        String[] shipStrings = shipsData.split(";");
+        turnTimeout = null;
+        chargeClock();
 
-        for (String shipStr : shipStrings) {
-            shipStr = shipStr.trim();
-            if (shipStr.isEmpty()) continue;
+        ClientHandler late = currentTurn;
+        boolean clockExpired = turnRules.isGameClockEnabled()
+                && ((late == player1) ? player1ClockMs : player2ClockMs) <= 0;
 
-            String[] parts = shipStr.split(",");
-            if (parts.length == 4) {
-                try {
-                    int type = Integer.parseInt(parts[0]);
-                    int x = Integer.parseInt(parts[1]);
-                    int y = Integer.parseInt(parts[2]);
-                    int orientation = Integer.parseInt(parts[3]);
+        String lateName = (late == player1) ? player1Username : player2Username;
+        player1.sendMessage("TURN_TIMEOUT:" + lateName);
+        player2.sendMessage("TURN_TIMEOUT:" + lateName);
+
+        if (clockExpired || turnRules.getExpiryAction() == TurnRules.ExpiryAction.FORFEIT) {
+            setWinner(late == player1 ? player2Username : player1Username);
+            setSurrend(true);
+            endGame();
+            return;
+        }
+
+        ShotLedger ledger = (late == player1) ? player1Shots : player2Shots;
+        if (salvo) {
+            processSalvo(late, ledger.randomUnshot(ThreadLocalRandom.current(), salvoSize(late == player1 ? 1 : 2)));
+            return;
+        }
+
+        int[] shot = ledger.randomUnshot(ThreadLocalRandom.current());
+        if (shot != null) {
+            processShot(late, shot[0], shot[1]);
+        }
+    }
+
+    /**
+     * Можно ли вернуться в восстановленную сессию: партия идёт и хотя бы у одного игрока
+     * есть токен переподключения. Законченные и не начатые партии возобновить некому.
+     *
+     * @return {@code true}, если сессию стоит восстанавливать
+     */
+    synchronized boolean isResumable() {
+        return gameStarted && (player1Token != null || player2Token != null);
+    }
+
+    /**
+     * Применяет событие журнала к восстанавливаемой сессии.
+     * Сообщения игрокам не отправляются и в журнал ничего не пишется.
+     *
+     * @param event событие журнала
+     */
+    void replay(JournalEvent event) {
+        int slot = event.getSlot();
+
+        switch (event.getType()) {
+            case JOIN:
+                player2Username = event.getText();
+                break;
+
+            case SHIPS_PLACED:
+                if (slot == 1) {
+                    player1Ships = event.getText();
+                    player1ShipsPlaced = true;
+                }
+                else {
+                    player2Ships = event.getText();
+                    player2ShipsPlaced = true;
+                }
+                break;
+
+            case READY:
+                if (slot == 1) {
+                    player1Ready = true;
+                }
+                else {
+                    player2Ready = true;
+                }
+
+                if (player1Ready && player2Ready && !gameStarted) {
+                    gameStarted = true;
+                    status = GameStatus.IN_PROGRESS;
+                    pausedTurnSlot = 1;
+                    player1Shots.clear();
+                    player2Shots.clear();
+                    player1Fleet = Fleet.parse(player1Ships, rules);
+                    player2Fleet = Fleet.parse(player2Ships, rules);
+                }
+                break;
+
+            case SHOT:
+                if (!gameStarted) {
+                    break;
+                }
+
+                ShotLedger ledger = (slot == 1) ? player1Shots : player2Shots;
+                if (!ledger.isShot(event.getX(), event.getY())) {
+                    (slot == 1 ? player2Fleet : player1Fleet).fire(event.getX(), event.getY());
+                }
+                ledger.record(event.getX(), event.getY(), event.getResult());
+
+                // В режиме залпа ход передаётся только событием TURN после залпа
+                if (!salvo && event.getResult().equals("MISS")) {
+                    pausedTurnSlot = (slot == 1) ? 2 : 1;
+                }
+                break;
 
-                    if (x < 0 || x >= 10 || y < 0 || y >= 10) {
-                        continue;
-                    }
+            case MODE:
+                salvo = "SALVO".equals(event.getText());
+                break;
 
-                    ShipInfo ship = new ShipInfo(type, x, y, orientation);
-                    ships.add(ship);
+            case RULES:
+                try {
+                    applyRules(RuleSet.parse(event.getText()));
+                }
+                catch (IllegalArgumentException e) {
+                    System.err.println("Неверные правила сессии " + sessionId + " в журнале: " + e.getMessage());
+                }
+                break;
 
+            case TURN:
+                pausedTurnSlot = slot;
+                break;
+
+            case TOKEN:
+                if (slot == 1) {
+                    player1Token = event.getText();
                 }
-                catch (NumberFormatException e) {
-                    System.err.println("❌ Ошибка парсинга корабля: " + shipStr);
+                else {
+                    player2Token = event.getText();
                 }
+                break;
+
+            case LEAVE:
+                resetGameState();
+                if (slot == 2) {
+                    player2Username = null;
+                }
+                break;
+
+            case END:
+                resetGameState();
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Переписывает текущее состояние восстановленной сессии в журнал,
+     * чтобы оно пережило удаление старых сегментов.
+     */
+    void checkpoint() {
+        journal.recordCreate(sessionId, gameName, creator);
+
+        if (salvo) {
+            journal.recordMode(sessionId, "SALVO");
+        }
+        if (!rules.isClassic()) {
+            journal.recordRules(sessionId, rules.toSpec());
+        }
+        if (player2Username != null) {
+            journal.recordJoin(sessionId, player2Username);
+        }
+        if (player1ShipsPlaced) {
+            journal.recordShipsPlaced(sessionId, 1, player1Ships);
+        }
+        if (player2ShipsPlaced) {
+            journal.recordShipsPlaced(sessionId, 2, player2Ships);
+        }
+        if (player1Ready) {
+            journal.recordReady(sessionId, 1);
+        }
+        if (player2Ready) {
+            journal.recordReady(sessionId, 2);
+        }
+
+        if (gameStarted) {
+            if (player1Token != null) {
+                journal.recordToken(sessionId, 1, player1Token);
+            }
+            if (player2Token != null) {
+                journal.recordToken(sessionId, 2, player2Token);
             }
+            checkpointShots(1, player1Shots);
+            checkpointShots(2, player2Shots);
+            journal.recordTurn(sessionId, pausedTurnSlot);
         }
+    }
 
-        return ships;
+    private void checkpointShots(int slot, ShotLedger ledger) {
+        int width = ledger.getWidth();
+        ledger.forEachShot((index, state) ->
+                journal.recordShot(sessionId, slot, index % width, index / width, ShotLedger.resultName(state)));
     }
 
     public void setWinner(String winner) {
@@ -411,10 +1096,10 @@ public class GameSession {
     }
 
     private void checkGameOver() {
-        if (player1Hits == 20) {
+        if (player1Fleet != null && player1Fleet.isDestroyed()) {
             setWinner(player2Username);
             endGame();
-        } else if (player2Hits == 20) {
+        } else if (player2Fleet != null && player2Fleet.isDestroyed()) {
             setWinner(player1Username);
             endGame();
         }
@@ -426,6 +1111,8 @@ public class GameSession {
             gameStarted = false;
             status = GameStatus.FINISHED;
 
+            journal.recordEnd(sessionId, winner, isSurrend);
+
             String winnerMessage = "GAME_OVER:" + winner + "," + isSurrend;
 
             if (player1 != null) {
@@ -441,6 +1128,12 @@ public class GameSession {
 
     /** Сброс состояния игры */
     public void resetGameState() {
+        cancelTurnTimer();
+        turnSeq++;
+        revokeResumeTokens();
+        pausedTurnSlot = 0;
+        player1Shots.clear();
+        player2Shots.clear();
         player1Ships = "";
         player2Ships = "";
         player1Ready = false;
@@ -449,8 +1142,8 @@ public class GameSession {
         currentTurn = null;
         player1ShipsPlaced = false;
         player2ShipsPlaced = false;
-        player1Hits = 0;
-        player2Hits = 0;
+        player1Fleet = null;
+        player2Fleet = null;
         winner = null;
         isSurrend = false;
         status = GameStatus.WAITING;
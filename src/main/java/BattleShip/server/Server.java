@@ -1,21 +1,31 @@
 package BattleShip.server;
 
+import BattleShip.client.model.RuleSet;
 import BattleShip.server.AI.AIGameSession;
+import BattleShip.server.AI.AIMoveScheduler;
+import BattleShip.server.AI.AIPacing;
+import BattleShip.server.AI.AIStrategies;
+import BattleShip.server.AI.AIStrategy;
+import BattleShip.server.AI.FleetPool;
+import BattleShip.server.journal.SessionJournal;
+import BattleShip.server.utils.HashedWheelTimer;
 import BattleShip.server.utils.LoggerServer;
 
 import java.io.*;
 import java.net.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Основной серверный класс для игры "Морской бой".
  * Отвечает за подключение клиентов, управление игровыми комнатами и передачу сообщений.
  */
 public class Server {
-    private static final int PORT = 12345;
+    /** Порт сервера; 0 — любой свободный (для встроенного запуска в тестах и бенчмарках) */
+    private final int port = Integer.getInteger("battleship.port", 12345);
 
-    private ServerSocket serverSocket;
+    private volatile ServerSocket serverSocket;
 
     /** Пул потоков для обработки подключений клиентов */
     private ExecutorService threadPool = Executors.newCachedThreadPool();
@@ -24,6 +34,36 @@ public class Server {
 
     private Map<String, GameSession> gameRooms = new ConcurrentHashMap<>();
 
+    /** Ограничения времени хода для сетевых игр */
+    private final TurnRules turnRules = TurnRules.fromSystemProperties();
+
+    /** Общий таймер для дедлайнов ходов всех игровых сессий */
+    private final HashedWheelTimer timer = new HashedWheelTimer("game-timer", 100, TimeUnit.MILLISECONDS, 512, threadPool);
+
+    /** Общий планировщик ходов компьютера для всех игр с ИИ */
+    private final AIMoveScheduler aiScheduler = AIMoveScheduler.fromSystemProperties();
+
+    /** Темп ходов компьютера по умолчанию */
+    private final AIPacing aiPacing = AIPacing.fromSystemProperties();
+
+    /** Запас готовых расстановок флота для игр с ИИ */
+    private final FleetPool fleetPool = FleetPool.fromSystemProperties();
+
+    /** Периодический отчёт о состоянии сервера */
+    private final ServerMetrics metrics = new ServerMetrics(this);
+
+    /** Журнал событий игровых сессий */
+    private final SessionJournal journal = SessionJournal.fromSystemProperties();
+
+    /** Токены переподключения к идущим партиям */
+    private final Map<String, GameSession> resumeTokens = new ConcurrentHashMap<>();
+
+    /** Сервер уже остановлен: явно или по сигналу завершения */
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    /** Сколько удерживается место отключившегося игрока */
+    private final long resumeGraceMs = Long.getLong("battleship.resume.graceMs", 60_000L);
+
     /**
      * Точка входа в сервер.
      *
@@ -35,17 +75,24 @@ public class Server {
 
     /**
      * Запуск сервера и ожидание подключений клиентов.
+     * Перед открытием порта восстанавливаются незавершённые сессии из журнала.
      */
     public void start() {
+        long startedAt = System.nanoTime();
+
+        recoverSessions();
+
         try {
-            serverSocket = new ServerSocket(PORT);
-            LoggerServer.info("Сервер запущен на порту " + PORT);
+            serverSocket = new ServerSocket(port);
+            LoggerServer.info("Сервер запущен на порту " + serverSocket.getLocalPort());
+            LoggerServer.info("Сервер готов за " +
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + " мс");
+            LoggerServer.info("Темп ходов ИИ: " + aiPacing);
             LoggerServer.info("Ожидание подключений клиентов...");
 
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                LoggerServer.info("\nЗавершение работы сервера...");
-                shutdown();
-            }));
+            metrics.start(Long.getLong("battleship.metrics.intervalMs", 60_000L));
+
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
 
             while (true) {
                 Socket clientSocket = serverSocket.accept();
@@ -55,7 +102,110 @@ public class Server {
             }
         }
         catch (IOException e) {
-            System.err.println("Ошибка сервера: " + e.getMessage());
+            if (serverSocket == null || !serverSocket.isClosed()) {
+                System.err.println("Ошибка сервера: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Порт, на котором сервер принимает подключения.
+     *
+     * @return номер порта или -1, если сервер ещё не запущен
+     */
+    public int getPort() {
+        ServerSocket socket = serverSocket;
+        return socket == null ? -1 : socket.getLocalPort();
+    }
+
+    /** Остановка сервера, запущенного во встроенном режиме */
+    public void stop() {
+        shutdown();
+    }
+
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
+    public AIMoveScheduler getAIScheduler() {
+        return aiScheduler;
+    }
+
+    public AIPacing getAIPacing() {
+        return aiPacing;
+    }
+
+    public FleetPool getFleetPool() {
+        return fleetPool;
+    }
+
+    int getClientCount() {
+        return connectedClients.size();
+    }
+
+    int getRoomCount() {
+        return gameRooms.size();
+    }
+
+    public TurnRules getTurnRules() {
+        return turnRules;
+    }
+
+    public SessionJournal getJournal() {
+        return journal;
+    }
+
+    public long getResumeGraceMs() {
+        return resumeGraceMs;
+    }
+
+    void registerResumeToken(String token, GameSession game) {
+        resumeTokens.put(token, game);
+    }
+
+    void unregisterResumeToken(String token) {
+        resumeTokens.remove(token);
+    }
+
+    /**
+     * Восстановление идущих партий из журнала.
+     * Восстановленные комнаты ждут переподключения игроков ограниченное время.
+     */
+    private void recoverSessions() {
+        SessionRecovery recovery = new SessionRecovery(this, journal);
+
+        Map<String, GameSession> recovered;
+        try {
+            recovered = recovery.recover();
+        }
+        catch (IOException e) {
+            System.err.println("Ошибка восстановления сессий: " + e.getMessage());
+            return;
+        }
+
+        long graceMs = Long.getLong("battleship.recovery.graceMs", 300_000L);
+        for (GameSession game : recovered.values()) {
+            gameRooms.put(game.getGameName(), game);
+            game.startReconnectGrace(graceMs);
+        }
+
+        LoggerServer.info("Восстановлено сессий: " + recovered.size() +
+                ", событий: " + recovery.getEventCount() +
+                " за " + TimeUnit.NANOSECONDS.toMillis(recovery.getElapsedNanos()) + " мс (" +
+                recovery.getEventsPerSecond() + " событий/с)");
+    }
+
+    /**
+     * Переподключение клиента к идущей партии по токену.
+     *
+     * @param token   токен, выданный при старте партии
+     * @param handler обработчик нового соединения
+     */
+    public void resumeGame(String token, ClientHandler handler) {
+        GameSession game = resumeTokens.get(token);
+
+        if (game == null || !game.resume(token, handler)) {
+            handler.sendMessage("ERROR:Партия для переподключения не найдена");
         }
     }
 
@@ -80,7 +230,44 @@ public class Server {
      * @param creator        имя создателя
      * @param creatorHandler обработчик создателя
      */
-    public synchronized void createGame(String gameName, String creator, ClientHandler creatorHandler) {
+    public void createGame(String gameName, String creator, ClientHandler creatorHandler) {
+        createGame(gameName, creator, creatorHandler, false);
+    }
+
+    /**
+     * Создание новой сетевой игры с выбором режима.
+     *
+     * @param gameName       название игры
+     * @param creator        имя создателя
+     * @param creatorHandler обработчик создателя
+     * @param salvo          {@code true} — режим залпа
+     */
+    public void createGame(String gameName, String creator, ClientHandler creatorHandler, boolean salvo) {
+        createGame(gameName, creator, creatorHandler, salvo, null);
+    }
+
+    /**
+     * Создание новой сетевой игры с выбором режима и правил.
+     *
+     * @param gameName       название игры
+     * @param creator        имя создателя
+     * @param creatorHandler обработчик создателя
+     * @param salvo          {@code true} — режим залпа
+     * @param rulesSpec      правила партии (см. {@link RuleSet}) или {@code null} для классических
+     */
+    public synchronized void createGame(String gameName, String creator, ClientHandler creatorHandler,
+                                        boolean salvo, String rulesSpec) {
+        RuleSet rules = RuleSet.CLASSIC;
+        if (rulesSpec != null) {
+            try {
+                rules = RuleSet.parse(rulesSpec);
+            }
+            catch (IllegalArgumentException e) {
+                creatorHandler.sendMessage("ERROR:" + e.getMessage());
+                return;
+            }
+        }
+
         if (gameRooms.containsKey(gameName)) {
             creatorHandler.sendMessage("ERROR:Игра с таким названием уже существует");
             return;
@@ -91,10 +278,11 @@ public class Server {
             return;
         }
 
-        GameSession game = new GameSession(gameName, creator, creatorHandler, this);
+        GameSession game = new GameSession(gameName, creator, creatorHandler, this, salvo, rules);
         gameRooms.put(gameName, game);
         creatorHandler.setCurrentGame(game);
 
+        creatorHandler.sendMessage("RULES:" + rules.toSpec());
         creatorHandler.sendMessage("GAME_CREATED:" + gameName);
 
         broadcastGameList();
@@ -106,12 +294,51 @@ public class Server {
      * @param gameName       название игры
      * @param creator        имя создателя
      * @param creatorHandler обработчик создателя
+     * @param level          уровень сложности ИИ
      */
-    public void createAIGame(String gameName, String creator, ClientHandler creatorHandler) {
+    public void createAIGame(String gameName, String creator, ClientHandler creatorHandler, String level) {
+        createAIGame(gameName, creator, creatorHandler, level, null);
+    }
+
+    /**
+     * Создание игры против ИИ с собственным темпом ходов.
+     *
+     * @param gameName       название игры
+     * @param creator        имя создателя
+     * @param creatorHandler обработчик создателя
+     * @param level          уровень сложности ИИ
+     * @param pacingSpec     темп ходов компьютера (см. {@link AIPacing}) или {@code null} для темпа сервера;
+     *                       вне профилей test и bench темп не может быть быстрее темпа сервера
+     */
+    public void createAIGame(String gameName, String creator, ClientHandler creatorHandler, String level, String pacingSpec) {
+        AIStrategy strategy = AIStrategies.create(level);
+        if (strategy == null) {
+            creatorHandler.sendMessage("ERROR:Неизвестный уровень сложности: " + level);
+            return;
+        }
+
+        AIPacing pacing = aiPacing;
+        if (pacingSpec != null) {
+            try {
+                pacing = AIPacing.parse(pacingSpec);
+            }
+            catch (IllegalArgumentException e) {
+                creatorHandler.sendMessage("ERROR:" + e.getMessage());
+                return;
+            }
+
+            // Вне test и bench клиент может только замедлить компьютер, но не ускорить его
+            if (!AIPacing.isZeroAllowed() && pacing.getMinDelayMillis() < aiPacing.getMinDelayMillis()) {
+                creatorHandler.sendMessage("ERROR:Темп ИИ не может быть быстрее темпа сервера " + aiPacing);
+                return;
+            }
+        }
 
-        AIGameSession AIgame = new AIGameSession(gameName, creator, creatorHandler, this);
+        AIGameSession AIgame = new AIGameSession(gameName, creator, creatorHandler, this, strategy, pacing);
         creatorHandler.setCurrentAIGame(AIgame);
 
+        // ИИ играет только по классическим правилам: его таблицы расстановок построены для поля 10x10
+        creatorHandler.sendMessage("RULES:" + RuleSet.CLASSIC.toSpec());
         creatorHandler.sendMessage("GAME_CREATED:" + gameName);
 
     }
@@ -132,6 +359,11 @@ public class Server {
             return false;
         }
 
+        if (game.isAwaitingReconnect()) {
+            playerHandler.sendMessage("ERROR:Игра ожидает переподключения игроков");
+            return false;
+        }
+
         if (game.isFull()) {
             playerHandler.sendMessage("ERROR:Игра уже заполнена");
             return false;
@@ -194,18 +426,26 @@ public class Server {
     }
 
     /**
-     * Удаление клиента с сервера.
+     * Удаление клиента с сервера. Запись удаляется, только если имя всё ещё занято
+     * этим обработчиком: после переподключения старое соединение, отваливаясь позже,
+     * не должно снять регистрацию нового.
      *
      * @param username имя пользователя
+     * @param client   обработчик отключающегося клиента
      */
-    public synchronized void removeClient(String username) {
-        connectedClients.remove(username);
+    public synchronized void removeClient(String username, ClientHandler client) {
+        connectedClients.remove(username, client);
     }
 
     /**
      * Завершение работы сервера: уведомление клиентов, закрытие сокета и завершение потоков.
      */
     private void shutdown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        LoggerServer.info("\nЗавершение работы сервера...");
+
         try {
             for (ClientHandler client : connectedClients.values()) {
                 client.sendMessage("SERVER_CLOSED");
@@ -217,6 +457,11 @@ public class Server {
                 serverSocket.close();
             }
 
+            metrics.stop();
+            fleetPool.stop();
+            timer.stop();
+            aiScheduler.stop();
+            journal.close();
             threadPool.shutdown();
         }
         catch (IOException e) {
@@ -0,0 +1,85 @@
+package BattleShip.server;
+
+import BattleShip.server.AI.AIMoveScheduler;
+import BattleShip.server.AI.AIStrategies;
+import BattleShip.server.AI.ShotCache;
+import BattleShip.server.utils.HashedWheelTimer;
+import BattleShip.server.utils.LoggerServer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Периодический отчёт о состоянии сервера в лог.
+ * <p>
+ * Отчёт снимается на общем таймере сервера и содержит число клиентов и комнат,
+ * задачи общего таймера, ходы ИИ в очереди, задержку их запуска и время обдумывания
+ * хода по уровням сложности и долю попаданий в кэш оценок ИИ.
+ */
+class ServerMetrics {
+
+    private final Server server;
+
+    private volatile long intervalMs;
+    private volatile HashedWheelTimer.Timeout next;
+
+    ServerMetrics(Server server) {
+        this.server = server;
+    }
+
+    /**
+     * Запускает периодический отчёт.
+     *
+     * @param intervalMs период отчёта в миллисекундах; 0 или меньше — отчёт выключен
+     */
+    void start(long intervalMs) {
+        if (intervalMs <= 0) {
+            return;
+        }
+        this.intervalMs = intervalMs;
+        scheduleNext();
+    }
+
+    void stop() {
+        intervalMs = 0;
+        if (next != null) {
+            next.cancel();
+        }
+    }
+
+    private void scheduleNext() {
+        if (intervalMs > 0) {
+            next = server.getTimer().newTimeout(this::report, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void report() {
+        LoggerServer.info(snapshot());
+        scheduleNext();
+    }
+
+    /**
+     * Текущие показатели одной строкой.
+     *
+     * @return строка отчёта
+     */
+    String snapshot() {
+        AIMoveScheduler ai = server.getAIScheduler();
+
+        return "Метрики: клиентов " + server.getClientCount() +
+                ", комнат " + server.getRoomCount() +
+                ", задач таймера " + server.getTimer().pendingTimeouts() +
+                ", ходов ИИ в очереди " + ai.getPendingMoves() +
+                ", выполнено ходов ИИ " + ai.getExecutedMoves() +
+                ", задержка хода ИИ ср./макс. " + ai.getAverageLagMicros() + "/" + ai.takeMaxLagMicros() + " мкс" +
+                ", пакетов ИИ " + ai.getBatches() + " по " + String.format(Locale.ROOT, "%.1f", ai.getAverageBatchSize()) +
+                " хода, " + ai.getMovesPerCoreSecond() + " ходов/с на ядро" +
+                ", расстановок в запасе " + server.getFleetPool().getAvailable() +
+                " (построено на месте " + server.getFleetPool().getMisses() + ")" +
+                ", обдумывание ИИ ср./макс.: " + AIStrategies.takeThinkTimeReport() +
+                " (обдумываний " + ai.getThoughts() + ", просрочено " + ai.getDeadlineMisses() +
+                ", отменено " + ai.getCancellations() + ", остановлено " + ai.getStoppedThoughts() +
+                ", остановка не дольше " + ai.takeMaxStopMicros() + " мкс)" +
+                ", кэш оценок ИИ: " + ShotCache.report();
+    }
+}
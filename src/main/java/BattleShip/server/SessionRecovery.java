@@ -0,0 +1,135 @@
+package BattleShip.server;
+
+import BattleShip.server.journal.JournalEvent;
+import BattleShip.server.journal.JournalReader;
+import BattleShip.server.journal.SessionJournal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Восстановление игровых сессий из журнала при запуске сервера.
+ * <p>
+ * Сегменты журнала читаются параллельно, после чего события проигрываются
+ * по порядку и восстанавливают состояние сессий: флоты, попадания и очередь хода.
+ * Идущие партии с токенами переподключения возвращаются в лобби в состоянии ожидания
+ * переподключения. Законченные и не начатые сессии отбрасываются: в них никто не может
+ * вернуться, а их названия должны освободиться для новых игр.
+ * Их состояние сразу записывается в журнал заново (контрольная точка), а сегменты
+ * старше неё удаляются, поэтому следующий запуск читает только актуальные события.
+ */
+class SessionRecovery {
+
+    private final Server server;
+    private final SessionJournal journal;
+
+    private int eventCount;
+    private long elapsedNanos;
+
+    SessionRecovery(Server server, SessionJournal journal) {
+        this.server = server;
+        this.journal = journal;
+    }
+
+    /**
+     * Читает журнал и восстанавливает сессии.
+     *
+     * @return восстановленные сессии по названиям игр
+     * @throws IOException если журнал не удалось прочитать
+     */
+    Map<String, GameSession> recover() throws IOException {
+        long start = System.nanoTime();
+
+        Map<String, GameSession> rooms = new LinkedHashMap<>();
+        if (!journal.isEnabled()) {
+            return rooms;
+        }
+
+        List<Path> segments = SessionJournal.listSegments(journal.getDirectory());
+        List<JournalEvent> events = JournalReader.readSegments(segments, ForkJoinPool.commonPool());
+        eventCount = events.size();
+
+        Map<Integer, GameSession> sessions = new HashMap<>();
+        int maxId = 0;
+
+        for (JournalEvent event : events) {
+            int id = event.getSessionId();
+            maxId = Math.max(maxId, id);
+
+            switch (event.getType()) {
+                case CREATE:
+                    sessions.put(id, new GameSession(id, event.getText(), event.getText2(), server));
+                    break;
+
+                case LEAVE:
+                    if (event.getSlot() == 1) {
+                        sessions.remove(id);
+                    }
+                    else {
+                        // Выход второго игрока — обычное изменение состояния сессии
+                        replay(sessions.get(id), event);
+                    }
+                    break;
+
+                default:
+                    replay(sessions.get(id), event);
+                    break;
+            }
+        }
+
+        GameSession.advanceSessionCounter(maxId + 1);
+
+        for (GameSession session : sessions.values()) {
+            if (!session.isResumable()) {
+                continue;
+            }
+            GameSession previous = rooms.get(session.getGameName());
+            if (previous == null || previous.getSessionId() < session.getSessionId()) {
+                rooms.put(session.getGameName(), session);
+            }
+        }
+
+        // Контрольная точка: состояние восстановленных сессий переписывается в текущий
+        // сегмент, после чего прочитанные сегменты больше не нужны
+        long checkpointStart = journal.getNextSequence();
+        for (GameSession session : rooms.values()) {
+            session.checkpoint();
+        }
+        journal.flush();
+        journal.deleteSegmentsBefore(checkpointStart);
+
+        elapsedNanos = System.nanoTime() - start;
+        return rooms;
+    }
+
+    private static void replay(GameSession session, JournalEvent event) {
+        if (session != null) {
+            session.replay(event);
+        }
+    }
+
+    int getEventCount() {
+        return eventCount;
+    }
+
+    long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Пропускная способность восстановления.
+     *
+     * @return событий в секунду
+     */
+    long getEventsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return (long) (eventCount * 1_000_000_000.0 / elapsedNanos);
+    }
+}
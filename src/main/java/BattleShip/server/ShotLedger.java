@@ -0,0 +1,360 @@
+package BattleShip.server;
+
+import BattleShip.client.model.RuleSet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Журнал выстрелов одного игрока по полю соперника.
+ * <p>
+ * Для каждой клетки хранит результат выстрела в одном байте;
+ * размер журнала задаётся правилами партии {@link RuleSet}.
+ * <p>
+ * Журнал разреженного поля ({@link RuleSet#isSparse()}) сжат: результат занимает два бита,
+ * клетки сгруппированы в блоки по {@value #CHUNK_CELLS} подряд, и блок заводится
+ * только при первом выстреле в него. Память растёт с числом обстрелянных участков, а не с площадью.
+ */
+public class ShotLedger {
+    public static final byte UNKNOWN = 0;
+    public static final byte MISS = 1;
+    public static final byte HIT = 2;
+    public static final byte SUNK = 3;
+
+    /** Клеток в блоке разреженного журнала */
+    static final int CHUNK_CELLS = 4096;
+
+    private static final int CHUNK_SHIFT = 12;
+
+    /** Обход обстрелянных клеток */
+    public interface ShotVisitor {
+        void visit(int index, byte state);
+    }
+
+    /** Результаты плотного журнала, по байту на клетку */
+    private final byte[] cells;
+
+    /** Блоки разреженного журнала: по два бита на клетку, ключ — номер блока */
+    private final Map<Integer, long[]> chunks;
+
+    private final int width;
+    private final int height;
+
+    /** Число клеток поля */
+    private final int area;
+
+    /** Количество клеток, по которым уже был выстрел */
+    private int shots;
+
+    /** Журнал для классического поля 10x10 */
+    public ShotLedger() {
+        this(RuleSet.CLASSIC);
+    }
+
+    /**
+     * Журнал для поля по правилам партии.
+     *
+     * @param rules правила партии
+     */
+    public ShotLedger(RuleSet rules) {
+        this.width = rules.getWidth();
+        this.height = rules.getHeight();
+        this.area = width * height;
+        if (rules.isSparse()) {
+            this.cells = null;
+            this.chunks = new HashMap<>();
+        }
+        else {
+            this.cells = new byte[area];
+            this.chunks = null;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Записывает результат выстрела.
+     *
+     * @param x      координата X
+     * @param y      координата Y
+     * @param result результат выстрела ("MISS", "HIT" или "SUNK")
+     */
+    public void record(int x, int y, String result) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return;
+        }
+
+        record(y * width + x, resultCode(result));
+    }
+
+    /**
+     * Записывает результат выстрела по индексу клетки.
+     *
+     * @param index индекс клетки {@code y * ширина + x}
+     * @param state код результата
+     */
+    public void record(int index, byte state) {
+        if (get(index) == UNKNOWN) {
+            shots++;
+        }
+        if (cells != null) {
+            cells[index] = state;
+            return;
+        }
+
+        long[] chunk = chunks.get(index >>> CHUNK_SHIFT);
+        if (chunk == null) {
+            chunk = new long[CHUNK_CELLS / 32];
+            chunks.put(index >>> CHUNK_SHIFT, chunk);
+        }
+        int offset = index & (CHUNK_CELLS - 1);
+        int shift = (offset & 31) << 1;
+        chunk[offset >>> 5] = chunk[offset >>> 5] & ~(3L << shift) | (long) state << shift;
+    }
+
+    public boolean isShot(int x, int y) {
+        return isShot(y * width + x);
+    }
+
+    public boolean isShot(int index) {
+        return get(index) != UNKNOWN;
+    }
+
+    public byte get(int x, int y) {
+        return get(y * width + x);
+    }
+
+    private byte get(int index) {
+        if (cells != null) {
+            return cells[index];
+        }
+        long[] chunk = chunks.get(index >>> CHUNK_SHIFT);
+        if (chunk == null) {
+            return UNKNOWN;
+        }
+        int offset = index & (CHUNK_CELLS - 1);
+        return (byte) (chunk[offset >>> 5] >>> ((offset & 31) << 1) & 3);
+    }
+
+    /**
+     * Обходит обстрелянные клетки. Плотный журнал обходится по возрастанию индексов,
+     * разреженный — по блокам в порядке их хранения.
+     *
+     * @param visitor обработчик индекса клетки {@code y * ширина + x} и результата
+     */
+    public void forEachShot(ShotVisitor visitor) {
+        if (cells != null) {
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != UNKNOWN) {
+                    visitor.visit(i, cells[i]);
+                }
+            }
+            return;
+        }
+
+        for (Map.Entry<Integer, long[]> entry : chunks.entrySet()) {
+            int base = entry.getKey() << CHUNK_SHIFT;
+            long[] chunk = entry.getValue();
+            for (int word = 0; word < chunk.length; word++) {
+                long bits = chunk[word];
+                while (bits != 0) {
+                    int shift = Long.numberOfTrailingZeros(bits) & ~1;
+                    visitor.visit(base + (word << 5) + (shift >>> 1), (byte) (bits >>> shift & 3));
+                    bits &= ~(3L << shift);
+                }
+            }
+        }
+    }
+
+    /**
+     * Код клетки журнала по текстовому имени результата.
+     *
+     * @param result "MISS", "HIT" или "SUNK"
+     * @return код клетки
+     */
+    public static byte resultCode(String result) {
+        switch (result) {
+            case "HIT": return HIT;
+            case "SUNK": return SUNK;
+            default: return MISS;
+        }
+    }
+
+    /**
+     * Текстовое имя результата по коду клетки журнала.
+     *
+     * @param state код клетки
+     * @return "MISS", "HIT" или "SUNK"
+     */
+    public static String resultName(byte state) {
+        switch (state) {
+            case HIT: return "HIT";
+            case SUNK: return "SUNK";
+            default: return "MISS";
+        }
+    }
+
+    /**
+     * Кодирует журнал строкой по одному символу на клетку (построчно):
+     * {@code .} — не стреляли, {@code o} — промах, {@code x} — попадание, {@code #} — потоплен.
+     * Разреженный журнал кодируется списком выстрелов {@code ~x,y,символ;...}.
+     *
+     * @return строковое представление журнала
+     */
+    public String encode() {
+        if (cells == null) {
+            StringBuilder sb = new StringBuilder(1 + shots * 12).append('~');
+            forEachShot((index, state) -> sb.append(index % width).append(',')
+                    .append(index / width).append(',')
+                    .append(symbol(state)).append(';'));
+            return sb.toString();
+        }
+
+        char[] chars = new char[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            chars[i] = symbol(cells[i]);
+        }
+        return new String(chars);
+    }
+
+    private static char symbol(byte state) {
+        switch (state) {
+            case MISS: return 'o';
+            case HIT: return 'x';
+            case SUNK: return '#';
+            default: return '.';
+        }
+    }
+
+    public int getShots() {
+        return shots;
+    }
+
+    /**
+     * Выбирает случайную клетку, по которой ещё не стреляли.
+     *
+     * @param rnd генератор случайных чисел
+     * @return массив {x, y} или {@code null}, если свободных клеток не осталось
+     */
+    public int[] randomUnshot(Random rnd) {
+        int free = area - shots;
+        if (free <= 0) {
+            return null;
+        }
+
+        if (cells == null) {
+            int index = sampleUnshot(rnd);
+            return new int[]{index % width, index / width};
+        }
+
+        int target = rnd.nextInt(free);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == UNKNOWN) {
+                if (target == 0) {
+                    return new int[]{i % width, i / width};
+                }
+                target--;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Выбирает несколько различных клеток, по которым ещё не стреляли.
+     *
+     * @param rnd   генератор случайных чисел
+     * @param count сколько клеток нужно
+     * @return индексы клеток {@code y * ширина + x}; их может быть меньше {@code count},
+     *         если свободных клеток не хватает
+     */
+    public int[] randomUnshot(Random rnd, int count) {
+        if (cells == null) {
+            int picked = Math.min(count, area - shots);
+            int[] result = new int[picked];
+            // Выбранные клетки временно помечаются, чтобы не повториться внутри залпа
+            for (int i = 0; i < picked; i++) {
+                result[i] = sampleUnshot(rnd);
+                record(result[i], MISS);
+            }
+            for (int index : result) {
+                unrecord(index);
+            }
+            return result;
+        }
+
+        int[] free = new int[cells.length - shots];
+        int n = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == UNKNOWN) {
+                free[n++] = i;
+            }
+        }
+
+        int picked = Math.min(count, n);
+        for (int i = 0; i < picked; i++) {
+            int j = i + rnd.nextInt(n - i);
+            int tmp = free[i];
+            free[i] = free[j];
+            free[j] = tmp;
+        }
+
+        return Arrays.copyOf(free, picked);
+    }
+
+    /**
+     * Случайная необстрелянная клетка разреженного журнала. Большое поле почти всё
+     * свободно, поэтому хватает выборки с отказами; если она не нашла клетку,
+     * поле просматривается от случайного места.
+     */
+    private int sampleUnshot(Random rnd) {
+        for (int attempt = 0; attempt < 64; attempt++) {
+            int index = rnd.nextInt(area);
+            if (get(index) == UNKNOWN) {
+                return index;
+            }
+        }
+        int start = rnd.nextInt(area);
+        for (int i = 0; i < area; i++) {
+            int index = (start + i) % area;
+            if (get(index) == UNKNOWN) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void unrecord(int index) {
+        long[] chunk = chunks.get(index >>> CHUNK_SHIFT);
+        int offset = index & (CHUNK_CELLS - 1);
+        chunk[offset >>> 5] &= ~(3L << ((offset & 31) << 1));
+        shots--;
+    }
+
+    /**
+     * Число блоков разреженного журнала в памяти.
+     *
+     * @return число блоков; 0 для плотного журнала
+     */
+    int getChunkCount() {
+        return chunks != null ? chunks.size() : 0;
+    }
+
+    /** Очищает журнал */
+    public void clear() {
+        if (cells != null) {
+            Arrays.fill(cells, UNKNOWN);
+        }
+        else {
+            chunks.clear();
+        }
+        shots = 0;
+    }
+}
@@ -0,0 +1,87 @@
+package BattleShip.server;
+
+/**
+ * Настройки ограничения времени хода.
+ * <p>
+ * Поддерживаются два независимых ограничения:
+ * <ul>
+ *     <li>дедлайн одного хода — сколько игрок может думать над выстрелом;</li>
+ *     <li>шахматные часы — общий запас времени игрока на всю партию.</li>
+ * </ul>
+ * Нулевое значение отключает соответствующее ограничение; по умолчанию оба
+ * ограничения выключены, и партия идёт без учёта времени, как раньше.
+ * Значения читаются из системных свойств {@code battleship.turnTimeoutMs},
+ * {@code battleship.gameClockMs} и {@code battleship.turnExpiryAction}.
+ */
+public class TurnRules {
+
+    /**
+     * Действие при истечении дедлайна хода.
+     */
+    public enum ExpiryAction {
+        /** Сервер делает случайный выстрел за игрока */
+        AUTO_SHOT,
+        /** Игроку засчитывается техническое поражение */
+        FORFEIT
+    }
+
+    private final long turnTimeoutMs;
+    private final long gameClockMs;
+    private final ExpiryAction expiryAction;
+
+    /**
+     * Создаёт настройки ограничения времени.
+     *
+     * @param turnTimeoutMs дедлайн одного хода в миллисекундах (0 — без ограничения)
+     * @param gameClockMs   запас времени игрока на партию в миллисекундах (0 — без ограничения)
+     * @param expiryAction  действие при истечении дедлайна хода
+     */
+    public TurnRules(long turnTimeoutMs, long gameClockMs, ExpiryAction expiryAction) {
+        this.turnTimeoutMs = Math.max(0, turnTimeoutMs);
+        this.gameClockMs = Math.max(0, gameClockMs);
+        this.expiryAction = expiryAction;
+    }
+
+    /**
+     * Читает настройки из системных свойств.
+     *
+     * @return настройки ограничения времени хода
+     */
+    public static TurnRules fromSystemProperties() {
+        long turnTimeout = Long.getLong("battleship.turnTimeoutMs", 0L);
+        long gameClock = Long.getLong("battleship.gameClockMs", 0L);
+
+        ExpiryAction action = ExpiryAction.AUTO_SHOT;
+        String actionName = System.getProperty("battleship.turnExpiryAction");
+        if (actionName != null) {
+            try {
+                action = ExpiryAction.valueOf(actionName.trim().toUpperCase());
+            }
+            catch (IllegalArgumentException e) {
+                System.err.println("Неизвестное действие по истечении хода: " + actionName);
+            }
+        }
+
+        return new TurnRules(turnTimeout, gameClock, action);
+    }
+
+    public long getTurnTimeoutMs() {
+        return turnTimeoutMs;
+    }
+
+    public long getGameClockMs() {
+        return gameClockMs;
+    }
+
+    public ExpiryAction getExpiryAction() {
+        return expiryAction;
+    }
+
+    public boolean isTurnTimeoutEnabled() {
+        return turnTimeoutMs > 0;
+    }
+
+    public boolean isGameClockEnabled() {
+        return gameClockMs > 0;
+    }
+}
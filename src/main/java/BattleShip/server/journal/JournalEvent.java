@@ -0,0 +1,84 @@
+package BattleShip.server.journal;
+
+/**
+ * Прочитанное из журнала событие игровой сессии.
+ * <p>
+ * Набор заполненных полей зависит от типа события:
+ * <ul>
+ *     <li>{@code CREATE} — {@link #getText()} (название игры), {@link #getText2()} (создатель);</li>
+ *     <li>{@code JOIN} — {@link #getText()} (имя игрока);</li>
+ *     <li>{@code SHIPS_PLACED} — {@link #getSlot()}, {@link #getText()} (расстановка);</li>
+ *     <li>{@code TOKEN} — {@link #getSlot()}, {@link #getText()} (токен переподключения);</li>
+ *     <li>{@code READY}, {@code LEAVE}, {@code TURN} — {@link #getSlot()};</li>
+ *     <li>{@code SHOT} — {@link #getSlot()}, {@link #getX()}, {@link #getY()}, {@link #getResult()};
+ *     события {@code SHOT_WIDE} читаются как {@code SHOT};</li>
+ *     <li>{@code END} — {@link #getText()} (победитель), {@link #isSurrender()}.</li>
+ * </ul>
+ */
+public class JournalEvent {
+    private final JournalEventType type;
+    private final int sessionId;
+    private final long timestamp;
+
+    private final int slot;
+    private final int x;
+    private final int y;
+    private final String result;
+    private final String text;
+    private final String text2;
+    private final boolean surrender;
+
+    JournalEvent(JournalEventType type, int sessionId, long timestamp, int slot, int x, int y,
+                 String result, String text, String text2, boolean surrender) {
+        this.type = type;
+        this.sessionId = sessionId;
+        this.timestamp = timestamp;
+        this.slot = slot;
+        this.x = x;
+        this.y = y;
+        this.result = result;
+        this.text = text;
+        this.text2 = text2;
+        this.surrender = surrender;
+    }
+
+    public JournalEventType getType() {
+        return type;
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getText2() {
+        return text2;
+    }
+
+    public boolean isSurrender() {
+        return surrender;
+    }
+}
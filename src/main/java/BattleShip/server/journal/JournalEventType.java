@@ -0,0 +1,59 @@
+package BattleShip.server.journal;
+
+/**
+ * Типы событий журнала игровых сессий.
+ * <p>
+ * Код события записывается в журнал одним байтом, поэтому порядок
+ * и коды существующих констант менять нельзя.
+ */
+public enum JournalEventType {
+    /** Создание сессии: название игры и имя создателя */
+    CREATE(1),
+    /** Подключение второго игрока */
+    JOIN(2),
+    /** Игрок отправил расстановку кораблей */
+    SHIPS_PLACED(3),
+    /** Игрок подтвердил готовность */
+    READY(4),
+    /** Выстрел и его результат */
+    SHOT(5),
+    /** Выход игрока из сессии */
+    LEAVE(6),
+    /** Завершение партии */
+    END(7),
+    /** Явная установка текущего хода при переписывании восстановленной сессии */
+    TURN(8),
+    /** Токен переподключения игрока */
+    TOKEN(9),
+    /** Режим игры, отличный от обычного (например, залп) */
+    MODE(10),
+    /** Правила партии, отличные от классических (строка {@code RuleSet}) */
+    RULES(11),
+    /** Выстрел по клетке большого поля: координаты не помещаются в байт */
+    SHOT_WIDE(12);
+
+    private final byte code;
+
+    JournalEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Находит тип события по коду.
+     *
+     * @param code код события
+     * @return тип события или {@code null}, если код неизвестен
+     */
+    public static JournalEventType fromCode(byte code) {
+        for (JournalEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,212 @@
+package BattleShip.server.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+/**
+ * Чтение сегментов журнала сессий.
+ * <p>
+ * Сегменты независимы друг от друга, поэтому при восстановлении они
+ * разбираются параллельно, а затем события склеиваются в порядке сегментов.
+ * Чтение сегмента останавливается на первой незаписанной или повреждённой
+ * записи — это хвост, который не успел попасть на диск до сбоя.
+ */
+public class JournalReader {
+
+    private JournalReader() {
+    }
+
+    /**
+     * Параллельно читает сегменты и возвращает события в порядке записи.
+     *
+     * @param segments сегменты в порядке возрастания номеров записей
+     * @param executor исполнитель для разбора сегментов
+     * @return события всех сегментов
+     * @throws IOException если сегмент не удалось прочитать
+     */
+    public static List<JournalEvent> readSegments(List<Path> segments, Executor executor) throws IOException {
+        List<CompletableFuture<List<JournalEvent>>> futures = new ArrayList<>();
+        for (Path segment : segments) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return readSegment(segment);
+                }
+                catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        List<JournalEvent> events = new ArrayList<>();
+        for (CompletableFuture<List<JournalEvent>> future : futures) {
+            try {
+                events.addAll(future.join());
+            }
+            catch (CompletionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Читает все целые записи одного сегмента.
+     *
+     * @param segment путь к сегменту
+     * @return события сегмента
+     * @throws IOException если сегмент не удалось прочитать
+     */
+    public static List<JournalEvent> readSegment(Path segment) throws IOException {
+        List<JournalEvent> events = new ArrayList<>(expectedRecords(segment));
+
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            if (in.size() < SessionJournal.HEADER_SIZE) {
+                return events;
+            }
+
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            try {
+                readRecords(segment, data, events);
+            }
+            finally {
+                // События не ссылаются на отображение: строки и числа из него уже скопированы
+                SessionJournal.unmap(data);
+            }
+        }
+
+        return events;
+    }
+
+    private static void readRecords(Path segment, MappedByteBuffer data, List<JournalEvent> events) throws IOException {
+        if (data.getInt(0) != SessionJournal.MAGIC || data.getInt(4) != SessionJournal.VERSION) {
+            throw new IOException("Неизвестный формат сегмента: " + segment);
+        }
+
+        CRC32 crc = new CRC32();
+        int position = SessionJournal.HEADER_SIZE;
+
+        while (position + SessionJournal.RECORD_OVERHEAD <= data.limit()) {
+            int length = data.getInt(position);
+            int start = position + SessionJournal.RECORD_OVERHEAD;
+            if (length <= 0 || start + length > data.limit()) {
+                break;
+            }
+
+            ByteBuffer body = data.duplicate();
+            body.position(start);
+            body.limit(start + length);
+
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != data.getInt(position + 4)) {
+                break;
+            }
+
+            JournalEvent event = decode(body);
+            if (event != null) {
+                events.add(event);
+            }
+
+            position = start + length;
+        }
+    }
+
+    /** Ожидаемое количество записей по индексу сегмента (для выбора размера списка) */
+    private static int expectedRecords(Path segment) {
+        try {
+            Path indexPath = SessionJournal.indexPathFor(segment);
+            if (Files.exists(indexPath)) {
+                ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+                if (header.remaining() >= 8 && header.getInt() == SessionJournal.INDEX_MAGIC) {
+                    return Math.max(16, header.getInt());
+                }
+            }
+        }
+        catch (IOException e) {
+            // Индекс только ускоряет чтение, без него сегмент читается как обычно
+        }
+        return 16;
+    }
+
+    /**
+     * Разбирает тело записи.
+     *
+     * @param body буфер, ограниченный телом записи
+     * @return событие или {@code null}, если тип события неизвестен
+     */
+    private static JournalEvent decode(ByteBuffer body) {
+        JournalEventType type = JournalEventType.fromCode(body.get());
+        int sessionId = body.getInt();
+        long timestamp = body.getLong();
+
+        if (type == null) {
+            return null;
+        }
+
+        switch (type) {
+            case CREATE: {
+                String gameName = getString(body);
+                String creator = getString(body);
+                return new JournalEvent(type, sessionId, timestamp, 1, 0, 0, null, gameName, creator, false);
+            }
+            case JOIN:
+                return new JournalEvent(type, sessionId, timestamp, 2, 0, 0, null, getString(body), null, false);
+            case SHIPS_PLACED:
+            case TOKEN: {
+                int slot = body.get();
+                return new JournalEvent(type, sessionId, timestamp, slot, 0, 0, null, getString(body), null, false);
+            }
+            case MODE:
+            case RULES:
+                return new JournalEvent(type, sessionId, timestamp, 0, 0, 0, null, getString(body), null, false);
+            case READY:
+            case LEAVE:
+            case TURN:
+                return new JournalEvent(type, sessionId, timestamp, body.get(), 0, 0, null, null, null, false);
+            case SHOT: {
+                int slot = body.get();
+                int x = body.get();
+                int y = body.get();
+                String result = SessionJournal.resultName(body.get());
+                return new JournalEvent(type, sessionId, timestamp, slot, x, y, result, null, null, false);
+            }
+            case SHOT_WIDE: {
+                // Для восстановления это обычный выстрел
+                int slot = body.get();
+                int x = body.getShort() & 0xFFFF;
+                int y = body.getShort() & 0xFFFF;
+                String result = SessionJournal.resultName(body.get());
+                return new JournalEvent(JournalEventType.SHOT, sessionId, timestamp, slot, x, y, result, null, null, false);
+            }
+            case END: {
+                String winner = getString(body);
+                boolean surrender = body.get() != 0;
+                return new JournalEvent(type, sessionId, timestamp, 0, 0, 0, null, winner, null, surrender);
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static String getString(ByteBuffer body) {
+        int length = body.getShort();
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,765 @@
+package BattleShip.server.journal;
+
+import BattleShip.server.utils.LoggerServer;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал событий игровых сессий (event sourcing).
+ * <p>
+ * Каждое изменение сессии дописывается компактной двоичной записью в конец
+ * сегмента — файла фиксированного размера, отображённого в память.
+ * Запись сводится к копированию нескольких десятков байт в {@link MappedByteBuffer},
+ * а сброс на диск ({@code fsync}) выполняется пакетно отдельным потоком
+ * раз в {@code fsyncIntervalMs} миллисекунд.
+ * <p>
+ * Когда сегмент заполняется, журнал переходит на новый сегмент, а для
+ * закрытого сегмента записывает разреженный индекс (файл {@code .idx}):
+ * смещения каждой {@link #INDEX_INTERVAL}-й записи и общее число записей.
+ * Отображение закрытого сегмента освобождается сразу, не дожидаясь сборщика мусора.
+ * Сегменты старше контрольной точки восстановления удаляются
+ * ({@link #deleteSegmentsBefore(long)}), поэтому перезапуски не копят файлы на диске.
+ * <p>
+ * Формат сегмента:
+ * <pre>
+ * заголовок: int MAGIC, int VERSION, long базовый номер записи
+ * запись:    int длина тела, int CRC32 тела, тело
+ * тело:      byte тип, int id сессии, long время (мс), данные события
+ * </pre>
+ * Нулевая длина означает конец записанных данных.
+ */
+public class SessionJournal implements AutoCloseable {
+
+    public static final int MAGIC = 0x42534A4C; // "BSJL"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+
+    /** Размер служебной части записи: длина и контрольная сумма */
+    public static final int RECORD_OVERHEAD = 8;
+
+    /** Шаг разреженного индекса: в индекс попадает каждая N-я запись сегмента */
+    public static final int INDEX_INTERVAL = 256;
+
+    public static final int INDEX_MAGIC = 0x42534958; // "BSIX"
+
+    public static final String SEGMENT_SUFFIX = ".log";
+    public static final String INDEX_SUFFIX = ".idx";
+
+    /** Выключенный журнал: все операции записи игнорируются */
+    private static final SessionJournal DISABLED = new SessionJournal();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long fsyncIntervalMs;
+
+    private final CRC32 crc = new CRC32();
+
+    /** Освобождение отображения сегмента через {@code Unsafe.invokeCleaner} (Java 9+) */
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private FileChannel channel;
+
+    /** Отображение текущего сегмента; меняется под {@link #mappingLock} */
+    private volatile MappedByteBuffer buffer;
+
+    /** Не даёт освободить отображение, пока поток сброса вызывает для него {@code force} */
+    private final Object mappingLock = new Object();
+    private Path segmentPath;
+    private long segmentBaseSeq;
+
+    /** Номер следующей записи во всём журнале */
+    private long nextSeq;
+
+    /** Количество записей в текущем сегменте */
+    private int segmentRecords;
+
+    /** Позиция начала текущей записи в сегменте */
+    private int recordStart;
+
+    /** Разреженный индекс текущего сегмента: смещения каждой INDEX_INTERVAL-й записи */
+    private int[] indexOffsets = new int[64];
+    private int indexSize;
+
+    private volatile boolean dirty;
+    private volatile boolean enabled;
+
+    private Thread flusher;
+
+    /** Конструктор выключенного журнала */
+    private SessionJournal() {
+        this.directory = null;
+        this.segmentSize = 0;
+        this.maxSegments = 0;
+        this.fsyncIntervalMs = 0;
+        this.enabled = false;
+    }
+
+    private SessionJournal(Path directory, int segmentSize, int maxSegments, long fsyncIntervalMs) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.fsyncIntervalMs = fsyncIntervalMs;
+        this.enabled = true;
+    }
+
+    /**
+     * Открывает журнал в указанном каталоге. Запись всегда начинается
+     * с нового сегмента после уже существующих.
+     *
+     * @param directory       каталог журнала
+     * @param segmentSize     размер сегмента в байтах
+     * @param maxSegments     сколько последних сегментов хранить на диске
+     * @param fsyncIntervalMs период пакетного сброса на диск
+     * @return открытый журнал
+     * @throws IOException если каталог или сегмент не удалось создать
+     */
+    public static SessionJournal open(Path directory, int segmentSize, int maxSegments, long fsyncIntervalMs)
+            throws IOException {
+        Files.createDirectories(directory);
+
+        SessionJournal journal = new SessionJournal(directory, segmentSize, Math.max(1, maxSegments), fsyncIntervalMs);
+
+        List<Path> segments = listSegments(directory);
+        long nextSeq = 0;
+        if (!segments.isEmpty()) {
+            Path last = segments.get(segments.size() - 1);
+            nextSeq = baseSequence(last) + countRecords(last);
+        }
+
+        journal.nextSeq = nextSeq;
+        journal.openSegment();
+        journal.startFlusher();
+
+        return journal;
+    }
+
+    /**
+     * Открывает журнал с настройками из системных свойств
+     * {@code battleship.journal.*}. Если журнал выключен или не может быть открыт,
+     * возвращается выключенный журнал.
+     *
+     * @return журнал сессий
+     */
+    public static SessionJournal fromSystemProperties() {
+        if (!Boolean.parseBoolean(System.getProperty("battleship.journal.enabled", "true"))) {
+            return disabled();
+        }
+
+        Path dir = Paths.get(System.getProperty("battleship.journal.dir", "journal"));
+        int segmentSize = Integer.getInteger("battleship.journal.segmentSize", 64 * 1024 * 1024);
+        int maxSegments = Integer.getInteger("battleship.journal.maxSegments", 16);
+        long fsyncMs = Long.getLong("battleship.journal.fsyncMs", 50L);
+
+        try {
+            return open(dir, segmentSize, maxSegments, fsyncMs);
+        }
+        catch (IOException e) {
+            System.err.println("Не удалось открыть журнал сессий: " + e.getMessage());
+            return disabled();
+        }
+    }
+
+    public static SessionJournal disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void recordCreate(int sessionId, String gameName, String creator) {
+        if (!enabled) return;
+        byte[] name = utf8(gameName);
+        byte[] creatorBytes = utf8(creator);
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.CREATE, sessionId, 4 + name.length + creatorBytes.length);
+            if (b == null) return;
+            putString(b, name);
+            putString(b, creatorBytes);
+            commit();
+        }
+    }
+
+    public void recordJoin(int sessionId, String player) {
+        if (!enabled) return;
+        byte[] playerBytes = utf8(player);
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.JOIN, sessionId, 2 + playerBytes.length);
+            if (b == null) return;
+            putString(b, playerBytes);
+            commit();
+        }
+    }
+
+    public void recordShipsPlaced(int sessionId, int slot, String ships) {
+        if (!enabled) return;
+        byte[] shipsBytes = utf8(ships);
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.SHIPS_PLACED, sessionId, 1 + 2 + shipsBytes.length);
+            if (b == null) return;
+            b.put((byte) slot);
+            putString(b, shipsBytes);
+            commit();
+        }
+    }
+
+    public void recordReady(int sessionId, int slot) {
+        if (!enabled) return;
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.READY, sessionId, 1);
+            if (b == null) return;
+            b.put((byte) slot);
+            commit();
+        }
+    }
+
+    /**
+     * Записывает выстрел. Координаты больше 127 записываются событием
+     * {@link JournalEventType#SHOT_WIDE} с двухбайтовыми координатами.
+     *
+     * @param sessionId id сессии
+     * @param slot      номер стреляющего игрока (1 или 2)
+     * @param x         координата X
+     * @param y         координата Y
+     * @param result    результат ("MISS", "HIT" или "SUNK")
+     */
+    public void recordShot(int sessionId, int slot, int x, int y, String result) {
+        if (!enabled) return;
+        synchronized (this) {
+            boolean wide = x > Byte.MAX_VALUE || y > Byte.MAX_VALUE;
+            ByteBuffer b = begin(wide ? JournalEventType.SHOT_WIDE : JournalEventType.SHOT, sessionId, wide ? 6 : 4);
+            if (b == null) return;
+            b.put((byte) slot);
+            if (wide) {
+                b.putShort((short) x);
+                b.putShort((short) y);
+            }
+            else {
+                b.put((byte) x);
+                b.put((byte) y);
+            }
+            b.put(resultCode(result));
+            commit();
+        }
+    }
+
+    public void recordLeave(int sessionId, int slot) {
+        if (!enabled) return;
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.LEAVE, sessionId, 1);
+            if (b == null) return;
+            b.put((byte) slot);
+            commit();
+        }
+    }
+
+    public void recordEnd(int sessionId, String winner, boolean surrender) {
+        if (!enabled) return;
+        byte[] winnerBytes = utf8(winner);
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.END, sessionId, 2 + winnerBytes.length + 1);
+            if (b == null) return;
+            putString(b, winnerBytes);
+            b.put((byte) (surrender ? 1 : 0));
+            commit();
+        }
+    }
+
+    /**
+     * Записывает, чей сейчас ход. Используется при переписывании
+     * восстановленных сессий в новый сегмент, когда порядок выстрелов не сохраняется.
+     *
+     * @param sessionId id сессии
+     * @param slot      номер игрока, который ходит (1 или 2)
+     */
+    public void recordTurn(int sessionId, int slot) {
+        if (!enabled) return;
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.TURN, sessionId, 1);
+            if (b == null) return;
+            b.put((byte) slot);
+            commit();
+        }
+    }
+
+    public void recordMode(int sessionId, String mode) {
+        if (!enabled) return;
+        byte[] modeBytes = utf8(mode);
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.MODE, sessionId, 2 + modeBytes.length);
+            if (b == null) return;
+            putString(b, modeBytes);
+            commit();
+        }
+    }
+
+    /**
+     * Записывает правила партии, если они отличаются от классических.
+     *
+     * @param sessionId id сессии
+     * @param rules     строка правил в формате {@code RuleSet.parse}
+     */
+    public void recordRules(int sessionId, String rules) {
+        if (!enabled) return;
+        byte[] rulesBytes = utf8(rules);
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.RULES, sessionId, 2 + rulesBytes.length);
+            if (b == null) return;
+            putString(b, rulesBytes);
+            commit();
+        }
+    }
+
+    public void recordToken(int sessionId, int slot, String token) {
+        if (!enabled) return;
+        byte[] tokenBytes = utf8(token);
+        synchronized (this) {
+            ByteBuffer b = begin(JournalEventType.TOKEN, sessionId, 1 + 2 + tokenBytes.length);
+            if (b == null) return;
+            b.put((byte) slot);
+            putString(b, tokenBytes);
+            commit();
+        }
+    }
+
+    /**
+     * Код результата выстрела в журнале.
+     *
+     * @param result результат выстрела
+     * @return 0 — промах, 1 — попадание, 2 — корабль потоплен
+     */
+    public static byte resultCode(String result) {
+        switch (result) {
+            case "HIT": return 1;
+            case "SUNK": return 2;
+            default: return 0;
+        }
+    }
+
+    /**
+     * Обратное преобразование кода результата выстрела.
+     *
+     * @param code код результата
+     * @return "MISS", "HIT" или "SUNK"
+     */
+    public static String resultName(byte code) {
+        switch (code) {
+            case 1: return "HIT";
+            case 2: return "SUNK";
+            default: return "MISS";
+        }
+    }
+
+    /**
+     * Резервирует место под запись и пишет общую часть тела.
+     *
+     * @return буфер, готовый к записи данных события, или {@code null}, если журнал выключился
+     */
+    private ByteBuffer begin(JournalEventType type, int sessionId, int payloadSize) {
+        if (!enabled || buffer == null) {
+            return null;
+        }
+
+        int bodySize = 1 + 4 + 8 + payloadSize;
+        int total = RECORD_OVERHEAD + bodySize;
+
+        if (total + 4 > segmentSize - HEADER_SIZE) {
+            LoggerServer.info("Событие журнала слишком велико: " + total + " байт");
+            return null;
+        }
+
+        try {
+            if (buffer.remaining() < total + 4) {
+                rollSegment();
+            }
+        }
+        catch (IOException e) {
+            fail(e);
+            return null;
+        }
+
+        recordStart = buffer.position();
+        buffer.position(recordStart + RECORD_OVERHEAD);
+        buffer.put(type.getCode());
+        buffer.putInt(sessionId);
+        buffer.putLong(System.currentTimeMillis());
+
+        return buffer;
+    }
+
+    /** Завершает запись: считает контрольную сумму и публикует длину */
+    private void commit() {
+        int end = buffer.position();
+        int bodySize = end - recordStart - RECORD_OVERHEAD;
+
+        ByteBuffer body = buffer.duplicate();
+        body.position(recordStart + RECORD_OVERHEAD);
+        body.limit(end);
+        crc.reset();
+        crc.update(body);
+
+        buffer.putInt(recordStart + 4, (int) crc.getValue());
+        // Длина пишется последней: до этого момента запись считается отсутствующей
+        buffer.putInt(recordStart, bodySize);
+
+        if (segmentRecords % INDEX_INTERVAL == 0) {
+            if (indexSize == indexOffsets.length) {
+                int[] grown = new int[indexOffsets.length * 2];
+                System.arraycopy(indexOffsets, 0, grown, 0, indexSize);
+                indexOffsets = grown;
+            }
+            indexOffsets[indexSize++] = recordStart;
+        }
+
+        segmentRecords++;
+        nextSeq++;
+        dirty = true;
+    }
+
+    private static void putString(ByteBuffer b, byte[] bytes) {
+        b.putShort((short) bytes.length);
+        b.put(bytes);
+    }
+
+    private static byte[] utf8(String s) {
+        if (s == null) {
+            return new byte[0];
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            byte[] cut = new byte[Short.MAX_VALUE];
+            System.arraycopy(bytes, 0, cut, 0, cut.length);
+            return cut;
+        }
+        return bytes;
+    }
+
+    /** Создаёт новый сегмент, начинающийся с записи nextSeq */
+    private void openSegment() throws IOException {
+        segmentBaseSeq = nextSeq;
+        segmentRecords = 0;
+        indexSize = 0;
+        segmentPath = directory.resolve(segmentName(segmentBaseSeq));
+
+        channel = FileChannel.open(segmentPath,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(segmentBaseSeq);
+        buffer.putInt(buffer.position(), 0);
+        buffer.force();
+    }
+
+    /**
+     * Номер следующей записи журнала. Все записи, сделанные после вызова,
+     * получат номера не меньше возвращённого.
+     *
+     * @return номер следующей записи
+     */
+    public synchronized long getNextSequence() {
+        return nextSeq;
+    }
+
+    /**
+     * Удаляет закрытые сегменты, все записи которых старше заданного номера.
+     * Вызывается после контрольной точки восстановления: состояние сессий к этому
+     * моменту переписано в журнал заново, и более старые записи не нужны.
+     * Текущий сегмент не удаляется.
+     *
+     * @param sequence номер первой записи, которую нужно сохранить
+     * @throws IOException при ошибке удаления
+     */
+    public synchronized void deleteSegmentsBefore(long sequence) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            Path old = segments.get(i);
+            if (old.equals(segmentPath) || baseSequence(segments.get(i + 1)) > sequence) {
+                break;
+            }
+            Files.deleteIfExists(old);
+            Files.deleteIfExists(indexPathFor(old));
+        }
+    }
+
+    /** Закрывает текущий сегмент и открывает следующий */
+    private void rollSegment() throws IOException {
+        closeSegment();
+        openSegment();
+        deleteOldSegments();
+    }
+
+    /** Сбрасывает текущий сегмент на диск и пишет его индекс */
+    private void closeSegment() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+
+        synchronized (mappingLock) {
+            MappedByteBuffer closed = buffer;
+            closed.force();
+            writeIndex();
+            channel.close();
+
+            buffer = null;
+            channel = null;
+            unmap(closed);
+        }
+    }
+
+    /**
+     * Освобождает отображение файла в память, не дожидаясь сборщика мусора.
+     * После вызова обращаться к буферу нельзя. Если освободить отображение
+     * не удалось (недоступен {@code Unsafe}), оно останется до сборки мусора.
+     *
+     * @param mapping отображение файла
+     */
+    static void unmap(MappedByteBuffer mapping) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, mapping);
+            }
+            else {
+                // Java 8: DirectByteBuffer.cleaner().clean()
+                Method cleanerMethod = mapping.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(mapping);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            LoggerServer.info("Не удалось освободить отображение сегмента: " + e);
+        }
+    }
+
+    /**
+     * Пишет разреженный индекс сегмента:
+     * int INDEX_MAGIC, int число записей, int конец данных, int размер индекса,
+     * затем смещения каждой INDEX_INTERVAL-й записи.
+     */
+    private void writeIndex() throws IOException {
+        Path indexPath = indexPathFor(segmentPath);
+        ByteBuffer index = ByteBuffer.allocate(16 + indexSize * 4);
+        index.putInt(INDEX_MAGIC);
+        index.putInt(segmentRecords);
+        index.putInt(buffer.position());
+        index.putInt(indexSize);
+        for (int i = 0; i < indexSize; i++) {
+            index.putInt(indexOffsets[i]);
+        }
+        index.flip();
+
+        try (FileChannel out = FileChannel.open(indexPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (index.hasRemaining()) {
+                out.write(index);
+            }
+            out.force(true);
+        }
+    }
+
+    /** Удаляет самые старые сегменты сверх лимита хранения */
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Path old = segments.get(i);
+            Files.deleteIfExists(old);
+            Files.deleteIfExists(indexPathFor(old));
+        }
+    }
+
+    /** Запускает поток пакетного сброса на диск */
+    private void startFlusher() {
+        flusher = new Thread(() -> {
+            while (enabled) {
+                try {
+                    Thread.sleep(fsyncIntervalMs);
+                }
+                catch (InterruptedException e) {
+                    break;
+                }
+                flush();
+            }
+        }, "journal-fsync");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Сбрасывает накопленные записи на диск.
+     */
+    public void flush() {
+        if (!dirty) {
+            return;
+        }
+
+        dirty = false;
+        synchronized (mappingLock) {
+            MappedByteBuffer current = buffer;
+            if (current != null) {
+                current.force();
+            }
+        }
+    }
+
+    /** Выключает журнал после ошибки ввода-вывода, чтобы не мешать игре */
+    private void fail(IOException e) {
+        enabled = false;
+        LoggerServer.info("Журнал сессий отключён из-за ошибки: " + e.getMessage());
+        System.err.println("Журнал сессий отключён из-за ошибки: " + e.getMessage());
+    }
+
+    /**
+     * Закрывает журнал, сбрасывая все данные на диск.
+     */
+    @Override
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        enabled = false;
+
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+
+        try {
+            closeSegment();
+        }
+        catch (IOException e) {
+            System.err.println("Ошибка при закрытии журнала: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Имя файла сегмента по номеру его первой записи.
+     *
+     * @param baseSeq номер первой записи сегмента
+     * @return имя файла
+     */
+    static String segmentName(long baseSeq) {
+        return String.format("%020d", baseSeq) + SEGMENT_SUFFIX;
+    }
+
+    static Path indexPathFor(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    /**
+     * Список сегментов каталога в порядке возрастания номеров записей.
+     *
+     * @param directory каталог журнала
+     * @return пути к сегментам
+     * @throws IOException при ошибке чтения каталога
+     */
+    public static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+
+        // Имена дополнены нулями, поэтому лексикографический порядок совпадает с числовым
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Номер первой записи сегмента по имени файла.
+     *
+     * @param segment путь к сегменту
+     * @return номер первой записи
+     */
+    public static long baseSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Количество записей сегмента: берётся из индекса, а если его нет
+     * (сервер упал, не закрыв сегмент) — подсчитывается проходом по записям.
+     *
+     * @param segment путь к сегменту
+     * @return количество записей
+     * @throws IOException при ошибке чтения
+     */
+    static long countRecords(Path segment) throws IOException {
+        Path indexPath = indexPathFor(segment);
+        if (Files.exists(indexPath)) {
+            ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            if (header.remaining() >= 8 && header.getInt() == INDEX_MAGIC) {
+                return header.getInt();
+            }
+        }
+
+        long count = 0;
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            try {
+                int position = HEADER_SIZE;
+                while (position + RECORD_OVERHEAD <= data.limit()) {
+                    int length = data.getInt(position);
+                    if (length <= 0 || position + RECORD_OVERHEAD + length > data.limit()) {
+                        break;
+                    }
+                    position += RECORD_OVERHEAD + length;
+                    count++;
+                }
+            }
+            finally {
+                unmap(data);
+            }
+        }
+        return count;
+    }
+}
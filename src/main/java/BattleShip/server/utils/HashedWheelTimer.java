@@ -0,0 +1,371 @@
+package BattleShip.server.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Таймер на основе хешированного колеса (hashed wheel timer).
+ * <p>
+ * Все отложенные задачи сервера обслуживаются одним потоком-тикером:
+ * задача попадает в ячейку колеса по времени срабатывания, а поток на каждом тике
+ * просматривает только одну ячейку. Постановка и отмена задачи стоят O(1),
+ * поэтому таймер выдерживает сотни тысяч одновременных сессий без отдельного
+ * потока или {@code ScheduledFuture} на каждую из них.
+ * <p>
+ * Точность срабатывания ограничена длительностью тика.
+ */
+public class HashedWheelTimer {
+
+    /**
+     * Дескриптор запланированной задачи.
+     */
+    public interface Timeout {
+
+        /**
+         * Отменяет задачу, если она ещё не была выполнена.
+         *
+         * @return {@code true}, если задача была отменена этим вызовом
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    private final long tickNanos;
+
+    private final Bucket[] wheel;
+    private final int mask;
+
+    /** Исполнитель, в котором запускаются сработавшие задачи */
+    private final Executor executor;
+
+    /** Новые задачи, ещё не разложенные по ячейкам колеса */
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+
+    /** Отменённые задачи, которые нужно убрать из ячеек */
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    private final Thread worker;
+    private final long startTime;
+
+    private volatile boolean running = true;
+
+    /**
+     * Создаёт и запускает таймер.
+     *
+     * @param name          имя потока-тикера
+     * @param tickDuration  длительность одного тика
+     * @param unit          единица измерения длительности тика
+     * @param wheelSize     количество ячеек колеса (округляется вверх до степени двойки)
+     * @param executor      исполнитель для сработавших задач
+     *                      ({@code null} — выполнять прямо в потоке таймера)
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int wheelSize, Executor executor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration должен быть положительным: " + tickDuration);
+        }
+        if (wheelSize <= 0) {
+            throw new IllegalArgumentException("wheelSize должен быть положительным: " + wheelSize);
+        }
+
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::runWorker, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Планирует выполнение задачи через заданную задержку.
+     *
+     * @param task  задача
+     * @param delay задержка
+     * @param unit  единица измерения задержки
+     * @return дескриптор для отмены задачи
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        if (!running) {
+            throw new IllegalStateException("Таймер остановлен");
+        }
+
+        long deadline = System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay));
+        Entry entry = new Entry(task, deadline);
+
+        pendingCount.incrementAndGet();
+        pending.add(entry);
+
+        return entry;
+    }
+
+    /**
+     * Количество запланированных и ещё не сработавших задач.
+     *
+     * @return число ожидающих задач
+     */
+    public long pendingTimeouts() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Останавливает таймер. Несработавшие задачи отбрасываются.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /** Основной цикл потока-тикера */
+    private void runWorker() {
+        long tick = 0;
+
+        while (running) {
+            long deadline = waitForNextTick(tick);
+            if (deadline < 0) {
+                break;
+            }
+
+            processCancelled();
+            transferPending(tick);
+
+            Bucket bucket = wheel[(int) (tick & mask)];
+            bucket.expire(deadline);
+
+            tick++;
+        }
+    }
+
+    /**
+     * Ожидает начала следующего тика.
+     *
+     * @param tick номер текущего тика
+     * @return время от старта таймера в наносекундах или -1, если таймер остановлен
+     */
+    private long waitForNextTick(long tick) {
+        long deadline = tickNanos * (tick + 1);
+
+        while (true) {
+            long current = System.nanoTime() - startTime;
+            long sleepMs = (deadline - current + 999_999) / 1_000_000;
+
+            if (sleepMs <= 0) {
+                return current;
+            }
+
+            try {
+                Thread.sleep(sleepMs);
+            }
+            catch (InterruptedException e) {
+                if (!running) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /** Раскладывает новые задачи по ячейкам колеса */
+    private void transferPending(long tick) {
+        // Ограничиваем число переносимых задач за тик, чтобы не задерживать срабатывание
+        for (int i = 0; i < 100_000; i++) {
+            Entry entry = pending.poll();
+            if (entry == null) {
+                break;
+            }
+            if (entry.state.get() == ST_CANCELLED) {
+                continue;
+            }
+
+            long calculated = entry.deadline / tickNanos;
+            entry.remainingRounds = (calculated - tick) / wheel.length;
+
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(entry);
+        }
+    }
+
+    /** Убирает отменённые задачи из ячеек колеса */
+    private void processCancelled() {
+        while (true) {
+            Entry entry = cancelled.poll();
+            if (entry == null) {
+                break;
+            }
+            if (entry.bucket != null) {
+                entry.bucket.remove(entry);
+            }
+        }
+    }
+
+    /** Запускает сработавшую задачу */
+    private void fire(Entry entry) {
+        if (!entry.state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+            return;
+        }
+        pendingCount.decrementAndGet();
+
+        Runnable safeTask = () -> {
+            try {
+                entry.task.run();
+            }
+            catch (Throwable t) {
+                LoggerServer.info("Ошибка в задаче таймера: " + t);
+            }
+        };
+
+        if (executor == null) {
+            safeTask.run();
+        }
+        else {
+            try {
+                executor.execute(safeTask);
+            }
+            catch (RuntimeException e) {
+                LoggerServer.info("Не удалось запустить задачу таймера: " + e);
+            }
+        }
+    }
+
+    /**
+     * Запланированная задача, одновременно являющаяся узлом
+     * двусвязного списка ячейки колеса.
+     */
+    private final class Entry implements Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        private long remainingRounds;
+
+        private Bucket bucket;
+        private Entry next;
+        private Entry prev;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            pendingCount.decrementAndGet();
+            cancelled.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+    }
+
+    /**
+     * Ячейка колеса — двусвязный список задач.
+     * Доступ к ячейкам есть только у потока-тикера.
+     */
+    private final class Bucket {
+        private Entry head;
+        private Entry tail;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            if (head == null) {
+                head = tail = entry;
+            }
+            else {
+                tail.next = entry;
+                entry.prev = tail;
+                tail = entry;
+            }
+        }
+
+        void expire(long deadline) {
+            Entry entry = head;
+            while (entry != null) {
+                Entry next = entry.next;
+
+                if (entry.remainingRounds <= 0) {
+                    remove(entry);
+                    if (entry.deadline <= deadline) {
+                        fire(entry);
+                    }
+                    else {
+                        // Задача попала в ячейку раньше своего срока — переносим заново
+                        pending.add(entry);
+                    }
+                }
+                else if (entry.isCancelled()) {
+                    remove(entry);
+                }
+                else {
+                    entry.remainingRounds--;
+                }
+
+                entry = next;
+            }
+        }
+
+        void remove(Entry entry) {
+            if (entry.bucket != this) {
+                return;
+            }
+
+            Entry next = entry.next;
+            if (entry.prev != null) {
+                entry.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = entry.prev;
+            }
+
+            if (entry == head) {
+                if (entry == tail) {
+                    head = tail = null;
+                }
+                else {
+                    head = next;
+                }
+            }
+            else if (entry == tail) {
+                tail = entry.prev;
+            }
+
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+    }
+}
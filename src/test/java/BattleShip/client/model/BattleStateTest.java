@@ -45,42 +45,104 @@ class BattleStateTest {
 
     @Test
     void testAddLog() {
-        for (int i = 0; i < 55; i++) {
+        int capacity = battleState.getGameLog().getCapacity();
+        for (int i = 0; i < capacity + 5; i++) {
             battleState.addLog("Message " + i);
         }
 
         List<String> log = battleState.getGameLog();
-        assertEquals(50, log.size(), "Лог должен хранить максимум 50 сообщений");
+        assertEquals(capacity, log.size(), "Лог хранит не больше своей ёмкости");
         assertEquals("Message 5", log.get(0), "Первое сообщение должно быть Message 5 после обрезки");
-        assertEquals("Message 54", log.get(49), "Последнее сообщение должно быть Message 54");
+        assertEquals("Message " + (capacity + 4), log.get(capacity - 1), "Последнее сообщение — самое новое");
     }
 
     @Test
     void testGetPlayerShipsLeft() {
-        Ship ship = new Ship(ShipType.DESTROYER);
-        battleState.getPlayerBoard().placeShip(ship, 0, 0);
+        assertEquals(10, battleState.getPlayerShipsLeft(), "В начале цел весь классический флот");
+
+        battleState.recordShot(false, 0, 0, "HIT");
+        assertEquals(10, battleState.getPlayerShipsLeft(), "Попадание без потопления не меняет число кораблей");
 
-        assertEquals(1, battleState.getPlayerShipsLeft(), "Один корабль не разрушен, должен вернуть 1");
+        battleState.recordShot(false, 1, 0, "SUNK");
+        assertEquals(9, battleState.getPlayerShipsLeft(), "Потопленный корабль вычитается");
+        assertEquals(10, battleState.getOpponentShipsLeft(), "Выстрелы противника не трогают его флот");
+    }
 
-        for (Cell cell : ship.getCells()) {
-            cell.setState(Cell.State.HIT);
+    @Test
+    void testGetOpponentShipsLeft() {
+        for (int i = 0; i < 10; i++) {
+            battleState.recordShot(true, i, 0, "SUNK");
         }
+        assertEquals(0, battleState.getOpponentShipsLeft());
 
-        assertEquals(0, battleState.getPlayerShipsLeft(), "Корабль уничтожен, должно вернуть 0");
+        battleState.recordShot(true, 0, 1, "SUNK");
+        assertEquals(0, battleState.getOpponentShipsLeft(), "Число кораблей не уходит в минус");
     }
 
     @Test
-    void testGetOpponentShipsLeft() {
+    void testAccuracyAndStreaks() {
+        BattleState.ShotStats stats = battleState.getPlayerStats();
+        assertEquals(0, stats.getAccuracy(), "Без выстрелов точность нулевая");
+
+        String[] results = {"HIT", "HIT", "SUNK", "MISS", "HIT"};
+        for (int i = 0; i < results.length; i++) {
+            battleState.recordShot(true, i, 0, results[i]);
+        }
+
+        assertEquals(5, stats.getShots());
+        assertEquals(4, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSunk());
+        assertEquals(80, stats.getAccuracy());
+        assertEquals(1, stats.getStreak(), "Промах обрывает серию");
+        assertEquals(3, stats.getBestStreak());
+        assertEquals(0, battleState.getOpponentStats().getShots());
+    }
+
+    @Test
+    void testRestoreStatsFromBoards() {
+        Board opponent = battleState.getOpponentBoard();
+        opponent.setState(0, 0, Cell.State.HIT);
+        opponent.setState(0, 1, Cell.State.SHIP_SUNK);
+        opponent.setState(5, 5, Cell.State.MISS);
+        battleState.getPlayerBoard().setState(3, 3, Cell.State.MISS);
+
+        battleState.restoreStats();
+
+        assertEquals(2, battleState.getPlayerStats().getHits());
+        assertEquals(1, battleState.getPlayerStats().getMisses());
+        assertEquals(9, battleState.getOpponentShipsLeft());
+        assertEquals(1, battleState.getOpponentStats().getMisses());
+        assertEquals(10, battleState.getPlayerShipsLeft());
+    }
+
+    @Test
+    void testReplayFramesAreIndependentVersions() {
+        assertNull(battleState.getReplay(), "Запись начинается с первого выстрела");
+
         Ship ship = new Ship(ShipType.DESTROYER);
-        battleState.getOpponentBoard().placeShip(ship, 0, 0);
+        battleState.getPlayerBoard().placeShip(ship, 0, 0);
 
-        assertTrue(battleState.getOpponentShipsLeft() <= 10, "Количество оставшихся кораблей не должно превышать 10");
+        battleState.recordShot(true, 4, 4, "MISS");
+        battleState.getOpponentBoard().setState(4, 4, Cell.State.MISS);
+        battleState.recordShot(false, 0, 0, "HIT");
+        battleState.recordShot(true, 5, 5, "SUNK");
 
-        for (Cell cell : ship.getCells()) {
-            cell.setState(Cell.State.HIT);
-        }
+        BattleReplay replay = battleState.getReplay();
+        assertEquals(3, replay.getLength());
+
+        BattleReplay.Frame start = replay.frameAt(0);
+        assertNull(start.getResult());
+        assertEquals(Cell.State.SHIP, start.getState(true, 0));
+        assertEquals(Cell.State.EMPTY, start.getState(false, 44));
+
+        BattleReplay.Frame second = replay.frameAt(2);
+        assertFalse(second.isPlayerShot());
+        assertEquals(Cell.State.HIT, second.getState(true, 0));
+        assertEquals(Cell.State.MISS, second.getState(false, 44));
+        assertEquals(Cell.State.EMPTY, second.getState(false, 55));
 
-        int remaining = battleState.getOpponentShipsLeft();
-        assertTrue(remaining <= 10 && remaining >= 0, "Количество оставшихся кораблей корректно после попадания");
+        assertEquals(Cell.State.SHIP_SUNK, replay.frameAt(3).getState(false, 55));
+        assertEquals(Cell.State.SHIP, replay.frameAt(1).getState(true, 0), "Старые кадры не меняются");
     }
 }
@@ -3,6 +3,8 @@ package BattleShip.client.model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BoardTest {
@@ -51,6 +53,17 @@ class BoardTest {
         assertFalse(board.placeShip(destroyer2, 0, 0), "Нельзя разместить корабль на занятой клетке");
     }
 
+    @Test
+    void testRemovedShipNoLongerBlocksNeighbours() {
+        Ship cruiser = new Ship(ShipType.CRUISER);
+        board.placeShip(cruiser, 2, 2);
+        Ship destroyer = new Ship(ShipType.DESTROYER);
+        assertFalse(board.canPlaceShip(destroyer, 4, 3), "Нельзя ставить корабль вплотную по диагонали");
+
+        board.removeShip(cruiser);
+        assertTrue(board.canPlaceShip(destroyer, 4, 3), "После удаления корабля клетка снова свободна");
+    }
+
     @Test
     void testClearBoard() {
         Ship destroyer = new Ship(ShipType.DESTROYER);
@@ -121,4 +134,87 @@ class BoardTest {
             }
         }
     }
+
+    @Test
+    void testCellViewWritesThroughToBoard() {
+        Ship cruiser = new Ship(ShipType.CRUISER);
+        board.placeShip(cruiser, 2, 3);
+
+        Cell cell = board.getCell(3, 3);
+        assertSame(cruiser, cell.getShip(), "Клетка должна находить корабль по расстановке");
+        assertEquals(board.getCell(3, 3), cell, "Представления одной клетки равны");
+
+        cruiser.getCells().get(1).setState(Cell.State.HIT);
+        assertEquals(Cell.State.HIT, board.getState(3, 3), "Изменение через представление меняет доску");
+        assertTrue(board.getCell(3, 3).isHit());
+        assertSame(cruiser, board.getShipAt(3, 3), "Подбитая клетка по-прежнему принадлежит кораблю");
+
+        assertThrows(UnsupportedOperationException.class, () -> cell.setShip(null));
+    }
+
+    @Test
+    void testCountStates() {
+        board.placeShip(new Ship(ShipType.CARRIER), 0, 0);
+        board.setState(0, 0, Cell.State.HIT);
+        board.setState(9, 9, Cell.State.MISS);
+
+        assertEquals(1, board.countStates(Cell.State.HIT, Cell.State.SHIP_SUNK));
+        assertEquals(3, board.countStates(Cell.State.SHIP, Cell.State.SHIP));
+        assertEquals(98, board.countStates(Cell.State.EMPTY, Cell.State.SHIP));
+    }
+
+    @Test
+    void testBoardFollowsRuleSet() {
+        RuleSet rules = RuleSet.parse("12x7/4,3,1/corners");
+        Board board = new Board(rules);
+
+        assertEquals(12, board.getWidth());
+        assertEquals(7, board.getHeight());
+        assertNotNull(board.getCell(11, 6));
+        assertNull(board.getCell(12, 0));
+
+        Ship carrier = new Ship(ShipType.CARRIER);
+        assertTrue(board.placeShip(carrier, 8, 0));
+        assertSame(carrier, board.getShipAt(11, 0));
+
+        Ship destroyer = new Ship(ShipType.DESTROYER);
+        assertFalse(board.canPlaceShip(destroyer, 7, 0), "Касание стороной запрещено");
+        assertTrue(board.placeShip(destroyer, 7, 1), "Касание углом разрешено");
+        assertFalse(board.allShipsPlaced());
+
+        String ships = board.placeComputerShips(new Random(4));
+        assertTrue(board.allShipsPlaced());
+        assertNull(rules.checkFleet(ships));
+        assertEquals(8, board.countStates(Cell.State.SHIP, Cell.State.SHIP));
+    }
+
+    @Test
+    void testSparseBoardKeepsOnlyTouchedCells() {
+        Board large = new Board(RuleSet.parse("1000x1000/4*20,1*30/corners"));
+
+        String ships = large.placeComputerShips(new Random(11));
+        assertTrue(large.allShipsPlaced());
+        assertNull(large.getRules().checkFleet(ships));
+        assertEquals(20 * 4 + 30, large.countStates(Cell.State.SHIP, Cell.State.SHIP));
+        assertEquals(1_000_000 - 110, large.countStates(Cell.State.EMPTY, Cell.State.EMPTY));
+
+        Ship first = large.getShips().get(0);
+        Ship last = large.getShips().get(large.getShips().size() - 1);
+        Cell lastCell = last.getCells().get(0);
+        assertSame(last, large.getShipAt(lastCell.getX(), lastCell.getY()));
+
+        // После удаления первого корабля номера остальных сдвигаются
+        large.removeShip(first);
+        assertSame(last, large.getShipAt(lastCell.getX(), lastCell.getY()));
+        assertEquals(106, large.countStates(Cell.State.SHIP, Cell.State.SHIP));
+
+        large.setState(999, 999, Cell.State.MISS);
+        assertEquals(Cell.State.MISS, large.getState(999, 999));
+        assertEquals(1, large.countStates(Cell.State.MISS, Cell.State.HIT));
+        assertThrows(UnsupportedOperationException.class, large::getGrid);
+
+        large.clearBoard();
+        assertEquals(1_000_000, large.countStates(Cell.State.EMPTY, Cell.State.EMPTY));
+        assertNull(large.getShipAt(lastCell.getX(), lastCell.getY()));
+    }
 }
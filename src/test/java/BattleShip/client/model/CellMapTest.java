@@ -0,0 +1,63 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CellMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        CellMap map = new CellMap();
+
+        assertEquals(0, map.get(5));
+        assertEquals(0, map.put(5, 3));
+        assertEquals(3, map.put(5, 4));
+        assertEquals(4, map.get(5));
+        assertTrue(map.containsKey(5));
+        assertEquals(1, map.size());
+
+        assertEquals(4, map.put(5, 0), "Значение 0 удаляет клетку");
+        assertFalse(map.containsKey(5));
+        assertEquals(0, map.size());
+        assertEquals(0, map.remove(5));
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        CellMap map = new CellMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random rnd = new Random(17);
+
+        for (int i = 0; i < 50_000; i++) {
+            // Узкий диапазон ключей, чтобы чаще были коллизии и удаления из середины цепочек
+            int cell = rnd.nextInt(2_000) * 1_000;
+            if (rnd.nextInt(3) == 0) {
+                Integer removed = expected.remove(cell);
+                assertEquals(removed == null ? 0 : removed, map.remove(cell));
+            }
+            else {
+                int value = 1 + rnd.nextInt(100);
+                Integer previous = expected.put(cell, value);
+                assertEquals(previous == null ? 0 : previous, map.put(cell, value));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), map.get(entry.getKey()));
+        }
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(0, map.get(expected.keySet().iterator().next()));
+    }
+}
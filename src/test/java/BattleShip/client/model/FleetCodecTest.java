@@ -0,0 +1,83 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetCodecTest {
+
+    @Test
+    void testClassicFleetPacksIntoTenBytes() {
+        Random rnd = new Random(7);
+        assertEquals(8, FleetCodec.bitsPerShip(RuleSet.CLASSIC));
+
+        for (int i = 0; i < 200; i++) {
+            String text = FleetGenerator.generateString(rnd);
+            int[] ships = FleetCodec.fromText(text, RuleSet.CLASSIC);
+            byte[] packed = FleetCodec.pack(ships, RuleSet.CLASSIC);
+
+            assertEquals(10, packed.length);
+            assertArrayEquals(ships, FleetCodec.unpack(packed, RuleSet.CLASSIC));
+            assertEquals(text, FleetCodec.toText(FleetCodec.unpack(packed, RuleSet.CLASSIC), Board.SIZE));
+        }
+    }
+
+    @Test
+    void testRoundTripOnLargeBoards() {
+        Random rnd = new Random(11);
+        for (String spec : new String[]{"12x8/4,3,2,1/corners", "1000x800/4*20,1*50/none", "10000x10000/4,1/any"}) {
+            RuleSet rules = RuleSet.parse(spec);
+            int[] ships = FleetGenerator.generateShips(rules, rnd);
+
+            byte[] packed = FleetCodec.pack(ships, rules);
+            assertEquals((ships.length * FleetCodec.bitsPerShip(rules) + 7) / 8, packed.length, spec);
+            assertArrayEquals(ships, FleetCodec.unpack(packed, rules), spec);
+
+            String text = FleetCodec.toText(ships, rules.getWidth());
+            assertArrayEquals(ships, FleetCodec.fromText(text, rules), spec);
+            assertNull(rules.checkFleet(text), spec);
+        }
+    }
+
+    @Test
+    void testTextIsCanonicalAndTolerant() {
+        int[] ships = FleetCodec.fromText(" 3, 9,9,0 ;0,0,0,1;;3,2,0,0;", RuleSet.CLASSIC);
+
+        assertEquals("0,0,0,1;3,2,0,0;3,9,9,0;", FleetCodec.toText(ships, Board.SIZE));
+        assertEquals(4, FleetCodec.size(ships[0]));
+        assertTrue(FleetCodec.isVertical(ships[0]));
+        assertEquals(99, FleetCodec.cell(ships[2]));
+    }
+
+    @Test
+    void testInvalidEntries() {
+        assertThrows(IllegalArgumentException.class, () -> FleetCodec.fromText("7,0,0,0;", RuleSet.CLASSIC));
+        assertThrows(IllegalArgumentException.class, () -> FleetCodec.fromText("1,0,0,2;", RuleSet.CLASSIC));
+        assertThrows(IllegalArgumentException.class, () -> FleetCodec.fromText("1,10,0,0;", RuleSet.CLASSIC));
+        assertThrows(IllegalArgumentException.class, () -> FleetCodec.fromText("1,a,0,0;", RuleSet.CLASSIC));
+
+        assertEquals(1, FleetCodec.fromText("1,a,0,0;1,10,0,0;3,5,5,0;", RuleSet.CLASSIC, true).length,
+                "Неверные записи пропускаются");
+
+        int[] incomplete = FleetCodec.fromText("3,5,5,0;", RuleSet.CLASSIC);
+        assertThrows(IllegalArgumentException.class, () -> FleetCodec.pack(incomplete, RuleSet.CLASSIC));
+        assertThrows(IllegalArgumentException.class, () -> FleetCodec.unpack(new byte[9], RuleSet.CLASSIC));
+        byte[] outside = new byte[10];
+        outside[0] = (byte) 200;
+        assertThrows(IllegalArgumentException.class, () -> FleetCodec.unpack(outside, RuleSet.CLASSIC));
+    }
+
+    @Test
+    void testBoardProducesAndConsumesCodes() {
+        Board board = new Board();
+        board.placeComputerShips(new Random(3));
+        int[] fleet = board.getFleet();
+
+        Board copy = new Board();
+        copy.placeShips(FleetCodec.unpack(FleetCodec.pack(fleet, RuleSet.CLASSIC), RuleSet.CLASSIC));
+        assertTrue(copy.allShipsPlaced());
+        assertEquals(board.getShipsPlacementString(), copy.getShipsPlacementString());
+    }
+}
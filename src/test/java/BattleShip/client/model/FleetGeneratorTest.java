@@ -0,0 +1,36 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetGeneratorTest {
+
+    @Test
+    void testAlwaysPlacesFullFleet() {
+        Random rnd = new Random(11);
+        Board board = new Board();
+
+        for (int i = 0; i < 2000; i++) {
+            int[] placements = FleetGenerator.generate(rnd);
+            assertEquals(FleetGenerator.getFleetSize(), placements.length);
+
+            board.clearBoard();
+            board.placeFleet(placements);
+            assertEquals(10, board.getShips().size(), "Все корабли должны встать без касаний");
+            assertTrue(board.allShipsPlaced());
+        }
+    }
+
+    @Test
+    void testShipsStringMatchesBoard() {
+        Board board = new Board();
+        String ships = board.placeComputerShips(new Random(3));
+
+        assertEquals(board.getShipsPlacementString(), ships);
+        assertEquals(10, ships.split(";").length);
+        assertEquals(ships, new Board().placeComputerShips(new Random(3)), "Расстановка воспроизводится по зерну");
+    }
+}
@@ -0,0 +1,37 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLogTest {
+
+    @Test
+    void testKeepsNewestEntriesInOrder() {
+        GameLog log = new GameLog(3);
+
+        log.add("a");
+        log.add("b");
+        assertEquals(Arrays.asList("a", "b"), log);
+
+        log.add("c");
+        log.add("d");
+        log.add("e");
+        assertEquals(Arrays.asList("c", "d", "e"), log, "Старые записи вытесняются по кругу");
+        assertEquals(5, log.getTotalAdded());
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(3));
+
+        log.clear();
+        assertTrue(log.isEmpty());
+        log.add("f");
+        assertEquals("f", log.get(0));
+        assertEquals(6, log.getTotalAdded(), "Счётчик записей не сбрасывается");
+    }
+
+    @Test
+    void testRejectsEmptyCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new GameLog(0));
+    }
+}
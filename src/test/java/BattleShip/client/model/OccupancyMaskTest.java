@@ -0,0 +1,57 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyMaskTest {
+
+    @Test
+    void testMatchesRuleSetForEveryAdjacency() {
+        Random rnd = new Random(21);
+        String[] specs = {"classic", "9x7/4,3,2,2,1/corners", "8x8/4,4,3/any", "30x25/4*5,2*5/none"};
+
+        for (String spec : specs) {
+            RuleSet rules = RuleSet.parse(spec);
+            Board board = new Board(rules);
+            board.placeComputerShips(rnd);
+
+            OccupancyMask mask = new OccupancyMask(rules);
+            mask.rebuild(board.getShips());
+
+            for (int size = 1; size <= 4; size++) {
+                for (int vertical = 0; vertical < 2; vertical++) {
+                    Ship ship = new Ship(FleetGenerator.typeOf(size));
+                    ship.setOrientation(vertical == 1 ? Ship.Orientation.VERTICAL : Ship.Orientation.HORIZONTAL);
+                    for (int y = -1; y <= rules.getHeight(); y++) {
+                        for (int x = -1; x <= rules.getWidth(); x++) {
+                            assertEquals(board.canPlaceShip(ship, x, y), mask.canPlace(size, vertical == 1, x, y),
+                                    spec + ": размер " + size + " в (" + x + "," + y + ")");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRebuildAfterRemoval() {
+        Board board = new Board();
+        Ship first = new Ship(ShipType.CRUISER);
+        Ship second = new Ship(ShipType.DESTROYER);
+        board.placeShip(first, 0, 0);
+        board.placeShip(second, 3, 0);
+
+        OccupancyMask mask = new OccupancyMask(board.getRules());
+        mask.add(first);
+        mask.add(second);
+        assertFalse(mask.canPlace(1, false, 2, 1), "Клетка в ореоле обоих кораблей");
+
+        board.removeShip(first);
+        mask.rebuild(board.getShips());
+        assertFalse(mask.canPlace(1, false, 2, 1), "Ореол оставшегося корабля сохраняется");
+        assertTrue(mask.canPlace(1, false, 0, 0));
+    }
+}
@@ -0,0 +1,63 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentCellsTest {
+
+    @Test
+    void testVersionsShareStructureButNotState() {
+        PersistentCells empty = PersistentCells.empty(100);
+        PersistentCells first = empty.with(42, Cell.State.MISS);
+        PersistentCells second = first.with(99, Cell.State.HIT);
+
+        assertEquals(Cell.State.EMPTY, empty.get(42));
+        assertEquals(Cell.State.MISS, first.get(42));
+        assertEquals(Cell.State.EMPTY, first.get(99));
+        assertEquals(Cell.State.MISS, second.get(42));
+        assertEquals(Cell.State.HIT, second.get(99));
+        assertSame(second, second.with(99, Cell.State.HIT), "Без изменений версия не копируется");
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.with(100, Cell.State.MISS));
+    }
+
+    @Test
+    void testMatchesArrayOnLargeBoard() {
+        int cells = 1000 * 1000;
+        Random rnd = new Random(8);
+        PersistentCells version = PersistentCells.empty(cells);
+        Cell.State[] expected = new Cell.State[cells];
+        int[] touched = new int[2000];
+
+        for (int i = 0; i < touched.length; i++) {
+            touched[i] = rnd.nextInt(cells);
+            Cell.State state = Cell.State.BY_CODE[1 + rnd.nextInt(Cell.State.BY_CODE.length - 1)];
+            expected[touched[i]] = state;
+            version = version.with(touched[i], state);
+        }
+
+        for (int cell : touched) {
+            assertEquals(expected[cell], version.get(cell));
+        }
+        for (int cell = 0; cell < cells; cell += 997) {
+            assertEquals(expected[cell] == null ? Cell.State.EMPTY : expected[cell], version.get(cell));
+        }
+    }
+
+    @Test
+    void testSnapshotOfBoard() {
+        Board board = new Board(RuleSet.parse("30x30/4,1/none"));
+        board.placeShip(new Ship(ShipType.CARRIER), 26, 29);
+        board.setState(0, 0, Cell.State.MISS);
+
+        PersistentCells snapshot = PersistentCells.of(board);
+        board.setState(1, 1, Cell.State.HIT);
+
+        assertEquals(900, snapshot.size());
+        assertEquals(Cell.State.SHIP, snapshot.get(29 * 30 + 29));
+        assertEquals(Cell.State.MISS, snapshot.get(0));
+        assertEquals(Cell.State.EMPTY, snapshot.get(31), "Снимок не видит последующих изменений доски");
+    }
+}
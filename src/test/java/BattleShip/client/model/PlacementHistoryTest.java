@@ -0,0 +1,65 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementHistoryTest {
+
+    private static Ship place(Board board, ShipType type, int x, int y) {
+        Ship ship = new Ship(type);
+        assertTrue(board.placeShip(ship, x, y));
+        return ship;
+    }
+
+    @Test
+    void testUndoRedoPlacements() {
+        Board board = new Board();
+        PlacementHistory history = new PlacementHistory();
+        assertFalse(history.canUndo());
+
+        history.recordPlacement(place(board, ShipType.CARRIER, 0, 0));
+        history.recordPlacement(place(board, ShipType.DESTROYER, 9, 9));
+        assertEquals(2, history.current().getShipCount());
+
+        PlacementHistory.apply(history.undo(), board);
+        assertEquals(1, board.getShips().size());
+        assertEquals(ShipType.CARRIER, board.getShipAt(3, 0).getType());
+        assertNull(board.getShipAt(9, 9));
+
+        PlacementHistory.apply(history.redo(), board);
+        assertEquals("0,0,0,0;3,9,9,0;", board.getShipsPlacementString(), "Повтор восстанавливает порядок кораблей");
+        assertFalse(history.canRedo());
+
+        PlacementHistory.apply(history.undo(), board);
+        PlacementHistory.apply(history.undo(), board);
+        assertTrue(board.getShips().isEmpty());
+        assertThrows(IllegalStateException.class, history::undo);
+    }
+
+    @Test
+    void testNewChangeDropsRedoBranch() {
+        Board board = new Board();
+        PlacementHistory history = new PlacementHistory();
+
+        history.recordPlacement(place(board, ShipType.CARRIER, 0, 0));
+        PlacementHistory.apply(history.undo(), board);
+        history.recordPlacement(place(board, ShipType.DESTROYER, 5, 5));
+        assertFalse(history.canRedo());
+
+        board.placeComputerShips(new Random(4));
+        history.recordFleet(board.getShips());
+        String fleet = board.getShipsPlacementString();
+
+        board.clearBoard();
+        history.recordClear();
+        history.recordClear();
+        assertNull(history.current());
+
+        PlacementHistory.apply(history.undo(), board);
+        assertEquals(fleet, board.getShipsPlacementString());
+        assertTrue(board.allShipsPlaced());
+    }
+}
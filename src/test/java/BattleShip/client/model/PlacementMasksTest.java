@@ -0,0 +1,70 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementMasksTest {
+
+    /** Проверка по клеткам, как до появления масок */
+    private static boolean canPlaceByCells(boolean[][] occupied, int size, boolean horizontal, int startX, int startY) {
+        if ((horizontal ? startX : startY) + size > Board.SIZE) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            int x = startX + (horizontal ? i : 0);
+            int y = startY + (horizontal ? 0 : i);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if (nx >= 0 && nx < Board.SIZE && ny >= 0 && ny < Board.SIZE && occupied[nx][ny]) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void testPlacementCount() {
+        // Однопалубный корабль занимает 100 положений, остальные — в двух ориентациях
+        assertEquals(100 + 2 * 90 + 2 * 80 + 2 * 70, PlacementMasks.COUNT);
+        assertEquals(-1, PlacementMasks.indexOf(4, true, 7, 0));
+        assertEquals(PlacementMasks.indexOf(1, true, 3, 3), PlacementMasks.indexOf(1, false, 3, 3));
+    }
+
+    @Test
+    void testMasksMatchCellByCellCheck() {
+        Random rnd = new Random(5);
+
+        for (int round = 0; round < 50; round++) {
+            Board board = new Board();
+            board.placeComputerShips(rnd);
+
+            boolean[][] occupied = new boolean[Board.SIZE][Board.SIZE];
+            for (Ship ship : board.getShips()) {
+                for (Cell cell : ship.getCells()) {
+                    occupied[cell.getX()][cell.getY()] = true;
+                }
+            }
+
+            for (ShipType type : ShipType.values()) {
+                Ship ship = new Ship(type);
+                for (Ship.Orientation orientation : Ship.Orientation.values()) {
+                    ship.setOrientation(orientation);
+                    boolean horizontal = orientation == Ship.Orientation.HORIZONTAL;
+                    for (int x = 0; x < Board.SIZE; x++) {
+                        for (int y = 0; y < Board.SIZE; y++) {
+                            assertEquals(canPlaceByCells(occupied, ship.getSize(), horizontal, x, y),
+                                    board.canPlaceShip(ship, x, y));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
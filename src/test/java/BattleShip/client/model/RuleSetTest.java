@@ -0,0 +1,114 @@
+package BattleShip.client.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSetTest {
+
+    @Test
+    void testClassicSpecsResolveToSingleInstance() {
+        assertSame(RuleSet.CLASSIC, RuleSet.parse("classic"));
+        assertSame(RuleSet.CLASSIC, RuleSet.parse("10x10/1,1,1,1,2,2,2,3,3,4/none"));
+
+        assertEquals(10, RuleSet.CLASSIC.getWidth());
+        assertEquals(20, RuleSet.CLASSIC.getShipCells());
+        assertEquals(4, RuleSet.CLASSIC.getShipCount(1));
+        assertEquals(1, RuleSet.CLASSIC.getShipCount(4));
+    }
+
+    @Test
+    void testSpecRoundTrip() {
+        RuleSet rules = RuleSet.parse("12x8/2,4,1/corners");
+
+        assertFalse(rules.isClassic());
+        assertEquals(12, rules.getWidth());
+        assertEquals(8, rules.getHeight());
+        assertArrayEquals(new int[]{4, 2, 1}, rules.getFleetSizes());
+        assertEquals(RuleSet.Adjacency.CORNERS, rules.getAdjacency());
+
+        assertEquals("12x8/4,2,1/corners", rules.toSpec());
+        assertEquals(rules, RuleSet.parse(rules.toSpec()));
+    }
+
+    @Test
+    void testInvalidSpecsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("10x10"));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("4x10/1/none"));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("10x10001/1/none"));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("10x10/5/none"));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("10x10/a/none"));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("10x10/1/sometimes"));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("10x10/1*31/none"), "Плотное поле: не больше 30 кораблей");
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("100x100/1*2001/none"));
+        // Девять четырёхпалубников без касаний на поле 5x5 не встают
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("5x5/4,4,4,4,4,4,4,4,4/none"));
+    }
+
+    @Test
+    void testAdjacencyRules() {
+        RuleSet none = RuleSet.parse("8x8/2,1/none");
+        RuleSet corners = RuleSet.parse("8x8/2,1/corners");
+        RuleSet any = RuleSet.parse("8x8/2,1/any");
+
+        for (RuleSet rules : new RuleSet[]{none, corners, any}) {
+            long[] occupied = rules.newCellMask();
+            rules.mark(occupied, 2, false, 2, 2);
+
+            assertFalse(rules.canPlace(occupied, 1, false, 3, 2), "Пересечение запрещено всегда");
+            assertFalse(rules.canPlace(occupied, 2, false, 7, 0), "Корабль должен помещаться на поле");
+            assertEquals(rules == any, rules.canPlace(occupied, 1, false, 4, 2), "Касание стороной");
+            assertEquals(rules != none, rules.canPlace(occupied, 1, false, 4, 3), "Касание углом");
+            assertTrue(rules.canPlace(occupied, 1, false, 5, 2));
+        }
+    }
+
+    @Test
+    void testCheckFleet() {
+        RuleSet rules = RuleSet.parse("6x6/3,1/none");
+
+        assertNull(rules.checkFleet("1,0,0,0;3,5,5,0;"));
+        assertNotNull(rules.checkFleet("1,0,0,0;"), "Не хватает корабля");
+        assertNotNull(rules.checkFleet("1,0,0,0;3,3,0,0;"), "Эсминец касается линкора");
+        assertNotNull(rules.checkFleet("1,4,0,0;3,5,5,0;"), "Линкор выходит за поле");
+        assertNotNull(rules.checkFleet("1,0,0,2;3,5,5,0;"), "Неверная ориентация");
+
+        assertNull(RuleSet.CLASSIC.checkFleet(FleetGenerator.generateString(new Random(5))));
+        assertNotNull(RuleSet.CLASSIC.checkFleet("0,0,0,0;"));
+    }
+
+    @Test
+    void testGeneratedFleetsSatisfyRules() {
+        Random rnd = new Random(9);
+        RuleSet[] variants = {
+                RuleSet.parse("15x12/4,4,3,3,3,2,2,2,2,1,1,1,1,1/none"),
+                RuleSet.parse("7x7/4,3,3,2,2,1,1/corners"),
+                RuleSet.parse("5x5/4,4,4,4,4/any"),
+        };
+
+        for (RuleSet rules : variants) {
+            for (int i = 0; i < 200; i++) {
+                String ships = FleetGenerator.generateString(rules, rnd);
+                assertNull(rules.checkFleet(ships), rules + ": " + ships);
+            }
+        }
+    }
+
+    @Test
+    void testSparseRulesWithRepeatedSizes() {
+        RuleSet rules = RuleSet.parse("1000x800/4*50,3*100,2*200,1*300/corners");
+
+        assertTrue(rules.isSparse());
+        assertFalse(RuleSet.parse("20x20/4,1/none").isSparse());
+        assertEquals(650, rules.getFleetSizes().length);
+        assertEquals(50 * 4 + 100 * 3 + 200 * 2 + 300, rules.getShipCells());
+        assertEquals("1000x800/4*50,3*100,2*200,1*300/corners", rules.toSpec());
+        assertEquals(rules, RuleSet.parse(rules.toSpec()));
+
+        String ships = FleetGenerator.generateString(rules, new Random(3));
+        assertNull(rules.checkFleet(ships));
+        assertNotNull(rules.checkFleet(ships + "3,999,799,0;"), "Лишний корабль");
+    }
+}
@@ -0,0 +1,140 @@
+package BattleShip.server.AI;
+
+import BattleShip.server.utils.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIMoveSchedulerTest {
+
+    private AIMoveScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new AIMoveScheduler(2, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void testMovesRunOnWorkerPool() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            scheduler.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Все ходы должны выполниться");
+        assertEquals(10, scheduler.getScheduledMoves());
+        assertEquals(10, scheduler.getExecutedMoves());
+        assertEquals(0, scheduler.getPendingMoves());
+    }
+
+    @Test
+    void testCancelledMoveDoesNotRun() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        HashedWheelTimer.Timeout move = scheduler.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, scheduler.getPendingMoves());
+        assertTrue(move.cancel());
+        assertEquals(0, scheduler.getPendingMoves());
+
+        Thread.sleep(150);
+        assertEquals(0, runs.get());
+        assertEquals(0, scheduler.getExecutedMoves());
+    }
+
+    @Test
+    void testBatchedMovesRunInFewBatches() throws InterruptedException {
+        int moves = 200;
+        CountDownLatch played = new CountDownLatch(moves);
+        AtomicInteger thinking = new AtomicInteger();
+
+        for (int i = 0; i < moves; i++) {
+            int cell = i % 100;
+            scheduler.scheduleBatched(new AIMoveScheduler.BatchedMove() {
+                @Override
+                public int think() {
+                    thinking.incrementAndGet();
+                    return cell;
+                }
+
+                @Override
+                public void play(int chosen) {
+                    assertEquals(cell, chosen);
+                    played.countDown();
+                }
+            }, 20, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(played.await(2, TimeUnit.SECONDS), "Все пакетные ходы должны выполниться");
+        assertEquals(moves, thinking.get());
+        assertEquals(moves, scheduler.getExecutedMoves());
+        assertTrue(scheduler.getBatches() < moves, "Ходы одного тика должны попадать в один пакет");
+        assertTrue(scheduler.getMovesPerCoreSecond() > 0);
+    }
+
+    @Test
+    void testZeroDelayBypassesWheel() throws InterruptedException {
+        CountDownLatch played = new CountDownLatch(1);
+        AIMoveScheduler.BatchedMove move = new AIMoveScheduler.BatchedMove() {
+            @Override
+            public int think() {
+                return 7;
+            }
+
+            @Override
+            public void play(int cell) {
+                played.countDown();
+            }
+        };
+
+        assertNull(scheduler.scheduleBatched(move, 0, TimeUnit.MILLISECONDS));
+        assertTrue(played.await(2, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.getPendingMoves());
+    }
+
+    @Test
+    void testPendingMovesCountsOnlyScheduledMoves() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch played = new CountDownLatch(1);
+        AIMoveScheduler.BatchedMove move = new AIMoveScheduler.BatchedMove() {
+            @Override
+            public int think() {
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 3;
+            }
+
+            @Override
+            public void play(int cell) {
+                played.countDown();
+            }
+        };
+
+        scheduler.scheduleBatched(move, 0, TimeUnit.MILLISECONDS);
+        HashedWheelTimer.Timeout delayed = scheduler.scheduleBatched(move, 10, TimeUnit.SECONDS);
+        scheduler.newDeadline(() -> { });
+        assertEquals(2, scheduler.getPendingMoves(), "Ход без задержки учитывается, срок обдумывания — нет");
+
+        assertTrue(delayed.cancel());
+        assertFalse(delayed.cancel());
+        assertEquals(1, scheduler.getPendingMoves());
+
+        release.countDown();
+        assertTrue(played.await(2, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.getPendingMoves());
+    }
+}
@@ -0,0 +1,67 @@
+package BattleShip.server.AI;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIPacingTest {
+
+    @Test
+    void testFixedDelay() {
+        AIPacing pacing = AIPacing.parse("fixed,600", false);
+        assertEquals(600, pacing.nextDelayMillis());
+        assertFalse(pacing.isZero());
+        assertEquals("fixed,600", pacing.toString());
+    }
+
+    @Test
+    void testJitterStaysInRange() {
+        AIPacing pacing = AIPacing.parse("jitter,600,200", false);
+        Random rnd = new Random(1);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 10_000; i++) {
+            long delay = pacing.nextDelayMillis(rnd);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        assertEquals(400, min);
+        assertEquals(800, max);
+    }
+
+    @Test
+    void testZeroOnlyWhenAllowed() {
+        assertTrue(AIPacing.parse("zero", true).isZero());
+        assertEquals(0, AIPacing.parse("zero", true).nextDelayMillis());
+
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("zero", false));
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("fixed,0", false));
+    }
+
+    @Test
+    void testNearZeroRejectedOutsideTestProfiles() {
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("fixed,1", false));
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("jitter,600,600", false));
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("jitter,300,250", false));
+
+        assertEquals(AIPacing.MIN_DELAY_MS, AIPacing.parse("fixed," + AIPacing.MIN_DELAY_MS, false).getMinDelayMillis());
+        assertEquals(400, AIPacing.parse("jitter,600,200", false).getMinDelayMillis());
+        assertEquals(1, AIPacing.parse("fixed,1", true).nextDelayMillis());
+    }
+
+    @Test
+    void testInvalidSpecsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("slow", true));
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("fixed", true));
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("fixed,abc", true));
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("fixed,-5", true));
+        assertThrows(IllegalArgumentException.class, () -> AIPacing.parse("jitter,100,200", true));
+    }
+
+    @Test
+    void testDefaultIsOneSecond() {
+        assertEquals(1000, AIPacing.DEFAULT.nextDelayMillis());
+    }
+}
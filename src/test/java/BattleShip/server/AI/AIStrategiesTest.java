@@ -0,0 +1,32 @@
+package BattleShip.server.AI;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIStrategiesTest {
+
+    @Test
+    void testBuiltInLevelsAreDiscovered() {
+        assertTrue(AIStrategies.getLevels().containsAll(Arrays.asList("easy", "normal", "hard")));
+        assertTrue(AIStrategies.isKnown(AIStrategies.getDefaultLevel()));
+        assertNull(AIStrategies.create("impossible"));
+    }
+
+    @Test
+    void testThinkTimeIsRecorded() {
+        AIStrategy strategy = AIStrategies.create("easy", new Random(1));
+        long before = AIStrategies.getMoves("easy");
+
+        for (int i = 0; i < 5; i++) {
+            int[] shot = strategy.nextShot();
+            strategy.onResult(shot[0], shot[1], "MISS");
+        }
+
+        assertEquals(before + 5, AIStrategies.getMoves("easy"));
+        assertTrue(AIStrategies.takeThinkTimeReport().contains("easy"));
+    }
+}
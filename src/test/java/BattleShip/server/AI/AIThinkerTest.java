@@ -0,0 +1,192 @@
+package BattleShip.server.AI;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIThinkerTest {
+
+    private AIMoveScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new AIMoveScheduler(1, 5, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    /** Стратегия, которая думает заданное время и всегда стреляет в одну клетку */
+    private static final class SlowStrategy implements AIStrategy {
+        private final long delayMs;
+        private final int[] shot;
+        private final AtomicInteger forgotten = new AtomicInteger();
+        private final AtomicInteger results = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        SlowStrategy(long delayMs, int x, int y) {
+            this.delayMs = delayMs;
+            this.shot = new int[]{x, y};
+        }
+
+        @Override
+        public int[] nextShot() {
+            started.countDown();
+            try {
+                Thread.sleep(delayMs);
+            }
+            catch (InterruptedException e) {
+                // Прерывание — это отмена; ответ всё равно будет отброшен
+            }
+            finished.countDown();
+            return shot.clone();
+        }
+
+        @Override
+        public void onResult(int x, int y, String result) {
+            results.incrementAndGet();
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public void forget(int x, int y) {
+            forgotten.incrementAndGet();
+        }
+    }
+
+    @Test
+    void testMoveDeliveredBeforeDeadline() throws InterruptedException {
+        AIThinker thinker = new AIThinker(scheduler, new SlowStrategy(0, 3, 4), new DensityAILogic());
+        AtomicInteger cell = new AtomicInteger(-1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        assertTrue(thinker.start(c -> {
+            cell.set(c);
+            done.countDown();
+        }));
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(43, cell.get());
+        assertFalse(thinker.isThinking());
+        assertEquals(1, scheduler.getThoughts());
+        assertEquals(0, scheduler.getDeadlineMisses());
+    }
+
+    @Test
+    void testFallbackAfterDeadline() throws InterruptedException {
+        SlowStrategy slow = new SlowStrategy(5_000, 3, 4);
+        AIThinker thinker = new AIThinker(scheduler, slow, new DensityAILogic());
+        AtomicInteger moves = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        thinker.start(c -> {
+            moves.incrementAndGet();
+            done.countDown();
+        });
+
+        assertTrue(done.await(2, TimeUnit.SECONDS), "Запасная стратегия должна сходить по сроку");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        assertEquals(1, scheduler.getDeadlineMisses());
+
+        // Обдумывание прерывается, а его запоздавший выбор забывается, а не применяется
+        assertTrue(slow.finished.await(2, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(1, moves.get());
+        assertEquals(1, slow.forgotten.get());
+    }
+
+    @Test
+    void testCancelStopsThought() throws InterruptedException {
+        SlowStrategy slow = new SlowStrategy(5_000, 3, 4);
+        AIThinker thinker = new AIThinker(scheduler, slow, new DensityAILogic());
+        AtomicInteger moves = new AtomicInteger();
+
+        thinker.start(c -> moves.incrementAndGet());
+        assertFalse(thinker.start(c -> moves.incrementAndGet()), "Второй ход во время обдумывания не запускается");
+        assertTrue(slow.started.await(1, TimeUnit.SECONDS));
+
+        assertTrue(thinker.cancel());
+        assertFalse(thinker.isThinking());
+        assertTrue(slow.finished.await(1, TimeUnit.SECONDS), "Отмена должна прервать обдумывание");
+
+        Thread.sleep(200);
+        assertEquals(0, moves.get());
+        assertEquals(1, scheduler.getCancellations());
+        assertEquals(0, scheduler.getDeadlineMisses());
+    }
+
+    @Test
+    void testCancelReleasesExpensiveStrategy() throws InterruptedException {
+        // Перебор эндшпиля без ограничений: на пустом поле он не закончится сам
+        System.setProperty("battleship.ai.endgame.maxCandidates", "10000");
+        System.setProperty("battleship.ai.endgame.maxNodes", String.valueOf(Long.MAX_VALUE));
+        DensityAILogic density;
+        try {
+            density = new DensityAILogic(new Random(1));
+        }
+        finally {
+            System.clearProperty("battleship.ai.endgame.maxCandidates");
+            System.clearProperty("battleship.ai.endgame.maxNodes");
+        }
+        // Своё состояние, чтобы оценка не нашлась в общих кэшах
+        density.hash = 0x5EED_CAFE_F00DL;
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch result = new CountDownLatch(1);
+        AIStrategy strategy = new AIStrategy() {
+            @Override
+            public int[] nextShot() {
+                started.countDown();
+                return density.nextShot();
+            }
+
+            @Override
+            public void onResult(int x, int y, String r) {
+                result.countDown();
+            }
+
+            @Override
+            public void reset() {
+            }
+        };
+
+        AIThinker thinker = new AIThinker(scheduler, strategy, new DensityAILogic());
+        thinker.start(c -> { });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        assertTrue(thinker.cancel());
+
+        // Результат идёт в ту же очередь стратегии: он дойдёт, только если перебор остановился
+        thinker.onResult(0, 0, "MISS");
+        assertTrue(result.await(2, TimeUnit.SECONDS), "Отменённое обдумывание должно освободить поток");
+        assertEquals(1, scheduler.getStoppedThoughts());
+    }
+
+    @Test
+    void testResultsReachStrategyInOrder() throws InterruptedException {
+        SlowStrategy slow = new SlowStrategy(0, 0, 0);
+        AIThinker thinker = new AIThinker(scheduler, slow, new DensityAILogic());
+
+        thinker.onResult(0, 0, "MISS");
+        thinker.onResult(1, 0, "MISS");
+        CountDownLatch done = new CountDownLatch(1);
+        thinker.start(c -> done.countDown());
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(2, slow.results.get());
+    }
+}
@@ -0,0 +1,75 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.Board;
+import BattleShip.server.Fleet;
+import BattleShip.server.ShotLedger;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DensityAILogicTest {
+
+    /**
+     * Играет партию против случайной расстановки и возвращает число выстрелов.
+     */
+    private static int playGame(AILogic ai, String ships) {
+        Fleet fleet = Fleet.parse(ships);
+        boolean[] shot = new boolean[Board.SIZE * Board.SIZE];
+        int shots = 0;
+
+        while (!fleet.isDestroyed()) {
+            int[] target = ai.nextShot();
+            int cell = target[1] * Board.SIZE + target[0];
+
+            assertFalse(shot[cell], "ИИ не должен стрелять в одну клетку дважды");
+            shot[cell] = true;
+            shots++;
+
+            ai.onResult(target[0], target[1], ShotLedger.resultName(fleet.fire(target[0], target[1])));
+            assertTrue(shots <= 100);
+        }
+
+        return shots;
+    }
+
+    @Test
+    void testFinishesGamesFasterThanRandom() {
+        DensityAILogic ai = new DensityAILogic(new Random(42));
+        Board board = new Board();
+
+        int games = 200;
+        int total = 0;
+        for (int i = 0; i < games; i++) {
+            ai.reset();
+            total += playGame(ai, board.placeComputerShips());
+        }
+
+        // Случайная стрельба в среднем требует около 95 выстрелов
+        assertTrue(total / games < 65, "Среднее число выстрелов: " + total / games);
+    }
+
+    @Test
+    void testFollowsUpOnHit() {
+        DensityAILogic ai = new DensityAILogic(new Random(1));
+
+        ai.onResult(4, 4, "HIT");
+        int[] next = ai.nextShot();
+
+        int distance = Math.abs(next[0] - 4) + Math.abs(next[1] - 4);
+        assertEquals(1, distance, "После попадания ИИ должен стрелять в соседнюю клетку");
+    }
+
+    @Test
+    void testSkipsCellsAroundSunkShip() {
+        DensityAILogic ai = new DensityAILogic(new Random(7));
+
+        ai.onResult(0, 0, "SUNK");
+        for (int i = 0; i < 20; i++) {
+            int[] next = ai.nextShot();
+            assertFalse(next[0] <= 1 && next[1] <= 1, "Клетки вокруг потопленного корабля пусты");
+            ai.onResult(next[0], next[1], "MISS");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.FleetGenerator;
+import BattleShip.server.Fleet;
+import BattleShip.server.ShotLedger;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Микробенчмарк точного решателя эндшпиля.
+ * <p>
+ * Играет партии ИИ с картой плотности и на каждом ходу отдельно замеряет решатель
+ * с заданными порогами: долю решённых и прерванных задач, число узлов и время.
+ * Запускается вручную, в обычный прогон тестов не входит:
+ * {@code java -cp target/classes:target/test-classes BattleShip.server.AI.EndgameSolverBenchmark [кандидатов] [узлов] [партий]}
+ */
+public class EndgameSolverBenchmark {
+
+    public static void main(String[] args) {
+        int maxCandidates = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        long maxNodes = args.length > 1 ? Long.parseLong(args[1]) : 50_000L;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+
+        // Прогрев JIT
+        run(maxCandidates, maxNodes, games / 4);
+        System.out.print(run(maxCandidates, maxNodes, games));
+    }
+
+    private static String run(int maxCandidates, long maxNodes, int games) {
+        Random rnd = new Random(1);
+        EndgameSolver solver = new EndgameSolver(maxCandidates, maxNodes);
+        long[] out = new long[2];
+
+        long moves = 0;
+        long solved = 0;
+        long aborted = 0;
+        long nodes = 0;
+        long solveNanos = 0;
+        long maxNanos = 0;
+
+        for (int game = 0; game < games; game++) {
+            DensityAILogic ai = new DensityAILogic(new Random(game));
+            Fleet fleet = Fleet.parse(FleetGenerator.generateString(rnd));
+
+            while (!fleet.isDestroyed()) {
+                long started = System.nanoTime();
+                boolean ok = solver.solve(ai, out);
+                long elapsed = System.nanoTime() - started;
+
+                moves++;
+                solveNanos += elapsed;
+                maxNanos = Math.max(maxNanos, elapsed);
+                if (ok) {
+                    solved++;
+                    nodes += solver.getNodes();
+                }
+                else if (solver.getNodes() > maxNodes) {
+                    aborted++;
+                }
+
+                int[] shot = ai.nextShot();
+                ai.onResult(shot[0], shot[1], ShotLedger.resultName(fleet.fire(shot[0], shot[1])));
+            }
+        }
+
+        return String.format(Locale.ROOT,
+                "Ходов %d: решено %d, прервано %d, узлов на решение %d, %.2f мкс на ход, максимум %.2f мс%n",
+                moves, solved, aborted, solved == 0 ? 0 : nodes / solved,
+                solveNanos / 1e3 / moves, maxNanos / 1e6);
+    }
+}
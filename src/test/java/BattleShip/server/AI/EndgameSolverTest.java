@@ -0,0 +1,69 @@
+package BattleShip.server.AI;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndgameSolverTest {
+
+    /** ИИ, у которого остался один авианосец, а свободны только клетки 0–4 верхней строки */
+    private static DensityAILogic carrierInTopRow() {
+        DensityAILogic ai = new DensityAILogic(new Random(1));
+        Arrays.fill(ai.remaining, 0);
+        ai.remaining[4] = 1;
+        ai.blockedLo = ~0x1FL;
+        ai.blockedHi = -1L;
+        ai.hash = 12345;
+        return ai;
+    }
+
+    @Test
+    void testCountsExactConfigurations() {
+        EndgameSolver solver = new EndgameSolver(32, 10_000);
+        long[] out = new long[2];
+
+        assertTrue(solver.solve(carrierInTopRow(), out));
+        assertEquals(2, solver.getConfigurations());
+        // Клетки 1–3 заняты в обеих расстановках
+        assertEquals(0b01110L, out[0]);
+        assertEquals(0, out[1]);
+    }
+
+    @Test
+    void testRequiresHitsToBeCovered() {
+        DensityAILogic ai = carrierInTopRow();
+        ai.hitLo = 1L;
+        ai.hash = 54321;
+        EndgameSolver solver = new EndgameSolver(32, 10_000);
+        long[] out = new long[2];
+
+        assertTrue(solver.solve(ai, out));
+        assertEquals(1, solver.getConfigurations(), "Авианосец должен проходить через попадание в клетку 0");
+    }
+
+    @Test
+    void testDeclinesLargeOrExpensiveProblems() {
+        DensityAILogic ai = new DensityAILogic(new Random(1));
+        long[] out = new long[2];
+
+        assertFalse(new EndgameSolver(32, 10_000).solve(ai, out), "В начале партии положений слишком много");
+        assertFalse(new EndgameSolver(Integer.MAX_VALUE, 100).solve(ai, out), "Перебор должен прерываться по числу узлов");
+    }
+
+    @Test
+    void testInterruptAbortsSearch() {
+        // Полный флот на пустом поле: без прерывания перебор не закончился бы
+        EndgameSolver solver = new EndgameSolver(10_000, Long.MAX_VALUE);
+        Thread.currentThread().interrupt();
+        try {
+            assertFalse(solver.solve(new DensityAILogic(new Random(1)), new long[2]));
+            assertTrue(solver.getNodes() <= 1024, "Перебор должен остановиться на первой проверке");
+        }
+        finally {
+            Thread.interrupted();
+        }
+    }
+}
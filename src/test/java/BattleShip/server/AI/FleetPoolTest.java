@@ -0,0 +1,23 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.RuleSet;
+import BattleShip.server.Fleet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetPoolTest {
+
+    @Test
+    void testTakeReturnsFullFleetsEvenWhenEmpty() {
+        FleetPool pool = new FleetPool(4);
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(10, Fleet.of(pool.take(), RuleSet.CLASSIC).getAliveShips());
+            }
+        }
+        finally {
+            pool.stop();
+        }
+    }
+}
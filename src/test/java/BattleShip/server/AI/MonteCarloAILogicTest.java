@@ -0,0 +1,51 @@
+package BattleShip.server.AI;
+
+import BattleShip.client.model.Board;
+import BattleShip.server.Fleet;
+import BattleShip.server.ShotLedger;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloAILogicTest {
+
+    @Test
+    void testCompletesGameWithinBudget() {
+        MonteCarloAILogic ai = new MonteCarloAILogic(new Random(3), 5, 5_000);
+        Fleet fleet = Fleet.parse(new Board().placeComputerShips());
+        boolean[] shot = new boolean[Board.SIZE * Board.SIZE];
+
+        int shots = 0;
+        long slowest = 0;
+        while (!fleet.isDestroyed()) {
+            long start = System.nanoTime();
+            int[] target = ai.nextShot();
+            slowest = Math.max(slowest, System.nanoTime() - start);
+
+            int cell = target[1] * Board.SIZE + target[0];
+            assertFalse(shot[cell], "ИИ не должен стрелять в одну клетку дважды");
+            shot[cell] = true;
+
+            ai.onResult(target[0], target[1], ShotLedger.resultName(fleet.fire(target[0], target[1])));
+            assertTrue(++shots <= 100);
+        }
+
+        // Запас на прогрев JIT и планирование потоков
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(slowest) < 200, "Самый долгий ход: " + slowest / 1_000_000 + " мс");
+    }
+
+    @Test
+    void testSamplesOnlyLayoutsThroughHit() {
+        MonteCarloAILogic ai = new MonteCarloAILogic(new Random(5), 50, 2_000);
+
+        ai.onResult(0, 0, "HIT");
+        int[] next = ai.nextShot();
+
+        assertTrue(ai.getLastSamples() > 0);
+        assertTrue((next[0] == 1 && next[1] == 0) || (next[0] == 0 && next[1] == 1),
+                "После попадания в угол ИИ должен стрелять рядом");
+    }
+}
@@ -0,0 +1,70 @@
+package BattleShip.server.AI;
+
+import BattleShip.server.ShotLedger;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShotCacheTest {
+
+    @Test
+    void testStoreAndLookup() {
+        ShotCache cache = new ShotCache("test", 64, 100);
+        long[] out = new long[2];
+
+        assertFalse(cache.lookup(42, 3, out));
+        cache.store(42, 0b1010, 1L << 35, 3);
+
+        assertTrue(cache.lookup(42, 3, out));
+        assertEquals(0b1010, out[0]);
+        assertEquals(1L << 35, out[1], "Число выстрелов не должно попадать в маску");
+        assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    void testEvictsLaterStatesFirst() {
+        ShotCache cache = new ShotCache("test", 2, 100);
+        long[] out = new long[2];
+
+        // Одна корзина на две записи: третья запись вытесняет более позднее состояние
+        cache.store(1, 1, 0, 2);
+        cache.store(2, 2, 0, 30);
+        cache.store(3, 4, 0, 5);
+
+        assertTrue(cache.lookup(1, 2, out));
+        assertFalse(cache.lookup(2, 30, out));
+        assertTrue(cache.lookup(3, 5, out));
+    }
+
+    @Test
+    void testDisabledCacheNeverHits() {
+        ShotCache cache = new ShotCache("test", 0, 100);
+        cache.store(7, 1, 0, 0);
+        assertFalse(cache.lookup(7, 0, new long[2]));
+    }
+
+    @Test
+    void testSkipsDeepStates() {
+        ShotCache cache = new ShotCache("test", 64, 10);
+        cache.store(9, 1, 0, 11);
+        assertFalse(cache.lookup(9, 11, new long[2]));
+        assertEquals(0, cache.getHits() + cache.getMisses(), "Глубокие состояния не считаются обращениями");
+    }
+
+    @Test
+    void testHashDoesNotDependOnShotOrder() {
+        DensityAILogic first = new DensityAILogic(new Random(1));
+        DensityAILogic second = new DensityAILogic(new Random(2));
+
+        first.onResult(1, 1, "MISS");
+        first.onResult(5, 5, "HIT");
+        second.onResult(5, 5, "HIT");
+        second.onResult(1, 1, "MISS");
+        second.onResult(1, 1, "MISS");
+
+        assertEquals(first.hash, second.hash);
+        assertEquals(ShotCache.key(ShotLedger.MISS, 11) ^ ShotCache.key(ShotLedger.HIT, 55), first.hash);
+    }
+}
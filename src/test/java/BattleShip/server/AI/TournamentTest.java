@@ -0,0 +1,27 @@
+package BattleShip.server.AI;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    @Test
+    void testNormalBeatsEasy() throws Exception {
+        Tournament.Report report = new Tournament(new String[]{"easy", "normal"}, 300, 2, 7).run();
+
+        assertEquals(300, report.totalGames());
+        assertTrue(report.meanShots("normal") < report.meanShots("easy"));
+        assertTrue(report.percentileShots("normal", 0.99) <= 100);
+        assertTrue(report.format().contains("easy против normal"));
+    }
+
+    @Test
+    void testResultDoesNotDependOnThreadCount() throws Exception {
+        Tournament.Report single = new Tournament(new String[]{"normal"}, 200, 1, 3).run();
+        Tournament.Report parallel = new Tournament(new String[]{"normal"}, 200, 4, 3).run();
+
+        assertEquals(single.meanShots("normal"), parallel.meanShots("normal"));
+        assertEquals(single.percentileShots("normal", 0.9), parallel.percentileShots("normal", 0.9));
+    }
+}
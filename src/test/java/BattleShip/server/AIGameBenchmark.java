@@ -0,0 +1,131 @@
+package BattleShip.server;
+
+import BattleShip.client.model.FleetGenerator;
+import BattleShip.server.AI.AIMoveScheduler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сквозной бенчмарк игр с ИИ через сокеты.
+ * <p>
+ * Поднимает встроенный сервер в профиле {@code bench} на свободном порту с нулевым темпом
+ * ходов ИИ, подключает заданное число клиентов, и каждый играет подряд партии против
+ * компьютера, стреляя в случайном порядке. Замеряются партии и выстрелы в секунду.
+ * Запускается вручную, в обычный прогон тестов не входит:
+ * {@code java -cp target/classes:target/test-classes BattleShip.server.AIGameBenchmark [клиентов] [партий на клиента] [уровень] [темп]}
+ */
+public class AIGameBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int gamesPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        String level = args.length > 2 ? args[2] : "normal";
+        String pacing = args.length > 3 ? args[3] : "zero";
+
+        System.setProperty("battleship.profile", "bench");
+        System.setProperty("battleship.port", "0");
+        System.setProperty("battleship.ai.pacing", pacing);
+        System.setProperty("battleship.journal.enabled", "false");
+
+        Server server = new Server();
+        Thread acceptor = new Thread(server::start, "bench-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        while (server.getPort() < 0) {
+            Thread.sleep(10);
+        }
+
+        AtomicLong games = new AtomicLong();
+        AtomicLong shots = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            int id = i;
+            Thread player = new Thread(() -> {
+                try {
+                    play(server.getPort(), "bench" + id, level, gamesPerClient, new Random(id), games, shots);
+                }
+                catch (IOException e) {
+                    System.err.println("Клиент " + id + ": " + e.getMessage());
+                }
+                finally {
+                    done.countDown();
+                }
+            }, "bench-client-" + i);
+            player.start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        AIMoveScheduler ai = server.getAIScheduler();
+        System.out.println(String.format(Locale.ROOT,
+                "Клиентов %d, уровень %s, темп %s: партий %d за %.2f с (%.1f партий/с), выстрелов %d (%.0f/с), " +
+                        "пакетов ИИ %d по %.1f хода, задержка хода ИИ ср. %d мкс",
+                clients, level, pacing, games.get(), seconds, games.get() / seconds,
+                shots.get(), shots.get() / seconds, ai.getBatches(), ai.getAverageBatchSize(), ai.getAverageLagMicros()));
+
+        server.stop();
+    }
+
+    /**
+     * Играет партии одного клиента до конца.
+     * Клиент стреляет, пока попадает или получил ход, и ждёт хода компьютера после промаха.
+     */
+    private static void play(int port, String name, String level, int gameCount, Random rnd,
+                             AtomicLong games, AtomicLong shots) throws IOException {
+        try (Socket socket = new Socket("localhost", port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+
+            socket.setTcpNoDelay(true);
+
+            out.println("REGISTER:" + name);
+            int[] order = new int[100];
+
+            for (int game = 0; game < gameCount; game++) {
+                for (int i = 0; i < order.length; i++) {
+                    int j = rnd.nextInt(i + 1);
+                    order[i] = order[j];
+                    order[j] = i;
+                }
+                int next = 0;
+
+                out.println("CREATE_GAME:AI:" + level);
+                out.println("SHIPS_PLACED:" + FleetGenerator.generateString(rnd));
+                out.println("READY");
+
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] parts = line.split(":");
+                    boolean myTurn = line.startsWith("GAME_START:")
+                            || line.equals("TURN:" + name)
+                            || (parts[0].equals("SHOT_RESULT") && parts[1].equals(name) && !parts[2].equals("MISS"));
+
+                    if (parts[0].equals("GAME_OVER")) {
+                        games.incrementAndGet();
+                        break;
+                    }
+                    if (parts[0].equals("ERROR")) {
+                        throw new IOException(line);
+                    }
+                    if (myTurn && next < order.length) {
+                        int cell = order[next++];
+                        out.println("SHOT:" + (cell % 10) + ":" + (cell / 10));
+                        shots.incrementAndGet();
+                    }
+                }
+            }
+
+            out.println("DISCONNECT");
+        }
+    }
+}
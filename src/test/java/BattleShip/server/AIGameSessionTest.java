@@ -0,0 +1,142 @@
+package BattleShip.server;
+
+import BattleShip.client.model.Board;
+import BattleShip.server.AI.AIGameSession;
+import BattleShip.server.AI.AILogic;
+import BattleShip.server.AI.AIMoveScheduler;
+import BattleShip.server.AI.AIPacing;
+import BattleShip.server.AI.AIStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIGameSessionTest {
+
+    @TempDir
+    Path dir;
+
+    /** Лёгкий ИИ, который каждый третий ход думает дольше срока и потому обдумывается вне пакета */
+    private static final class SlowEasy implements AIStrategy {
+        private final AILogic logic = new AILogic(new Random(5));
+        private int calls;
+
+        @Override
+        public int[] nextShot() {
+            if (++calls % 3 == 0) {
+                try {
+                    Thread.sleep(200);
+                }
+                catch (InterruptedException e) {
+                    // Прерывание — промах срока; выбор всё равно будет отброшен
+                }
+            }
+            return logic.nextShot();
+        }
+
+        @Override
+        public void onResult(int x, int y, String result) {
+            logic.onResult(x, y, result);
+        }
+
+        @Override
+        public void reset() {
+            logic.reset();
+        }
+
+        @Override
+        public void forget(int x, int y) {
+            logic.forget(x, y);
+        }
+
+        @Override
+        public boolean isExpensive() {
+            return true;
+        }
+    }
+
+    @Test
+    void testEasyGameFinishesAfterDeadlineMisses() throws InterruptedException {
+        System.setProperty("battleship.ai.deadlineMs", "30");
+        ServerFixture fixture;
+        try {
+            fixture = new ServerFixture(dir, 60_000);
+        }
+        finally {
+            System.clearProperty("battleship.ai.deadlineMs");
+        }
+
+        try (ServerFixture f = fixture) {
+            ServerFixture.Player alice = f.player("alice");
+            AIGameSession game = new AIGameSession("ai", "alice", alice, f.server,
+                    new SlowEasy(), AIPacing.parse("zero", true));
+            game.processShipsPlaced(alice, ServerFixture.FLEET);
+            game.startGameAI();
+
+            // Игрок обходит поле по порядку; выстрел вне очереди игнорируется и повторяется
+            int cell = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (alice.last("GAME_OVER:") == null && cell < Board.SIZE * Board.SIZE) {
+                assertTrue(System.nanoTime() < deadline, "Ход компьютера застрял: " + alice.last("SHOT_RESULT:"));
+                int x = cell % Board.SIZE;
+                int y = cell / Board.SIZE;
+                game.processShotAI(alice, x, y);
+                String shot = alice.last("SHOT_RESULT:alice:");
+                if (shot != null && shot.endsWith(":" + x + ":" + y)) {
+                    cell++;
+                }
+                else {
+                    Thread.sleep(2);
+                }
+            }
+
+            assertNotNull(alice.last("GAME_OVER:"));
+            assertTrue(f.server.getAIScheduler().getDeadlineMisses() > 0, "Срок должен был быть пропущен");
+        }
+    }
+
+    @Test
+    void testCheapStrategyChoosesInBatch() throws InterruptedException {
+        try (ServerFixture f = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = f.player("alice");
+            AIGameSession game = new AIGameSession("ai", "alice", alice, f.server,
+                    new AILogic(new Random(3)), AIPacing.parse("zero", true));
+            game.processShipsPlaced(alice, ServerFixture.FLEET);
+            game.startGameAI();
+
+            // Игрок стреляет, пока не промахнётся и компьютер не сходит
+            int cell = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (alice.last("SHOT_RESULT:COMPUTER:") == null) {
+                assertTrue(System.nanoTime() < deadline, "Компьютер так и не сходил");
+                game.processShotAI(alice, cell % Board.SIZE, cell / Board.SIZE);
+                cell++;
+                Thread.sleep(5);
+            }
+
+            AIMoveScheduler scheduler = f.server.getAIScheduler();
+            assertEquals(0, scheduler.getThoughts(), "Дешёвая стратегия не уходит в потоки обдумывания");
+            assertTrue(scheduler.getMovesPerCoreSecond() > 0, "Ход выбран в пакете и учтён в пропускной способности");
+        }
+    }
+
+    @Test
+    void testClientCannotSpeedUpComputer() {
+        try (ServerFixture f = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = f.player("alice");
+            f.server.createAIGame("fast", "alice", alice, "easy", "jitter,1000,999");
+            assertNotNull(alice.last("ERROR:"));
+            alice.messages.clear();
+            f.server.createAIGame("fast", "alice", alice, "easy", "fixed,500");
+            assertTrue(alice.last("ERROR:").contains("темпа сервера"), alice.last("ERROR:"));
+            assertNull(alice.last("GAME_CREATED:"));
+
+            f.server.createAIGame("slow", "alice", alice, "easy", "jitter,2000,500");
+            assertEquals("slow", alice.last("GAME_CREATED:"));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package BattleShip.server;
+
+import BattleShip.client.model.Board;
+import BattleShip.client.model.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetTest {
+
+    /** Авианосец в (0,0) горизонтально и эсминец в (9,9) */
+    private static final String SHIPS = "0,0,0,0;3,9,9,0;";
+
+    @Test
+    void testHitAndSunk() {
+        Fleet fleet = Fleet.parse(SHIPS);
+
+        assertEquals(2, fleet.getAliveShips());
+        assertEquals(5, fleet.getAliveCells());
+
+        assertEquals(ShotLedger.MISS, fleet.fire(0, 1));
+        assertEquals(ShotLedger.HIT, fleet.fire(0, 0));
+        assertEquals(ShotLedger.HIT, fleet.fire(1, 0));
+        assertEquals(ShotLedger.HIT, fleet.fire(2, 0));
+        assertEquals(ShotLedger.SUNK, fleet.fire(3, 0));
+
+        assertEquals(1, fleet.getAliveShips());
+        assertFalse(fleet.isDestroyed());
+
+        assertEquals(ShotLedger.SUNK, fleet.fire(9, 9));
+        assertTrue(fleet.isDestroyed());
+    }
+
+    @Test
+    void testSalvoSkipsRepeatedAndInvalidCells() {
+        Fleet fleet = Fleet.parse(SHIPS);
+        ShotLedger ledger = new ShotLedger();
+
+        int[] cells = {0, 0, 99, -1, 50};
+        byte[] results = new byte[cells.length];
+
+        assertEquals(3, fleet.fireSalvo(cells, cells.length, ledger, results));
+        assertArrayEquals(new byte[]{ShotLedger.HIT, ShotLedger.UNKNOWN, ShotLedger.SUNK,
+                ShotLedger.UNKNOWN, ShotLedger.MISS}, results);
+
+        assertEquals(3, ledger.getShots());
+        assertEquals(ShotLedger.SUNK, ledger.get(Board.SIZE - 1, Board.SIZE - 1));
+        assertEquals(1, fleet.getAliveShips());
+    }
+
+    @Test
+    void testEmptyFleetIsNotDestroyed() {
+        Fleet fleet = Fleet.parse("");
+
+        assertEquals(0, fleet.getAliveShips());
+        assertFalse(fleet.isDestroyed());
+    }
+
+    @Test
+    void testWideBoardUsesRuleDimensions() {
+        RuleSet rules = RuleSet.parse("15x6/4,1/none");
+        // Авианосец в (11,5) горизонтально доходит до последнего столбца
+        Fleet fleet = Fleet.parse("0,11,5,0;3,0,0,0;", rules);
+        ShotLedger ledger = new ShotLedger(rules);
+
+        assertEquals(5, fleet.getAliveCells());
+        assertEquals(ShotLedger.HIT, fleet.fire(14, 5));
+
+        int[] cells = {5 * 15 + 11, 5 * 15 + 12, 5 * 15 + 13, 0, 2 * 15};
+        byte[] results = new byte[cells.length];
+        assertEquals(5, fleet.fireSalvo(cells, cells.length, ledger, results));
+        assertArrayEquals(new byte[]{ShotLedger.HIT, ShotLedger.HIT, ShotLedger.SUNK,
+                ShotLedger.SUNK, ShotLedger.MISS}, results);
+
+        assertTrue(fleet.isDestroyed());
+        assertEquals(ShotLedger.SUNK, ledger.get(13, 5));
+        assertEquals(90, ledger.encode().length());
+    }
+
+    @Test
+    void testSparseBoardFleetAndLedger() {
+        RuleSet rules = RuleSet.parse("2000x1500/4,1/none");
+        // Линкор у правого края по вертикали и катер в дальнем углу
+        Fleet fleet = Fleet.parse("0,1999,10,1;3,1999,1499,0;", rules);
+        ShotLedger ledger = new ShotLedger(rules);
+
+        assertEquals(2, fleet.getAliveShips());
+        assertEquals(5, fleet.getAliveCells());
+
+        int[] cells = {10 * 2000 + 1999, 11 * 2000 + 1999, 12 * 2000 + 1999, 13 * 2000 + 1999, 1499 * 2000 + 1999, 0, 0};
+        byte[] results = new byte[cells.length];
+        assertEquals(6, fleet.fireSalvo(cells, cells.length, ledger, results));
+        assertEquals(ShotLedger.SUNK, results[3]);
+        assertEquals(ShotLedger.SUNK, results[4]);
+        assertEquals(ShotLedger.MISS, results[5]);
+        assertEquals(ShotLedger.UNKNOWN, results[6], "Повтор внутри залпа");
+        assertTrue(fleet.isDestroyed());
+
+        assertEquals(6, ledger.getShots());
+        assertEquals(ShotLedger.SUNK, ledger.get(1999, 1499));
+        assertEquals(ShotLedger.UNKNOWN, ledger.get(1998, 1499));
+        assertEquals(4, ledger.getChunkCount(), "Журнал хранит только обстрелянные блоки");
+
+        String encoded = ledger.encode();
+        assertTrue(encoded.startsWith("~"));
+        assertTrue(encoded.contains("1999,1499,#;"));
+        assertTrue(encoded.contains("0,0,o;"));
+
+        Set<Integer> visited = new HashSet<>();
+        ledger.forEachShot((index, state) -> visited.add(index));
+        assertEquals(6, visited.size());
+
+        Random rnd = new Random(1);
+        int[] salvo = ledger.randomUnshot(rnd, 50);
+        Set<Integer> distinct = new HashSet<>();
+        for (int index : salvo) {
+            assertFalse(ledger.isShot(index));
+            distinct.add(index);
+        }
+        assertEquals(50, distinct.size());
+        assertEquals(6, ledger.getShots(), "Выбор залпа не меняет журнал");
+
+        ledger.clear();
+        assertEquals(0, ledger.getShots());
+        assertEquals(0, ledger.getChunkCount());
+    }
+}
@@ -0,0 +1,160 @@
+package BattleShip.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionResumeTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testTokensIssuedAtGameStart() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            fixture.startGame(alice, bob, false);
+
+            String aliceToken = alice.last("RESUME_TOKEN:");
+            String bobToken = bob.last("RESUME_TOKEN:");
+            assertNotNull(aliceToken);
+            assertTrue(aliceToken.matches("[0-9a-f]{32}"), aliceToken);
+            assertNotEquals(aliceToken, bobToken);
+        }
+    }
+
+    @Test
+    void testSlotHeldAndRebound() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, false);
+            game.processShot(alice, 0, 0);
+            String token = alice.last("RESUME_TOKEN:");
+
+            assertTrue(game.holdSlot(alice));
+            assertEquals("RECONNECTING", game.getStatus());
+            assertEquals("60", bob.last("OPPONENT_DISCONNECTED:"));
+            game.processShot(bob, 5, 5);
+            assertEquals(0, game.getShots(2).getShots(), "Пока место удерживается, партия стоит");
+
+            ServerFixture.Player back = fixture.player("alice");
+            fixture.server.resumeGame(token, back);
+
+            assertTrue(game.isPlayer(back));
+            assertFalse(game.isPlayer(alice));
+            assertEquals("IN_PROGRESS", game.getStatus());
+            assertTrue(back.last("RESUME_STATE:").startsWith("bob:YOUR_TURN:" + ServerFixture.FLEET + ":"),
+                    back.last("RESUME_STATE:"));
+            assertNotNull(bob.last("OPPONENT_RECONNECTED"));
+            assertEquals("alice", bob.last("TURN:"));
+
+            game.processShot(back, 1, 0);
+            assertEquals(ShotLedger.HIT, game.getShots(1).get(1, 0), "Новое соединение продолжает партию");
+        }
+    }
+
+    @Test
+    void testResumeBeforeOldConnectionDrops() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, false);
+            String token = alice.last("RESUME_TOKEN:");
+
+            // Старое соединение ещё числится живым: holdSlot не вызывался
+            ServerFixture.Player back = fixture.player("alice");
+            fixture.server.resumeGame(token, back);
+            assertEquals("IN_PROGRESS", game.getStatus());
+
+            game.processShot(alice, 1, 0);
+            assertEquals(0, game.getShots(1).getShots(), "Старое соединение больше не ходит");
+
+            game.processShot(back, 1, 0);
+            assertEquals(ShotLedger.HIT, game.getShots(1).get(1, 0), "Ход перешёл к новому соединению");
+
+            assertFalse(game.holdSlot(alice), "Обрыв старого соединения не приостанавливает партию");
+            assertEquals("IN_PROGRESS", game.getStatus());
+        }
+    }
+
+    @Test
+    void testStaleDisconnectKeepsResumedRegistration() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            fixture.startGame(alice, bob, false);
+            String token = alice.last("RESUME_TOKEN:");
+
+            ServerFixture.Player back = fixture.player("alice");
+            fixture.server.registerClient(back, "alice");
+            fixture.server.resumeGame(token, back);
+            assertEquals(1, fixture.server.getClientCount());
+
+            // Старое соединение отваливается уже после переподключения
+            alice.disconnect();
+            assertEquals(1, fixture.server.getClientCount(), "Регистрация нового соединения сохраняется");
+
+            back.disconnect();
+            assertEquals(0, fixture.server.getClientCount());
+        }
+    }
+
+    @Test
+    void testWrongTokenRejected() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, false);
+            assertTrue(game.holdSlot(alice));
+
+            ServerFixture.Player stranger = fixture.player("mallory");
+            assertFalse(game.resume("0123456789abcdef0123456789abcdef", stranger));
+            fixture.server.resumeGame("0123456789abcdef0123456789abcdef", stranger);
+
+            assertNotNull(stranger.last("ERROR:"));
+            assertNull(stranger.last("RESUME_STATE:"));
+            assertFalse(game.isPlayer(stranger));
+            assertEquals("RECONNECTING", game.getStatus());
+        }
+    }
+
+    @Test
+    void testExpiredGraceForfeitsAndRevokesToken() throws Exception {
+        try (ServerFixture fixture = new ServerFixture(dir, 200)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, false);
+            String token = alice.last("RESUME_TOKEN:");
+
+            assertTrue(game.holdSlot(alice));
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (bob.last("GAME_OVER:") == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals("bob,true", bob.last("GAME_OVER:"), "Соперник на связи побеждает");
+            assertEquals(1, game.getPlayerCount(), "Место не вернувшегося игрока освобождено");
+
+            ServerFixture.Player late = fixture.player("alice");
+            fixture.server.resumeGame(token, late);
+            assertNotNull(late.last("ERROR:"), "Токен отозван после окончания партии");
+        }
+    }
+
+    @Test
+    void testNoHoldBeforeGameStarts() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = new GameSession("game", "alice", alice, fixture.server);
+            game.addPlayer("bob", bob);
+
+            assertFalse(game.holdSlot(bob), "До начала партии место не удерживается");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package BattleShip.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionSalvoTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSalvoSizeAnnouncedAtStart() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            fixture.startGame(alice, bob, true);
+
+            assertEquals("YOUR_TURN:bob:SALVO:10", alice.last("GAME_START:"));
+            assertEquals("OPPONENT_TURN:alice:SALVO:10", bob.last("GAME_START:"));
+        }
+    }
+
+    @Test
+    void testOversizedAndOutOfTurnSalvosIgnored() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, true);
+
+            game.processSalvo(alice, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+            game.processSalvo(bob, new int[]{0});
+            game.processSalvo(alice, new int[0]);
+            game.processShot(alice, 0, 0);
+
+            assertNull(alice.last("SALVO_RESULT:"), "Лишние выстрелы и чужой ход не рассчитываются");
+            assertEquals(0, game.getShots(1).getShots());
+            assertEquals(0, game.getShots(2).getShots());
+            assertEquals(1, game.getTurnSlot());
+        }
+    }
+
+    @Test
+    void testAggregatedFrameSkipsRepeatsAndPassesTurn() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, true);
+
+            // Попадание в авианосец, повтор той же клетки, потопление эсминца (0,6) и промах
+            game.processSalvo(alice, new int[]{0, 0, 60, 99});
+
+            String frame = "alice:bob:9:0,0,HIT;0,6,SUNK;9,9,MISS;";
+            assertEquals(frame, alice.last("SALVO_RESULT:"));
+            assertEquals(frame, bob.last("SALVO_RESULT:"), "Оба игрока получают один и тот же кадр");
+            assertEquals(3, game.getShots(1).getShots());
+            assertEquals(2, game.getTurnSlot());
+
+            // Ход переходит и после залпа, в котором все выстрелы попали
+            game.processSalvo(bob, new int[]{1, 2});
+            assertEquals("bob:alice:10:1,0,HIT;2,0,HIT;", alice.last("SALVO_RESULT:"));
+            assertEquals(1, game.getTurnSlot());
+
+            // Уже обстрелянная клетка пропускается, остальные рассчитываются
+            game.processSalvo(alice, new int[]{0, 1});
+            assertEquals("alice:bob:9:1,0,HIT;", bob.last("SALVO_RESULT:"));
+            assertEquals(2, game.getTurnSlot());
+            assertEquals(9, game.getFleet(2).getAliveShips());
+        }
+    }
+
+    @Test
+    void testSalvoOfOnlyRepeatedCellsIsIgnored() {
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, true);
+
+            game.processSalvo(alice, new int[]{99});
+            game.processSalvo(bob, new int[]{99});
+            bob.messages.clear();
+
+            game.processSalvo(alice, new int[]{99, 99});
+            assertNull(bob.last("SALVO_RESULT:"), "Залп без новых клеток не рассчитывается");
+            assertEquals(1, game.getTurnSlot(), "Игрок может повторить залп");
+        }
+    }
+}
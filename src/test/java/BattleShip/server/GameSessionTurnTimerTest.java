@@ -0,0 +1,96 @@
+package BattleShip.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionTurnTimerTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Сервер с ограничениями времени хода из пар «свойство, значение».
+     */
+    private ServerFixture fixture(String... properties) {
+        for (int i = 0; i < properties.length; i += 2) {
+            System.setProperty(properties[i], properties[i + 1]);
+        }
+        try {
+            return new ServerFixture(dir, 60_000);
+        }
+        finally {
+            for (int i = 0; i < properties.length; i += 2) {
+                System.clearProperty(properties[i]);
+            }
+        }
+    }
+
+    /** Ждёт сообщения с префиксом и возвращает его без префикса */
+    private static String await(ServerFixture.Player player, String prefix) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String message;
+        while ((message = player.last(prefix)) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(message, "Не дождались " + prefix);
+        return message;
+    }
+
+    @Test
+    void testAutoShotOnTurnTimeout() throws Exception {
+        try (ServerFixture fixture = fixture("battleship.turnTimeoutMs", "300")) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, false);
+
+            assertEquals("alice", await(bob, "TURN_TIMEOUT:"));
+            String shot = await(bob, "SHOT_RESULT:alice:");
+
+            assertEquals(1, game.getShots(1).getShots(), "Сервер выстрелил за игрока один раз");
+            if (shot.startsWith("MISS:")) {
+                assertEquals("bob", alice.last("TURN:"), "После промаха ход переходит к сопернику");
+                assertEquals(2, game.getTurnSlot());
+            }
+            else {
+                assertEquals(1, game.getTurnSlot(), "После попадания ход остаётся у игрока");
+            }
+            assertEquals("IN_PROGRESS", game.getStatus());
+        }
+    }
+
+    @Test
+    void testForfeitOnTurnTimeout() throws Exception {
+        try (ServerFixture fixture = fixture("battleship.turnTimeoutMs", "100",
+                "battleship.turnExpiryAction", "forfeit")) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, false);
+
+            assertEquals("bob,true", await(alice, "GAME_OVER:"));
+            assertEquals("bob,true", bob.last("GAME_OVER:"));
+            assertEquals("alice", bob.last("TURN_TIMEOUT:"));
+            assertEquals(0, game.getShots(1).getShots(), "При поражении по времени за игрока не стреляют");
+        }
+    }
+
+    @Test
+    void testGameClockExhaustion() throws Exception {
+        try (ServerFixture fixture = fixture("battleship.gameClockMs", "300")) {
+            ServerFixture.Player alice = fixture.player("alice");
+            ServerFixture.Player bob = fixture.player("bob");
+            GameSession game = fixture.startGame(alice, bob, false);
+
+            // Алиса отвечает сразу и промахивается; часы Боба идут, пока он молчит
+            game.processShot(alice, 9, 9);
+            assertEquals("bob", alice.last("TURN:"));
+
+            assertEquals("alice,true", await(alice, "GAME_OVER:"), "Кончились часы — поражение даже без FORFEIT");
+            assertEquals("bob", alice.last("TURN_TIMEOUT:"));
+            assertEquals(0, game.getShots(2).getShots());
+        }
+    }
+}
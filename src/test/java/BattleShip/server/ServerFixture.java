@@ -0,0 +1,132 @@
+package BattleShip.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сервер для проверки игровой логики без сети: журнал во временном каталоге,
+ * игроки — обработчики поверх сокета-заглушки, запоминающие отправленные им сообщения.
+ * Общий логгер сервера при закрытии не останавливается, чтобы не мешать другим тестам.
+ */
+final class ServerFixture implements AutoCloseable {
+
+    /** Классический флот: авианосец (0,0), линкоры (0,2) и (4,2), крейсеры и эсминцы в рядах 4 и 6 */
+    static final String FLEET = "0,0,0,0;1,0,2,0;1,4,2,0;2,0,4,0;2,3,4,0;2,6,4,0;3,0,6,0;3,2,6,0;3,4,6,0;3,6,6,0;";
+
+    /** Сокет без сети: клиент присылает заданные строки и отключается */
+    private static final class StubSocket extends Socket {
+        private final byte[] input;
+
+        StubSocket(String input) {
+            this.input = input.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void setTcpNoDelay(boolean on) {
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(input);
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new ByteArrayOutputStream();
+        }
+    }
+
+    /** Обработчик клиента поверх сокета-заглушки */
+    static final class Player extends ClientHandler {
+        final List<String> messages = new ArrayList<>();
+
+        /**
+         * Игрок проходит регистрацию по протоколу. По концу ввода обработчик отключается
+         * и снимает регистрацию, но имя за ним остаётся, и дальше тесты управляют им напрямую.
+         */
+        Player(Server server, String username) {
+            super(new StubSocket("REGISTER:" + username + "\n"), server);
+            run();
+            messages.clear();
+        }
+
+        @Override
+        public synchronized void sendMessage(String message) {
+            messages.add(message);
+        }
+
+        /**
+         * Последнее сообщение с заданным префиксом.
+         *
+         * @param prefix начало сообщения, например {@code "TURN:"}
+         * @return сообщение без префикса или {@code null}
+         */
+        synchronized String last(String prefix) {
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                if (messages.get(i).startsWith(prefix)) {
+                    return messages.get(i).substring(prefix.length());
+                }
+            }
+            return null;
+        }
+    }
+
+    final Server server;
+
+    /**
+     * @param journalDir    каталог журнала
+     * @param resumeGraceMs сколько удерживать место отключившегося игрока
+     */
+    ServerFixture(Path journalDir, long resumeGraceMs) {
+        System.setProperty("battleship.journal.dir", journalDir.toString());
+        System.setProperty("battleship.journal.segmentSize", String.valueOf(256 * 1024));
+        System.setProperty("battleship.resume.graceMs", String.valueOf(resumeGraceMs));
+        System.setProperty("battleship.fleetPool.size", "1");
+        try {
+            server = new Server();
+        }
+        finally {
+            System.clearProperty("battleship.journal.dir");
+            System.clearProperty("battleship.journal.segmentSize");
+            System.clearProperty("battleship.resume.graceMs");
+            System.clearProperty("battleship.fleetPool.size");
+        }
+    }
+
+    Player player(String username) {
+        return new Player(server, username);
+    }
+
+    /**
+     * Партия двух игроков, дошедшая до первого хода создателя.
+     *
+     * @param alice создатель
+     * @param bob   второй игрок
+     * @param salvo режим залпа
+     * @return начавшаяся партия
+     */
+    GameSession startGame(Player alice, Player bob, boolean salvo) {
+        GameSession game = new GameSession("game", alice.getUsername(), alice, server, salvo);
+        game.addPlayer(bob.getUsername(), bob);
+        game.processShipsPlaced(alice, FLEET);
+        game.processShipsPlaced(bob, FLEET);
+        game.playerReady(alice);
+        game.playerReady(bob);
+        return game;
+    }
+
+    @Override
+    public void close() {
+        server.getFleetPool().stop();
+        server.getAIScheduler().stop();
+        server.getTimer().stop();
+        server.getJournal().close();
+    }
+}
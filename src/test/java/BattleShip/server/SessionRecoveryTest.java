@@ -0,0 +1,124 @@
+package BattleShip.server;
+
+import BattleShip.server.journal.SessionJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRecoveryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecoverRebuildsFleetsShotsAndTurn() throws Exception {
+        SessionJournal journal = SessionJournal.open(dir, 256 * 1024, 16, 10);
+        journal.recordCreate(5, "room", "alice");
+        journal.recordJoin(5, "bob");
+        journal.recordShipsPlaced(5, 1, ServerFixture.FLEET);
+        journal.recordShipsPlaced(5, 2, ServerFixture.FLEET);
+        journal.recordReady(5, 1);
+        journal.recordReady(5, 2);
+        journal.recordToken(5, 1, "token-alice");
+        journal.recordToken(5, 2, "token-bob");
+        journal.recordShot(5, 1, 0, 0, "HIT");
+        journal.recordShot(5, 1, 9, 9, "MISS");
+        journal.recordShot(5, 2, 0, 2, "HIT");
+        journal.recordShot(5, 2, 1, 2, "HIT");
+        journal.recordShot(5, 2, 2, 2, "SUNK");
+        journal.recordShot(5, 2, 8, 8, "MISS");
+        journal.recordTurn(5, 2);
+
+        journal.recordCreate(6, "closed", "carol");
+        journal.recordLeave(6, 1);
+
+        journal.recordCreate(7, "lonely", "dave");
+        journal.recordJoin(7, "erin");
+        journal.recordLeave(7, 2);
+        journal.close();
+
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            SessionRecovery recovery = new SessionRecovery(fixture.server, fixture.server.getJournal());
+            Map<String, GameSession> rooms = recovery.recover();
+
+            assertEquals(20, recovery.getEventCount());
+            assertEquals(1, rooms.size(), "Сессия, которую покинул создатель, не восстанавливается");
+
+            GameSession room = rooms.get("room");
+            assertEquals("RECONNECTING", room.getStatus());
+            assertEquals(2, room.getTurnSlot(), "Событие TURN задаёт очередь хода");
+
+            assertEquals(19, room.getFleet(2).getAliveCells());
+            assertEquals(10, room.getFleet(2).getAliveShips());
+            assertEquals(17, room.getFleet(1).getAliveCells());
+            assertEquals(9, room.getFleet(1).getAliveShips(), "Потопленный линкор не считается живым");
+
+            assertEquals(ShotLedger.HIT, room.getShots(1).get(0, 0));
+            assertEquals(ShotLedger.MISS, room.getShots(1).get(9, 9));
+            assertEquals(ShotLedger.SUNK, room.getShots(2).get(2, 2));
+            assertEquals(4, room.getShots(2).getShots());
+
+            assertNull(rooms.get("lonely"), "Комната, из которой вышел второй игрок, не начата и не восстанавливается");
+
+            assertEquals(1, SessionJournal.listSegments(dir).size(), "Сегменты до контрольной точки удалены");
+        }
+    }
+
+    /** Начатая партия сессии {@code id} с токенами обоих игроков */
+    private static void recordStartedGame(SessionJournal journal, int id, String name) {
+        journal.recordCreate(id, name, "alice");
+        journal.recordJoin(id, "bob");
+        journal.recordShipsPlaced(id, 1, ServerFixture.FLEET);
+        journal.recordShipsPlaced(id, 2, ServerFixture.FLEET);
+        journal.recordReady(id, 1);
+        journal.recordReady(id, 2);
+        journal.recordToken(id, 1, "token-" + id + "-1");
+        journal.recordToken(id, 2, "token-" + id + "-2");
+    }
+
+    @Test
+    void testEndedSessionIsDropped() throws Exception {
+        SessionJournal journal = SessionJournal.open(dir, 256 * 1024, 16, 10);
+        recordStartedGame(journal, 1, "finished");
+        journal.recordShot(1, 1, 0, 0, "HIT");
+        journal.recordEnd(1, "alice", true);
+        recordStartedGame(journal, 2, "live");
+        journal.close();
+
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            Map<String, GameSession> rooms = new SessionRecovery(fixture.server, fixture.server.getJournal()).recover();
+
+            assertNull(rooms.get("finished"), "Законченная партия не восстанавливается");
+            assertEquals("RECONNECTING", rooms.get("live").getStatus());
+            assertEquals(1, rooms.size());
+        }
+
+        // Отброшенная сессия не попадает и в контрольную точку
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            Map<String, GameSession> rooms = new SessionRecovery(fixture.server, fixture.server.getJournal()).recover();
+            assertEquals(1, rooms.size());
+            assertNotNull(rooms.get("live"));
+        }
+    }
+
+    @Test
+    void testUnstartedSessionsAreDropped() throws Exception {
+        SessionJournal journal = SessionJournal.open(dir, 256 * 1024, 16, 10);
+        journal.recordCreate(1, "waiting", "alice");
+        journal.recordCreate(2, "placing", "carol");
+        journal.recordJoin(2, "dave");
+        journal.recordShipsPlaced(2, 1, ServerFixture.FLEET);
+        journal.recordReady(2, 1);
+        journal.close();
+
+        try (ServerFixture fixture = new ServerFixture(dir, 60_000)) {
+            Map<String, GameSession> rooms = new SessionRecovery(fixture.server, fixture.server.getJournal()).recover();
+
+            assertTrue(rooms.isEmpty(), "Без начатой партии и токенов вернуться некому: " + rooms.keySet());
+        }
+    }
+}
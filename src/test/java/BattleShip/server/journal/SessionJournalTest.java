@@ -0,0 +1,164 @@
+package BattleShip.server.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecordsAreCountedAfterReopen() throws Exception {
+        SessionJournal journal = SessionJournal.open(dir, 64 * 1024, 16, 10);
+        journal.recordCreate(1, "game", "alice");
+        journal.recordJoin(1, "bob");
+        journal.recordShipsPlaced(1, 1, "0,0,0,0;");
+        journal.recordReady(1, 1);
+        journal.recordShot(1, 1, 3, 4, "HIT");
+        journal.recordEnd(1, "alice", false);
+        journal.close();
+
+        List<Path> segments = SessionJournal.listSegments(dir);
+        assertEquals(1, segments.size());
+        assertEquals(6, SessionJournal.countRecords(segments.get(0)));
+        assertTrue(Files.exists(SessionJournal.indexPathFor(segments.get(0))), "При закрытии пишется индекс сегмента");
+
+        SessionJournal reopened = SessionJournal.open(dir, 64 * 1024, 16, 10);
+        reopened.close();
+
+        List<Path> afterReopen = SessionJournal.listSegments(dir);
+        assertEquals(2, afterReopen.size(), "Новый запуск начинает новый сегмент");
+        assertEquals(6, SessionJournal.baseSequence(afterReopen.get(1)), "Нумерация записей продолжается");
+    }
+
+    @Test
+    void testSegmentRollingAndRetention() throws Exception {
+        SessionJournal journal = SessionJournal.open(dir, 1024, 3, 10);
+        for (int i = 0; i < 500; i++) {
+            journal.recordShot(7, 1, i % 10, i / 10 % 10, "MISS");
+        }
+        journal.close();
+
+        List<Path> segments = SessionJournal.listSegments(dir);
+        assertEquals(3, segments.size(), "Старые сегменты сверх лимита удаляются");
+
+        long total = 0;
+        for (Path segment : segments) {
+            total += SessionJournal.countRecords(segment);
+        }
+        Path last = segments.get(segments.size() - 1);
+        assertEquals(500, SessionJournal.baseSequence(last) + SessionJournal.countRecords(last));
+        assertTrue(total < 500);
+    }
+
+    @Test
+    void testSegmentsBeforeCheckpointAreDeleted() throws Exception {
+        for (int restart = 0; restart < 3; restart++) {
+            SessionJournal journal = SessionJournal.open(dir, 64 * 1024, 16, 10);
+            journal.recordShot(1, 1, restart, 0, "MISS");
+            journal.close();
+        }
+        assertEquals(3, SessionJournal.listSegments(dir).size());
+
+        SessionJournal journal = SessionJournal.open(dir, 64 * 1024, 16, 10);
+        long checkpoint = journal.getNextSequence();
+        journal.recordCreate(2, "game", "alice");
+        journal.flush();
+        journal.deleteSegmentsBefore(checkpoint);
+
+        List<Path> segments = SessionJournal.listSegments(dir);
+        assertEquals(1, segments.size(), "Остаётся только сегмент с контрольной точкой");
+        assertEquals(checkpoint, SessionJournal.baseSequence(segments.get(0)));
+        assertEquals(1, JournalReader.readSegment(segments.get(0)).size());
+
+        journal.recordJoin(2, "bob");
+        journal.close();
+        assertEquals(2, SessionJournal.countRecords(segments.get(0)));
+    }
+
+    @Test
+    void testCountWithoutIndexAfterCrash() throws Exception {
+        SessionJournal journal = SessionJournal.open(dir, 64 * 1024, 16, 10);
+        journal.recordCreate(1, "game", "alice");
+        journal.recordJoin(1, "bob");
+        journal.flush();
+
+        Path segment = SessionJournal.listSegments(dir).get(0);
+        assertFalse(Files.exists(SessionJournal.indexPathFor(segment)));
+        assertEquals(2, SessionJournal.countRecords(segment), "Без индекса записи подсчитываются проходом");
+        journal.close();
+    }
+
+    @Test
+    void testReadSegmentsReturnsEventsInOrder() throws Exception {
+        SessionJournal journal = SessionJournal.open(dir, 1024, 16, 10);
+        journal.recordCreate(3, "Морской", "alice");
+        journal.recordJoin(3, "bob");
+        journal.recordShipsPlaced(3, 2, "3,0,0,0;");
+        for (int i = 0; i < 100; i++) {
+            journal.recordShot(3, 1 + i % 2, i % 10, i / 10, i % 3 == 0 ? "HIT" : "MISS");
+        }
+        journal.recordEnd(3, "bob", true);
+        journal.close();
+
+        List<Path> segments = SessionJournal.listSegments(dir);
+        assertTrue(segments.size() > 1, "Маленькие сегменты должны переключаться");
+
+        List<JournalEvent> events = JournalReader.readSegments(segments, ForkJoinPool.commonPool());
+        assertEquals(104, events.size());
+
+        JournalEvent create = events.get(0);
+        assertEquals(JournalEventType.CREATE, create.getType());
+        assertEquals(3, create.getSessionId());
+        assertEquals("Морской", create.getText());
+        assertEquals("alice", create.getText2());
+
+        assertEquals("3,0,0,0;", events.get(2).getText());
+        assertEquals(2, events.get(2).getSlot());
+
+        JournalEvent shot = events.get(3 + 13);
+        assertEquals(JournalEventType.SHOT, shot.getType());
+        assertEquals(3, shot.getX());
+        assertEquals(1, shot.getY());
+        assertEquals("MISS", shot.getResult());
+
+        JournalEvent end = events.get(103);
+        assertEquals("bob", end.getText());
+        assertTrue(end.isSurrender());
+    }
+
+    @Test
+    void testWideShotsAreReadAsShots() throws Exception {
+        SessionJournal journal = SessionJournal.open(dir, 64 * 1024, 16, 10);
+        journal.recordShot(5, 1, 127, 3, "MISS");
+        journal.recordShot(5, 2, 9999, 4500, "SUNK");
+        journal.close();
+
+        List<JournalEvent> events = JournalReader.readSegments(SessionJournal.listSegments(dir), ForkJoinPool.commonPool());
+        assertEquals(2, events.size());
+        assertEquals(127, events.get(0).getX());
+
+        JournalEvent wide = events.get(1);
+        assertEquals(JournalEventType.SHOT, wide.getType());
+        assertEquals(2, wide.getSlot());
+        assertEquals(9999, wide.getX());
+        assertEquals(4500, wide.getY());
+        assertEquals("SUNK", wide.getResult());
+    }
+
+    @Test
+    void testDisabledJournalIgnoresWrites() {
+        SessionJournal journal = SessionJournal.disabled();
+        assertFalse(journal.isEnabled());
+        journal.recordCreate(1, "game", "alice");
+        journal.close();
+    }
+}